@@ -33,6 +33,7 @@ import app.nzyme.core.events.EventEngineImpl;
 import app.nzyme.core.integrations.geoip.GeoIpService;
 import app.nzyme.core.monitoring.health.HealthMonitor;
 import app.nzyme.core.ouis.OuiService;
+import app.nzyme.core.registry.RegistryCache;
 import app.nzyme.core.registry.RegistryChangeMonitorImpl;
 import app.nzyme.core.registry.RegistryImpl;
 import app.nzyme.core.rest.server.NzymeHttpServer;
@@ -54,6 +55,7 @@ import app.nzyme.core.configuration.node.NodeConfiguration;
 import app.nzyme.core.configuration.node.NodeConfigurationLoader;
 import app.nzyme.core.crypto.Crypto;
 import app.nzyme.core.database.DatabaseImpl;
+import app.nzyme.core.database.PostgresNotificationListener;
 import app.nzyme.core.ethernet.Ethernet;
 import app.nzyme.core.tables.TablesService;
 import app.nzyme.core.taps.TapManager;
@@ -89,6 +91,7 @@ public class MockNzyme implements NzymeNode {
     private final ObjectMapper objectMapper;
     private final Version version;
     private final Database database;
+    private final PostgresNotificationListener notificationListener;
     private final Path dataDirectory;
     private final MessageBus messageBus;
     private final TasksQueue tasksQueue;
@@ -97,6 +100,7 @@ public class MockNzyme implements NzymeNode {
     private final ClusterManager clusterManager;
     private final AuthenticationService authenticationService;
     private final GeoIpService geoIp;
+    private final RegistryCache registryCache;
     private final Registry registry;
     private final RegistryChangeMonitor registryChangeMonitor;
     private final EventEngine eventEngine;
@@ -106,6 +110,13 @@ public class MockNzyme implements NzymeNode {
     }
 
     public MockNzyme(int taskAndMessagePollInterval, TimeUnit taskAndMessagePollIntervalUnit) {
+        this(taskAndMessagePollInterval, taskAndMessagePollIntervalUnit, false);
+    }
+
+    /**
+     * @param notifications Push messages and tasks with LISTEN/NOTIFY. Off by default so tests can poll manually.
+     */
+    public MockNzyme(int taskAndMessagePollInterval, TimeUnit taskAndMessagePollIntervalUnit, boolean notifications) {
         this.version = new Version();
 
         this.baseConfiguration = BaseConfiguration.create(
@@ -134,9 +145,6 @@ public class MockNzyme implements NzymeNode {
             throw new RuntimeException(e);
         }
 
-        this.registry = new RegistryImpl(this, "core");
-        this.registryChangeMonitor = new RegistryChangeMonitorImpl(this);
-
         // Metrics.
         this.metricRegistry = new MetricRegistry();
         this.metricRegistry.register("gc", new GarbageCollectorMetricSet());
@@ -146,6 +154,10 @@ public class MockNzyme implements NzymeNode {
         this.metricRegistry.register("mem", new MemoryUsageGaugeSet());
         this.metricRegistry.register("threadstates", new ThreadStatesGaugeSet());
 
+        this.registryCache = new RegistryCache(metricRegistry);
+        this.registry = new RegistryImpl(this, "core");
+        this.registryChangeMonitor = new RegistryChangeMonitorImpl(this);
+
         this.geoIp = new GeoIpService(this);
         this.geoIp.initialize();
 
@@ -162,11 +174,17 @@ public class MockNzyme implements NzymeNode {
 
         this.clusterManager = new ClusterManager(this);
 
+        this.notificationListener = new PostgresNotificationListener("jdbc:" + configuration.databasePath());
+
         this.messageBus = new PostgresMessageBusImpl(this);
-        ((PostgresMessageBusImpl) this.messageBus).initialize(taskAndMessagePollInterval, taskAndMessagePollIntervalUnit);
+        ((PostgresMessageBusImpl) this.messageBus).initialize(taskAndMessagePollInterval, taskAndMessagePollIntervalUnit, notifications);
 
         this.tasksQueue = new PostgresTasksQueueImpl(this);
-        ((PostgresTasksQueueImpl) this.tasksQueue).initialize(taskAndMessagePollInterval, taskAndMessagePollIntervalUnit);
+        ((PostgresTasksQueueImpl) this.tasksQueue).initialize(taskAndMessagePollInterval, taskAndMessagePollIntervalUnit, notifications);
+
+        if (notifications) {
+            this.notificationListener.initialize();
+        }
 
         this.authenticationService = new AuthenticationService(this);
 
@@ -282,6 +300,11 @@ public class MockNzyme implements NzymeNode {
         return database;
     }
 
+    @Override
+    public PostgresNotificationListener getNotificationListener() {
+        return notificationListener;
+    }
+
     @Override
     public TapManager getTapManager() {
         return null;
@@ -327,6 +350,11 @@ public class MockNzyme implements NzymeNode {
         return new RegistryImpl(this, "core");
     }
 
+    @Override
+    public RegistryCache getRegistryCache() {
+        return registryCache;
+    }
+
     @Override
     public RegistryChangeMonitor getRegistryChangeMonitor() {
         return registryChangeMonitor;
@@ -30,6 +30,7 @@ import app.nzyme.core.events.EventEngine;
 import app.nzyme.core.integrations.geoip.GeoIpService;
 import app.nzyme.core.monitoring.health.HealthMonitor;
 import app.nzyme.core.ouis.OuiService;
+import app.nzyme.core.registry.RegistryCache;
 import app.nzyme.core.rest.server.NzymeHttpServer;
 import app.nzyme.core.security.authentication.AuthenticationService;
 import app.nzyme.core.subsystems.Subsystems;
@@ -41,6 +42,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import app.nzyme.core.configuration.node.NodeConfiguration;
 import app.nzyme.core.crypto.Crypto;
+import app.nzyme.core.database.PostgresNotificationListener;
 import app.nzyme.core.ethernet.Ethernet;
 import app.nzyme.core.tables.TablesService;
 import app.nzyme.core.taps.TapManager;
@@ -79,6 +81,7 @@ public interface NzymeNode extends PluginEntryPoint, DatabaseProvider, NodeIdent
     MetricRegistry getMetrics();
 
     Database getDatabase();
+    PostgresNotificationListener getNotificationListener();
 
     EventEngine getEventEngine();
 
@@ -99,6 +102,7 @@ public interface NzymeNode extends PluginEntryPoint, DatabaseProvider, NodeIdent
     ObjectMapper getObjectMapper();
 
     Registry getDatabaseCoreRegistry();
+    RegistryCache getRegistryCache();
     RegistryChangeMonitor getRegistryChangeMonitor();
 
     DetectionAlertService getDetectionAlertService();
@@ -41,6 +41,7 @@ import app.nzyme.core.ouis.OuiService;
 import app.nzyme.core.periodicals.connect.ConnectStatusReporter;
 import app.nzyme.core.context.ContextCleaner;
 import app.nzyme.core.periodicals.distributed.NodeUpdater;
+import app.nzyme.core.registry.RegistryCache;
 import app.nzyme.core.registry.RegistryChangeMonitorImpl;
 import app.nzyme.core.rest.server.NzymeHttpServer;
 import app.nzyme.core.security.authentication.AuthenticationService;
@@ -59,6 +60,7 @@ import app.nzyme.core.configuration.base.BaseConfiguration;
 import app.nzyme.core.configuration.node.NodeConfiguration;
 import app.nzyme.core.crypto.Crypto;
 import app.nzyme.core.database.DatabaseImpl;
+import app.nzyme.core.database.PostgresNotificationListener;
 import app.nzyme.core.ethernet.Ethernet;
 import app.nzyme.core.periodicals.PeriodicalManager;
 import app.nzyme.core.periodicals.versioncheck.VersioncheckThread;
@@ -93,8 +95,10 @@ public class NzymeNodeImpl implements NzymeNode {
     private final Path dataDirectory;
 
     private final DatabaseImpl database;
+    private final PostgresNotificationListener notificationListener;
     private final AuthenticationService authenticationService;
 
+    private final RegistryCache registryCache;
     private final RegistryImpl registry;
     private final RegistryChangeMonitor registryChangeMonitor;
 
@@ -145,6 +149,7 @@ public class NzymeNodeImpl implements NzymeNode {
         this.database = database;
         this.configuration = configuration;
 
+        this.registryCache = new RegistryCache(metrics);
         this.registry = new RegistryImpl(this, "core");
         this.registryChangeMonitor = new RegistryChangeMonitorImpl(this);
 
@@ -162,6 +167,7 @@ public class NzymeNodeImpl implements NzymeNode {
         }
 
         this.clusterManager = new ClusterManager(this);
+        this.notificationListener = new PostgresNotificationListener("jdbc:" + configuration.databasePath());
         this.messageBus = new PostgresMessageBusImpl(this);
         this.tasksQueue = new PostgresTasksQueueImpl(this);
 
@@ -218,6 +224,13 @@ public class NzymeNodeImpl implements NzymeNode {
         this.tasksQueue.initialize();
         LOG.info("Done.");
 
+        // Message bus and tasks queue registered their channels above.
+        if (configuration.database().notifications()) {
+            LOG.info("Initializing database notification listener...");
+            this.notificationListener.initialize();
+            LOG.info("Done.");
+        }
+
         try {
             this.crypto.initialize();
         } catch (Crypto.CryptoInitializationException e) {
@@ -245,12 +258,17 @@ public class NzymeNodeImpl implements NzymeNode {
         this.authenticationService.initialize();
         LOG.info("Done.");
 
+        LOG.info("Initializing event engine...");
+        this.eventEngine.initialize();
+        LOG.info("Done.");
+
         // Metrics JMX reporter.
         final JmxReporter reporter = JmxReporter.forRegistry(metrics).build();
         reporter.start();
 
         // Database metrics.
         metrics.register(MetricNames.DATABASE_SIZE, (Gauge<Long>) database::getTotalSize);
+        database.registerMetrics(metrics);
 
         // Periodicals. (TODO: Replace with scheduler service)
         PeriodicalManager periodicalManager = new PeriodicalManager();
@@ -306,6 +324,32 @@ public class NzymeNodeImpl implements NzymeNode {
             httpServer.shutdownNow();
         }
 
+        // Write out queued tap reports before the database pool is closed.
+        if (tablesService != null) {
+            LOG.info("Draining tap report ingestion queues.");
+            tablesService.shutdown();
+        }
+
+        // Let running event actions finish. Queued actions are executed after restart or by other nodes.
+        if (eventEngine != null) {
+            LOG.info("Stopping event action dispatcher.");
+            eventEngine.shutdown();
+        }
+
+        if (authenticationService != null) {
+            authenticationService.shutdown();
+        }
+
+        // Let running cluster tasks finish and write their results.
+        if (tasksQueue instanceof PostgresTasksQueueImpl) {
+            ((PostgresTasksQueueImpl) tasksQueue).shutdown();
+        }
+
+        notificationListener.shutdown();
+
+        LOG.info("Closing database connection pool.");
+        database.close();
+
         LOG.info("Shutdown complete.");
     }
 
@@ -440,6 +484,11 @@ public class NzymeNodeImpl implements NzymeNode {
         return database;
     }
 
+    @Override
+    public PostgresNotificationListener getNotificationListener() {
+        return notificationListener;
+    }
+
     @Override
     public Version getVersion() {
         return version;
@@ -474,6 +523,11 @@ public class NzymeNodeImpl implements NzymeNode {
         return registry;
     }
 
+    @Override
+    public RegistryCache getRegistryCache() {
+        return registryCache;
+    }
+
     @Override
     public RegistryChangeMonitor getRegistryChangeMonitor() {
         return registryChangeMonitor;
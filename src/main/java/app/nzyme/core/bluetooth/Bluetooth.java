@@ -5,9 +5,11 @@ import app.nzyme.core.bluetooth.db.BluetoothDeviceSummary;
 import app.nzyme.core.shared.db.GenericIntegerHistogramEntry;
 import app.nzyme.core.shared.db.TapBasedSignalStrengthResult;
 import app.nzyme.core.util.Bucketing;
+import app.nzyme.core.util.RollupPlan;
 import app.nzyme.core.util.TimeRange;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.statement.Query;
 
 import java.util.Collections;
 import java.util.List;
@@ -107,20 +109,63 @@ public class Bluetooth {
             return Collections.emptyList();
         }
 
-        return nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT AVG(rssi) AS value," +
-                                "DATE_TRUNC(:date_trunc, created_at) AS bucket FROM bluetooth_devices " +
-                                "WHERE created_at >= :tr_from AND created_at <= :tr_to " +
-                                "AND tap_uuid IN (<taps>) AND mac = :mac " +
-                                "GROUP BY bucket ORDER BY bucket DESC")
-                        .bind("tr_from", timeRange.from())
-                        .bind("tr_to", timeRange.to())
-                        .bind("date_trunc", bucketing.type().getDateTruncName())
-                        .bindList("taps", taps)
-                        .bind("mac", mac)
-                        .mapTo(GenericIntegerHistogramEntry.class)
-                        .list()
-        );
+        // Only hour and day rollups exist. Minute histograms and the edges of all others are read from raw rows.
+        List<RollupPlan.Segment> segments = RollupPlan.plan(
+                timeRange.from(), timeRange.to(), Bucketing.Type.HOUR, bucketing.type());
+
+        return nzyme.getDatabase().withHandle(handle -> {
+            Query query = handle.createQuery("SELECT SUM(rssi_sum)::numeric / SUM(rssi_count) AS value, " +
+                            "date_trunc(:date_trunc, bucket) AS bucket " +
+                            "FROM (" + buildSignalStrengthSegmentsQuery(segments) + ") AS segments " +
+                            "GROUP BY 2 ORDER BY 2 DESC")
+                    .bind("date_trunc", bucketing.type().getDateTruncName())
+                    .bindList("taps", taps)
+                    .bind("mac", mac);
+
+            for (int i = 0; i < segments.size(); i++) {
+                RollupPlan.Segment segment = segments.get(i);
+
+                query.bind("segment_from_" + i, segment.from())
+                        .bind("segment_to_" + i, segment.to());
+
+                if (!segment.isRaw()) {
+                    query.bind("segment_granularity_" + i, segment.granularity().getDateTruncName());
+                }
+            }
+
+            return query.mapTo(GenericIntegerHistogramEntry.class).list();
+        });
+    }
+
+    /**
+     * RSSI sums and counts of a device in all segments of a time range. Rollup segments return one row per rollup
+     * bucket and raw segments one row per recording, all with their time in the bucket column.
+     */
+    private static String buildSignalStrengthSegmentsQuery(List<RollupPlan.Segment> segments) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < segments.size(); i++) {
+            RollupPlan.Segment segment = segments.get(i);
+
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+
+            if (segment.isRaw()) {
+                sql.append("SELECT created_at AS bucket, rssi AS rssi_sum, 1 AS rssi_count FROM bluetooth_devices ")
+                        .append("WHERE tap_uuid IN (<taps>) AND mac = :mac AND rssi IS NOT NULL ")
+                        .append("AND created_at >= :segment_from_").append(i)
+                        .append(" AND created_at ").append(segment.toInclusive() ? "<=" : "<")
+                        .append(" :segment_to_").append(i);
+            } else {
+                sql.append("SELECT bucket, rssi_sum, rssi_count FROM bluetooth_signal_strength_rollups ")
+                        .append("WHERE tap_uuid IN (<taps>) AND mac = :mac ")
+                        .append("AND granularity = :segment_granularity_").append(i)
+                        .append(" AND bucket >= :segment_from_").append(i)
+                        .append(" AND bucket < :segment_to_").append(i);
+            }
+        }
+
+        return sql.toString();
     }
 
     public List<TapBasedSignalStrengthResult> getDeviceSignalStrengthPerTap(String mac,
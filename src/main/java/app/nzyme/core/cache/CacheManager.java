@@ -36,6 +36,31 @@ public class CacheManager {
                                     message.sender());
                             nzyme.getContextService().invalidateMacAddressCache();
                             break;
+                        case "tap_secrets":
+                            LOG.info("Invalidating tap secret cache on request by node [{}].",
+                                    message.sender());
+                            nzyme.getAuthenticationService().invalidateTapSecretCache();
+                            break;
+                        case "principals":
+                            LOG.debug("Invalidating principal cache on request by node [{}].",
+                                    message.sender());
+                            nzyme.getAuthenticationService().invalidatePrincipalCache();
+                            break;
+                        case "dot11_monitoring":
+                            LOG.info("Invalidating 802.11 monitoring snapshots on request by node [{}].",
+                                    message.sender());
+                            nzyme.getDot11().invalidateMonitoringSnapshots();
+                            break;
+                        case "registry":
+                            String registryKey = (String) message.parametersMap().get("registry_key");
+                            LOG.debug("Invalidating registry cache for key [{}] on request by node [{}].",
+                                    registryKey, message.sender());
+                            if (registryKey == null) {
+                                nzyme.getRegistryCache().invalidateAll();
+                            } else {
+                                nzyme.getRegistryCache().invalidate(registryKey);
+                            }
+                            break;
                         default:
                             LOG.error("Could not handle [{}] message: Unknown cache type.",
                                     MessageType.INVALIDATE_CACHE);
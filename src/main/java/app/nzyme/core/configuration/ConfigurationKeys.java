@@ -33,7 +33,17 @@ public class ConfigurationKeys {
     public static final String HTTP_MAX_POST_SIZE = "http_max_post_size";
     public static final String SLOW_QUERY_LOG_THRESHOLD = "slow_query_log_threshold";
     public static final String PERFORMANCE = "performance";
-    public static final String REPORT_PROCESSOR_POOL_SIZE = "report_processor_pool_size";
+    public static final String REPORT_INGESTION_QUEUE_SIZE = "report_ingestion_queue_size";
+    public static final String REPORT_INGESTION_WORKERS = "report_ingestion_workers";
+    public static final String DOT11_BULK_WRITES = "dot11_bulk_writes";
+    public static final String EVENT_ACTION_WORKERS = "event_action_workers";
+    public static final String EVENT_ACTION_CONCURRENCY = "event_action_concurrency";
+    public static final String EVENT_ACTION_MAX_RETRIES = "event_action_max_retries";
+    public static final String TASK_WORKERS = "task_workers";
+    public static final String TASK_CONCURRENCY = "task_concurrency";
+    public static final String TASK_CLAIM_BATCH_SIZE = "task_claim_batch_size";
+    public static final String GEOIP_CACHE_SIZE = "geoip_cache_size";
+    public static final String GEOIP_CACHE_TTL_MINUTES = "geoip_cache_ttl_minutes";
     public static final String MISC = "misc";
     public static final String CUSTOM_TITLE = "custom_title";
     public static final String CUSTOM_FAVICON_URL = "custom_favicon_url";
@@ -42,5 +52,13 @@ public class ConfigurationKeys {
     public static final String PROTOCOLS = "protocols";
     public static final String TCP = "tcp";
     public static final String TCP_SESSION_TIMEOUT_SECONDS = "session_timeout_seconds";
+    public static final String DATABASE = "database";
+    public static final String POOL_MIN_IDLE = "pool_min_idle";
+    public static final String POOL_MAX_SIZE = "pool_max_size";
+    public static final String POOL_IDLE_TIMEOUT_SECONDS = "pool_idle_timeout_seconds";
+    public static final String POOL_MAX_LIFETIME_SECONDS = "pool_max_lifetime_seconds";
+    public static final String POOL_ACQUISITION_TIMEOUT_SECONDS = "pool_acquisition_timeout_seconds";
+    public static final String NOTIFICATIONS = "notifications";
+    public static final String SAFETY_POLL_INTERVAL_SECONDS = "safety_poll_interval_seconds";
 
 }
\ No newline at end of file
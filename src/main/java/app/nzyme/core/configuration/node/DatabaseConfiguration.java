@@ -0,0 +1,71 @@
+package app.nzyme.core.configuration.node;
+
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class DatabaseConfiguration {
+
+    public static final int DEFAULT_POOL_MIN_IDLE = 5;
+    public static final int DEFAULT_POOL_MAX_SIZE = 25;
+    public static final int DEFAULT_POOL_IDLE_TIMEOUT_SECONDS = 600;
+    public static final int DEFAULT_POOL_MAX_LIFETIME_SECONDS = 1800;
+    public static final int DEFAULT_POOL_ACQUISITION_TIMEOUT_SECONDS = 30;
+    public static final boolean DEFAULT_NOTIFICATIONS = true;
+    public static final int DEFAULT_SAFETY_POLL_INTERVAL_SECONDS = 30;
+
+    public abstract int poolMinIdle();
+    public abstract int poolMaxSize();
+    public abstract int poolIdleTimeoutSeconds();
+    public abstract int poolMaxLifetimeSeconds();
+    public abstract int poolAcquisitionTimeoutSeconds();
+    public abstract boolean notifications();
+    public abstract int safetyPollIntervalSeconds();
+
+    public static DatabaseConfiguration create(int poolMinIdle, int poolMaxSize, int poolIdleTimeoutSeconds, int poolMaxLifetimeSeconds, int poolAcquisitionTimeoutSeconds, boolean notifications, int safetyPollIntervalSeconds) {
+        return builder()
+                .poolMinIdle(poolMinIdle)
+                .poolMaxSize(poolMaxSize)
+                .poolIdleTimeoutSeconds(poolIdleTimeoutSeconds)
+                .poolMaxLifetimeSeconds(poolMaxLifetimeSeconds)
+                .poolAcquisitionTimeoutSeconds(poolAcquisitionTimeoutSeconds)
+                .notifications(notifications)
+                .safetyPollIntervalSeconds(safetyPollIntervalSeconds)
+                .build();
+    }
+
+    public static DatabaseConfiguration createDefault() {
+        return create(
+                DEFAULT_POOL_MIN_IDLE,
+                DEFAULT_POOL_MAX_SIZE,
+                DEFAULT_POOL_IDLE_TIMEOUT_SECONDS,
+                DEFAULT_POOL_MAX_LIFETIME_SECONDS,
+                DEFAULT_POOL_ACQUISITION_TIMEOUT_SECONDS,
+                DEFAULT_NOTIFICATIONS,
+                DEFAULT_SAFETY_POLL_INTERVAL_SECONDS
+        );
+    }
+
+    public static Builder builder() {
+        return new AutoValue_DatabaseConfiguration.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder poolMinIdle(int poolMinIdle);
+
+        public abstract Builder poolMaxSize(int poolMaxSize);
+
+        public abstract Builder poolIdleTimeoutSeconds(int poolIdleTimeoutSeconds);
+
+        public abstract Builder poolMaxLifetimeSeconds(int poolMaxLifetimeSeconds);
+
+        public abstract Builder poolAcquisitionTimeoutSeconds(int poolAcquisitionTimeoutSeconds);
+
+        public abstract Builder notifications(boolean notifications);
+
+        public abstract Builder safetyPollIntervalSeconds(int safetyPollIntervalSeconds);
+
+        public abstract DatabaseConfiguration build();
+    }
+
+}
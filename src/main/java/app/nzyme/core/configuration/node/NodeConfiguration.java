@@ -11,6 +11,7 @@ public abstract class NodeConfiguration {
     public abstract boolean versionchecksEnabled();
 
     public abstract String databasePath();
+    public abstract DatabaseConfiguration database();
 
     public abstract URI restListenUri();
     public abstract URI httpExternalUri();
@@ -32,10 +33,11 @@ public abstract class NodeConfiguration {
     public abstract PerformanceConfiguration performance();
     public abstract MiscConfiguration misc();
 
-    public static NodeConfiguration create(boolean versionchecksEnabled, String databasePath, URI restListenUri, URI httpExternalUri, Optional<Integer> httpMaxPostSize, String pluginDirectory, String cryptoDirectory, Optional<Integer> slowQueryLogThreshold, String ntpServer, Optional<ProtocolsConfiguration> protocols, Optional<String> connectApiUri, boolean connectSkip, PerformanceConfiguration performance, MiscConfiguration misc) {
+    public static NodeConfiguration create(boolean versionchecksEnabled, String databasePath, DatabaseConfiguration database, URI restListenUri, URI httpExternalUri, Optional<Integer> httpMaxPostSize, String pluginDirectory, String cryptoDirectory, Optional<Integer> slowQueryLogThreshold, String ntpServer, Optional<ProtocolsConfiguration> protocols, Optional<String> connectApiUri, boolean connectSkip, PerformanceConfiguration performance, MiscConfiguration misc) {
         return builder()
                 .versionchecksEnabled(versionchecksEnabled)
                 .databasePath(databasePath)
+                .database(database)
                 .restListenUri(restListenUri)
                 .httpExternalUri(httpExternalUri)
                 .httpMaxPostSize(httpMaxPostSize)
@@ -61,6 +63,8 @@ public abstract class NodeConfiguration {
 
         public abstract Builder databasePath(String databasePath);
 
+        public abstract Builder database(DatabaseConfiguration database);
+
         public abstract Builder restListenUri(URI restListenUri);
 
         public abstract Builder httpExternalUri(URI httpExternalUri);
@@ -40,6 +40,9 @@ public class NodeConfigurationLoader {
     private final Config interfaces;
     private final Config performance;
 
+    @Nullable
+    private final Config database;
+
     @Nullable
     private final Config misc;
 
@@ -53,9 +56,12 @@ public class NodeConfigurationLoader {
         try {
             this.general = root.getConfig(ConfigurationKeys.GENERAL);
             this.interfaces = root.getConfig(ConfigurationKeys.INTERFACES);
-            this.performance = root.getConfig(ConfigurationKeys.PERFORMANCE);
 
+            this.database = root.hasPath(ConfigurationKeys.DATABASE) ? root.getConfig(ConfigurationKeys.DATABASE) : null;
             this.misc = root.hasPath(ConfigurationKeys.MISC) ? root.getConfig(ConfigurationKeys.MISC) : null;
+
+            // All performance settings are optional.
+            this.performance = root.hasPath(ConfigurationKeys.PERFORMANCE) ? root.getConfig(ConfigurationKeys.PERFORMANCE) : ConfigFactory.empty();
         } catch(ConfigException e) {
             throw new IncompleteConfigurationException("Incomplete configuration.", e);
         }
@@ -69,6 +75,7 @@ public class NodeConfigurationLoader {
         return NodeConfiguration.create(
                 parseVersionchecksEnabled(),
                 parseDatabasePath(),
+                parseDatabase(),
                 parseRestListenUri(),
                 parseHttpExternalUri(),
                 parseHttpMaxPostSize(),
@@ -169,7 +176,53 @@ public class NodeConfigurationLoader {
     }
 
     private PerformanceConfiguration parsePerformance() {
-        return PerformanceConfiguration.create(performance.getInt(ConfigurationKeys.REPORT_PROCESSOR_POOL_SIZE));
+        return PerformanceConfiguration.create(
+                performance.hasPath(ConfigurationKeys.REPORT_INGESTION_QUEUE_SIZE) ?
+                        performance.getInt(ConfigurationKeys.REPORT_INGESTION_QUEUE_SIZE) : PerformanceConfiguration.DEFAULT_REPORT_INGESTION_QUEUE_SIZE,
+                performance.hasPath(ConfigurationKeys.REPORT_INGESTION_WORKERS) ?
+                        performance.getInt(ConfigurationKeys.REPORT_INGESTION_WORKERS) : PerformanceConfiguration.DEFAULT_REPORT_INGESTION_WORKERS,
+                performance.hasPath(ConfigurationKeys.DOT11_BULK_WRITES) ?
+                        performance.getBoolean(ConfigurationKeys.DOT11_BULK_WRITES) : PerformanceConfiguration.DEFAULT_DOT11_BULK_WRITES,
+                performance.hasPath(ConfigurationKeys.EVENT_ACTION_WORKERS) ?
+                        performance.getInt(ConfigurationKeys.EVENT_ACTION_WORKERS) : PerformanceConfiguration.DEFAULT_EVENT_ACTION_WORKERS,
+                performance.hasPath(ConfigurationKeys.EVENT_ACTION_CONCURRENCY) ?
+                        performance.getInt(ConfigurationKeys.EVENT_ACTION_CONCURRENCY) : PerformanceConfiguration.DEFAULT_EVENT_ACTION_CONCURRENCY,
+                performance.hasPath(ConfigurationKeys.EVENT_ACTION_MAX_RETRIES) ?
+                        performance.getInt(ConfigurationKeys.EVENT_ACTION_MAX_RETRIES) : PerformanceConfiguration.DEFAULT_EVENT_ACTION_MAX_RETRIES,
+                performance.hasPath(ConfigurationKeys.TASK_WORKERS) ?
+                        performance.getInt(ConfigurationKeys.TASK_WORKERS) : PerformanceConfiguration.DEFAULT_TASK_WORKERS,
+                performance.hasPath(ConfigurationKeys.TASK_CONCURRENCY) ?
+                        performance.getInt(ConfigurationKeys.TASK_CONCURRENCY) : PerformanceConfiguration.DEFAULT_TASK_CONCURRENCY,
+                performance.hasPath(ConfigurationKeys.TASK_CLAIM_BATCH_SIZE) ?
+                        performance.getInt(ConfigurationKeys.TASK_CLAIM_BATCH_SIZE) : PerformanceConfiguration.DEFAULT_TASK_CLAIM_BATCH_SIZE,
+                performance.hasPath(ConfigurationKeys.GEOIP_CACHE_SIZE) ?
+                        performance.getInt(ConfigurationKeys.GEOIP_CACHE_SIZE) : PerformanceConfiguration.DEFAULT_GEOIP_CACHE_SIZE,
+                performance.hasPath(ConfigurationKeys.GEOIP_CACHE_TTL_MINUTES) ?
+                        performance.getInt(ConfigurationKeys.GEOIP_CACHE_TTL_MINUTES) : PerformanceConfiguration.DEFAULT_GEOIP_CACHE_TTL_MINUTES
+        );
+    }
+
+    private DatabaseConfiguration parseDatabase() {
+        if (database == null) {
+            return DatabaseConfiguration.createDefault();
+        }
+
+        return DatabaseConfiguration.create(
+                database.hasPath(ConfigurationKeys.POOL_MIN_IDLE) ?
+                        database.getInt(ConfigurationKeys.POOL_MIN_IDLE) : DatabaseConfiguration.DEFAULT_POOL_MIN_IDLE,
+                database.hasPath(ConfigurationKeys.POOL_MAX_SIZE) ?
+                        database.getInt(ConfigurationKeys.POOL_MAX_SIZE) : DatabaseConfiguration.DEFAULT_POOL_MAX_SIZE,
+                database.hasPath(ConfigurationKeys.POOL_IDLE_TIMEOUT_SECONDS) ?
+                        database.getInt(ConfigurationKeys.POOL_IDLE_TIMEOUT_SECONDS) : DatabaseConfiguration.DEFAULT_POOL_IDLE_TIMEOUT_SECONDS,
+                database.hasPath(ConfigurationKeys.POOL_MAX_LIFETIME_SECONDS) ?
+                        database.getInt(ConfigurationKeys.POOL_MAX_LIFETIME_SECONDS) : DatabaseConfiguration.DEFAULT_POOL_MAX_LIFETIME_SECONDS,
+                database.hasPath(ConfigurationKeys.POOL_ACQUISITION_TIMEOUT_SECONDS) ?
+                        database.getInt(ConfigurationKeys.POOL_ACQUISITION_TIMEOUT_SECONDS) : DatabaseConfiguration.DEFAULT_POOL_ACQUISITION_TIMEOUT_SECONDS,
+                database.hasPath(ConfigurationKeys.NOTIFICATIONS) ?
+                        database.getBoolean(ConfigurationKeys.NOTIFICATIONS) : DatabaseConfiguration.DEFAULT_NOTIFICATIONS,
+                database.hasPath(ConfigurationKeys.SAFETY_POLL_INTERVAL_SECONDS) ?
+                        database.getInt(ConfigurationKeys.SAFETY_POLL_INTERVAL_SECONDS) : DatabaseConfiguration.DEFAULT_SAFETY_POLL_INTERVAL_SECONDS
+        );
     }
 
     private MiscConfiguration parseMisc() {
@@ -193,7 +246,64 @@ public class NodeConfigurationLoader {
         ConfigurationValidator.expect(general, ConfigurationKeys.PLUGIN_DIRECTORY, ConfigurationKeys.GENERAL, String.class);
         ConfigurationValidator.expect(general, ConfigurationKeys.CRYPTO_DIRECTORY, ConfigurationKeys.GENERAL, String.class);
         ConfigurationValidator.expect(general, ConfigurationKeys.NTP_SERVER, ConfigurationKeys.GENERAL, String.class);
-        ConfigurationValidator.expect(performance, ConfigurationKeys.REPORT_PROCESSOR_POOL_SIZE, ConfigurationKeys.PERFORMANCE, Integer.class);
+
+        // Report ingestion settings are sane?
+        PerformanceConfiguration perf = parsePerformance();
+        if (perf.reportIngestionQueueSize() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.REPORT_INGESTION_QUEUE_SIZE + "] must be at least 1.");
+        }
+
+        if (perf.reportIngestionWorkers() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.REPORT_INGESTION_WORKERS + "] must be at least 1.");
+        }
+
+        // Event action dispatcher settings are sane?
+        if (perf.eventActionWorkers() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.EVENT_ACTION_WORKERS + "] must be at least 1.");
+        }
+
+        if (perf.eventActionConcurrency() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.EVENT_ACTION_CONCURRENCY + "] must be at least 1.");
+        }
+
+        if (perf.eventActionMaxRetries() < 0) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.EVENT_ACTION_MAX_RETRIES + "] must be at least 0.");
+        }
+
+        if (perf.taskWorkers() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.TASK_WORKERS + "] must be at least 1.");
+        }
+
+        if (perf.taskConcurrency() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.TASK_CONCURRENCY + "] must be at least 1.");
+        }
+
+        if (perf.taskClaimBatchSize() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.TASK_CLAIM_BATCH_SIZE + "] must be at least 1.");
+        }
+
+        // GeoIP cache settings are sane?
+        if (perf.geoIpCacheSize() < 0) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.GEOIP_CACHE_SIZE + "] must be at least 0.");
+        }
+
+        if (perf.geoIpCacheTtlMinutes() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.PERFORMANCE + "." + ConfigurationKeys.GEOIP_CACHE_TTL_MINUTES + "] must be at least 1.");
+        }
+
+        // Database connection pool settings are sane?
+        DatabaseConfiguration db = parseDatabase();
+        if (db.poolMaxSize() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.DATABASE + "." + ConfigurationKeys.POOL_MAX_SIZE + "] must be at least 1.");
+        }
+
+        if (db.poolMinIdle() < 0 || db.poolMinIdle() > db.poolMaxSize()) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.DATABASE + "." + ConfigurationKeys.POOL_MIN_IDLE + "] must be between 0 and [" + ConfigurationKeys.DATABASE + "." + ConfigurationKeys.POOL_MAX_SIZE + "].");
+        }
+
+        if (db.safetyPollIntervalSeconds() < 1) {
+            throw new InvalidConfigurationException("Parameter [" + ConfigurationKeys.DATABASE + "." + ConfigurationKeys.SAFETY_POLL_INTERVAL_SECONDS + "] must be at least 1.");
+        }
 
         // Plugin directory exists and is readable?
         File pluginDirectory = new File(parsePluginDirectory());
@@ -5,11 +5,43 @@ import com.google.auto.value.AutoValue;
 @AutoValue
 public abstract class PerformanceConfiguration {
 
-    public abstract int reportProcessorPoolSize();
+    public static final int DEFAULT_REPORT_INGESTION_QUEUE_SIZE = 250;
+    public static final int DEFAULT_REPORT_INGESTION_WORKERS = 2;
+    public static final boolean DEFAULT_DOT11_BULK_WRITES = true;
+    public static final int DEFAULT_EVENT_ACTION_WORKERS = 4;
+    public static final int DEFAULT_EVENT_ACTION_CONCURRENCY = 2;
+    public static final int DEFAULT_EVENT_ACTION_MAX_RETRIES = 5;
+    public static final int DEFAULT_TASK_WORKERS = 4;
+    public static final int DEFAULT_TASK_CONCURRENCY = 2;
+    public static final int DEFAULT_TASK_CLAIM_BATCH_SIZE = 10;
+    public static final int DEFAULT_GEOIP_CACHE_SIZE = 10000;
+    public static final int DEFAULT_GEOIP_CACHE_TTL_MINUTES = 10;
 
-    public static PerformanceConfiguration create(int reportProcessorPoolSize) {
+    public abstract int reportIngestionQueueSize();
+    public abstract int reportIngestionWorkers();
+    public abstract boolean dot11BulkWrites();
+    public abstract int eventActionWorkers();
+    public abstract int eventActionConcurrency();
+    public abstract int eventActionMaxRetries();
+    public abstract int taskWorkers();
+    public abstract int taskConcurrency();
+    public abstract int taskClaimBatchSize();
+    public abstract int geoIpCacheSize();
+    public abstract int geoIpCacheTtlMinutes();
+
+    public static PerformanceConfiguration create(int reportIngestionQueueSize, int reportIngestionWorkers, boolean dot11BulkWrites, int eventActionWorkers, int eventActionConcurrency, int eventActionMaxRetries, int taskWorkers, int taskConcurrency, int taskClaimBatchSize, int geoIpCacheSize, int geoIpCacheTtlMinutes) {
         return builder()
-                .reportProcessorPoolSize(reportProcessorPoolSize)
+                .reportIngestionQueueSize(reportIngestionQueueSize)
+                .reportIngestionWorkers(reportIngestionWorkers)
+                .dot11BulkWrites(dot11BulkWrites)
+                .eventActionWorkers(eventActionWorkers)
+                .eventActionConcurrency(eventActionConcurrency)
+                .eventActionMaxRetries(eventActionMaxRetries)
+                .taskWorkers(taskWorkers)
+                .taskConcurrency(taskConcurrency)
+                .taskClaimBatchSize(taskClaimBatchSize)
+                .geoIpCacheSize(geoIpCacheSize)
+                .geoIpCacheTtlMinutes(geoIpCacheTtlMinutes)
                 .build();
     }
 
@@ -19,7 +51,27 @@ public abstract class PerformanceConfiguration {
 
     @AutoValue.Builder
     public abstract static class Builder {
-        public abstract Builder reportProcessorPoolSize(int reportProcessorPoolSize);
+        public abstract Builder reportIngestionQueueSize(int reportIngestionQueueSize);
+
+        public abstract Builder reportIngestionWorkers(int reportIngestionWorkers);
+
+        public abstract Builder dot11BulkWrites(boolean dot11BulkWrites);
+
+        public abstract Builder eventActionWorkers(int eventActionWorkers);
+
+        public abstract Builder eventActionConcurrency(int eventActionConcurrency);
+
+        public abstract Builder eventActionMaxRetries(int eventActionMaxRetries);
+
+        public abstract Builder taskWorkers(int taskWorkers);
+
+        public abstract Builder taskConcurrency(int taskConcurrency);
+
+        public abstract Builder taskClaimBatchSize(int taskClaimBatchSize);
+
+        public abstract Builder geoIpCacheSize(int geoIpCacheSize);
+
+        public abstract Builder geoIpCacheTtlMinutes(int geoIpCacheTtlMinutes);
 
         public abstract PerformanceConfiguration build();
     }
@@ -9,6 +9,7 @@ import com.codahale.metrics.Timer;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
 import jakarta.annotation.Nullable;
 import org.jdbi.v3.core.Handle;
 import org.jetbrains.annotations.NotNull;
@@ -16,6 +17,7 @@ import org.joda.time.DateTime;
 
 import java.net.InetAddress;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
@@ -115,6 +117,53 @@ public class ContextService {
         }
     }
 
+    /**
+     * Loads all MAC address context visible in the given scope at once, for responses that need the context of many
+     * addresses. Uses the same scoping as {@link #findMacAddressContext(String, UUID, UUID)}.
+     *
+     * @return Context entries, keyed by MAC address.
+     */
+    public Map<String, MacAddressContextEntry> findMacAddressContextIndex(@Nullable UUID organizationId,
+                                                                          @Nullable UUID tenantId) {
+        List<MacAddressContextEntry> entries;
+        try(Timer.Context ignored = macLookupTimer.time()) {
+            if (organizationId != null && tenantId != null) {
+                // Tenant data.
+                entries = nzyme.getDatabase().withHandle(handle ->
+                        handle.createQuery("SELECT * FROM context_mac_addresses " +
+                                        "WHERE organization_id = :organization_id AND tenant_id = :tenant_id")
+                                .bind("organization_id", organizationId)
+                                .bind("tenant_id", tenantId)
+                                .mapTo(MacAddressContextEntry.class)
+                                .list()
+                );
+            } else if (organizationId != null) {
+                // Organization data.
+                entries = nzyme.getDatabase().withHandle(handle ->
+                        handle.createQuery("SELECT * FROM context_mac_addresses " +
+                                        "WHERE organization_id = :organization_id")
+                                .bind("organization_id", organizationId)
+                                .mapTo(MacAddressContextEntry.class)
+                                .list()
+                );
+            } else {
+                // Any data.
+                entries = nzyme.getDatabase().withHandle(handle ->
+                        handle.createQuery("SELECT * FROM context_mac_addresses")
+                                .mapTo(MacAddressContextEntry.class)
+                                .list()
+                );
+            }
+        }
+
+        Map<String, MacAddressContextEntry> result = Maps.newHashMapWithExpectedSize(entries.size());
+        for (MacAddressContextEntry entry : entries) {
+            result.putIfAbsent(entry.macAddress(), entry);
+        }
+
+        return result;
+    }
+
     public Optional<MacAddressContextEntry> findMacAddressContextNoCache(String mac,
                                                                           @Nullable UUID organizationId,
                                                                           @Nullable UUID tenantId) {
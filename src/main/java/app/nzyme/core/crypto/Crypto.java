@@ -47,6 +47,7 @@ import java.security.cert.*;
 import java.security.cert.Certificate;
 import java.security.spec.InvalidKeySpecException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
@@ -107,6 +108,9 @@ public class Crypto {
 
     private PGPKeys nodeLocalPGPKeys = null;
 
+    // Parsed cluster PGP keys. Loaded lazily and re-loaded whenever the key files on disk change.
+    private volatile ClusterPGPKeys clusterPGPKeys = null;
+
     public Crypto(NzymeNode nzyme) {
         this.nzyme = nzyme;
 
@@ -193,6 +197,13 @@ public class Crypto {
             }
         }
 
+        // Parse and cache cluster keys for encryption and decryption.
+        try {
+            reloadClusterKeys();
+        } catch (CryptoOperationException e) {
+            throw new CryptoInitializationException("Could not load cluster PGP keys.", e);
+        }
+
         // Load Keys. Build fingerprint.
         String keySignature;
         DateTime keyDate;
@@ -384,12 +395,7 @@ public class Crypto {
     }
 
     public byte[] encryptWithClusterKey(byte[] value) throws CryptoOperationException {
-        File publicKeyLocation = Paths.get(cryptoDirectoryConfig.toString(), PGP_PUBLIC_KEY_FILE_NAME).toFile();
-        try {
-            return encrypt(value, readPublicKey(publicKeyLocation));
-        } catch (IOException | PGPException e) {
-            throw new CryptoOperationException("Cannot encrypt value.", e);
-        }
+        return encrypt(value, getClusterPGPKeys().publicKey());
     }
 
     public byte[] encrypt(byte[] value, PGPPublicKey publicKey) throws CryptoOperationException {
@@ -424,16 +430,23 @@ public class Crypto {
     }
 
     public byte[] decryptWithClusterKey(byte[] value) throws CryptoOperationException {
-        File privateKeyLocation = Paths.get(cryptoDirectoryConfig.toString(), PGP_PRIVATE_KEY_FILE_NAME).toFile();
+        return decrypt(value, getClusterPGPKeys()::findPrivateKey);
+    }
 
-        try(InputStream keyIn = new FileInputStream(privateKeyLocation)) {
-            return decrypt(value, keyIn);
-        } catch (CryptoOperationException | IOException e) {
+    public byte[] decrypt(byte[] value, InputStream keyInput) throws CryptoOperationException {
+        PGPSecretKeyRingCollection pgpSec;
+        try {
+            pgpSec = new PGPSecretKeyRingCollection(
+                    PGPUtil.getDecoderStream(keyInput), new JcaKeyFingerprintCalculator()
+            );
+        } catch(IOException | PGPException e) {
             throw new CryptoOperationException("Cannot decrypt value.", e);
         }
+
+        return decrypt(value, keyId -> findSecretKey(pgpSec, keyId));
     }
 
-    public byte[] decrypt(byte[] value, InputStream keyInput) throws CryptoOperationException {
+    private byte[] decrypt(byte[] value, PrivateKeyResolver keyResolver) throws CryptoOperationException {
         try(InputStream dataIn = PGPUtil.getDecoderStream(new ByteArrayInputStream(value))) {
             Timer.Context timer = decryptionTimer.time();
 
@@ -452,13 +465,10 @@ public class Crypto {
             Iterator<PGPEncryptedData> it = enc.getEncryptedDataObjects();
             PGPPrivateKey sKey = null;
             PGPPublicKeyEncryptedData pbe = null;
-            PGPSecretKeyRingCollection pgpSec = new PGPSecretKeyRingCollection(
-                    PGPUtil.getDecoderStream(keyInput), new JcaKeyFingerprintCalculator()
-            );
 
             while (sKey == null && it.hasNext()) {
                 pbe = (PGPPublicKeyEncryptedData) it.next();
-                sKey = findSecretKey(pgpSec, pbe.getKeyID());
+                sKey = keyResolver.find(pbe.getKeyID());
             }
 
             if (sKey == null) {
@@ -879,6 +889,43 @@ public class Crypto {
                 .orElse(Boolean.parseBoolean(CryptoRegistryKeys.PGP_KEY_SYNC_ENABLED.defaultValue().get()));
     }
 
+    /**
+     * Parses the cluster PGP keys from the crypto directory and replaces the cached keys. Must be called whenever
+     * the key files on disk change.
+     */
+    public void reloadClusterKeys() throws CryptoOperationException {
+        File privateKeyLocation = Paths.get(cryptoDirectoryConfig.toString(), PGP_PRIVATE_KEY_FILE_NAME).toFile();
+        File publicKeyLocation = Paths.get(cryptoDirectoryConfig.toString(), PGP_PUBLIC_KEY_FILE_NAME).toFile();
+
+        try(InputStream keyIn = new BufferedInputStream(new FileInputStream(privateKeyLocation))) {
+            PGPPublicKey publicKey = readPublicKey(publicKeyLocation);
+            PGPSecretKeyRingCollection secretKeys = new PGPSecretKeyRingCollection(
+                    PGPUtil.getDecoderStream(keyIn), new JcaKeyFingerprintCalculator()
+            );
+
+            this.clusterPGPKeys = new ClusterPGPKeys(publicKey, secretKeys);
+            LOG.debug("Loaded cluster PGP keys from [{}].", cryptoDirectoryConfig);
+        } catch (IOException | PGPException e) {
+            throw new CryptoOperationException("Could not load cluster PGP keys.", e);
+        }
+    }
+
+    private ClusterPGPKeys getClusterPGPKeys() throws CryptoOperationException {
+        ClusterPGPKeys keys = this.clusterPGPKeys;
+
+        if (keys == null) {
+            synchronized (this) {
+                if (this.clusterPGPKeys == null) {
+                    reloadClusterKeys();
+                }
+
+                keys = this.clusterPGPKeys;
+            }
+        }
+
+        return keys;
+    }
+
     private PGPPrivateKey findSecretKey(PGPSecretKeyRingCollection pgpSec, long keyID) throws PGPException {
         PGPSecretKey pgpSecKey = pgpSec.getSecretKey(keyID);
 
@@ -1047,6 +1094,47 @@ public class Crypto {
         }
     }
 
+    @FunctionalInterface
+    private interface PrivateKeyResolver {
+        PGPPrivateKey find(long keyId) throws PGPException;
+    }
+
+    /*
+     * The parsed cluster public key and secret key ring. Private keys are extracted from the ring (an expensive
+     * operation that includes decrypting the secret key) only once per key ID and then kept.
+     */
+    private final class ClusterPGPKeys {
+
+        private final PGPPublicKey publicKey;
+        private final PGPSecretKeyRingCollection secretKeys;
+        private final Map<Long, PGPPrivateKey> privateKeys;
+
+        ClusterPGPKeys(PGPPublicKey publicKey, PGPSecretKeyRingCollection secretKeys) {
+            this.publicKey = publicKey;
+            this.secretKeys = secretKeys;
+            this.privateKeys = new ConcurrentHashMap<>();
+        }
+
+        PGPPublicKey publicKey() {
+            return publicKey;
+        }
+
+        PGPPrivateKey findPrivateKey(long keyId) throws PGPException {
+            PGPPrivateKey cached = privateKeys.get(keyId);
+            if (cached != null) {
+                return cached;
+            }
+
+            PGPPrivateKey key = findSecretKey(secretKeys, keyId);
+            if (key != null) {
+                privateKeys.put(keyId, key);
+            }
+
+            return key;
+        }
+
+    }
+
     public static final class CryptoInitializationException extends Throwable {
         public CryptoInitializationException(String msg) {
             super(msg);
@@ -64,8 +64,10 @@ public class PGPKeyMessageBusReceiver implements MessageHandler {
 
             LOG.info("Decrypted keys written to disk.");
 
+            crypto.reloadClusterKeys();
+
             return MessageProcessingResult.SUCCESS;
-        } catch(Exception e) {
+        } catch(Exception | Crypto.CryptoOperationException e) {
             LOG.info("Could not process received PGP key.", e);
             return MessageProcessingResult.FAILURE;
         }
@@ -0,0 +1,172 @@
+package app.nzyme.core.database;
+
+import jakarta.annotation.Nullable;
+import org.jdbi.v3.core.Handle;
+import org.joda.time.DateTime;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Streams rows into a table using PostgreSQL <i>COPY ... FROM STDIN</i> in text format. Rows are encoded into a buffer
+ * and sent to the server whenever it fills up, so the whole data set never has to be held in memory. Values are
+ * parsed by the input function of their column on the server, the same way bound parameters of an <i>INSERT</i> would
+ * be cast.
+ *
+ * Not thread-safe. Either {@link #finish()} or {@link #cancel()} must be called, and the handle must not be used for
+ * anything else in between.
+ */
+public class CopyWriter implements AutoCloseable {
+
+    private static final int FLUSH_BYTES = 64 * 1024;
+
+    private final CopyIn copy;
+    private final int columns;
+    private final StringBuilder buffer;
+
+    private int column;
+    private long rows;
+    private boolean done;
+
+    private CopyWriter(CopyIn copy, int columns) {
+        this.copy = copy;
+        this.columns = columns;
+        this.buffer = new StringBuilder(FLUSH_BYTES + 1024);
+    }
+
+    public static CopyWriter open(Handle handle, String table, String... columns) {
+        try {
+            PGConnection connection = handle.getConnection().unwrap(PGConnection.class);
+            return new CopyWriter(
+                    connection.getCopyAPI().copyIn("COPY " + table + "(" + String.join(", ", columns) + ") FROM STDIN"),
+                    columns.length
+            );
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not start COPY into [" + table + "].", e);
+        }
+    }
+
+    public CopyWriter value(@Nullable Object value) {
+        if (column == columns) {
+            throw new IllegalStateException("Row already has all <" + columns + "> values.");
+        }
+
+        if (column > 0) {
+            buffer.append('\t');
+        }
+
+        encode(buffer, value);
+        column++;
+
+        return this;
+    }
+
+    public void endRow() {
+        if (column != columns) {
+            throw new IllegalStateException("Row has <" + column + "> values but <" + columns + "> columns.");
+        }
+
+        buffer.append('\n');
+        column = 0;
+        rows++;
+
+        if (buffer.length() >= FLUSH_BYTES) {
+            flush();
+        }
+    }
+
+    /**
+     * @return Number of rows written.
+     */
+    public long finish() {
+        flush();
+
+        try {
+            copy.endCopy();
+            done = true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not complete COPY.", e);
+        }
+
+        return rows;
+    }
+
+    public void cancel() {
+        if (done) {
+            return;
+        }
+
+        done = true;
+        try {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not cancel COPY.", e);
+        }
+    }
+
+    /**
+     * Cancels the COPY if it was not finished. Nothing written so far is stored in that case.
+     */
+    @Override
+    public void close() {
+        cancel();
+    }
+
+    private void flush() {
+        if (buffer.length() == 0) {
+            return;
+        }
+
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.setLength(0);
+
+        try {
+            copy.writeToCopy(bytes, 0, bytes.length);
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not write COPY data.", e);
+        }
+    }
+
+    static void encode(StringBuilder sb, @Nullable Object value) {
+        if (value == null) {
+            sb.append("\\N");
+            return;
+        }
+
+        if (value instanceof Boolean) {
+            sb.append((Boolean) value ? 't' : 'f');
+            return;
+        }
+
+        if (value instanceof Number) {
+            sb.append(value);
+            return;
+        }
+
+        String s = value instanceof DateTime ? value.toString() : String.valueOf(value);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+}
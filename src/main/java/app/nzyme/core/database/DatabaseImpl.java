@@ -19,6 +19,7 @@ import app.nzyme.core.distributed.tasksqueue.postgres.PostgresTasksQueueEntryMap
 import app.nzyme.core.dot11.db.*;
 import app.nzyme.core.dot11.db.monitoring.*;
 import app.nzyme.core.dot11.db.monitoring.probereq.MonitoredProbeRequestEntryMapper;
+import app.nzyme.core.dot11.tracks.db.TrackDetectorConfigEntryMapper;
 import app.nzyme.core.dot11.tracks.db.TrackDetectorConfigMapper;
 import app.nzyme.core.ethernet.dns.db.*;
 import app.nzyme.core.ethernet.socks.db.SocksTunnelEntryMapper;
@@ -26,6 +27,7 @@ import app.nzyme.core.ethernet.ssh.db.SSHSessionEntryMapper;
 import app.nzyme.core.ethernet.tcp.db.TcpSessionEntryMapper;
 import app.nzyme.core.events.db.EventActionEntryMapper;
 import app.nzyme.core.events.db.EventEntryMapper;
+import app.nzyme.core.events.db.QueuedEventActionEntryMapper;
 import app.nzyme.core.events.db.SubscriptionEntryMapper;
 import app.nzyme.core.floorplans.db.TenantLocationEntryMapper;
 import app.nzyme.core.floorplans.db.TenantLocationFloorEntryMapper;
@@ -47,7 +49,11 @@ import app.nzyme.core.crypto.database.PGPKeyFingerprintMapper;
 import app.nzyme.core.taps.db.*;
 import app.nzyme.core.taps.db.metrics.TapMetricsAggregationMapper;
 import app.nzyme.core.taps.db.metrics.TapMetricsGaugeMapper;
+import app.nzyme.core.util.MetricNames;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Lists;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import liquibase.*;
 import liquibase.database.DatabaseFactory;
 import liquibase.database.jvm.JdbcConnection;
@@ -70,6 +76,7 @@ import java.sql.Timestamp;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseImpl implements Database {
 
@@ -77,6 +84,7 @@ public class DatabaseImpl implements Database {
 
     private final NodeConfiguration configuration;
 
+    private HikariDataSource dataSource;
     private Jdbi jdbi;
 
     public DatabaseImpl(NodeConfiguration configuration) {
@@ -84,8 +92,30 @@ public class DatabaseImpl implements Database {
     }
 
     public void initialize() throws LiquibaseException {
+        HikariConfig poolConfig = new HikariConfig();
+        poolConfig.setPoolName(MetricNames.DATABASE_POOL);
+        poolConfig.setJdbcUrl("jdbc:" + configuration.databasePath());
+        poolConfig.setMinimumIdle(configuration.database().poolMinIdle());
+        poolConfig.setMaximumPoolSize(configuration.database().poolMaxSize());
+        poolConfig.setIdleTimeout(TimeUnit.SECONDS.toMillis(configuration.database().poolIdleTimeoutSeconds()));
+        poolConfig.setMaxLifetime(TimeUnit.SECONDS.toMillis(configuration.database().poolMaxLifetimeSeconds()));
+        poolConfig.setConnectionTimeout(TimeUnit.SECONDS.toMillis(configuration.database().poolAcquisitionTimeoutSeconds()));
+
+        // Don't fail pool creation if PostgreSQL is not reachable yet. We retry connecting below.
+        poolConfig.setInitializationFailTimeout(-1);
+
+        this.dataSource = new HikariDataSource(poolConfig);
+
+        LOG.info("Database connection pool: min idle <{}>, max size <{}>, idle timeout <{}s>, max lifetime <{}s>, " +
+                        "acquisition timeout <{}s>.",
+                configuration.database().poolMinIdle(),
+                configuration.database().poolMaxSize(),
+                configuration.database().poolIdleTimeoutSeconds(),
+                configuration.database().poolMaxLifetimeSeconds(),
+                configuration.database().poolAcquisitionTimeoutSeconds());
+
         // TODO use reflection here at some point.
-        this.jdbi = Jdbi.create("jdbc:" + configuration.databasePath())
+        this.jdbi = Jdbi.create(dataSource)
                 .installPlugin(new PostgresPlugin())
                 .installPlugin(new JodaTimePlugin())
                 .registerRowMapper(new TapMapper())
@@ -115,6 +145,7 @@ public class DatabaseImpl implements Database {
                 .registerRowMapper(new RegistryEntryMapper())
                 .registerRowMapper(new EventEntryMapper())
                 .registerRowMapper(new EventActionEntryMapper())
+                .registerRowMapper(new QueuedEventActionEntryMapper())
                 .registerRowMapper(new SubscriptionEntryMapper())
                 .registerRowMapper(new BSSIDSummaryMapper())
                 .registerRowMapper(new SSIDChannelDetailsMapper())
@@ -122,6 +153,7 @@ public class DatabaseImpl implements Database {
                 .registerRowMapper(new SSIDDetailsMapper())
                 .registerRowMapper(new Dot11AdvertisementHistogramEntryMapper())
                 .registerRowMapper(new SignalTrackHistogramEntryMapper())
+                .registerRowMapper(new SignalTrackSeriesEntryMapper())
                 .registerRowMapper(new ActiveChannelMapper())
                 .registerRowMapper(new ConnectedClientDetailsMapper())
                 .registerRowMapper(new DisconnectedClientDetailsMapper())
@@ -138,6 +170,7 @@ public class DatabaseImpl implements Database {
                 .registerRowMapper(new DetectionAlertAttributeEntryMapper())
                 .registerRowMapper(new DetectionAlertTimelineEntryMapper())
                 .registerRowMapper(new TrackDetectorConfigMapper())
+                .registerRowMapper(new TrackDetectorConfigEntryMapper())
                 .registerRowMapper(new CustomBanditDescriptionMapper())
                 .registerRowMapper(new DiscoHistogramEntryMapper())
                 .registerRowMapper(new CustomBanditDescriptionMapper())
@@ -264,6 +297,20 @@ public class DatabaseImpl implements Database {
         }
     }
 
+    /**
+     * Exports connection pool metrics (wait time, active/idle/pending connections, acquisition timeouts, ...)
+     * into the node metric registry. Can only be called once and after the pool has been initialized.
+     */
+    public void registerMetrics(MetricRegistry metrics) {
+        this.dataSource.setMetricRegistry(metrics);
+    }
+
+    public void close() {
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+        }
+    }
+
     public long getTotalSize() {
         return withHandle(handle ->
                 handle.createQuery("SELECT pg_database_size(current_database())")
@@ -272,8 +319,11 @@ public class DatabaseImpl implements Database {
     }
 
     public long getTableSize(String tableName) {
+        // Partitioned tables have no storage of their own. Their size is the sum of the size of their partitions.
         return withHandle(handle ->
-                handle.createQuery("SELECT pg_total_relation_size(:table)")
+                handle.createQuery("SELECT pg_total_relation_size(:table::regclass) " +
+                                "+ COALESCE(SUM(pg_total_relation_size(i.inhrelid)), 0) " +
+                                "FROM pg_inherits i WHERE i.inhparent = :table::regclass")
                         .bind("table", tableName)
                         .mapTo(Long.class)
                         .one());
@@ -0,0 +1,195 @@
+package app.nzyme.core.database;
+
+import app.nzyme.core.NzymeNode;
+import com.google.common.collect.ImmutableMap;
+import jakarta.annotation.Nullable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.Handle;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the daily range partitions of time series tables. Partitions are created a few days ahead of time and
+ * dropped as a whole once all of their rows are past the retention time, instead of deleting expired rows one by one.
+ *
+ * Partitions cover whole UTC days and are named after the table and their day, for example
+ * <i>dns_log_p20240805</i>. Rows outside of all partitions end up in the default partition of the table and are moved
+ * into the partition of their day when it is created.
+ */
+public class PartitionManager {
+
+    private static final Logger LOG = LogManager.getLogger(PartitionManager.class);
+
+    // Partitioned table and the column it is partitioned by. Partitioned in migrations.xml.
+    public static final Map<String, String> PARTITIONED_TABLES = ImmutableMap.of(
+            "dns_log", "timestamp",
+            "dns_entropy_log", "timestamp",
+            "dns_pairs", "created_at",
+            "dns_statistics", "created_at"
+    );
+
+    // Number of days after the current day to create partitions for.
+    private static final int PRECREATE_DAYS = 3;
+
+    /*
+     * Dropping or attaching a partition locks the partitioned table. A waiting lock request blocks all queries that
+     * come after it, so give up quickly if the table is busy and try again in the next run. Partitions can't be
+     * detached concurrently instead because the tables have a default partition.
+     */
+    private static final String LOCK_TIMEOUT = "2s";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormat.forPattern("yyyyMMdd").withZoneUTC();
+
+    private final NzymeNode nzyme;
+
+    public PartitionManager(NzymeNode nzyme) {
+        this.nzyme = nzyme;
+    }
+
+    /**
+     * Creates missing partitions of all partitioned tables for the current and the next days.
+     */
+    public void createPartitions() {
+        DateTime today = DateTime.now(DateTimeZone.UTC).withTimeAtStartOfDay();
+
+        for (Map.Entry<String, String> table : PARTITIONED_TABLES.entrySet()) {
+            for (int i = 0; i <= PRECREATE_DAYS; i++) {
+                try {
+                    createPartition(table.getKey(), table.getValue(), today.plusDays(i));
+                } catch (Exception e) {
+                    LOG.error("Could not create partition of table [{}] for <{}>.", table.getKey(), today.plusDays(i), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all partitions of a table that only hold rows older than the cutoff. Rows of the partition that contains
+     * the cutoff must still be deleted separately.
+     *
+     * @return Number of dropped partitions.
+     */
+    public int dropExpiredPartitions(String table, DateTime cutoff) {
+        int dropped = 0;
+        for (Partition partition : findPartitions(table)) {
+            if (partition.upperBound != null && !partition.upperBound.isAfter(cutoff)) {
+                try {
+                    nzyme.getDatabase().useHandle(handle -> handle.useTransaction(tx -> {
+                        tx.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+                        tx.execute("DROP TABLE " + partition.name);
+                    }));
+                } catch (Exception e) {
+                    LOG.warn("Could not drop expired partition [{}] of table [{}]. Retrying in next run.",
+                            partition.name, table, e);
+                    continue;
+                }
+
+                LOG.info("Dropped expired partition [{}] of table [{}].", partition.name, table);
+                dropped++;
+            }
+        }
+
+        return dropped;
+    }
+
+    void createPartition(String table, String column, DateTime day) {
+        DateTime from = day;
+        DateTime to = day.plusDays(1);
+
+        List<Partition> partitions = findPartitions(table);
+        if (partitions.isEmpty()) {
+            // Not partitioned (yet).
+            return;
+        }
+
+        boolean hasDefault = false;
+        for (Partition partition : partitions) {
+            if (partition.isDefault) {
+                hasDefault = true;
+            } else if (partition.overlaps(from, to)) {
+                return;
+            }
+        }
+
+        String name = table + "_p" + SUFFIX.print(day);
+        boolean moveFromDefault = hasDefault;
+
+        nzyme.getDatabase().useHandle(handle -> handle.useTransaction(tx -> {
+            tx.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+            tx.execute("CREATE TABLE " + name + " (LIKE " + table + " INCLUDING DEFAULTS)");
+
+            if (moveFromDefault) {
+                int moved = tx.createUpdate("WITH moved AS (DELETE FROM " + table + "_default " +
+                                "WHERE " + column + " >= :from AND " + column + " < :to RETURNING *) " +
+                                "INSERT INTO " + name + " SELECT * FROM moved")
+                        .bind("from", from)
+                        .bind("to", to)
+                        .execute();
+
+                if (moved > 0) {
+                    LOG.info("Moved <{}> rows from default partition of table [{}] into new partition [{}].",
+                            moved, table, name);
+                }
+            }
+
+            tx.execute("ALTER TABLE " + table + " ATTACH PARTITION " + name + " FOR VALUES " +
+                    "FROM ('" + from + "') TO ('" + to + "')");
+        }));
+
+        LOG.info("Created partition [{}] of table [{}].", name, table);
+    }
+
+    private List<Partition> findPartitions(String table) {
+        return nzyme.getDatabase().withHandle(handle -> findPartitions(handle, table));
+    }
+
+    private static List<Partition> findPartitions(Handle handle, String table) {
+        return handle.createQuery("SELECT c.relname AS name, " +
+                        "pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT' AS is_default, " +
+                        "(regexp_match(pg_get_expr(c.relpartbound, c.oid), 'FROM \\(''([^'']+)''\\)'))[1]::timestamptz " +
+                        "AS lower_bound, " +
+                        "(regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \\(''([^'']+)''\\)'))[1]::timestamptz " +
+                        "AS upper_bound " +
+                        "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass(:table)")
+                .bind("table", table)
+                .map((rs, ctx) -> new Partition(
+                        rs.getString("name"),
+                        rs.getBoolean("is_default"),
+                        rs.getTimestamp("lower_bound") == null ? null : new DateTime(rs.getTimestamp("lower_bound")),
+                        rs.getTimestamp("upper_bound") == null ? null : new DateTime(rs.getTimestamp("upper_bound"))
+                ))
+                .list();
+    }
+
+    private static final class Partition {
+
+        private final String name;
+        private final boolean isDefault;
+
+        // Null if unbounded.
+        @Nullable
+        private final DateTime lowerBound;
+        @Nullable
+        private final DateTime upperBound;
+
+        Partition(String name, boolean isDefault, @Nullable DateTime lowerBound, @Nullable DateTime upperBound) {
+            this.name = name;
+            this.isDefault = isDefault;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+        }
+
+        boolean overlaps(DateTime from, DateTime to) {
+            return (lowerBound == null || lowerBound.isBefore(to)) && (upperBound == null || upperBound.isAfter(from));
+        }
+
+    }
+
+}
@@ -0,0 +1,215 @@
+package app.nzyme.core.database;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.Handle;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives PostgreSQL notifications (LISTEN/NOTIFY) over a single dedicated connection per node. The connection is
+ * opened outside of the connection pool because it is held for the lifetime of the node.
+ *
+ * Callbacks are called on the listener thread and must return quickly. They only signal that something is waiting,
+ * never what: Notifications are lost while the connection is down, so all callbacks are called after every
+ * (re)connect and consumers must read the actual state from the database.
+ */
+public class PostgresNotificationListener {
+
+    private static final Logger LOG = LogManager.getLogger(PostgresNotificationListener.class);
+
+    // How long to block waiting for notifications before picking up new channels or noticing a shutdown.
+    private static final int WAIT_TIMEOUT_MS = 1000;
+
+    private static final int RECONNECT_DELAY_MS = 2500;
+
+    private final String jdbcUrl;
+
+    private final Map<String, List<Runnable>> callbacks;
+
+    private ExecutorService executor;
+    private Connection connection;
+    private Set<String> listening;
+
+    private volatile boolean running;
+
+    public PostgresNotificationListener(String jdbcUrl) {
+        this.jdbcUrl = jdbcUrl;
+        this.callbacks = Maps.newConcurrentMap();
+    }
+
+    /**
+     * Connects and starts listening on all channels registered so far before returning. Channels registered later are
+     * picked up by the listener thread.
+     */
+    public void initialize() {
+        this.running = true;
+
+        try {
+            connect();
+        } catch (SQLException e) {
+            LOG.error("Could not connect notification listener. Retrying in background.", e);
+            disconnect();
+        }
+
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("psql-notification-listener-%d")
+                .build());
+        this.executor.submit(this::run);
+    }
+
+    public void shutdown() {
+        this.running = false;
+
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(WAIT_TIMEOUT_MS * 2L, TimeUnit.MILLISECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        disconnect();
+    }
+
+    public void listen(String channel, Runnable callback) {
+        callbacks.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(callback);
+    }
+
+    /**
+     * Notifies all listeners of a channel. Delivered when the transaction of the handle commits.
+     */
+    public static void sendNotification(Handle handle, String channel) {
+        handle.createQuery("SELECT pg_notify(:channel, '')")
+                .bind("channel", channel)
+                .mapTo(String.class)
+                .findOne();
+    }
+
+    /**
+     * @return Channel name of a node. Channel names are identifiers and must not contain dashes.
+     */
+    public static String nodeChannel(String prefix, UUID nodeId) {
+        return prefix + "_" + nodeId.toString().replace("-", "");
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (connection == null) {
+                    connect();
+                }
+
+                listenOnNewChannels();
+
+                PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                        .getNotifications(WAIT_TIMEOUT_MS);
+
+                if (notifications == null || notifications.length == 0) {
+                    continue;
+                }
+
+                // Many notifications on the same channel only need one wakeup.
+                Set<String> channels = Sets.newHashSet();
+                for (PGNotification notification : notifications) {
+                    channels.add(notification.getName());
+                }
+
+                for (String channel : channels) {
+                    fire(channel);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+
+                LOG.warn("Notification listener failed. Reconnecting in <{}ms>.", RECONNECT_DELAY_MS, e);
+                disconnect();
+
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void connect() throws SQLException {
+        this.connection = DriverManager.getConnection(jdbcUrl);
+        this.connection.setAutoCommit(true);
+        this.listening = Sets.newHashSet();
+
+        listenOnNewChannels();
+
+        // Anything sent while we were not listening would otherwise only be picked up by the next poll.
+        for (String channel : listening) {
+            fire(channel);
+        }
+
+        LOG.info("Listening for database notifications on channels {}.", listening);
+    }
+
+    private void listenOnNewChannels() throws SQLException {
+        for (String channel : callbacks.keySet()) {
+            if (listening.contains(channel)) {
+                continue;
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN \"" + channel + "\"");
+            }
+
+            listening.add(channel);
+        }
+    }
+
+    private void fire(String channel) {
+        List<Runnable> channelCallbacks = callbacks.get(channel);
+        if (channelCallbacks == null) {
+            return;
+        }
+
+        for (Runnable callback : channelCallbacks) {
+            try {
+                callback.run();
+            } catch (Exception e) {
+                LOG.error("Notification callback of channel [{}] failed.", channel, e);
+            }
+        }
+    }
+
+    private void disconnect() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.debug("Could not close notification listener connection.", e);
+            }
+        }
+
+        this.connection = null;
+    }
+
+}
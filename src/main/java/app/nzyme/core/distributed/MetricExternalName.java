@@ -23,6 +23,8 @@ public enum MetricExternalName {
 
     GEOIP_CACHE_SIZE("geoip_cache_size"),
     CONTEXT_MAC_CACHE_SIZE("context_mac_cache_size"),
+    REGISTRY_CACHE_HITS("registry_cache_hits"),
+    REGISTRY_CACHE_MISSES("registry_cache_misses"),
     LOG_COUNTS_TRACE("log_counts_trace"),
     LOG_COUNTS_DEBUG("log_counts_debug"),
     LOG_COUNTS_INFO("log_counts_info"),
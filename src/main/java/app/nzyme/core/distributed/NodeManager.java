@@ -8,6 +8,7 @@ import app.nzyme.core.logging.CountingAppender;
 import app.nzyme.core.monitoring.TimerEntry;
 import app.nzyme.core.taps.db.metrics.BucketSize;
 import app.nzyme.core.util.MetricNames;
+import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Snapshot;
@@ -315,6 +316,8 @@ public class NodeManager {
             writeGauge(MetricExternalName.LOG_COUNTS_FATAL.database_label, logCounts.getOrDefault("FATAL", 0L));
             writeGauge(MetricExternalName.GEOIP_CACHE_SIZE.database_label, getLocalMetricsGaugeValue(metrics, MetricNames.GEOIP_CACHE_SIZE));
             writeGauge(MetricExternalName.CONTEXT_MAC_CACHE_SIZE.database_label, getLocalMetricsGaugeValue(metrics, MetricNames.CONTEXT_MAC_CACHE_SIZE));
+            writeGauge(MetricExternalName.REGISTRY_CACHE_HITS.database_label, getLocalMetricsCounterValue(metrics, MetricNames.REGISTRY_CACHE_HITS));
+            writeGauge(MetricExternalName.REGISTRY_CACHE_MISSES.database_label, getLocalMetricsCounterValue(metrics, MetricNames.REGISTRY_CACHE_MISSES));
 
             writeTimer(MetricExternalName.PGP_ENCRYPTION_TIMER.database_label,
                     metrics.getTimers().get(MetricNames.PGP_ENCRYPTION_TIMING));
@@ -380,6 +383,16 @@ public class NodeManager {
         }
     }
 
+    private double getLocalMetricsCounterValue(MetricRegistry metrics, String metricName) {
+        Counter counter = metrics.getCounters().get(metricName);
+
+        if (counter == null) {
+            return 0;
+        }
+
+        return counter.getCount();
+    }
+
     private void writeGauge(String metricName, double metricValue) {
         nzyme.getDatabase().withHandle(handle -> handle.createUpdate("INSERT INTO node_metrics_gauges(node_id, " +
                         "metric_name, metric_value, created_at) VALUES(:node_id, :metric_name, :metric_value, " +
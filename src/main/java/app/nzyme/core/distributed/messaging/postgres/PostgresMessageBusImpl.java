@@ -1,9 +1,12 @@
 package app.nzyme.core.distributed.messaging.postgres;
 
 import app.nzyme.core.NzymeNode;
+import app.nzyme.core.database.PostgresNotificationListener;
 import app.nzyme.core.distributed.Node;
+import app.nzyme.core.util.MetricNames;
 import app.nzyme.plugin.distributed.messaging.*;
 import com.beust.jcommander.internal.Lists;
+import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -18,25 +21,39 @@ import org.joda.time.DateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class PostgresMessageBusImpl implements MessageBus {
 
     private static final Logger LOG = LogManager.getLogger(PostgresMessageBusImpl.class);
 
+    private static final String NOTIFICATION_CHANNEL_PREFIX = "nzyme_bus";
+
     private final NzymeNode nzyme;
     private final ObjectMapper om;
 
     private final Map<MessageType, List<MessageHandler>> messageHandlers;
 
+    private final Timer deliveryLatencyTimer;
+
+    private ScheduledExecutorService poller;
+    private final AtomicBoolean pollRequested;
+
     private boolean initialized;
+    private boolean notificationsEnabled;
 
     public PostgresMessageBusImpl(NzymeNode nzyme) {
         this.nzyme = nzyme;
         this.initialized = false;
 
         this.messageHandlers = Maps.newConcurrentMap();
+        this.pollRequested = new AtomicBoolean(false);
+
+        this.deliveryLatencyTimer = nzyme.getMetrics().timer(MetricNames.MESSAGE_BUS_DELIVERY_LATENCY);
 
         this.om = new ObjectMapper()
                 .configure(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES, false)
@@ -44,6 +61,13 @@ public class PostgresMessageBusImpl implements MessageBus {
     }
 
     public void initialize(int pollInterval, TimeUnit pollIntervalUnit) {
+        initialize(pollInterval, pollIntervalUnit, false);
+    }
+
+    /**
+     * @param notifications Push messages with LISTEN/NOTIFY. The poll interval is only a safety net in that case.
+     */
+    public void initialize(int pollInterval, TimeUnit pollIntervalUnit, boolean notifications) {
         // Find existing still ACK'd messages of this node and mark as failed. They were stuck/running at last shutdown.
         nzyme.getDatabase().withHandle(handle ->
                 handle.createUpdate("UPDATE message_bus_messages SET status = :failed " +
@@ -54,11 +78,22 @@ public class PostgresMessageBusImpl implements MessageBus {
                         .execute()
         );
 
-        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        this.poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
                 .setDaemon(true)
                 .setNameFormat("psql-bus-poller-%d")
                 .build()
-        ).scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, pollIntervalUnit);
+        );
+        this.poller.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, pollIntervalUnit);
+
+        this.notificationsEnabled = notifications;
+        if (notifications) {
+            nzyme.getNotificationListener().listen(
+                    PostgresNotificationListener.nodeChannel(
+                            NOTIFICATION_CHANNEL_PREFIX, nzyme.getNodeManager().getLocalNodeId()
+                    ),
+                    this::requestPoll
+            );
+        }
 
         Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
                 .setDaemon(true)
@@ -72,7 +107,23 @@ public class PostgresMessageBusImpl implements MessageBus {
 
     @Override
     public void initialize() {
-        initialize(5, TimeUnit.SECONDS);
+        if (nzyme.getConfiguration().database().notifications()) {
+            initialize(nzyme.getConfiguration().database().safetyPollIntervalSeconds(), TimeUnit.SECONDS, true);
+        } else {
+            initialize(5, TimeUnit.SECONDS, false);
+        }
+    }
+
+    /**
+     * Runs a poll on the poller thread as soon as possible. Requests made while a poll is waiting to run are merged.
+     */
+    private void requestPoll() {
+        if (pollRequested.compareAndSet(false, true)) {
+            poller.execute(() -> {
+                pollRequested.set(false);
+                poll();
+            });
+        }
     }
 
     public void poll() {
@@ -96,6 +147,10 @@ public class PostgresMessageBusImpl implements MessageBus {
                 // Acknowledge message.
                 ackMessage(message.id());
 
+                // Includes clock differences between nodes for messages sent by other nodes.
+                long latencyMs = DateTime.now().getMillis() - message.createdAt().getMillis();
+                deliveryLatencyTimer.update(Math.max(latencyMs, 0), TimeUnit.MILLISECONDS);
+
                 MessageType type;
                 try {
                     type = MessageType.valueOf(message.type());
@@ -175,6 +230,22 @@ public class PostgresMessageBusImpl implements MessageBus {
                         .bind("created_at", DateTime.now())
                         .execute()
         );
+
+        if (notificationsEnabled) {
+            notifyReceiver(message.receiver());
+        }
+    }
+
+    private void notifyReceiver(UUID receiver) {
+        try {
+            nzyme.getDatabase().useHandle(handle -> PostgresNotificationListener.sendNotification(
+                    handle,
+                    PostgresNotificationListener.nodeChannel(NOTIFICATION_CHANNEL_PREFIX, receiver)
+            ));
+        } catch (Exception e) {
+            // The receiver will still pick up the message with its next safety poll.
+            LOG.warn("Could not notify node [{}] about new message.", receiver, e);
+        }
     }
 
     @Override
@@ -1,7 +1,11 @@
 package app.nzyme.core.distributed.tasksqueue.postgres;
 
 import app.nzyme.core.NzymeNode;
+import app.nzyme.core.configuration.node.PerformanceConfiguration;
+import app.nzyme.core.database.PostgresNotificationListener;
+import app.nzyme.core.util.MetricNames;
 import app.nzyme.plugin.distributed.tasksqueue.*;
+import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -13,30 +17,66 @@ import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.statement.PreparedBatch;
 import org.joda.time.DateTime;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PostgresTasksQueueImpl implements TasksQueue {
 
     private static final Logger LOG = LogManager.getLogger(PostgresTasksQueueImpl.class);
 
+    // All nodes share one queue and listen on the same channel.
+    private static final String NOTIFICATION_CHANNEL = "nzyme_tasks";
+
     public NzymeNode nzyme;
     private final ObjectMapper om;
 
     private final Map<TaskType, List<TaskHandler>> taskHandlers;
 
+    private final int workerCount;
+    private final int concurrency;
+    private final int claimBatchSize;
+
+    private final Map<TaskType, Semaphore> typePermits;
+    private final AtomicInteger inFlight;
+    private final AtomicBoolean moreWaiting;
+    private final Queue<Completion> completions;
+
+    private final Timer deliveryLatencyTimer;
+
+    private ScheduledExecutorService poller;
+    private ExecutorService workers;
+    private final AtomicBoolean pollRequested;
+
     private boolean initialized;
+    private boolean notificationsEnabled;
 
     public PostgresTasksQueueImpl(NzymeNode nzyme) {
         this.nzyme = nzyme;
         this.initialized = false;
 
         this.taskHandlers = Maps.newConcurrentMap();
+        this.pollRequested = new AtomicBoolean(false);
+
+        PerformanceConfiguration performance = nzyme.getConfiguration().performance();
+        this.workerCount = performance.taskWorkers();
+        this.concurrency = performance.taskConcurrency();
+        this.claimBatchSize = performance.taskClaimBatchSize();
+
+        this.typePermits = new ConcurrentHashMap<>();
+        this.inFlight = new AtomicInteger(0);
+        this.moreWaiting = new AtomicBoolean(false);
+        this.completions = new ConcurrentLinkedQueue<>();
+
+        this.deliveryLatencyTimer = nzyme.getMetrics().timer(MetricNames.TASKS_QUEUE_DELIVERY_LATENCY);
 
         this.om = new ObjectMapper()
                 .configure(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES, false)
@@ -45,10 +85,21 @@ public class PostgresTasksQueueImpl implements TasksQueue {
 
     @Override
     public void initialize() {
-        initialize(5, TimeUnit.SECONDS);
+        if (nzyme.getConfiguration().database().notifications()) {
+            initialize(nzyme.getConfiguration().database().safetyPollIntervalSeconds(), TimeUnit.SECONDS, true);
+        } else {
+            initialize(5, TimeUnit.SECONDS, false);
+        }
     }
 
     public void initialize(int pollInterval, TimeUnit pollIntervalUnit) {
+        initialize(pollInterval, pollIntervalUnit, false);
+    }
+
+    /**
+     * @param notifications Push tasks with LISTEN/NOTIFY. The poll interval is only a safety net in that case.
+     */
+    public void initialize(int pollInterval, TimeUnit pollIntervalUnit, boolean notifications) {
         // Find existing still ACK'd tasks of this node and mark as failed. They were stuck/running at last shutdown.
         nzyme.getDatabase().withHandle(handle ->
                 handle.createUpdate("UPDATE tasks_queue SET status = :failed " +
@@ -59,11 +110,23 @@ public class PostgresTasksQueueImpl implements TasksQueue {
                         .execute()
         );
 
-        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        this.workers = Executors.newFixedThreadPool(workerCount, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("psql-tasks-worker-%d")
+                .build()
+        );
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
                 .setDaemon(true)
                 .setNameFormat("psql-tasks-poller-%d")
                 .build()
-        ).scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, pollIntervalUnit);
+        );
+        this.poller.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, pollIntervalUnit);
+
+        this.notificationsEnabled = notifications;
+        if (notifications) {
+            nzyme.getNotificationListener().listen(NOTIFICATION_CHANNEL, this::requestPoll);
+        }
 
         Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
                 .setDaemon(true)
@@ -107,27 +170,83 @@ public class PostgresTasksQueueImpl implements TasksQueue {
                         .bind("allow_process_self", task.allowProcessSelf())
                         .execute()
         );
+
+        if (notificationsEnabled) {
+            try {
+                nzyme.getDatabase().useHandle(handle ->
+                        PostgresNotificationListener.sendNotification(handle, NOTIFICATION_CHANNEL)
+                );
+            } catch (Exception e) {
+                // Nodes will still pick up the task with their next safety poll.
+                LOG.warn("Could not notify nodes about new task.", e);
+            }
+        }
+    }
+
+    /**
+     * Runs a poll on the poller thread as soon as possible. Requests made while a poll is waiting to run are merged.
+     */
+    private void requestPoll() {
+        if (pollRequested.compareAndSet(false, true)) {
+            try {
+                poller.execute(() -> {
+                    pollRequested.set(false);
+                    poll();
+                });
+            } catch (RejectedExecutionException ignored) {
+                // Shutting down.
+            }
+        }
     }
 
     @Override
     public void poll() {
         try {
+            int capacity = Math.min(workerCount - inFlight.get(), claimBatchSize);
+            if (capacity <= 0) {
+                return;
+            }
+
+            /*
+             * Only claim tasks this node has handlers for and leave types that are already running at their
+             * concurrency limit for other nodes.
+             */
+            List<String> claimableTypes = Lists.newArrayList();
+            for (TaskType type : taskHandlers.keySet()) {
+                if (typePermits(type).availablePermits() > 0) {
+                    claimableTypes.add(type.name());
+                }
+            }
+
+            if (claimableTypes.isEmpty()) {
+                return;
+            }
+
             List<PostgresTasksQueueEntry> tasks = nzyme.getDatabase().withHandle(handle ->
                     handle.createQuery("UPDATE tasks_queue SET status = 'ACK', previous_status = status, " +
                                     "last_acked_at = :timestamp, acked_by = :own_node_id " +
-                                    "WHERE status IN ('NEW', 'NEW_RETRY') AND (allow_process_self = true " +
-                                    "OR (allow_process_self = false AND sender_node_id != :own_node_id)) RETURNING *")
+                                    "WHERE id IN (SELECT id FROM tasks_queue " +
+                                    "WHERE status IN ('NEW', 'NEW_RETRY') AND type IN (<types>) " +
+                                    "AND (allow_process_self = true " +
+                                    "OR (allow_process_self = false AND sender_node_id != :own_node_id)) " +
+                                    "ORDER BY created_at ASC LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *")
                             .bind("own_node_id", nzyme.getNodeInformation().id())
                             .bind("timestamp", DateTime.now())
+                            .bindList("types", claimableTypes)
+                            .bind("limit", capacity)
                             .mapTo(PostgresTasksQueueEntry.class)
                             .list()
             );
 
+            // A full batch means there may be more. Poll again as soon as a worker is free.
+            moreWaiting.set(tasks.size() == capacity);
+
             if (tasks.isEmpty()) {
                 LOG.debug("No tasks polled.");
                 return;
             }
 
+            List<PostgresTasksQueueEntry> released = Lists.newArrayList();
             for (PostgresTasksQueueEntry task : tasks) {
                 LOG.debug("Polled task from bus: [{}]", task);
 
@@ -147,90 +266,188 @@ public class PostgresTasksQueueImpl implements TasksQueue {
                     continue;
                 }
 
-                DateTime timestamp = DateTime.now();
+                // More tasks of the same type than permits may have been claimed in one poll.
+                Semaphore permits = typePermits(type);
+                if (!permits.tryAcquire()) {
+                    released.add(task);
+                    continue;
+                }
 
-                // Send to registered handlers.
-                if (taskHandlers.containsKey(type)) {
-                    for (TaskHandler handler : taskHandlers.get(type)) {
-                        if (previousStatus.equals(TaskStatus.NEW_RETRY)) {
-                            incrementRetryCount(task.id());
+                inFlight.incrementAndGet();
+                try {
+                    workers.execute(() -> {
+                        try {
+                            execute(task, type, previousStatus);
+                        } catch (Exception e) {
+                            LOG.error("Could not execute cluster task <#{}>.", task.id(), e);
+                        } finally {
+                            permits.release();
+                            inFlight.decrementAndGet();
                         }
 
-                        Map<String, Object> serializedParameters = this.om.readValue(
-                                task.parameters(),
-                                new TypeReference<HashMap<String, Object>>() {
-                                }
-                        );
-
-                        Stopwatch stopwatch = Stopwatch.createStarted();
-                        TaskProcessingResult opResult = handler.handle(ReceivedTask.create(
-                                type,
-                                task.senderNodeId(),
-                                task.allowProcessSelf(),
-                                serializedParameters,
-                                task.parameters(),
-                                task.allowRetry()
-                        ));
-                        long tookMs = stopwatch.elapsed(TimeUnit.MILLISECONDS);
-                        if (tookMs == 0) {
-                            tookMs = 1;
+                        if (moreWaiting.get()) {
+                            requestPoll();
                         }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    inFlight.decrementAndGet();
+                    released.add(task);
+                }
+            }
 
-                        if (opResult.equals(TaskProcessingResult.FAILURE)) {
-                            LOG.error("Could not execute cluster task <#{}> of type [{}]. Marking as failure.",
-                                    task.id(), task.type());
-                        }
+            if (!released.isEmpty()) {
+                release(released);
+                moreWaiting.set(true);
+            }
+        } catch(Exception e) {
+            LOG.error("Could not poll tasks queue.", e);
+        }
+    }
 
-                        setTaskStatus(task.id(),
-                                opResult == TaskProcessingResult.SUCCESS
-                                        ? TaskStatus.PROCESSED_SUCCESS : TaskStatus.PROCESSED_FAILURE
-                        );
+    public void shutdown() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
 
-                        if (previousStatus.equals(TaskStatus.NEW)) {
-                            setTaskFirstProcessedAt(task.id(), timestamp);
-                        }
-                        setTaskPostProcessMetadata(task.id(), timestamp, (int) tookMs);
-                    }
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                    LOG.warn("Tasks queue workers did not finish in time.");
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-        } catch(Exception e) {
-            LOG.error("Could not poll tasks queue.", e);
         }
+
+        flushCompletions();
     }
 
-    private void setTaskStatus(long taskId, TaskStatus status) {
-        nzyme.getDatabase().useHandle(handle ->
-                handle.createUpdate("UPDATE tasks_queue SET status = :status WHERE id = :id")
-                        .bind("status", status.name())
-                        .bind("id", taskId)
-                        .execute()
+    private void execute(PostgresTasksQueueEntry task, TaskType type, TaskStatus previousStatus)
+            throws JsonProcessingException {
+        DateTime timestamp = DateTime.now();
+
+        // Retried tasks would report the time since their first publication.
+        if (previousStatus.equals(TaskStatus.NEW)) {
+            long latencyMs = timestamp.getMillis() - task.createdAt().getMillis();
+            deliveryLatencyTimer.update(Math.max(latencyMs, 0), TimeUnit.MILLISECONDS);
+        }
+
+        Map<String, Object> serializedParameters = this.om.readValue(
+                task.parameters(),
+                new TypeReference<HashMap<String, Object>>() {
+                }
         );
+
+        // The task failed if any of the handlers failed.
+        boolean success = true;
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        for (TaskHandler handler : taskHandlers.getOrDefault(type, Collections.emptyList())) {
+            TaskProcessingResult opResult;
+            try {
+                opResult = handler.handle(ReceivedTask.create(
+                        type,
+                        task.senderNodeId(),
+                        task.allowProcessSelf(),
+                        serializedParameters,
+                        task.parameters(),
+                        task.allowRetry()
+                ));
+            } catch (Exception e) {
+                LOG.error("Task handler [{}] failed on cluster task <#{}>.", handler.getName(), task.id(), e);
+                opResult = TaskProcessingResult.FAILURE;
+            }
+
+            if (opResult.equals(TaskProcessingResult.FAILURE)) {
+                LOG.error("Could not execute cluster task <#{}> of type [{}]. Marking as failure.",
+                        task.id(), task.type());
+                success = false;
+            }
+        }
+        long tookMs = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        if (tookMs == 0) {
+            tookMs = 1;
+        }
+
+        completions.add(new Completion(
+                task.id(),
+                success ? TaskStatus.PROCESSED_SUCCESS : TaskStatus.PROCESSED_FAILURE,
+                previousStatus.equals(TaskStatus.NEW),
+                previousStatus.equals(TaskStatus.NEW_RETRY),
+                timestamp,
+                (int) tookMs
+        ));
+
+        flushCompletions();
     }
 
-    private void incrementRetryCount(long taskId) {
-        nzyme.getDatabase().useHandle(handle ->
-                handle.createUpdate("UPDATE tasks_queue SET retries = retries+1 WHERE id = :id")
-                        .bind("id", taskId)
-                        .execute()
-        );
+    /**
+     * Writes the results of all finished tasks in one batch. Called by every worker after finishing a task, so
+     * results of tasks that finish at the same time are written together.
+     */
+    private void flushCompletions() {
+        List<Completion> batch = Lists.newArrayList();
+        Completion completion;
+        while ((completion = completions.poll()) != null) {
+            batch.add(completion);
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            nzyme.getDatabase().useHandle(handle -> {
+                PreparedBatch update = handle.prepareBatch("UPDATE tasks_queue SET status = :status, " +
+                        "retries = retries + :retry_increment, " +
+                        "first_processed_at = CASE WHEN :first_attempt THEN :processed_at " +
+                        "ELSE first_processed_at END, last_processed_at = :processed_at, " +
+                        "processing_time_ms = :processing_time_ms, processed_by = :node_id WHERE id = :id");
+
+                for (Completion c : batch) {
+                    update.bind("status", c.status.name())
+                            .bind("retry_increment", c.retry ? 1 : 0)
+                            .bind("first_attempt", c.firstAttempt)
+                            .bind("processed_at", c.processedAt)
+                            .bind("processing_time_ms", c.processingTimeMs)
+                            .bind("node_id", nzyme.getNodeInformation().id())
+                            .bind("id", c.taskId)
+                            .add();
+                }
+
+                update.execute();
+            });
+        } catch (Exception e) {
+            LOG.error("Could not write results of [{}] cluster tasks.", batch.size(), e);
+        }
     }
 
-    private void setTaskFirstProcessedAt(long taskId, DateTime timestamp) {
+    /**
+     * Puts claimed tasks that this node can't execute right now back into the queue.
+     */
+    private void release(List<PostgresTasksQueueEntry> tasks) {
+        List<Long> ids = Lists.newArrayList();
+        for (PostgresTasksQueueEntry task : tasks) {
+            ids.add(task.id());
+        }
+
         nzyme.getDatabase().useHandle(handle ->
-                handle.createUpdate("UPDATE tasks_queue SET first_processed_at = :first_processed_at WHERE id = :id")
-                        .bind("first_processed_at", timestamp)
-                        .bind("id", taskId)
+                handle.createUpdate("UPDATE tasks_queue SET status = previous_status, acked_by = NULL, " +
+                                "last_acked_at = NULL WHERE id IN (<ids>)")
+                        .bindList("ids", ids)
                         .execute()
         );
     }
 
-    private void setTaskPostProcessMetadata(long taskId, DateTime timestamp,  int processingTimeMs) {
+    private Semaphore typePermits(TaskType type) {
+        return typePermits.computeIfAbsent(type, t -> new Semaphore(concurrency));
+    }
+
+    private void setTaskStatus(long taskId, TaskStatus status) {
         nzyme.getDatabase().useHandle(handle ->
-                handle.createUpdate("UPDATE tasks_queue SET last_processed_at = :last_processed_at, " +
-                                "processing_time_ms = :processing_time_ms, processed_by = :node_id WHERE id = :id")
-                        .bind("last_processed_at", timestamp)
-                        .bind("processing_time_ms", processingTimeMs)
-                        .bind("node_id", nzyme.getNodeInformation().id())
+                handle.createUpdate("UPDATE tasks_queue SET status = :status WHERE id = :id")
+                        .bind("status", status.name())
                         .bind("id", taskId)
                         .execute()
         );
@@ -357,4 +574,23 @@ public class PostgresTasksQueueImpl implements TasksQueue {
         );
     }
 
-}
\ No newline at end of file
+    private static final class Completion {
+        private final long taskId;
+        private final TaskStatus status;
+        private final boolean firstAttempt;
+        private final boolean retry;
+        private final DateTime processedAt;
+        private final int processingTimeMs;
+
+        private Completion(long taskId, TaskStatus status, boolean firstAttempt, boolean retry, DateTime processedAt,
+                           int processingTimeMs) {
+            this.taskId = taskId;
+            this.status = status;
+            this.firstAttempt = firstAttempt;
+            this.retry = retry;
+            this.processedAt = processedAt;
+            this.processingTimeMs = processingTimeMs;
+        }
+    }
+
+}
@@ -6,18 +6,24 @@ import app.nzyme.core.database.OrderDirection;
 import app.nzyme.core.dot11.db.*;
 import app.nzyme.core.dot11.db.monitoring.*;
 import app.nzyme.core.dot11.db.monitoring.probereq.MonitoredProbeRequestEntry;
+import app.nzyme.core.dot11.monitoring.disco.DiscoActivityWindows;
 import app.nzyme.core.dot11.monitoring.disco.db.Dot11DiscoMonitorMethodConfiguration;
 import app.nzyme.core.dot11.tracks.db.TrackDetectorConfig;
+import app.nzyme.core.dot11.tracks.db.TrackDetectorConfigEntry;
 import app.nzyme.core.rest.authentication.AuthenticatedUser;
 import app.nzyme.core.rest.resources.taps.reports.tables.dot11.Dot11SecurityInformationReport;
 import app.nzyme.core.rest.responses.dot11.Dot11MacAddressContextResponse;
 import app.nzyme.core.rest.responses.dot11.Dot11MacAddressResponse;
 import app.nzyme.core.rest.responses.dot11.clients.ConnectedBSSID;
 import app.nzyme.core.shared.db.TapBasedSignalStrengthResult;
+import app.nzyme.core.tables.dot11.monitoring.MonitoringSnapshot;
+import app.nzyme.core.tables.dot11.monitoring.MonitoringSnapshotCache;
 import app.nzyme.core.util.Bucketing;
 import app.nzyme.core.util.TimeRange;
 import app.nzyme.core.util.TimeRangeFactory;
 import app.nzyme.core.util.Tools;
+import app.nzyme.plugin.distributed.messaging.ClusterMessage;
+import app.nzyme.plugin.distributed.messaging.MessageType;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -35,6 +41,7 @@ import org.joda.time.DateTime;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class Dot11 {
 
@@ -47,7 +54,19 @@ public class Dot11 {
         add("GYGzDTnSDLgJs9rMY8ZXj0EVwDBw2lZl");
     }};
 
+    // Rows read from the database at once when streaming results.
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    /*
+     * A streaming result holds its connection until the HTTP client has read all rows. Postgres closes the connection
+     * if the client stalls for longer than this between two chunks, so a slow client cannot hold a pool connection
+     * forever. The response is cut off in that case.
+     */
+    private static final int STREAM_IDLE_TIMEOUT_MS = 30_000;
+
     private final NzymeNode nzyme;
+    private final MonitoringSnapshotCache monitoringSnapshots;
+    private final DiscoActivityWindows discoActivityWindows;
 
     public enum ClientOrderColumn {
 
@@ -120,6 +139,31 @@ public class Dot11 {
 
     public Dot11(NzymeNode nzyme) {
         this.nzyme = nzyme;
+        this.monitoringSnapshots = new MonitoringSnapshotCache(nzyme);
+        this.discoActivityWindows = new DiscoActivityWindows(nzyme);
+    }
+
+    public DiscoActivityWindows getDiscoActivityWindows() {
+        return discoActivityWindows;
+    }
+
+    public MonitoringSnapshot getMonitoringSnapshot(UUID organizationId, UUID tenantId) {
+        return monitoringSnapshots.get(organizationId, tenantId);
+    }
+
+    public void invalidateMonitoringSnapshots() {
+        monitoringSnapshots.invalidate();
+    }
+
+    private void invalidateMonitoringSnapshotsClusterWide() {
+        // Invalidate locally right away. The message will also reach this node, but only after the next bus poll.
+        monitoringSnapshots.invalidate();
+
+        nzyme.getMessageBus().sendToAllOnlineNodes(ClusterMessage.create(
+                MessageType.INVALIDATE_CACHE,
+                Map.of("cache_type", "dot11_monitoring"),
+                false
+        ));
     }
 
     public Dot11MacAddressMetadata getMacAddressMetadata(String macAddress, List<UUID> taps) {
@@ -282,33 +326,57 @@ public class Dot11 {
         }
 
         return nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT b.bssid, AVG(b.signal_strength_average) AS signal_strength_average, " +
-                                "MIN(b.created_at) AS first_seen, MAX(b.created_at) AS last_seen, " +
-                                "SUM(b.hidden_ssid_frames) as hidden_ssid_frames, " +
-                                "ARRAY_AGG(DISTINCT(COALESCE(ssp.value, 'None'))) AS security_protocols, " +
-                                "ARRAY_AGG(DISTINCT(f.fingerprint)) AS fingerprints, " +
-                                "ARRAY_AGG(DISTINCT(s.ssid)) AS ssids, " +
-                                "ARRAY_AGG(DISTINCT(i.infrastructure_type)) AS infrastructure_types, " +
-                                "COUNT(DISTINCT(c.client_mac)) AS client_count, " +
-                                "ARRAY[]::integer[] AS frequencies " + // Part of BSSIDSummary but not needed.
-                                "FROM dot11_bssids AS b " +
-                                "LEFT JOIN dot11_ssids AS s ON b.id = s.bssid_id " +
-                                "LEFT JOIN dot11_fingerprints AS f ON b.id = f.bssid_id " +
-                                "LEFT JOIN dot11_infrastructure_types AS i on s.id = i.ssid_id " +
-                                "LEFT JOIN dot11_ssid_settings AS ssp on s.id = ssp.ssid_id " +
-                                "AND ssp.attribute = 'security_protocol' " +
-                                "LEFT JOIN dot11_bssid_clients AS c on b.id = c.bssid_id " +
-                                "WHERE b.created_at >= :tr_from AND b.created_at <= :tr_to " +
-                                "AND b.tap_uuid IN (<taps>) " +
-                                "GROUP BY b.bssid")
-                        .bind("tr_from", timeRange.from())
-                        .bind("tr_to", timeRange.to())
-                        .bindList("taps", taps)
+                buildBSSIDSummaryQuery(handle, timeRange, taps)
                         .mapTo(BSSIDSummary.class)
                         .list()
         );
     }
 
+    /**
+     * Like {@link #findBSSIDs(TimeRange, List)} but passes rows to the consumer while they are read from the
+     * database instead of collecting them first.
+     */
+    public void streamBSSIDs(TimeRange timeRange, List<UUID> taps, Consumer<BSSIDSummary> consumer) {
+        if (taps.isEmpty()) {
+            return;
+        }
+
+        // Postgres only reads results in chunks of the fetch size inside of a transaction.
+        nzyme.getDatabase().useHandle(handle -> handle.useTransaction(tx -> {
+            tx.execute("SET LOCAL idle_in_transaction_session_timeout = " + STREAM_IDLE_TIMEOUT_MS);
+
+            buildBSSIDSummaryQuery(tx, timeRange, taps)
+                    .setFetchSize(STREAM_FETCH_SIZE)
+                    .mapTo(BSSIDSummary.class)
+                    .forEach(consumer);
+        }));
+    }
+
+    private Query buildBSSIDSummaryQuery(Handle handle, TimeRange timeRange, List<UUID> taps) {
+        return handle.createQuery("SELECT b.bssid, AVG(b.signal_strength_average) AS signal_strength_average, " +
+                        "MIN(b.created_at) AS first_seen, MAX(b.created_at) AS last_seen, " +
+                        "SUM(b.hidden_ssid_frames) as hidden_ssid_frames, " +
+                        "ARRAY_AGG(DISTINCT(COALESCE(ssp.value, 'None'))) AS security_protocols, " +
+                        "ARRAY_AGG(DISTINCT(f.fingerprint)) AS fingerprints, " +
+                        "ARRAY_AGG(DISTINCT(s.ssid)) AS ssids, " +
+                        "ARRAY_AGG(DISTINCT(i.infrastructure_type)) AS infrastructure_types, " +
+                        "COUNT(DISTINCT(c.client_mac)) AS client_count, " +
+                        "ARRAY[]::integer[] AS frequencies " + // Part of BSSIDSummary but not needed.
+                        "FROM dot11_bssids AS b " +
+                        "LEFT JOIN dot11_ssids AS s ON b.id = s.bssid_id " +
+                        "LEFT JOIN dot11_fingerprints AS f ON b.id = f.bssid_id " +
+                        "LEFT JOIN dot11_infrastructure_types AS i on s.id = i.ssid_id " +
+                        "LEFT JOIN dot11_ssid_settings AS ssp on s.id = ssp.ssid_id " +
+                        "AND ssp.attribute = 'security_protocol' " +
+                        "LEFT JOIN dot11_bssid_clients AS c on b.id = c.bssid_id " +
+                        "WHERE b.created_at >= :tr_from AND b.created_at <= :tr_to " +
+                        "AND b.tap_uuid IN (<taps>) " +
+                        "GROUP BY b.bssid")
+                .bind("tr_from", timeRange.from())
+                .bind("tr_to", timeRange.to())
+                .bindList("taps", taps);
+    }
+
     public boolean bssidExist(String bssid, TimeRange timeRange, List<UUID> taps) {
         if (taps.isEmpty()) {
             return false;
@@ -533,6 +601,40 @@ public class Dot11 {
         );
     }
 
+    /**
+     * Signal strength waterfalls of all combinations of the given BSSIDs, frequencies and taps in one query. Only
+     * combinations with recorded signals are returned.
+     */
+    public List<SignalTrackSeriesEntry> getSSIDSignalStrengthWaterfalls(List<String> bssids,
+                                                                        String ssid,
+                                                                        List<Integer> frequencies,
+                                                                        TimeRange timeRange,
+                                                                        List<UUID> tapIds) {
+        if (bssids.isEmpty() || frequencies.isEmpty() || tapIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT s.bssid, h.frequency, s.tap_uuid, " +
+                                "DATE_TRUNC('minute', s.created_at) AS bucket, h.signal_strength, " +
+                                "SUM(h.frame_count) AS frame_count FROM dot11_ssids AS s " +
+                                "LEFT JOIN dot11_channel_histograms h on s.id = h.ssid_id " +
+                                "WHERE s.created_at >= :tr_from AND s.created_at <= :tr_to " +
+                                "AND s.tap_uuid IN (<tap_ids>) AND s.bssid IN (<bssids>) " +
+                                "AND s.ssid = :ssid AND h.frequency IN (<frequencies>) " +
+                                "GROUP BY s.bssid, h.frequency, s.tap_uuid, bucket, h.signal_strength " +
+                                "ORDER BY bucket DESC")
+                        .bind("tr_from", timeRange.from())
+                        .bind("tr_to", timeRange.to())
+                        .bindList("tap_ids", tapIds)
+                        .bindList("bssids", bssids)
+                        .bind("ssid", ssid)
+                        .bindList("frequencies", frequencies)
+                        .mapTo(SignalTrackSeriesEntry.class)
+                        .list()
+        );
+    }
+
     public List<SignalTrackHistogramEntry> getBSSIDSignalStrengthWaterfall(String bssid,
                                                                            int frequency,
                                                                            TimeRange timeRange,
@@ -576,6 +678,22 @@ public class Dot11 {
         );
     }
 
+    public List<TrackDetectorConfigEntry> findAllCustomTrackDetectorConfigurations(String ssid, List<UUID> tapIds) {
+        if (tapIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT organization_id, tap_id, bssid, channel, frame_threshold, " +
+                                "gap_threshold, signal_centerline_jitter FROM dot11_track_detector_configuration " +
+                                "WHERE ssid = :ssid AND tap_id IN (<tap_ids>)")
+                        .bind("ssid", ssid)
+                        .bindList("tap_ids", tapIds)
+                        .mapTo(TrackDetectorConfigEntry.class)
+                        .list()
+        );
+    }
+
     public void updateCustomTrackDetectorConfiguration(UUID organizationId,
                                                        UUID tapId,
                                                        String bssid,
@@ -1245,6 +1363,8 @@ public class Dot11 {
                     .bind("tenant_id", tenantId)
                     .execute()
         );
+
+        invalidateMonitoringSnapshotsClusterWide();
     }
 
     public void bumpMonitoredSSIDUpdatedAt(long networkId) {
@@ -1253,6 +1373,8 @@ public class Dot11 {
                     .bind("id", networkId)
                     .execute();
         });
+
+        invalidateMonitoringSnapshotsClusterWide();
     }
 
     public void setMonitoredSSIDEnabledState(long networkId, boolean enabled) {
@@ -1270,6 +1392,8 @@ public class Dot11 {
                     .bind("id", networkId)
                     .execute();
         });
+
+        invalidateMonitoringSnapshotsClusterWide();
     }
 
     public Optional<MonitoredSSID> findMonitoredSSID(UUID uuid) {
@@ -1540,6 +1664,8 @@ public class Dot11 {
                         .bind("description", description)
                         .execute()
         );
+
+        invalidateMonitoringSnapshotsClusterWide();
     }
 
     public void editCustomBandit(long id, String name, String description) {
@@ -1559,6 +1685,8 @@ public class Dot11 {
                         .bind("id", id)
                         .execute()
         );
+
+        invalidateMonitoringSnapshotsClusterWide();
     }
 
     public List<CustomBanditDescription> findAllCustomBandits(UUID organizationId,
@@ -1603,6 +1731,8 @@ public class Dot11 {
                     .bind("id", banditId)
                     .execute();
         });
+
+        invalidateMonitoringSnapshotsClusterWide();
     }
 
     public void addFingerprintOfCustomBandit(long banditId, String fingerprint) {
@@ -2281,6 +2411,8 @@ public class Dot11 {
                         .bind("tenant_id", tenantId)
                         .execute()
         );
+
+        invalidateMonitoringSnapshotsClusterWide();
     }
 
     public void updateMonitoredProbeRequest(UUID uuid,
@@ -2306,6 +2438,8 @@ public class Dot11 {
                         .bind("tenant_id", tenantId)
                         .execute()
         );
+
+        invalidateMonitoringSnapshotsClusterWide();
     }
 
     public void deleteMonitoredProbeRequest(UUID uuid,
@@ -2319,6 +2453,8 @@ public class Dot11 {
                         .bind("tenant_id", tenantId)
                         .execute()
         );
+
+        invalidateMonitoringSnapshotsClusterWide();
     }
 
     public long countAllKnownNetworks(UUID organizationId, UUID tenantId) {
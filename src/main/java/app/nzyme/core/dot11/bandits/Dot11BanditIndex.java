@@ -0,0 +1,52 @@
+package app.nzyme.core.dot11.bandits;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable index of bandits by fingerprint. Built once from all bandits of a tenant and then matched against every
+ * observed fingerprint with a single hash lookup.
+ */
+public class Dot11BanditIndex {
+
+    private final List<Dot11BanditDescription> bandits;
+    private final ImmutableSetMultimap<String, Dot11BanditDescription> byFingerprint;
+
+    public Dot11BanditIndex(List<Dot11BanditDescription> bandits) {
+        this.bandits = ImmutableList.copyOf(bandits);
+
+        // Multiple bandits can share a fingerprint. Keeps the order of the bandit list.
+        ImmutableSetMultimap.Builder<String, Dot11BanditDescription> index = ImmutableSetMultimap.builder();
+        for (Dot11BanditDescription bandit : bandits) {
+            // Bandits like the Pwnagotchi are not detected by fingerprint.
+            if (bandit.fingerprints() == null) {
+                continue;
+            }
+
+            for (String fingerprint : bandit.fingerprints()) {
+                index.put(fingerprint, bandit);
+            }
+        }
+
+        this.byFingerprint = index.build();
+    }
+
+    /**
+     * @return All bandits with this fingerprint. Empty if the fingerprint is not a known bandit fingerprint.
+     */
+    public Collection<Dot11BanditDescription> match(String fingerprint) {
+        return byFingerprint.get(fingerprint);
+    }
+
+    public List<Dot11BanditDescription> getBandits() {
+        return bandits;
+    }
+
+    public int getFingerprintCount() {
+        return byFingerprint.keySet().size();
+    }
+
+}
@@ -0,0 +1,49 @@
+package app.nzyme.core.dot11.db;
+
+import com.google.auto.value.AutoValue;
+import org.joda.time.DateTime;
+
+import java.util.UUID;
+
+@AutoValue
+public abstract class SignalTrackSeriesEntry {
+
+    public abstract String bssid();
+    public abstract int frequency();
+    public abstract UUID tapId();
+    public abstract DateTime bucket();
+    public abstract int signalStrength();
+    public abstract long frameCount();
+
+    public static SignalTrackSeriesEntry create(String bssid, int frequency, UUID tapId, DateTime bucket, int signalStrength, long frameCount) {
+        return builder()
+                .bssid(bssid)
+                .frequency(frequency)
+                .tapId(tapId)
+                .bucket(bucket)
+                .signalStrength(signalStrength)
+                .frameCount(frameCount)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_SignalTrackSeriesEntry.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder bssid(String bssid);
+
+        public abstract Builder frequency(int frequency);
+
+        public abstract Builder tapId(UUID tapId);
+
+        public abstract Builder bucket(DateTime bucket);
+
+        public abstract Builder signalStrength(int signalStrength);
+
+        public abstract Builder frameCount(long frameCount);
+
+        public abstract SignalTrackSeriesEntry build();
+    }
+}
@@ -0,0 +1,25 @@
+package app.nzyme.core.dot11.db;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.joda.time.DateTime;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+public class SignalTrackSeriesEntryMapper implements RowMapper<SignalTrackSeriesEntry> {
+
+    @Override
+    public SignalTrackSeriesEntry map(ResultSet rs, StatementContext ctx) throws SQLException {
+        return SignalTrackSeriesEntry.create(
+                rs.getString("bssid"),
+                rs.getInt("frequency"),
+                UUID.fromString(rs.getString("tap_uuid")),
+                new DateTime(rs.getTimestamp("bucket")),
+                rs.getInt("signal_strength"),
+                rs.getLong("frame_count")
+        );
+    }
+
+}
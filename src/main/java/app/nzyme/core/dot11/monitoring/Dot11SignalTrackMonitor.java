@@ -3,17 +3,24 @@ package app.nzyme.core.dot11.monitoring;
 import app.nzyme.core.NzymeNode;
 import app.nzyme.core.detection.alerts.DetectionType;
 import app.nzyme.core.dot11.db.SignalTrackHistogramEntry;
+import app.nzyme.core.dot11.db.SignalTrackSeriesEntry;
 import app.nzyme.core.dot11.db.monitoring.MonitoredBSSID;
 import app.nzyme.core.dot11.db.monitoring.MonitoredChannel;
 import app.nzyme.core.dot11.db.monitoring.MonitoredSSID;
 import app.nzyme.core.dot11.tracks.Track;
 import app.nzyme.core.dot11.tracks.TrackDetector;
 import app.nzyme.core.dot11.tracks.db.TrackDetectorConfig;
+import app.nzyme.core.dot11.tracks.db.TrackDetectorConfigEntry;
 import app.nzyme.core.periodicals.Periodical;
 import app.nzyme.core.taps.Tap;
+import app.nzyme.core.util.MetricNames;
 import app.nzyme.core.util.TimeRangeFactory;
 import app.nzyme.plugin.Subsystem;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -21,78 +28,164 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Raises an alert when a monitored network is advertised with more than one signal track on a monitored channel. The
+ * signals of all BSSID, channel and tap combinations of a monitored network are loaded with one query and the track
+ * detection of each combination runs on a bounded pool of threads.
+ */
 public class Dot11SignalTrackMonitor extends Periodical {
 
     private static final Logger LOG = LogManager.getLogger(Dot11SignalTrackMonitor.class);
 
     private final NzymeNode nzyme;
 
+    private final ExecutorService detectors;
+
+    private final Timer runTimer;
+    private final Histogram seriesPerRun;
+
     public Dot11SignalTrackMonitor(NzymeNode nzyme) {
         this.nzyme = nzyme;
+
+        // Track detection is CPU bound. Leave cores for report processing.
+        this.detectors = Executors.newFixedThreadPool(
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("dot11-signal-track-detector-%d")
+                        .build()
+        );
+
+        this.runTimer = nzyme.getMetrics().timer(MetricNames.DOT11_SIGNAL_TRACK_MONITOR_RUN_TIMER);
+        this.seriesPerRun = nzyme.getMetrics().histogram(MetricNames.DOT11_SIGNAL_TRACK_MONITOR_SERIES);
     }
 
     @Override
     protected void execute() {
         LOG.debug("Starting 802.11 signal track monitor run.");
 
-        for (MonitoredSSID monitoredSSID : nzyme.getDot11().findAllMonitoredSSIDs(null, null)) {
-            if (!monitoredSSID.isEnabled() || !monitoredSSID.enabledUnexpectedSignalTracks()) {
+        int seriesCount = 0;
+        Map<UUID, Optional<Tap>> taps = Maps.newHashMap();
+
+        try (Timer.Context ignored = runTimer.time()) {
+            for (MonitoredSSID monitoredSSID : nzyme.getDot11().findAllMonitoredSSIDs(null, null)) {
+                if (!monitoredSSID.isEnabled() || !monitoredSSID.enabledUnexpectedSignalTracks()) {
+                    continue;
+                }
+
+                try {
+                    seriesCount += monitorNetwork(monitoredSSID, taps);
+                } catch (Exception e) {
+                    LOG.error("Could not run signal track monitor for monitored network [{}].",
+                            monitoredSSID.uuid(), e);
+                }
+            }
+        }
+
+        seriesPerRun.update(seriesCount);
+    }
+
+    /**
+     * @return Number of evaluated BSSID, channel and tap combinations.
+     */
+    private int monitorNetwork(MonitoredSSID monitoredSSID, Map<UUID, Optional<Tap>> taps)
+            throws InterruptedException, ExecutionException {
+        List<UUID> tapUUIDs = nzyme.getTapManager()
+                .allTapUUIDsAccessibleByScope(monitoredSSID.organizationId(), monitoredSSID.tenantId());
+
+        List<String> bssids = Lists.newArrayList();
+        for (MonitoredBSSID monitoredBSSID : nzyme.getDot11().findMonitoredBSSIDsOfMonitoredNetwork(monitoredSSID.id())) {
+            bssids.add(monitoredBSSID.bssid());
+        }
+
+        List<Integer> frequencies = Lists.newArrayList();
+        for (MonitoredChannel frequency : nzyme.getDot11().findMonitoredChannelsOfMonitoredNetwork(monitoredSSID.id())) {
+            frequencies.add((int) frequency.frequency());
+        }
+
+        // Split the signals of all combinations into one series per combination.
+        Map<SeriesKey, List<SignalTrackHistogramEntry>> series = Maps.newHashMap();
+        for (SignalTrackSeriesEntry signal : nzyme.getDot11().getSSIDSignalStrengthWaterfalls(
+                bssids, monitoredSSID.ssid(), frequencies, TimeRangeFactory.eightHours(), tapUUIDs)) {
+            series.computeIfAbsent(
+                    new SeriesKey(signal.bssid(), signal.frequency(), signal.tapId()),
+                    k -> Lists.newArrayList()
+            ).add(SignalTrackHistogramEntry.create(signal.bucket(), signal.signalStrength(), signal.frameCount()));
+        }
+
+        if (series.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, TrackDetectorConfig> configs = Maps.newHashMap();
+        for (TrackDetectorConfigEntry config : nzyme.getDot11()
+                .findAllCustomTrackDetectorConfigurations(monitoredSSID.ssid(), tapUUIDs)) {
+            configs.put(configKey(config.organizationId(), config.tapId(), config.bssid(), config.channel()),
+                    config.config());
+        }
+
+        Map<SeriesKey, Future<Integer>> trackCounts = Maps.newHashMap();
+        for (Map.Entry<SeriesKey, List<SignalTrackHistogramEntry>> s : series.entrySet()) {
+            SeriesKey key = s.getKey();
+            Optional<Tap> tap = taps.computeIfAbsent(key.tapId, id -> nzyme.getTapManager().findTap(id));
+            if (tap.isEmpty()) {
                 continue;
             }
-            
-            List<UUID> tapUUIDs = nzyme.getTapManager()
-                    .allTapUUIDsAccessibleByScope(monitoredSSID.organizationId(), monitoredSSID.tenantId());
-
-            for (MonitoredBSSID monitoredBSSID : nzyme.getDot11().findMonitoredBSSIDsOfMonitoredNetwork(monitoredSSID.id())) {
-                for (MonitoredChannel frequency : nzyme.getDot11().findMonitoredChannelsOfMonitoredNetwork(monitoredSSID.id())) {
-                    for (UUID tapId : tapUUIDs) {
-                        Optional<Tap> tap = nzyme.getTapManager().findTap(tapId);
-
-                        List<SignalTrackHistogramEntry> signals = nzyme.getDot11().getSSIDSignalStrengthWaterfall(
-                                monitoredBSSID.bssid(), monitoredSSID.ssid(), (int) frequency.frequency(), TimeRangeFactory.eightHours(), tap.get().uuid());
-
-                        TrackDetectorConfig config = nzyme.getDot11()
-                                .findCustomTrackDetectorConfiguration(
-                                        tap.get().organizationId(),
-                                        tap.get().uuid(),
-                                        monitoredBSSID.bssid(),
-                                        monitoredSSID.ssid(),
-                                        (int)frequency.frequency()
-                                )
-                                .orElse(TrackDetector.DEFAULT_CONFIG);
-
-                        TrackDetector.TrackDetectorHeatmapData heatmap = TrackDetector.toChartAxisMaps(signals);
-                        TrackDetector td = new TrackDetector();
-                        List<Track> tracks = td.detect(heatmap.z(), heatmap.y(), config);
-
-                        if (tracks.size() > 1) {
-                            // Multiple tracks detected.
-                            Map<String, String> attributes = Maps.newHashMap();
-                            attributes.put("bssid", monitoredBSSID.bssid());
-                            attributes.put("channel", String.valueOf(frequency.frequency()));
-                            attributes.put("tap_id", tap.get().uuid().toString());
-                            attributes.put("tap_name", tap.get().name());
-
-                            nzyme.getDetectionAlertService().raiseAlert(
-                                    monitoredSSID.organizationId(),
-                                    monitoredSSID.tenantId(),
-                                    monitoredSSID.uuid(),
-                                    null,
-                                    DetectionType.DOT11_MONITOR_SIGNAL_TRACK,
-                                    Subsystem.DOT11,
-                                    "Monitored network \"" + monitoredSSID.ssid() + "\" advertised " +
-                                            "with multiple signal tracks on channel \"" + frequency.frequency() + "\". " +
-                                            "(Tap: \"" + tap.get().name() + "\")",
-                                    attributes,
-                                    new String[]{"bssid", "channel", "tap_id"},
-                                    null
-                            );
-                        }
-                    }
-                }
+
+            TrackDetectorConfig config = configs.getOrDefault(
+                    configKey(tap.get().organizationId(), key.tapId, key.bssid, key.frequency),
+                    TrackDetector.DEFAULT_CONFIG
+            );
+
+            trackCounts.put(key, detectors.submit(() -> {
+                TrackDetector.TrackDetectorHeatmapData heatmap = TrackDetector.toChartAxisMaps(s.getValue());
+                List<Track> tracks = new TrackDetector().detect(heatmap.z(), heatmap.y(), config);
+                return tracks.size();
+            }));
+        }
+
+        // Raise alerts on this thread once all detections of the network finished.
+        for (Map.Entry<SeriesKey, Future<Integer>> trackCount : trackCounts.entrySet()) {
+            if (trackCount.getValue().get() > 1) {
+                SeriesKey key = trackCount.getKey();
+                raiseAlert(monitoredSSID, key, taps.get(key.tapId).get());
             }
         }
+
+        return series.size();
+    }
+
+    private void raiseAlert(MonitoredSSID monitoredSSID, SeriesKey key, Tap tap) {
+        // Multiple tracks detected.
+        Map<String, String> attributes = Maps.newHashMap();
+        attributes.put("bssid", key.bssid);
+        attributes.put("channel", String.valueOf(key.frequency));
+        attributes.put("tap_id", tap.uuid().toString());
+        attributes.put("tap_name", tap.name());
+
+        nzyme.getDetectionAlertService().raiseAlert(
+                monitoredSSID.organizationId(),
+                monitoredSSID.tenantId(),
+                monitoredSSID.uuid(),
+                null,
+                DetectionType.DOT11_MONITOR_SIGNAL_TRACK,
+                Subsystem.DOT11,
+                "Monitored network \"" + monitoredSSID.ssid() + "\" advertised " +
+                        "with multiple signal tracks on channel \"" + key.frequency + "\". " +
+                        "(Tap: \"" + tap.name() + "\")",
+                attributes,
+                new String[]{"bssid", "channel", "tap_id"},
+                null
+        );
+    }
+
+    private static String configKey(UUID organizationId, UUID tapId, String bssid, int channel) {
+        return organizationId + "/" + tapId + "/" + bssid + "/" + channel;
     }
 
     @Override
@@ -100,4 +193,35 @@ public class Dot11SignalTrackMonitor extends Periodical {
         return "802.11 Signal Track Monitor";
     }
 
+    private static final class SeriesKey {
+        private final String bssid;
+        private final int frequency;
+        private final UUID tapId;
+
+        private SeriesKey(String bssid, int frequency, UUID tapId) {
+            this.bssid = bssid;
+            this.frequency = frequency;
+            this.tapId = tapId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof SeriesKey)) {
+                return false;
+            }
+
+            SeriesKey that = (SeriesKey) o;
+            return frequency == that.frequency && bssid.equals(that.bssid) && tapId.equals(that.tapId);
+        }
+
+        @Override
+        public int hashCode() {
+            return java.util.Objects.hash(bssid, frequency, tapId);
+        }
+    }
+
 }
@@ -0,0 +1,78 @@
+package app.nzyme.core.dot11.monitoring.disco;
+
+import app.nzyme.core.dot11.db.DiscoHistogramEntry;
+import com.google.common.collect.ImmutableList;
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Rolling window of per-minute disconnection frame counts of one monitored network as seen by one tap. Loaded once
+ * with a full histogram of the window length and then kept current by replacing only the newest buckets.
+ */
+public class DiscoActivityWindow {
+
+    private final Duration length;
+    private final Set<String> bssids;
+
+    private final NavigableMap<DateTime, Long> buckets;
+
+    private DateTime refreshedAt;
+
+    public DiscoActivityWindow(Set<String> bssids, Duration length, List<DiscoHistogramEntry> histogram,
+                               DateTime loadedAt) {
+        this.length = length;
+        this.bssids = bssids;
+        this.buckets = new TreeMap<>();
+
+        for (DiscoHistogramEntry entry : histogram) {
+            buckets.put(entry.bucket(), entry.frameCount());
+        }
+
+        this.refreshedAt = loadedAt;
+    }
+
+    /**
+     * Replaces all buckets starting at from with the given buckets and drops buckets that left the window.
+     *
+     * @param recent Histogram from from until now. Replaces and does not add to existing counts, because the newest
+     *               bucket was usually still filling up at the previous refresh.
+     */
+    public synchronized void update(DateTime from, List<DiscoHistogramEntry> recent, DateTime now) {
+        buckets.tailMap(from, true).clear();
+
+        for (DiscoHistogramEntry entry : recent) {
+            buckets.put(entry.bucket(), entry.frameCount());
+        }
+
+        buckets.headMap(now.minus(length).withSecondOfMinute(0).withMillisOfSecond(0), false).clear();
+
+        this.refreshedAt = now;
+    }
+
+    /**
+     * @return All buckets in the window, newest first. Same order as the database histogram.
+     */
+    public synchronized List<DiscoHistogramEntry> histogram() {
+        ImmutableList.Builder<DiscoHistogramEntry> result = ImmutableList.builder();
+        for (Map.Entry<DateTime, Long> bucket : buckets.descendingMap().entrySet()) {
+            result.add(DiscoHistogramEntry.create(bucket.getKey(), bucket.getValue()));
+        }
+
+        return result.build();
+    }
+
+    public synchronized DateTime refreshedAt() {
+        return refreshedAt;
+    }
+
+    public Set<String> bssids() {
+        return bssids;
+    }
+
+}
@@ -0,0 +1,99 @@
+package app.nzyme.core.dot11.monitoring.disco;
+
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.dot11.Dot11;
+import app.nzyme.core.dot11.db.DiscoHistogramEntry;
+import app.nzyme.core.util.Bucketing;
+import app.nzyme.core.util.MetricNames;
+import app.nzyme.core.util.TimeRange;
+import com.codahale.metrics.Meter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node-local {@link DiscoActivityWindow} of every monitored network and tap combination the disconnection monitor
+ * evaluates. The full 24 hour histogram is only queried when a window is missing or the monitored BSSIDs of its
+ * network changed. Every other evaluation only queries the newest minutes.
+ */
+public class DiscoActivityWindows {
+
+    private static final Duration WINDOW_LENGTH = Duration.standardHours(24);
+
+    // Re-read a few minutes before the last refresh. Taps report with a delay and the newest bucket may be incomplete.
+    private static final int REFRESH_OVERLAP_MINUTES = 2;
+
+    private static final Bucketing.BucketingConfiguration BUCKETING =
+            Bucketing.BucketingConfiguration.create(Bucketing.Type.MINUTE);
+
+    private final NzymeNode nzyme;
+
+    // Windows of deleted networks, disabled monitors or removed taps expire.
+    private final Cache<String, DiscoActivityWindow> windows;
+
+    private final Meter fullLoads;
+
+    public DiscoActivityWindows(NzymeNode nzyme) {
+        this.nzyme = nzyme;
+        this.windows = CacheBuilder.newBuilder()
+                .expireAfterAccess(15, TimeUnit.MINUTES)
+                .build();
+
+        this.fullLoads = nzyme.getMetrics().meter(MetricNames.DOT11_DISCO_WINDOW_FULL_LOADS);
+    }
+
+    /**
+     * @return Per-minute disconnection frame counts of the last 24 hours, newest first.
+     */
+    public List<DiscoHistogramEntry> getHistogram(UUID monitoredNetworkId, UUID tapId, List<String> bssids) {
+        String key = monitoredNetworkId + "/" + tapId;
+        Set<String> bssidSet = ImmutableSet.copyOf(bssids);
+        DateTime now = DateTime.now();
+
+        DiscoActivityWindow window = windows.getIfPresent(key);
+        if (window == null || !window.bssids().equals(bssidSet)) {
+            fullLoads.mark();
+
+            window = new DiscoActivityWindow(
+                    bssidSet,
+                    WINDOW_LENGTH,
+                    query(tapId, bssids, now.minus(WINDOW_LENGTH), now),
+                    now
+            );
+            windows.put(key, window);
+
+            return window.histogram();
+        }
+
+        // The REST API simulates monitors while the periodical runs. Only one of them refreshes at a time.
+        synchronized (window) {
+            DateTime from = window.refreshedAt()
+                    .withSecondOfMinute(0)
+                    .withMillisOfSecond(0)
+                    .minusMinutes(REFRESH_OVERLAP_MINUTES);
+
+            window.update(from, query(tapId, bssids, from, now), now);
+        }
+
+        return window.histogram();
+    }
+
+    private List<DiscoHistogramEntry> query(UUID tapId, List<String> bssids, DateTime from, DateTime to) {
+        return nzyme.getDot11().getDiscoHistogram(
+                Dot11.DiscoType.DISCONNECTION,
+                TimeRange.create(from, to, false),
+                BUCKETING,
+                tapId,
+                Lists.newArrayList(bssids)
+        );
+    }
+
+}
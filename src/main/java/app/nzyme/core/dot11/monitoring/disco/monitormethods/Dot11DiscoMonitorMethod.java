@@ -1,14 +1,11 @@
 package app.nzyme.core.dot11.monitoring.disco.monitormethods;
 
 import app.nzyme.core.NzymeNode;
-import app.nzyme.core.dot11.Dot11;
 import app.nzyme.core.dot11.db.DiscoHistogramEntry;
 import app.nzyme.core.dot11.db.monitoring.MonitoredBSSID;
 import app.nzyme.core.dot11.db.monitoring.MonitoredSSID;
 import app.nzyme.core.dot11.monitoring.disco.DiscoMonitorAnomaly;
 import app.nzyme.core.taps.Tap;
-import app.nzyme.core.util.Bucketing;
-import app.nzyme.core.util.TimeRangeFactory;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -35,8 +32,11 @@ public abstract class Dot11DiscoMonitorMethod {
     public Map<Tap, List<DiscoMonitorAnomaly>> execute(List<Tap> taps) {
         Map<Tap, List<DiscoMonitorAnomaly>> anomalies = Maps.newHashMap();
 
+        // Same BSSIDs for all taps.
+        List<String> bssids = findMonitoredBSSIDs();
+
         for (Tap tap : taps) {
-            List<DiscoMonitorAnomaly> tapAnomalies = execute(tap);
+            List<DiscoMonitorAnomaly> tapAnomalies = execute(tap, bssids);
 
             if (!tapAnomalies.isEmpty()) {
                 anomalies.put(tap, tapAnomalies);
@@ -47,21 +47,24 @@ public abstract class Dot11DiscoMonitorMethod {
     }
 
     public List<DiscoMonitorAnomaly> execute(Tap tap) {
+        return execute(tap, findMonitoredBSSIDs());
+    }
+
+    private List<DiscoMonitorAnomaly> execute(Tap tap, List<String> bssids) {
+        // Rolling 24 hour window. Only the newest minutes are queried if this network and tap were evaluated before.
+        return calculate(
+                nzyme.getDot11().getDiscoActivityWindows().getHistogram(monitoredNetwork.uuid(), tap.uuid(), bssids)
+        );
+    }
+
+    private List<String> findMonitoredBSSIDs() {
         List<String> bssidList = Lists.newArrayList();
 
         for (MonitoredBSSID monitoredBSSID : nzyme.getDot11().findMonitoredBSSIDsOfMonitoredNetwork(monitoredNetwork.id())) {
             bssidList.add(monitoredBSSID.bssid());
         }
 
-        return calculate(
-                nzyme.getDot11().getDiscoHistogram(
-                        Dot11.DiscoType.DISCONNECTION,
-                        TimeRangeFactory.oneDay(),
-                        Bucketing.getConfig(TimeRangeFactory.oneDay()),
-                        tap.uuid(),
-                        bssidList
-                )
-        );
+        return bssidList;
     }
 
     protected abstract List<DiscoMonitorAnomaly> calculate(List<DiscoHistogramEntry> histogram);
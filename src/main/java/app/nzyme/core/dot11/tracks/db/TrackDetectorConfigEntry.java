@@ -0,0 +1,44 @@
+package app.nzyme.core.dot11.tracks.db;
+
+import com.google.auto.value.AutoValue;
+
+import java.util.UUID;
+
+@AutoValue
+public abstract class TrackDetectorConfigEntry {
+
+    public abstract UUID organizationId();
+    public abstract UUID tapId();
+    public abstract String bssid();
+    public abstract int channel();
+    public abstract TrackDetectorConfig config();
+
+    public static TrackDetectorConfigEntry create(UUID organizationId, UUID tapId, String bssid, int channel, TrackDetectorConfig config) {
+        return builder()
+                .organizationId(organizationId)
+                .tapId(tapId)
+                .bssid(bssid)
+                .channel(channel)
+                .config(config)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_TrackDetectorConfigEntry.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder organizationId(UUID organizationId);
+
+        public abstract Builder tapId(UUID tapId);
+
+        public abstract Builder bssid(String bssid);
+
+        public abstract Builder channel(int channel);
+
+        public abstract Builder config(TrackDetectorConfig config);
+
+        public abstract TrackDetectorConfigEntry build();
+    }
+}
@@ -0,0 +1,27 @@
+package app.nzyme.core.dot11.tracks.db;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+public class TrackDetectorConfigEntryMapper implements RowMapper<TrackDetectorConfigEntry> {
+
+    @Override
+    public TrackDetectorConfigEntry map(ResultSet rs, StatementContext ctx) throws SQLException {
+        return TrackDetectorConfigEntry.create(
+                UUID.fromString(rs.getString("organization_id")),
+                UUID.fromString(rs.getString("tap_id")),
+                rs.getString("bssid"),
+                rs.getInt("channel"),
+                TrackDetectorConfig.create(
+                        rs.getInt("frame_threshold"),
+                        rs.getInt("gap_threshold"),
+                        rs.getInt("signal_centerline_jitter")
+                )
+        );
+    }
+
+}
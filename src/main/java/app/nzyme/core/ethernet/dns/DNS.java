@@ -6,6 +6,7 @@ import app.nzyme.core.ethernet.Ethernet;
 import app.nzyme.core.ethernet.dns.db.*;
 import app.nzyme.core.ethernet.dns.filters.DnsFilters;
 import app.nzyme.core.util.Bucketing;
+import app.nzyme.core.util.RollupPlan;
 import app.nzyme.core.util.TimeRange;
 import app.nzyme.core.util.filters.FilterSqlFragment;
 import app.nzyme.core.util.filters.FilterSql;
@@ -15,12 +16,24 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import jakarta.annotation.Nullable;
 import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.statement.Query;
 import org.joda.time.DateTime;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 public class DNS {
 
+    // Rows read from the database at once when streaming results.
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    /*
+     * A streaming result holds its connection until the HTTP client has read all rows. Postgres closes the connection
+     * if the client stalls for longer than this between two chunks, so a slow client cannot hold a pool connection
+     * forever. The response is cut off in that case.
+     */
+    private static final int STREAM_IDLE_TIMEOUT_MS = 30_000;
+
     private final NzymeNode nzyme;
 
     public DNS(Ethernet ethernet) {
@@ -34,20 +47,21 @@ public class DNS {
             return Collections.emptyList();
         }
 
-        return nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT date_trunc(:date_trunc, created_at) AS bucket, " +
-                                "SUM(request_count) AS request_count, SUM(request_bytes) AS request_bytes, " +
-                                "SUM(response_count) AS response_count, SUM(response_bytes) AS response_bytes, " +
-                                "SUM(nxdomain_count) AS nxdomain_count FROM dns_statistics " +
-                                "WHERE created_at >= :tr_from AND created_at <= :tr_to AND tap_uuid IN (<taps>) " +
-                                "GROUP BY bucket ORDER BY bucket DESC")
-                        .bind("date_trunc", bucketing.type().getDateTruncName())
-                        .bind("tr_from", timeRange.from())
-                        .bind("tr_to", timeRange.to())
-                        .bindList("taps", taps)
-                        .mapTo(DNSStatisticsBucket.class)
-                        .list()
-        );
+        List<RollupPlan.Segment> segments = RollupPlan.plan(timeRange.from(), timeRange.to(), bucketing.type());
+
+        return nzyme.getDatabase().withHandle(handle -> {
+            Query query = handle.createQuery("SELECT date_trunc(:date_trunc, bucket) AS bucket, " +
+                            "SUM(request_count) AS request_count, SUM(request_bytes) AS request_bytes, " +
+                            "SUM(response_count) AS response_count, SUM(response_bytes) AS response_bytes, " +
+                            "SUM(nxdomain_count) AS nxdomain_count " +
+                            "FROM (" + buildStatisticsSegmentsQuery(segments) + ") AS segments " +
+                            "GROUP BY 1 ORDER BY 1 DESC")
+                    .bind("date_trunc", bucketing.type().getDateTruncName())
+                    .bindList("taps", taps);
+            bindStatisticsSegments(query, segments);
+
+            return query.mapTo(DNSStatisticsBucket.class).list();
+        });
     }
 
     public DNSTrafficSummary getTrafficSummary(TimeRange timeRange, List<UUID> taps) {
@@ -55,18 +69,62 @@ public class DNS {
             return DNSTrafficSummary.create(0,0,0);
         }
 
-        return nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT (SUM(request_count)+SUM(response_count)) AS total_dns_packets, " +
-                                "(SUM(request_bytes)+SUM(response_bytes)) AS total_dns_traffic_bytes, " +
-                                "SUM(nxdomain_count) AS nxdomain_count " +
-                                "FROM dns_statistics WHERE created_at >= :tr_from AND created_at <= :tr_to " +
-                                "AND tap_uuid IN (<taps>)")
-                        .bindList("taps", taps)
-                        .bind("tr_from", timeRange.from())
-                        .bind("tr_to", timeRange.to())
-                        .mapTo(DNSTrafficSummary.class)
-                        .one()
-        );
+        List<RollupPlan.Segment> segments = RollupPlan.plan(timeRange.from(), timeRange.to(), Bucketing.Type.DAY);
+
+        return nzyme.getDatabase().withHandle(handle -> {
+            Query query = handle.createQuery("SELECT (SUM(request_count)+SUM(response_count)) AS total_dns_packets, " +
+                            "(SUM(request_bytes)+SUM(response_bytes)) AS total_dns_traffic_bytes, " +
+                            "SUM(nxdomain_count) AS nxdomain_count " +
+                            "FROM (" + buildStatisticsSegmentsQuery(segments) + ") AS segments")
+                    .bindList("taps", taps);
+            bindStatisticsSegments(query, segments);
+
+            return query.mapTo(DNSTrafficSummary.class).one();
+        });
+    }
+
+    /**
+     * Statistics rows of all segments of a time range. Rollup segments return one row per rollup bucket and raw
+     * segments one row per report, all with their time in the bucket column.
+     */
+    private static String buildStatisticsSegmentsQuery(List<RollupPlan.Segment> segments) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < segments.size(); i++) {
+            RollupPlan.Segment segment = segments.get(i);
+
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+
+            if (segment.isRaw()) {
+                sql.append("SELECT created_at AS bucket, request_count, request_bytes, response_count, ")
+                        .append("response_bytes, nxdomain_count FROM dns_statistics ")
+                        .append("WHERE tap_uuid IN (<taps>) AND created_at >= :segment_from_").append(i)
+                        .append(" AND created_at ").append(segment.toInclusive() ? "<=" : "<")
+                        .append(" :segment_to_").append(i);
+            } else {
+                sql.append("SELECT bucket, request_count, request_bytes, response_count, response_bytes, ")
+                        .append("nxdomain_count FROM dns_statistics_rollups ")
+                        .append("WHERE tap_uuid IN (<taps>) AND granularity = :segment_granularity_").append(i)
+                        .append(" AND bucket >= :segment_from_").append(i)
+                        .append(" AND bucket < :segment_to_").append(i);
+            }
+        }
+
+        return sql.toString();
+    }
+
+    private static void bindStatisticsSegments(Query query, List<RollupPlan.Segment> segments) {
+        for (int i = 0; i < segments.size(); i++) {
+            RollupPlan.Segment segment = segments.get(i);
+
+            query.bind("segment_from_" + i, segment.from())
+                    .bind("segment_to_" + i, segment.to());
+
+            if (!segment.isRaw()) {
+                query.bind("segment_granularity_" + i, segment.granularity().getDateTruncName());
+            }
+        }
     }
 
     public long countPairs(TimeRange timeRange, List<UUID> taps) {
@@ -245,25 +303,59 @@ public class DNS {
             return Collections.emptyList();
         }
 
-        FilterSqlFragment filterFragment = FilterSql.generate(filters, new DnsFilters());
-
         return nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT * FROM dns_log " +
-                                "WHERE dns_type = 'query' AND timestamp >= :tr_from AND timestamp <= :tr_to AND tap_uuid IN (<taps>) " +
-                                "AND server_address <> '224.0.0.251' " + filterFragment.sql() +
-                                "ORDER BY timestamp DESC " +
-                                "LIMIT :limit OFFSET :offset")
-                        .bindList("taps", taps)
-                        .bindMap(filterFragment.bindings())
-                        .bind("tr_from", timeRange.from())
-                        .bind("tr_to", timeRange.to())
-                        .bind("limit", limit)
-                        .bind("offset", offset)
+                buildAllQueriesQuery(handle, timeRange, filters, limit, offset, taps)
                         .mapTo(DNSLogEntry.class)
                         .list()
         );
     }
 
+    /**
+     * Like {@link #findAllQueries(TimeRange, Filters, int, int, List)} but passes rows to the consumer while they are
+     * read from the database instead of collecting them first.
+     */
+    public void streamAllQueries(TimeRange timeRange,
+                                 Filters filters,
+                                 int limit,
+                                 int offset,
+                                 List<UUID> taps,
+                                 Consumer<DNSLogEntry> consumer) {
+        if (taps.isEmpty()) {
+            return;
+        }
+
+        // Postgres only reads results in chunks of the fetch size inside of a transaction.
+        nzyme.getDatabase().useHandle(handle -> handle.useTransaction(tx -> {
+            tx.execute("SET LOCAL idle_in_transaction_session_timeout = " + STREAM_IDLE_TIMEOUT_MS);
+
+            buildAllQueriesQuery(tx, timeRange, filters, limit, offset, taps)
+                    .setFetchSize(STREAM_FETCH_SIZE)
+                    .mapTo(DNSLogEntry.class)
+                    .forEach(consumer);
+        }));
+    }
+
+    private Query buildAllQueriesQuery(Handle handle,
+                                       TimeRange timeRange,
+                                       Filters filters,
+                                       int limit,
+                                       int offset,
+                                       List<UUID> taps) {
+        FilterSqlFragment filterFragment = FilterSql.generate(filters, new DnsFilters());
+
+        return handle.createQuery("SELECT * FROM dns_log " +
+                        "WHERE dns_type = 'query' AND timestamp >= :tr_from AND timestamp <= :tr_to AND tap_uuid IN (<taps>) " +
+                        "AND server_address <> '224.0.0.251' " + filterFragment.sql() +
+                        "ORDER BY timestamp DESC " +
+                        "LIMIT :limit OFFSET :offset")
+                .bindList("taps", taps)
+                .bindMap(filterFragment.bindings())
+                .bind("tr_from", timeRange.from())
+                .bind("tr_to", timeRange.to())
+                .bind("limit", limit)
+                .bind("offset", offset);
+    }
+
     private DNSTransactionProcessingResult buildTransactionFromSingleTransactionLogs(List<DNSLogEntry> logs)
             throws TransactionNotFoundException {
 
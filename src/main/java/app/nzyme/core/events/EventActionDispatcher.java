@@ -0,0 +1,440 @@
+package app.nzyme.core.events;
+
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.configuration.node.PerformanceConfiguration;
+import app.nzyme.core.detection.alerts.DetectionType;
+import app.nzyme.core.events.actions.Action;
+import app.nzyme.core.events.actions.ActionExecutionResult;
+import app.nzyme.core.events.actions.EventActionFactory;
+import app.nzyme.core.events.db.EventActionEntry;
+import app.nzyme.core.events.db.QueuedEventActionEntry;
+import app.nzyme.core.events.types.DetectionEvent;
+import app.nzyme.core.events.types.EventType;
+import app.nzyme.core.events.types.SystemEvent;
+import app.nzyme.core.events.types.SystemEventType;
+import app.nzyme.core.util.MetricNames;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.core.statement.Query;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes event actions outside of the thread that raised the event. Every action an event is subscribed to is
+ * written to the event_action_queue table and then picked up by a pool of workers on any node. Each action runs at
+ * most a configured number of times at once, so one slow action (like an unresponsive SMTP server) can't occupy all
+ * workers. Failed executions are retried with exponential backoff.
+ */
+public class EventActionDispatcher {
+
+    private static final Logger LOG = LogManager.getLogger(EventActionDispatcher.class);
+
+    public enum Status {
+        NEW, ACK, RETRY, SUCCESS, FAILURE
+    }
+
+    private static final long RETRY_BASE_DELAY_SECONDS = 5;
+    private static final long RETRY_MAX_DELAY_SECONDS = 60 * 10;
+
+    // How long to wait before trying again to execute an action that is already running at its concurrency limit.
+    private static final long CONCURRENCY_DELAY_SECONDS = 1;
+
+    /*
+     * How long an action may stay claimed before any node runs it again. Covers actions claimed by nodes that crashed
+     * or were removed from the cluster. Must be longer than any action can take to execute, or it runs twice.
+     */
+    private static final int ACK_LEASE_MINUTES = 15;
+
+    private final NzymeNode nzyme;
+    private final EventEngineImpl eventEngine;
+
+    private final int workerCount;
+    private final int concurrency;
+    private final int maxRetries;
+
+    private final Map<UUID, Semaphore> actionPermits;
+    private final AtomicInteger inFlight;
+
+    private final Timer executionTimer;
+    private final Timer queueWaitTimer;
+    private final Meter failures;
+    private final Meter retries;
+
+    @Nullable
+    private ScheduledExecutorService poller;
+    @Nullable
+    private ExecutorService workers;
+
+    public EventActionDispatcher(NzymeNode nzyme, EventEngineImpl eventEngine) {
+        this.nzyme = nzyme;
+        this.eventEngine = eventEngine;
+
+        PerformanceConfiguration performance = nzyme.getConfiguration().performance();
+        this.workerCount = performance.eventActionWorkers();
+        this.concurrency = performance.eventActionConcurrency();
+        this.maxRetries = performance.eventActionMaxRetries();
+
+        this.actionPermits = new ConcurrentHashMap<>();
+        this.inFlight = new AtomicInteger(0);
+
+        this.executionTimer = nzyme.getMetrics().timer(MetricNames.EVENT_ACTION_EXECUTION_TIMER);
+        this.queueWaitTimer = nzyme.getMetrics().timer(MetricNames.EVENT_ACTION_QUEUE_WAIT_TIMER);
+        this.failures = nzyme.getMetrics().meter(MetricNames.EVENT_ACTION_FAILURES);
+        this.retries = nzyme.getMetrics().meter(MetricNames.EVENT_ACTION_RETRIES);
+    }
+
+    public void initialize() {
+        // Actions this node was executing at last shutdown never finished. Run them again.
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate("UPDATE event_action_queue SET status = :retry, next_attempt_at = NOW() " +
+                                "WHERE status = :ack AND acked_by = :node_id")
+                        .bind("retry", Status.RETRY)
+                        .bind("ack", Status.ACK)
+                        .bind("node_id", nzyme.getNodeInformation().id())
+                        .execute()
+        );
+
+        nzyme.getMetrics().register(MetricNames.EVENT_ACTION_ACTIVE_EXECUTIONS, (Gauge<Integer>) inFlight::get);
+
+        this.workers = Executors.newFixedThreadPool(workerCount, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("event-action-worker-%d")
+                .build()
+        );
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("event-action-poller-%d")
+                .build()
+        );
+        poller.scheduleWithFixedDelay(this::poll, 1, 1, TimeUnit.SECONDS);
+        poller.scheduleWithFixedDelay(this::reclaimStaleActions, 1, 1, TimeUnit.MINUTES);
+        poller.scheduleAtFixedRate(() -> retentionClean(DateTime.now().minusDays(7)), 1, 1, TimeUnit.HOURS);
+    }
+
+    public void shutdown() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                    LOG.warn("Event action workers did not finish in time. Unfinished actions will run again " +
+                            "after restart.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void enqueue(List<UUID> actionIds, SystemEvent event) {
+        enqueue(actionIds, EventType.SYSTEM, event.type().name(), null, event.details(), event.timestamp());
+    }
+
+    public void enqueue(List<UUID> actionIds, DetectionEvent event) {
+        enqueue(actionIds, EventType.DETECTION, event.detectionType().name(), event.alertId(), event.details(),
+                event.timestamp());
+    }
+
+    private void enqueue(List<UUID> actionIds,
+                         EventType eventType,
+                         String reference,
+                         @Nullable UUID alertId,
+                         String details,
+                         DateTime eventTimestamp) {
+        if (actionIds.isEmpty()) {
+            return;
+        }
+
+        nzyme.getDatabase().useHandle(handle -> {
+            PreparedBatch batch = handle.prepareBatch("INSERT INTO event_action_queue(action_id, event_type, " +
+                    "reference, alert_id, details, event_timestamp, status, retries, next_attempt_at, created_at) " +
+                    "VALUES(:action_id, :event_type, :reference, :alert_id, :details, :event_timestamp, :status, 0, " +
+                    "NOW(), NOW())");
+
+            for (UUID actionId : actionIds) {
+                batch.bind("action_id", actionId)
+                        .bind("event_type", eventType)
+                        .bind("reference", reference)
+                        .bind("alert_id", alertId)
+                        .bind("details", details)
+                        .bind("event_timestamp", eventTimestamp)
+                        .bind("status", Status.NEW)
+                        .add();
+            }
+
+            batch.execute();
+        });
+
+        // Don't wait for the next scheduled poll if this node can execute the actions.
+        ScheduledExecutorService p = poller;
+        if (p != null) {
+            try {
+                p.execute(this::poll);
+            } catch (RejectedExecutionException ignored) {
+                // Shutting down.
+            }
+        }
+    }
+
+    private void poll() {
+        try {
+            int capacity = workerCount - inFlight.get();
+            if (capacity <= 0) {
+                return;
+            }
+
+            // Leave actions that are already running at their concurrency limit in the queue.
+            List<UUID> saturated = Lists.newArrayList();
+            for (Map.Entry<UUID, Semaphore> permits : actionPermits.entrySet()) {
+                if (permits.getValue().availablePermits() == 0) {
+                    saturated.add(permits.getKey());
+                }
+            }
+
+            List<QueuedEventActionEntry> claimed = nzyme.getDatabase().withHandle(handle -> {
+                Query query = handle.createQuery("UPDATE event_action_queue SET status = :ack, " +
+                                "acked_by = :node_id, acked_at = NOW() WHERE id IN (SELECT id FROM event_action_queue " +
+                                "WHERE status IN (:new, :retry) AND next_attempt_at <= NOW() " +
+                                (saturated.isEmpty() ? "" : "AND action_id NOT IN (<saturated>) ") +
+                                "ORDER BY next_attempt_at ASC LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *")
+                        .bind("ack", Status.ACK)
+                        .bind("new", Status.NEW)
+                        .bind("retry", Status.RETRY)
+                        .bind("node_id", nzyme.getNodeInformation().id())
+                        .bind("limit", capacity);
+
+                if (!saturated.isEmpty()) {
+                    query.bindList("saturated", saturated);
+                }
+
+                return query.mapTo(QueuedEventActionEntry.class).list();
+            });
+
+            for (QueuedEventActionEntry entry : claimed) {
+                Semaphore permits = actionPermits.computeIfAbsent(entry.actionId(), id -> new Semaphore(concurrency));
+
+                // More executions of the same action than permits may have been claimed in one poll.
+                if (!permits.tryAcquire()) {
+                    release(entry);
+                    continue;
+                }
+
+                inFlight.incrementAndGet();
+                try {
+                    workers.execute(() -> {
+                        try {
+                            execute(entry);
+                        } catch (Exception e) {
+                            LOG.error("Could not execute queued event action <#{}>.", entry.id(), e);
+                        } finally {
+                            permits.release();
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    inFlight.decrementAndGet();
+                    release(entry);
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("Could not poll event action queue.", e);
+        }
+    }
+
+    private void reclaimStaleActions() {
+        try {
+            int reclaimed = reclaimStaleActions(ACK_LEASE_MINUTES);
+            if (reclaimed > 0) {
+                LOG.warn("Requeued [{}] event actions that were claimed more than {} minutes ago and never finished.",
+                        reclaimed, ACK_LEASE_MINUTES);
+            }
+        } catch (Exception e) {
+            LOG.error("Could not reclaim stale event actions.", e);
+        }
+    }
+
+    /**
+     * Puts actions back into the queue that were claimed by any node longer than the given lease ago but never
+     * finished. This includes actions of nodes that have since been removed from the cluster.
+     *
+     * @return Number of requeued actions.
+     */
+    int reclaimStaleActions(int leaseMinutes) {
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createUpdate("UPDATE event_action_queue SET status = :retry, acked_by = NULL, " +
+                                "acked_at = NULL, next_attempt_at = NOW() WHERE status = :ack " +
+                                "AND (acked_at IS NULL OR acked_at < NOW() - make_interval(mins => :lease))")
+                        .bind("retry", Status.RETRY)
+                        .bind("ack", Status.ACK)
+                        .bind("lease", leaseMinutes)
+                        .execute()
+        );
+    }
+
+    private void execute(QueuedEventActionEntry entry) {
+        if (entry.retries() == 0) {
+            queueWaitTimer.update(
+                    Math.max(0, DateTime.now().getMillis() - entry.createdAt().getMillis()),
+                    TimeUnit.MILLISECONDS
+            );
+        }
+
+        Optional<EventActionEntry> ea = eventEngine.findEventAction(entry.actionId());
+        if (ea.isEmpty()) {
+            // Deleted after the event was queued.
+            LOG.warn("Event action [{}] of queued event action <#{}> not found.", entry.actionId(), entry.id());
+            markFailed(entry, "Event action not found.");
+            return;
+        }
+
+        Action action;
+        try {
+            action = EventActionFactory.build(nzyme, ea.get());
+        } catch (EventActionFactory.NoSuchActionTypeException | JsonProcessingException e) {
+            LOG.error("Could not build event action [{}/{}]. Not retrying.",
+                    ea.get().actionType(), ea.get().uuid(), e);
+            failures.mark();
+            markFailed(entry, "Could not build event action.");
+            return;
+        }
+
+        ActionExecutionResult result;
+        String error = null;
+        try (Timer.Context ignored = executionTimer.time()) {
+            switch (EventType.valueOf(entry.eventType())) {
+                case SYSTEM:
+                    result = action.execute(SystemEvent.create(
+                            SystemEventType.valueOf(entry.reference()),
+                            entry.eventTimestamp(),
+                            entry.details()
+                    ));
+                    break;
+                case DETECTION:
+                    result = action.execute(DetectionEvent.create(
+                            entry.alertId(),
+                            DetectionType.valueOf(entry.reference()),
+                            entry.details(),
+                            entry.eventTimestamp()
+                    ));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown event type [" + entry.eventType() + "].");
+            }
+        } catch (Exception e) {
+            LOG.error("Could not execute event action [{}/{}] for queued event action <#{}>.",
+                    ea.get().actionType(), ea.get().uuid(), entry.id(), e);
+            result = ActionExecutionResult.FAILURE;
+            error = e.getMessage();
+        }
+
+        if (result == ActionExecutionResult.SUCCESS) {
+            markSucceeded(entry);
+            return;
+        }
+
+        failures.mark();
+
+        if (entry.retries() < maxRetries) {
+            long delay = retryDelaySeconds(entry.retries());
+            LOG.info("Event action [{}/{}] failed. Retrying in {} seconds.",
+                    ea.get().actionType(), ea.get().uuid(), delay);
+
+            retries.mark();
+            scheduleRetry(entry, delay, error);
+        } else {
+            LOG.error("Event action [{}/{}] failed after {} retries. Giving up.",
+                    ea.get().actionType(), ea.get().uuid(), entry.retries());
+
+            markFailed(entry, error == null ? "Action reported failure." : error);
+        }
+    }
+
+    /**
+     * @return Seconds to wait before the retry that follows the given number of previous retries.
+     */
+    public static long retryDelaySeconds(int previousRetries) {
+        // Cap the exponent. The delay is capped long before this anyway.
+        int exponent = Math.min(Math.max(previousRetries, 0), 20);
+        return Math.min(RETRY_BASE_DELAY_SECONDS << exponent, RETRY_MAX_DELAY_SECONDS);
+    }
+
+    private void markSucceeded(QueuedEventActionEntry entry) {
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate("UPDATE event_action_queue SET status = :status, processed_at = NOW(), " +
+                                "last_error = NULL WHERE id = :id")
+                        .bind("status", Status.SUCCESS)
+                        .bind("id", entry.id())
+                        .execute()
+        );
+    }
+
+    private void markFailed(QueuedEventActionEntry entry, String error) {
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate("UPDATE event_action_queue SET status = :status, processed_at = NOW(), " +
+                                "last_error = :last_error WHERE id = :id")
+                        .bind("status", Status.FAILURE)
+                        .bind("last_error", error)
+                        .bind("id", entry.id())
+                        .execute()
+        );
+    }
+
+    private void scheduleRetry(QueuedEventActionEntry entry, long delaySeconds, @Nullable String error) {
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate("UPDATE event_action_queue SET status = :status, retries = retries+1, " +
+                                "next_attempt_at = :next_attempt_at, last_error = :last_error WHERE id = :id")
+                        .bind("status", Status.RETRY)
+                        .bind("next_attempt_at", DateTime.now().plusSeconds((int) delaySeconds))
+                        .bind("last_error", error)
+                        .bind("id", entry.id())
+                        .execute()
+        );
+    }
+
+    // Puts a claimed but not executed action back into the queue without counting a retry.
+    private void release(QueuedEventActionEntry entry) {
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate("UPDATE event_action_queue SET status = :status, acked_by = NULL, " +
+                                "acked_at = NULL, next_attempt_at = :next_attempt_at WHERE id = :id")
+                        .bind("status", entry.retries() == 0 ? Status.NEW : Status.RETRY)
+                        .bind("next_attempt_at", DateTime.now().plusSeconds((int) CONCURRENCY_DELAY_SECONDS))
+                        .bind("id", entry.id())
+                        .execute()
+        );
+    }
+
+    private void retentionClean(DateTime cutoff) {
+        try {
+            nzyme.getDatabase().useHandle(handle ->
+                    handle.createUpdate("DELETE FROM event_action_queue WHERE status IN (:success, :failure) " +
+                                    "AND created_at < :cutoff")
+                            .bind("success", Status.SUCCESS)
+                            .bind("failure", Status.FAILURE)
+                            .bind("cutoff", cutoff)
+                            .execute()
+            );
+        } catch (Exception e) {
+            LOG.error("Could not clean event action queue.", e);
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package app.nzyme.core.events.db;
+
+import com.google.auto.value.AutoValue;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.util.UUID;
+
+@AutoValue
+public abstract class QueuedEventActionEntry {
+
+    public abstract long id();
+    public abstract UUID actionId();
+    public abstract String eventType();
+    public abstract String reference();
+    @Nullable
+    public abstract UUID alertId();
+    public abstract String details();
+    public abstract DateTime eventTimestamp();
+    public abstract String status();
+    public abstract int retries();
+    public abstract DateTime createdAt();
+
+    public static QueuedEventActionEntry create(long id, UUID actionId, String eventType, String reference, UUID alertId, String details, DateTime eventTimestamp, String status, int retries, DateTime createdAt) {
+        return builder()
+                .id(id)
+                .actionId(actionId)
+                .eventType(eventType)
+                .reference(reference)
+                .alertId(alertId)
+                .details(details)
+                .eventTimestamp(eventTimestamp)
+                .status(status)
+                .retries(retries)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_QueuedEventActionEntry.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder id(long id);
+
+        public abstract Builder actionId(UUID actionId);
+
+        public abstract Builder eventType(String eventType);
+
+        public abstract Builder reference(String reference);
+
+        public abstract Builder alertId(UUID alertId);
+
+        public abstract Builder details(String details);
+
+        public abstract Builder eventTimestamp(DateTime eventTimestamp);
+
+        public abstract Builder status(String status);
+
+        public abstract Builder retries(int retries);
+
+        public abstract Builder createdAt(DateTime createdAt);
+
+        public abstract QueuedEventActionEntry build();
+    }
+}
@@ -0,0 +1,31 @@
+package app.nzyme.core.events.db;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.joda.time.DateTime;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+public class QueuedEventActionEntryMapper implements RowMapper<QueuedEventActionEntry> {
+
+    @Override
+    public QueuedEventActionEntry map(ResultSet rs, StatementContext ctx) throws SQLException {
+        String alertId = rs.getString("alert_id");
+
+        return QueuedEventActionEntry.create(
+                rs.getLong("id"),
+                UUID.fromString(rs.getString("action_id")),
+                rs.getString("event_type"),
+                rs.getString("reference"),
+                alertId == null ? null : UUID.fromString(alertId),
+                rs.getString("details"),
+                new DateTime(rs.getTimestamp("event_timestamp")),
+                rs.getString("status"),
+                rs.getInt("retries"),
+                new DateTime(rs.getTimestamp("created_at"))
+        );
+    }
+
+}
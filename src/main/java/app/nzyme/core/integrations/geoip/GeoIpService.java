@@ -1,6 +1,7 @@
 package app.nzyme.core.integrations.geoip;
 
 import app.nzyme.core.NzymeNode;
+import app.nzyme.core.configuration.node.PerformanceConfiguration;
 import app.nzyme.core.connect.ConnectRegistryKeys;
 import app.nzyme.core.integrations.geoip.ipinfo.IpInfoFreeCountryAsnLookupResult;
 import app.nzyme.core.util.MetricNames;
@@ -21,9 +22,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -34,25 +38,32 @@ public class GeoIpService {
 
     private static final Logger LOG = LogManager.getLogger(GeoIpService.class);
 
+    private static final String MMDB_FILE_NAME = "geoip.mmdb";
+
     private final NzymeNode nzyme;
     private final Timer lookupTimerUncached;
 
     private final LoadingCache<InetAddress, Optional<GeoIpLookupResult>> cache;
 
+    private final Path mmdbFile;
+
+    // Only serializes reloads. The reader is thread-safe and lookups use whichever reader is current without locking.
     private final ReentrantLock lock = new ReentrantLock();
-    private Reader mmdb = null;
 
-    private final ScheduledExecutorService refresher;
+    // Replaced as a whole on reload. Null if Connect is not set up or GeoIp data source is not enabled in Connect.
+    private volatile Reader mmdb = null;
 
-    // Can be disabled if Connect is not set up or GeoIp data source is not enabled in Connect.
-    private boolean isEnabled = false;
+    private final ScheduledExecutorService refresher;
 
     public GeoIpService(NzymeNode nzyme) {
         this.nzyme = nzyme;
+        this.mmdbFile = nzyme.getDataDirectory().resolve(MMDB_FILE_NAME);
 
-        this.cache = CacheBuilder.newBuilder() // TODO Configurable
-                .maximumSize(10000)
-                .expireAfterWrite(10, TimeUnit.MINUTES)
+        PerformanceConfiguration performance = nzyme.getConfiguration().performance();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(performance.geoIpCacheSize())
+                .expireAfterWrite(performance.geoIpCacheTtlMinutes(), TimeUnit.MINUTES)
+                .recordStats()
                 .build(new CacheLoader<>() {
                     @Override
                     public Optional<GeoIpLookupResult> load(@NotNull InetAddress address) {
@@ -71,6 +82,27 @@ public class GeoIpService {
             }
         });
 
+        nzyme.getMetrics().register(MetricNames.GEOIP_CACHE_HIT_RATE, new Gauge<Double>() {
+            @Override
+            public Double getValue() {
+                return cache.stats().hitRate();
+            }
+        });
+
+        nzyme.getMetrics().register(MetricNames.GEOIP_CACHE_HITS, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return cache.stats().hitCount();
+            }
+        });
+
+        nzyme.getMetrics().register(MetricNames.GEOIP_CACHE_MISSES, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return cache.stats().missCount();
+            }
+        });
+
         // Reload on configuration change.
         nzyme.getRegistryChangeMonitor()
                 .onChange("core", ConnectRegistryKeys.CONNECT_API_KEY.key(), this::reload);
@@ -103,42 +135,83 @@ public class GeoIpService {
         // IMPORTANT: This method will also be called on configuration changes.
 
         // Update connect status.
-        this.isEnabled = nzyme.getConnect().isEnabled();
-        if (!this.isEnabled) {
+        if (!nzyme.getConnect().isEnabled()) {
+            this.mmdb = null;
             return;
         }
 
         lock.lock();
 
         try {
-            // Load MMDB from connect.
-            Optional<byte[]> bytes = fetchMmdbFromConnect();
+            Path download = mmdbFile.resolveSibling(MMDB_FILE_NAME + ".download");
+
+            boolean available;
+            try {
+                // Load MMDB from connect.
+                available = fetchMmdbFromConnect(download);
+            } catch (Exception e) {
+                LOG.error("Could not download GeoIP data from Connect.", e);
+
+                // Keep using what we have. After a restart, that is the database downloaded before.
+                loadPreviousDownloadIfMissing();
+
+                return;
+            }
 
             // Check if GeoIP data was disabled in Connect for this cluster.
-            if (bytes.isEmpty()) {
-                this.isEnabled = false;
+            if (!available) {
+                this.mmdb = null;
                 return;
             }
 
-            // We have (new) data. Close current reader in preparation for switch.
-            if (this.mmdb != null) {
-                this.mmdb.close();
+            // Make sure the download is a readable database before it replaces the one we have.
+            Reader downloaded;
+            try {
+                downloaded = new Reader(download.toFile(), Reader.FileMode.MEMORY_MAPPED);
+            } catch (Exception e) {
+                LOG.error("Downloaded GeoIP data is invalid. Keeping current GeoIP data.", e);
+                Files.deleteIfExists(download);
+
+                loadPreviousDownloadIfMissing();
+
+                return;
             }
 
-            // Create new reader with (new) data.
-            this.mmdb = new Reader(new ByteArrayInputStream(bytes.get()));
-            this.isEnabled = true;
+            /*
+             * Replace the file and switch to the new memory-mapped reader. Its mapping stays valid when the file is
+             * moved. The previous reader keeps its mapping of the replaced file until in-flight lookups are done and
+             * it is garbage collected. It is not closed because closing it would fail those lookups.
+             */
+            Files.move(download, mmdbFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.mmdb = downloaded;
         } catch (Exception e) {
-            LOG.error("Could not create MMDB reader.", e);
-            this.isEnabled = false;
-            throw new RuntimeException(e);
+            // A failed refresh must not take away GeoIP data we already have.
+            LOG.error("Could not refresh GeoIP data. Keeping current GeoIP data.", e);
+            loadPreviousDownloadIfMissing();
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Falls back to the previously downloaded database if there is no current reader, for example after a restart.
+     * GeoIP lookups stay disabled only if there is no valid database at all. Must be called with the lock held.
+     */
+    private void loadPreviousDownloadIfMissing() {
+        if (this.mmdb != null || !Files.exists(mmdbFile)) {
+            return;
+        }
+
+        try {
+            this.mmdb = new Reader(mmdbFile.toFile(), Reader.FileMode.MEMORY_MAPPED);
+            LOG.info("Using previously downloaded GeoIP data at [{}].", mmdbFile);
+        } catch (Exception e) {
+            LOG.error("Could not read previously downloaded GeoIP data at [{}].", mmdbFile, e);
+        }
+    }
+
     public Optional<GeoIpLookupResult> lookup(InetAddress address) {
-        if (!isEnabled) {
+        if (mmdb == null) {
             return Optional.empty();
         }
 
@@ -146,102 +219,105 @@ public class GeoIpService {
     }
 
     private Optional<GeoIpLookupResult> mmdbLookup(InetAddress address) {
-        try (Timer.Context ignored = lookupTimerUncached.time()) {
-            lock.lock();
+        Reader reader = this.mmdb;
+        if (reader == null) {
+            return Optional.empty();
+        }
 
-            try {
-                IpInfoFreeCountryAsnLookupResult lookup = mmdb.get(address, IpInfoFreeCountryAsnLookupResult.class);
+        try (Timer.Context ignored = lookupTimerUncached.time()) {
+            IpInfoFreeCountryAsnLookupResult lookup = reader.get(address, IpInfoFreeCountryAsnLookupResult.class);
 
-                if (lookup == null) {
-                    return Optional.empty();
-                }
+            if (lookup == null) {
+                return Optional.empty();
+            }
 
-                GeoIpGeoInformation geo = GeoIpGeoInformation.create(
-                        null,
-                        lookup.getCountryCode(),
-                        lookup.getCountryName(),
-                        null,
-                        null
-                );
-
-                Long asNumber;
-                if (lookup.getAsNumber() != null) {
-                    String[] parts = lookup.getAsNumber().split("^AS");
-                    if (parts.length > 1) {
-                        asNumber = Long.parseLong(parts[1]);
-                    } else {
-                        asNumber = null;
-                    }
+            GeoIpGeoInformation geo = GeoIpGeoInformation.create(
+                    null,
+                    lookup.getCountryCode(),
+                    lookup.getCountryName(),
+                    null,
+                    null
+            );
+
+            Long asNumber;
+            if (lookup.getAsNumber() != null) {
+                String[] parts = lookup.getAsNumber().split("^AS");
+                if (parts.length > 1) {
+                    asNumber = Long.parseLong(parts[1]);
                 } else {
                     asNumber = null;
                 }
+            } else {
+                asNumber = null;
+            }
 
-                GeoIpAsnInformation asn = GeoIpAsnInformation.create(
-                        asNumber,
-                        lookup.getAsName(),
-                        lookup.getAsDomain()
-                );
+            GeoIpAsnInformation asn = GeoIpAsnInformation.create(
+                    asNumber,
+                    lookup.getAsName(),
+                    lookup.getAsDomain()
+            );
 
-                return Optional.of(GeoIpLookupResult.create(asn, geo));
-            } catch (Exception e) {
-                LOG.info("Could not look up IP address [{}].", address, e);
-                return Optional.empty();
-            } finally {
-                lock.unlock();
-            }
+            return Optional.of(GeoIpLookupResult.create(asn, geo));
+        } catch (Exception e) {
+            LOG.info("Could not look up IP address [{}].", address, e);
+            return Optional.empty();
         }
     }
 
-    private Optional<byte[]> fetchMmdbFromConnect() {
+    /**
+     * Downloads the MMDB to the given file.
+     *
+     * @return False if GeoIP data is disabled in Connect for this cluster.
+     */
+    private boolean fetchMmdbFromConnect(Path target) throws IOException {
         LOG.debug("Loading new GeoIP data from Connect.");
 
-        try {
-            OkHttpClient c = new OkHttpClient.Builder()
-                    .connectTimeout(60, TimeUnit.SECONDS)
-                    .writeTimeout(15, TimeUnit.SECONDS)
-                    .readTimeout(5, TimeUnit.MINUTES)
-                    .followRedirects(true)
-                    .build();
-
-            HttpUrl url = HttpUrl.get(nzyme.getConnect().getApiUri())
-                    .newBuilder()
-                    .addPathSegment("data")
-                    .addPathSegment("geoip")
-                    .addPathSegment("ip")
-                    .build();
-
-            Response response = c.newCall(new Request.Builder()
-                            .addHeader("User-Agent", "nzyme")
-                            .get()
-                            .url(url)
-                            .addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + nzyme.getConnect().getApiKey())
-                            .addHeader("Content-Type", "application/octet-stream")
-                            .addHeader(HttpHeaders.USER_AGENT, "nzyme-node")
-                            .build()
-                    ).execute();
-
-            try (response) {
-                if (!response.isSuccessful()) {
-                    if (response.code() == 403) {
-                        // GeoIP data disabled in Connect for this cluster.
-                        return Optional.empty();
-                    }
+        OkHttpClient c = new OkHttpClient.Builder()
+                .connectTimeout(60, TimeUnit.SECONDS)
+                .writeTimeout(15, TimeUnit.SECONDS)
+                .readTimeout(5, TimeUnit.MINUTES)
+                .followRedirects(true)
+                .build();
+
+        HttpUrl url = HttpUrl.get(nzyme.getConnect().getApiUri())
+                .newBuilder()
+                .addPathSegment("data")
+                .addPathSegment("geoip")
+                .addPathSegment("ip")
+                .build();
+
+        Response response = c.newCall(new Request.Builder()
+                        .addHeader("User-Agent", "nzyme")
+                        .get()
+                        .url(url)
+                        .addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + nzyme.getConnect().getApiKey())
+                        .addHeader("Content-Type", "application/octet-stream")
+                        .addHeader(HttpHeaders.USER_AGENT, "nzyme-node")
+                        .build()
+                ).execute();
 
-                    throw new RuntimeException("Expected HTTP 200 or 403 but got HTTP " + response.code());
+        try (response) {
+            if (!response.isSuccessful()) {
+                if (response.code() == 403) {
+                    // GeoIP data disabled in Connect for this cluster.
+                    return false;
                 }
 
+                throw new IOException("Expected HTTP 200 or 403 but got HTTP " + response.code());
+            }
 
-                if (response.body() == null) {
-                    throw new RuntimeException("Empty response.");
-                }
-
-                LOG.info("GeoIP data download from Connect complete.");
+            if (response.body() == null) {
+                throw new IOException("Empty response.");
+            }
 
-                return Optional.of(response.body().bytes());
+            // Stream to disk instead of buffering the whole database on the heap.
+            try (InputStream body = response.body().byteStream()) {
+                Files.copy(body, target, StandardCopyOption.REPLACE_EXISTING);
             }
-        }catch (Exception e) {
-            LOG.error("Could not download GeoIP data from Connect.", e);
-            return Optional.empty();
+
+            LOG.info("GeoIP data download from Connect complete.");
+
+            return true;
         }
     }
 
@@ -48,6 +48,7 @@ public class HealthMonitor {
                 .add(new TapDropIndicator(nzyme.getTapManager()))
                 .add(new TapBufferIndicator(nzyme.getTapManager()))
                 .add(new TapErrorIndicator(nzyme.getTapManager()))
+                .add(new TableIngestionQueueIndicator(nzyme.getTablesService()))
                 .add(new TLSExpirationIndicator(nzyme.getCrypto(), nzyme.getNodeManager()))
                 .add(new TasksQueueTaskFailureIndicator(nzyme.getTasksQueue()))
                 .add(new TasksQueueTaskStuckIndicator(nzyme.getTasksQueue()))
@@ -0,0 +1,44 @@
+package app.nzyme.core.monitoring.health.indicators;
+
+import app.nzyme.core.monitoring.health.Indicator;
+import app.nzyme.core.monitoring.health.db.IndicatorStatus;
+import app.nzyme.core.tables.TableIngestionQueue;
+import app.nzyme.core.tables.TablesService;
+
+public class TableIngestionQueueIndicator extends Indicator {
+
+    private final TablesService tablesService;
+
+    public TableIngestionQueueIndicator(TablesService tablesService) {
+        this.tablesService = tablesService;
+    }
+
+    @Override
+    protected IndicatorStatus doRun() {
+        boolean filling = false;
+
+        for (TableIngestionQueue queue : tablesService.getIngestionQueues()) {
+            // Roughly one or more rejected reports per minute.
+            if (queue.getDropped().getOneMinuteRate()*60 >= 1) {
+                return IndicatorStatus.red(this);
+            }
+
+            if (queue.getDepth() > 75*queue.getCapacity()/100) {
+                filling = true;
+            }
+        }
+
+        return filling ? IndicatorStatus.orange(this) : IndicatorStatus.green(this);
+    }
+
+    @Override
+    public String getId() {
+        return "table_ingestion_queue";
+    }
+
+    @Override
+    public String getName() {
+        return "Table Ingestion Queue";
+    }
+
+}
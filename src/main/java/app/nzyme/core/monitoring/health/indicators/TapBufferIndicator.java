@@ -2,13 +2,11 @@ package app.nzyme.core.monitoring.health.indicators;
 
 import app.nzyme.core.monitoring.health.Indicator;
 import app.nzyme.core.monitoring.health.db.IndicatorStatus;
-import app.nzyme.core.taps.Bus;
-import app.nzyme.core.taps.Channel;
 import app.nzyme.core.taps.Tap;
 import app.nzyme.core.taps.TapManager;
+import app.nzyme.core.taps.db.metrics.TapMetricsGauge;
 
 import java.util.List;
-import java.util.Optional;
 
 public class TapBufferIndicator extends Indicator {
 
@@ -23,19 +21,10 @@ public class TapBufferIndicator extends Indicator {
         List<Tap> taps = tapManager.findAllTapsOfAllUsers();
 
         for (Tap tap : taps) {
-            Optional<List<Bus>> buses = tapManager.findBusesOfTap(tap.uuid());
-
-            if (buses.isPresent()) {
-                for (Bus bus : buses.get()) {
-                    Optional<List<Channel>> channels = tapManager.findChannelsOfBus(bus.id());
-
-                    if (channels.isPresent()) {
-                        for (Channel channel : channels.get()) {
-                            if (channel.watermark() > 75*channel.capacity()/100) {
-                                return IndicatorStatus.red(this);
-                            }
-                        }
-                    }
+            for (TapMetricsGauge gauge : tapManager.findGaugesOfTap(tap.uuid())) {
+                if (gauge.metricName().startsWith("channels.") && gauge.metricName().endsWith(".usage_percent")
+                        && gauge.metricValue() > 75) {
+                    return IndicatorStatus.red(this);
                 }
             }
         }
@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -27,16 +28,19 @@ public class OuiService {
 
     private static final Logger LOG = LogManager.getLogger(OuiService.class);
 
+    // Time every 64th lookup.
+    private static final int LOOKUP_TIMING_SAMPLE_MASK = 63;
+
     private final NzymeNode nzyme;
     private final Timer lookupTimer;
 
     private final ScheduledExecutorService refresher;
 
+    // Only serializes reloads. Lookups read the current table without locking.
     private final ReentrantLock lock = new ReentrantLock();
-    private Map<String, String> ouis;
 
-    // Can be disabled if Connect is not set up or OUI data source is not enabled in Connect.
-    private boolean isEnabled = false;
+    // Replaced as a whole on reload. Null if Connect is not set up or OUI data source is not enabled in Connect.
+    private volatile OuiTable table;
 
     public OuiService(NzymeNode nzyme) {
         this.nzyme = nzyme;
@@ -70,8 +74,8 @@ public class OuiService {
     public void initialize() {
         // IMPORTANT: This method will also be called on configuration changes.
 
-        this.isEnabled = nzyme.getConnect().isEnabled();
-        if (!this.isEnabled) {
+        if (!nzyme.getConnect().isEnabled()) {
+            this.table = null;
             return;
         }
 
@@ -82,22 +86,25 @@ public class OuiService {
 
             // Check if OUI data was disabled in Connect for this cluster.
             if (data.isEmpty()) {
-                this.isEnabled = false;
+                this.table = null;
                 return;
             }
 
-            this.ouis = data.get();
-            this.isEnabled = true;
+            OuiTable newTable = OuiTable.build(data.get());
+            LOG.info("Loaded <{}> OUIs.", newTable.size());
+
+            this.table = newTable;
         } catch (Exception e) {
             LOG.error("Could not download OUI data from Connect.", e);
-            this.isEnabled = false;
+            this.table = null;
         } finally {
             lock.unlock();
         }
     }
 
     public Optional<String> lookup(String mac) {
-        if (!isEnabled || mac == null || mac.trim().isEmpty()) {
+        OuiTable current = this.table;
+        if (current == null || mac == null || mac.trim().isEmpty()) {
             return Optional.empty();
         }
 
@@ -106,15 +113,13 @@ public class OuiService {
             return Optional.empty();
         }
 
-        try(Timer.Context ignored = lookupTimer.time()) {
-            lock.lock();
+        // Lookups are cheaper than updating the timer. Only time a sample.
+        if ((ThreadLocalRandom.current().nextInt() & LOOKUP_TIMING_SAMPLE_MASK) != 0) {
+            return Optional.ofNullable(current.lookup(mac));
+        }
 
-            try {
-                String oui = ouis.get(mac.toUpperCase().substring(0, 8).replace(":", ""));
-                return oui == null ? Optional.empty() : Optional.of(oui);
-            } finally {
-                lock.unlock();
-            }
+        try(Timer.Context ignored = lookupTimer.time()) {
+            return Optional.ofNullable(current.lookup(mac));
         }
     }
 
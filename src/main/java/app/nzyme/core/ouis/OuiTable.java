@@ -0,0 +1,206 @@
+package app.nzyme.core.ouis;
+
+import jakarta.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * Immutable vendor lookup table for IEEE MA-L (24 bit), MA-M (28 bit) and MA-S (36 bit) MAC address prefixes. An
+ * open-addressing hash table with primitive long keys, so lookups take no lock and do not allocate. Safe to share
+ * between threads once built.
+ */
+public class OuiTable {
+
+    public static final int MA_L_BITS = 24;
+    public static final int MA_M_BITS = 28;
+    public static final int MA_S_BITS = 36;
+
+    // Number of hex digits of the longest prefix we resolve.
+    private static final int MAX_PREFIX_DIGITS = MA_S_BITS / 4;
+
+    // Slot keys are the prefix with its length in bits above it. A valid key is never 0, which marks an empty slot.
+    private final long[] keys;
+    private final String[] vendors;
+    private final int mask;
+
+    private final int size;
+    private final boolean hasMaM;
+    private final boolean hasMaS;
+
+    private OuiTable(long[] keys, String[] vendors, int size, boolean hasMaM, boolean hasMaS) {
+        this.keys = keys;
+        this.vendors = vendors;
+        this.mask = keys.length - 1;
+        this.size = size;
+        this.hasMaM = hasMaM;
+        this.hasMaS = hasMaS;
+    }
+
+    /**
+     * @param ouis Vendor by prefix of 6, 7 or 9 hex digits, as delivered by Connect. Separators are ignored and
+     *             prefixes of any other length are skipped.
+     */
+    public static OuiTable build(Map<String, String> ouis) {
+        // Keep the load factor at or below 0.5 for short probe sequences.
+        int capacity = Integer.highestOneBit(Math.max(16, ouis.size() * 2 - 1)) << 1;
+
+        long[] keys = new long[capacity];
+        String[] vendors = new String[capacity];
+        int mask = capacity - 1;
+
+        int size = 0;
+        boolean hasMaM = false;
+        boolean hasMaS = false;
+        for (Map.Entry<String, String> oui : ouis.entrySet()) {
+            if (oui.getValue() == null) {
+                continue;
+            }
+
+            long key = parsePrefixKey(oui.getKey());
+            if (key == 0) {
+                continue;
+            }
+
+            int bits = (int) (key >>> 40);
+            hasMaM |= bits == MA_M_BITS;
+            hasMaS |= bits == MA_S_BITS;
+
+            int slot = slot(key, mask);
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            if (keys[slot] == 0) {
+                size++;
+            }
+
+            keys[slot] = key;
+            vendors[slot] = oui.getValue();
+        }
+
+        return new OuiTable(keys, vendors, size, hasMaM, hasMaS);
+    }
+
+    /**
+     * @param mac MAC address in the form <i>00:11:22:33:44:55</i>. Case and separator characters do not matter.
+     * @return Vendor of the most specific matching prefix or null if there is none or the MAC address is invalid.
+     */
+    @Nullable
+    public String lookup(String mac) {
+        long prefix = parseMacPrefix(mac);
+        if (prefix < 0) {
+            return null;
+        }
+
+        if (hasMaS) {
+            String vendor = get(key(MA_S_BITS, prefix));
+            if (vendor != null) {
+                return vendor;
+            }
+        }
+
+        if (hasMaM) {
+            String vendor = get(key(MA_M_BITS, prefix >>> (MA_S_BITS - MA_M_BITS)));
+            if (vendor != null) {
+                return vendor;
+            }
+        }
+
+        return get(key(MA_L_BITS, prefix >>> (MA_S_BITS - MA_L_BITS)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Nullable
+    private String get(long key) {
+        int slot = slot(key, mask);
+        while (true) {
+            long candidate = keys[slot];
+            if (candidate == key) {
+                return vendors[slot];
+            }
+
+            if (candidate == 0) {
+                return null;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return First 36 bits of a 17 character MAC address or -1 if it is not one.
+     */
+    static long parseMacPrefix(String mac) {
+        if (mac == null || mac.length() != 17) {
+            return -1;
+        }
+
+        long prefix = 0;
+        for (int i = 0; i < MAX_PREFIX_DIGITS; i++) {
+            // Two hex digits per octet, each octet followed by a separator.
+            int digit = Character.digit(mac.charAt((i / 2) * 3 + (i % 2)), 16);
+            if (digit < 0) {
+                return -1;
+            }
+
+            prefix = (prefix << 4) | digit;
+        }
+
+        return prefix;
+    }
+
+    /**
+     * @return Slot key of a prefix in Connect notation or 0 if it is not a MA-L, MA-M or MA-S prefix.
+     */
+    static long parsePrefixKey(String oui) {
+        if (oui == null) {
+            return 0;
+        }
+
+        long prefix = 0;
+        int digits = 0;
+        for (int i = 0; i < oui.length(); i++) {
+            char c = oui.charAt(i);
+            if (c == ':' || c == '-' || c == '.') {
+                continue;
+            }
+
+            int digit = Character.digit(c, 16);
+            if (digit < 0 || ++digits > MAX_PREFIX_DIGITS) {
+                return 0;
+            }
+
+            prefix = (prefix << 4) | digit;
+        }
+
+        switch (digits * 4) {
+            case MA_L_BITS:
+                return key(MA_L_BITS, prefix);
+            case MA_M_BITS:
+                return key(MA_M_BITS, prefix);
+            case MA_S_BITS:
+                return key(MA_S_BITS, prefix);
+            default:
+                return 0;
+        }
+    }
+
+    private static long key(int bits, long prefix) {
+        return ((long) bits << 40) | prefix;
+    }
+
+    private static int slot(long key, int mask) {
+        // MurmurHash3 finalizer. Prefixes of one vendor are sequential and would cluster otherwise.
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+
+        return (int) key & mask;
+    }
+
+}
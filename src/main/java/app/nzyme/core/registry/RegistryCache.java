@@ -0,0 +1,104 @@
+package app.nzyme.core.registry;
+
+import app.nzyme.core.util.MetricNames;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Node-local near-cache of registry values, shared by all {@link RegistryImpl} instances of a node.
+ *
+ * Absent values are cached, too. Encrypted values are cached in their encrypted form and decrypted on read. Entries
+ * are updated on local writes and invalidated when another node broadcasts a change or when the
+ * {@link RegistryChangeMonitorImpl} detects a changed value in the database.
+ */
+public class RegistryCache {
+
+    private static final Logger LOG = LogManager.getLogger(RegistryCache.class);
+
+    private final Map<RegistryCacheKey, Optional<String>> values;
+
+    /*
+     * Incremented on every invalidation. A value loaded from the database is only cached if no invalidation happened
+     * while it was loaded, because it could otherwise overwrite a newer value with an old one.
+     */
+    private final AtomicLong generation = new AtomicLong(0);
+    private final Object writeLock = new Object();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RegistryCache(MetricRegistry metrics) {
+        this.values = new ConcurrentHashMap<>();
+
+        this.hits = metrics.counter(MetricNames.REGISTRY_CACHE_HITS);
+        this.misses = metrics.counter(MetricNames.REGISTRY_CACHE_MISSES);
+        metrics.register(MetricNames.REGISTRY_CACHE_SIZE, (Gauge<Integer>) values::size);
+    }
+
+    public Optional<String> get(RegistryCacheKey key, Supplier<Optional<String>> loader) {
+        Optional<String> cached = values.get(key);
+        if (cached != null) {
+            hits.inc();
+            return cached;
+        }
+
+        misses.inc();
+
+        long startGeneration = generation.get();
+        Optional<String> loaded = loader.get();
+        synchronized (writeLock) {
+            if (generation.get() == startGeneration) {
+                values.put(key, loaded);
+            }
+        }
+
+        return loaded;
+    }
+
+    public void put(RegistryCacheKey key, String value) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            values.put(key, Optional.of(value));
+        }
+    }
+
+    public void invalidate(RegistryCacheKey key) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            values.remove(key);
+        }
+    }
+
+    /**
+     * Invalidates the key in all scopes, encrypted and not encrypted.
+     *
+     * @param namespacedKey The namespaced registry key, as built by {@link RegistryImpl#buildNamespacedKey(String, String)}
+     */
+    public void invalidate(String namespacedKey) {
+        LOG.debug("Invalidating registry cache for key [{}].", namespacedKey);
+
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            values.keySet().removeIf(k -> k.key().equals(namespacedKey));
+        }
+    }
+
+    public void invalidateAll() {
+        LOG.debug("Invalidating registry cache.");
+
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            values.clear();
+        }
+    }
+
+}
@@ -21,7 +21,7 @@ public class RegistryChangeMonitorImpl implements RegistryChangeMonitor {
 
     private final Map<String, Runnable> subscribers;
 
-    private Map<String, String> snapshot = null;
+    private Map<RegistryCacheKey, String> snapshot = null;
 
     private final List<String> ignoredKeys;
 
@@ -49,44 +49,48 @@ public class RegistryChangeMonitorImpl implements RegistryChangeMonitor {
             return;
         }
 
-        Map<String, String> previous = Maps.newHashMap(this.snapshot);
+        Map<RegistryCacheKey, String> previous = this.snapshot;
 
         // Create new snapshot. Do this immediately to avoid missing changes that happen during processing.
-        this.snapshot = takeSnapshot();
-
-        Map<String, String> current = takeSnapshot();
-
-        for (Map.Entry<String, String> entry : current.entrySet()) {
-            if (ignoredKeys.contains(entry.getKey())) {
-                continue;
-            }
+        Map<RegistryCacheKey, String> current = takeSnapshot();
+        this.snapshot = current;
 
+        for (Map.Entry<RegistryCacheKey, String> entry : current.entrySet()) {
             if (!previous.containsKey(entry.getKey())) {
                 // New entry.
-                LOG.info("Registry key [{}] now has a value. Notifying subscribers.", entry.getKey());
-                notifyChange(entry.getKey());
+                onChange(entry.getKey(), "Registry key [{}] now has a value. Notifying subscribers.");
             } else {
                 // Existing entry. Compare.
                 if (!entry.getValue().equals(previous.get(entry.getKey()))) {
                     // Value changed.
-                    LOG.info("Registry key [{}] has a new value. Notifying subscribers.", entry.getKey());
-                    notifyChange(entry.getKey());
+                    onChange(entry.getKey(), "Registry key [{}] has a new value. Notifying subscribers.");
                 }
             }
         }
 
-        for (Map.Entry<String, String> entry : previous.entrySet()) {
-            if (ignoredKeys.contains(entry.getKey())) {
-                continue;
-            }
+        for (RegistryCacheKey key : previous.keySet()) {
             // Did a value disappear?
-            if (!current.containsKey(entry.getKey())) {
-                LOG.info("Registry key [{}] has disappeared. Notifying subscribers.", entry.getKey());
-                notifyChange(entry.getKey());
+            if (!current.containsKey(key)) {
+                onChange(key, "Registry key [{}] has disappeared. Notifying subscribers.");
             }
         }
     }
 
+    private void onChange(RegistryCacheKey key, String logMessage) {
+        /*
+         * Always refresh the cache, even for ignored keys. This catches changes made by other nodes if the
+         * invalidation message was lost or has not arrived yet.
+         */
+        nzyme.getRegistryCache().invalidate(key);
+
+        if (ignoredKeys.contains(key.key())) {
+            return;
+        }
+
+        LOG.info(logMessage, key.key());
+        notifyChange(key.key());
+    }
+
     private void notifyChange(String key) {
         /*
          * WARNING:
@@ -102,27 +106,31 @@ public class RegistryChangeMonitorImpl implements RegistryChangeMonitor {
         }
     }
 
-    private Map<String, String> takeSnapshot() {
+    private Map<RegistryCacheKey, String> takeSnapshot() {
         List<RegistryEntry> entries = nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT key, value FROM registry")
+                handle.createQuery("SELECT key, value, organization_id, tenant_id FROM registry")
                         .mapTo(RegistryEntry.class)
                         .list()
         );
 
         List<RegistryEntry> encryptedEntries = nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT key, value FROM registry_encrypted")
+                handle.createQuery("SELECT key, value, NULL AS organization_id, NULL AS tenant_id " +
+                                "FROM registry_encrypted")
                         .mapTo(RegistryEntry.class)
                         .list()
         );
 
-        Map<String, String> result = Maps.newHashMap();
+        Map<RegistryCacheKey, String> result = Maps.newHashMap();
 
         for (RegistryEntry entry : entries) {
-            result.put(entry.key(), entry.value());
+            result.put(
+                    RegistryCacheKey.create(false, entry.key(), entry.organizationId(), entry.tenantId()),
+                    entry.value()
+            );
         }
 
         for (RegistryEntry entry : encryptedEntries) {
-            result.put(entry.key(), entry.value());
+            result.put(RegistryCacheKey.create(true, entry.key(), null, null), entry.value());
         }
 
         return result;
@@ -2,16 +2,25 @@ package app.nzyme.core.registry;
 
 import com.google.auto.value.AutoValue;
 
+import javax.annotation.Nullable;
+import java.util.UUID;
+
 @AutoValue
 public abstract class RegistryEntry {
 
     public abstract String key();
     public abstract String value();
+    @Nullable
+    public abstract UUID organizationId();
+    @Nullable
+    public abstract UUID tenantId();
 
-    public static RegistryEntry create(String key, String value) {
+    public static RegistryEntry create(String key, String value, UUID organizationId, UUID tenantId) {
         return builder()
                 .key(key)
                 .value(value)
+                .organizationId(organizationId)
+                .tenantId(tenantId)
                 .build();
     }
 
@@ -25,6 +34,10 @@ public abstract class RegistryEntry {
 
         public abstract Builder value(String value);
 
+        public abstract Builder organizationId(UUID organizationId);
+
+        public abstract Builder tenantId(UUID tenantId);
+
         public abstract RegistryEntry build();
     }
 }
@@ -5,6 +5,7 @@ import org.jdbi.v3.core.statement.StatementContext;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.UUID;
 
 public class RegistryEntryMapper implements RowMapper<RegistryEntry> {
 
@@ -12,7 +13,11 @@ public class RegistryEntryMapper implements RowMapper<RegistryEntry> {
     public RegistryEntry map(ResultSet rs, StatementContext ctx) throws SQLException {
         return RegistryEntry.create(
                 rs.getString("key"),
-                rs.getString("value")
+                rs.getString("value"),
+                rs.getString("organization_id") == null
+                        ? null : UUID.fromString(rs.getString("organization_id")),
+                rs.getString("tenant_id") == null
+                        ? null : UUID.fromString(rs.getString("tenant_id"))
         );
     }
 
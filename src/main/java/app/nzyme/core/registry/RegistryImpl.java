@@ -2,6 +2,8 @@ package app.nzyme.core.registry;
 
 import app.nzyme.plugin.Registry;
 import app.nzyme.plugin.RegistryCryptoException;
+import app.nzyme.plugin.distributed.messaging.ClusterMessage;
+import app.nzyme.plugin.distributed.messaging.MessageType;
 import com.google.common.base.Charsets;
 import com.google.common.io.BaseEncoding;
 import app.nzyme.core.NzymeNode;
@@ -10,6 +12,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,6 +31,29 @@ public class RegistryImpl implements Registry {
 
     @Override
     public Optional<String> getValue(String key) {
+        return nzyme.getRegistryCache().get(
+                RegistryCacheKey.create(false, buildNamespacedKey(namespace, key), null, null),
+                () -> loadValue(key)
+        );
+    }
+
+    @Override
+    public Optional<String> getValue(String key, UUID organizationId) {
+        return nzyme.getRegistryCache().get(
+                RegistryCacheKey.create(false, buildNamespacedKey(namespace, key), organizationId, null),
+                () -> loadValue(key, organizationId)
+        );
+    }
+
+    @Override
+    public Optional<String> getValue(String key, UUID organizationId, UUID tenantId) {
+        return nzyme.getRegistryCache().get(
+                RegistryCacheKey.create(false, buildNamespacedKey(namespace, key), organizationId, tenantId),
+                () -> loadValue(key, organizationId, tenantId)
+        );
+    }
+
+    private Optional<String> loadValue(String key) {
         LOG.debug("Getting value for [{}] from registry.", buildNamespacedKey(namespace, key));
         return nzyme.getDatabase().withHandle(handle ->
                 handle.createQuery("SELECT value FROM registry WHERE key = :key " +
@@ -38,8 +64,7 @@ public class RegistryImpl implements Registry {
         );
     }
 
-    @Override
-    public Optional<String> getValue(String key, UUID organizationId) {
+    private Optional<String> loadValue(String key, UUID organizationId) {
         LOG.debug("Getting value for [{}] (Org <{}>) from registry.",
                 buildNamespacedKey(namespace, key), organizationId);
         return nzyme.getDatabase().withHandle(handle ->
@@ -52,8 +77,7 @@ public class RegistryImpl implements Registry {
         );
     }
 
-    @Override
-    public Optional<String> getValue(String key, UUID organizationId, UUID tenantId) {
+    private Optional<String> loadValue(String key, UUID organizationId, UUID tenantId) {
         LOG.debug("Getting value for [{}] (Org <{}>, Tenant <{}>) from registry.",
                 buildNamespacedKey(namespace, key), organizationId, tenantId);
         return nzyme.getDatabase().withHandle(handle ->
@@ -69,15 +93,23 @@ public class RegistryImpl implements Registry {
 
     @Override
     public Optional<String> getEncryptedValue(String key) throws RegistryCryptoException {
+        // Only the encrypted value is cached. It is decrypted on every read.
+        Optional<String> encrypted = nzyme.getRegistryCache().get(
+                RegistryCacheKey.create(true, buildNamespacedKey(namespace, key), null, null),
+                () -> loadEncryptedValue(key)
+        );
+
+        return dbResultToResult(key, encrypted);
+    }
+
+    private Optional<String> loadEncryptedValue(String key) {
         LOG.debug("Getting encrypted value for [{}] from registry.", buildNamespacedKey(namespace, key));
-        Optional<String> encrypted = nzyme.getDatabase().withHandle(handle ->
+        return nzyme.getDatabase().withHandle(handle ->
                 handle.createQuery("SELECT value FROM registry_encrypted WHERE key = :key")
                         .bind("key", buildNamespacedKey(namespace, key))
                         .mapTo(String.class)
                         .findOne()
         );
-
-        return dbResultToResult(key, encrypted);
     }
 
     @Override
@@ -171,7 +203,7 @@ public class RegistryImpl implements Registry {
     public void setValue(String key, String value) {
         setValuePreflightChecks(key, value);
 
-        if (getValue(key).isPresent()) {
+        if (loadValue(key).isPresent()) {
             // Update existing entry.
             LOG.debug("Updating existing value for key [{}] in registry.", buildNamespacedKey(namespace, key));
 
@@ -192,13 +224,15 @@ public class RegistryImpl implements Registry {
                             .execute()
             );
         }
+
+        onValueWritten(RegistryCacheKey.create(false, buildNamespacedKey(namespace, key), null, null), value);
     }
 
     @Override
     public void setValue(String key, String value, UUID organizationId) {
         setValuePreflightChecks(key, value);
 
-        if (getValue(key, organizationId).isPresent()) {
+        if (loadValue(key, organizationId).isPresent()) {
             // Update existing entry.
             LOG.debug("Updating existing value for key [{}] (Org <{}>) in registry.",
                     buildNamespacedKey(namespace, key), organizationId);
@@ -225,13 +259,15 @@ public class RegistryImpl implements Registry {
                             .execute()
             );
         }
+
+        onValueWritten(RegistryCacheKey.create(false, buildNamespacedKey(namespace, key), organizationId, null), value);
     }
 
     @Override
     public void setValue(String key, String value, UUID organizationId, UUID tenantId) {
         setValuePreflightChecks(key, value);
 
-        if (getValue(key, organizationId, tenantId).isPresent()) {
+        if (loadValue(key, organizationId, tenantId).isPresent()) {
             // Update existing entry.
             LOG.debug("Updating existing value for key [{}] (Org <{}>, Tenant <{}>) in registry.",
                     buildNamespacedKey(namespace, key), organizationId, tenantId);
@@ -260,6 +296,8 @@ public class RegistryImpl implements Registry {
                             .execute()
             );
         }
+
+        onValueWritten(RegistryCacheKey.create(false, buildNamespacedKey(namespace, key), organizationId, tenantId), value);
     }
 
     @Override
@@ -278,7 +316,7 @@ public class RegistryImpl implements Registry {
             throw new RegistryCryptoException("Could not encrypt registry value for key [" + key + "]", e);
         }
 
-        if (getEncryptedValue(key).isPresent()) {
+        if (loadEncryptedValue(key).isPresent()) {
             // Update existing entry.
             LOG.debug("Updating existing encrypted value for key [{}] in registry.", buildNamespacedKey(namespace, key));
 
@@ -302,6 +340,8 @@ public class RegistryImpl implements Registry {
                             .execute()
             );
         }
+
+        onValueWritten(RegistryCacheKey.create(true, buildNamespacedKey(namespace, key), null, null), encrypted);
     }
 
     @Override
@@ -322,6 +362,8 @@ public class RegistryImpl implements Registry {
                         .bind("key", buildNamespacedKey(namespace, key))
                         .execute()
         );
+
+        onValueDeleted(key);
     }
 
     @Override
@@ -335,6 +377,8 @@ public class RegistryImpl implements Registry {
                         .bind("organization_id", organizationId)
                         .execute()
         );
+
+        onValueDeleted(key);
     }
 
     @Override
@@ -349,6 +393,39 @@ public class RegistryImpl implements Registry {
                         .bind("tenant_id", tenantId)
                         .execute()
         );
+
+        onValueDeleted(key);
+    }
+
+    private void onValueWritten(RegistryCacheKey cacheKey, String value) {
+        RegistryCache cache = nzyme.getRegistryCache();
+
+        // Invalidate all scopes. Unscoped writes and deletes touch scoped entries of the same key, too.
+        cache.invalidate(cacheKey.key());
+        cache.put(cacheKey, value);
+
+        broadcastCacheInvalidation(cacheKey.key());
+    }
+
+    private void onValueDeleted(String key) {
+        nzyme.getRegistryCache().invalidate(buildNamespacedKey(namespace, key));
+        broadcastCacheInvalidation(buildNamespacedKey(namespace, key));
+    }
+
+    private void broadcastCacheInvalidation(String namespacedKey) {
+        /*
+         * The registry is written to before the message bus is initialized during startup. Other nodes will still
+         * pick up the change from the RegistryChangeMonitor, just a little later.
+         */
+        try {
+            nzyme.getMessageBus().sendToAllOnlineNodes(ClusterMessage.create(
+                    MessageType.INVALIDATE_CACHE,
+                    Map.of("cache_type", "registry", "registry_key", namespacedKey),
+                    false
+            ));
+        } catch (Exception e) {
+            LOG.warn("Could not broadcast registry cache invalidation for key [{}].", namespacedKey, e);
+        }
     }
 
     private void setValuePreflightChecks(String key, String value) {
@@ -21,6 +21,7 @@ import app.nzyme.core.NzymeNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import app.nzyme.core.rest.web.AssetManifest;
 import app.nzyme.core.rest.web.IndexHtmlGenerator;
+import app.nzyme.core.rest.web.StaticAssetStore;
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 
 import javax.activation.MimetypesFileTypeMap;
@@ -37,13 +38,17 @@ public class NzymeLeaderInjectionBinder extends AbstractBinder {
     @Override
     protected void configure() {
         bind(nzyme).to(NzymeNode.class);
-        bind(new MimetypesFileTypeMap()).to(MimetypesFileTypeMap.class);
         bind(nzyme.getObjectMapper()).to(ObjectMapper.class);
 
         try {
-            bind(new IndexHtmlGenerator(nzyme.getConfiguration(), new AssetManifest())).to(IndexHtmlGenerator.class);
+            MimetypesFileTypeMap mimeTypes = new MimetypesFileTypeMap();
+            AssetManifest assetManifest = new AssetManifest();
+
+            bind(mimeTypes).to(MimetypesFileTypeMap.class);
+            bind(StaticAssetStore.load(mimeTypes, assetManifest)).to(StaticAssetStore.class);
+            bind(new IndexHtmlGenerator(nzyme.getConfiguration(), assetManifest)).to(IndexHtmlGenerator.class);
         } catch (IOException e) {
-            throw new RuntimeException("Could not bind IndexHtmlGenerator.", e);
+            throw new RuntimeException("Could not bind web interface assets.", e);
         }
     }
 
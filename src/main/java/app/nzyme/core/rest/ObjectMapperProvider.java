@@ -28,8 +28,22 @@ import jakarta.ws.rs.ext.Provider;
 @Provider
 public class ObjectMapperProvider implements ContextResolver<ObjectMapper> {
 
+    // Shared by all requests. A new mapper per request would also start with an empty serializer cache every time.
+    private static final ObjectMapper MAPPER = buildMapper();
+
     @Override
     public ObjectMapper getContext(Class<?> type) {
+        return MAPPER;
+    }
+
+    /**
+     * @return The mapper used for all REST responses. Must not be reconfigured.
+     */
+    public static ObjectMapper getSharedMapper() {
+        return MAPPER;
+    }
+
+    static ObjectMapper buildMapper() {
         final ObjectMapper om = new ObjectMapper();
 
         // Enable serialization of DateTime objects.
@@ -44,4 +58,4 @@ public class ObjectMapperProvider implements ContextResolver<ObjectMapper> {
         return om;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package app.nzyme.core.rest;
+
+import app.nzyme.core.rest.resources.taps.reports.tables.bluetooth.BluetoothDevicesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsTablesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dot11.Dot11TablesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.protobuf.TablesReportDecoder;
+import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionsReport;
+import com.google.protobuf.InvalidProtocolBufferException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * Reads tap table reports sent as protobuf messages instead of JSON. Taps choose the format with the Content-Type
+ * header and both formats result in the same report objects.
+ */
+@Provider
+@Consumes(ProtobufTablesReportReader.APPLICATION_PROTOBUF)
+public class ProtobufTablesReportReader implements MessageBodyReader<Object> {
+
+    public static final String APPLICATION_PROTOBUF = "application/x-protobuf";
+
+    @FunctionalInterface
+    public interface Decoder {
+        Object decode(InputStream in) throws IOException;
+    }
+
+    private static final Map<Class<?>, Decoder> DECODERS = Map.of(
+            Dot11TablesReport.class, TablesReportDecoder::dot11,
+            DnsTablesReport.class, TablesReportDecoder::dns,
+            TcpSessionsReport.class, TablesReportDecoder::tcp,
+            SshSessionsReport.class, TablesReportDecoder::ssh,
+            SocksTunnelsReport.class, TablesReportDecoder::socks,
+            BluetoothDevicesReport.class, TablesReportDecoder::bluetooth
+    );
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return DECODERS.containsKey(type);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type,
+                           Type genericType,
+                           Annotation[] annotations,
+                           MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders,
+                           InputStream entityStream) throws IOException {
+        return decode(type, entityStream);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the message is malformed. Results in a 400 Bad Request response.
+     */
+    public static Object decode(Class<?> type, InputStream in) throws IOException {
+        Decoder decoder = DECODERS.get(type);
+        if (decoder == null) {
+            throw new IllegalArgumentException("No protobuf decoder for [" + type.getName() + "].");
+        }
+
+        try {
+            return decoder.decode(in);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException("Malformed protobuf table report.", e);
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package app.nzyme.core.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes a JSON object with a list of rows straight to the response stream, one row at a time, instead of building
+ * the whole list in memory before serializing it. Rows are usually mapped from an open database result while they
+ * are written.
+ *
+ * The response is committed as soon as the first bytes are written. A failure while streaming can only abort the
+ * response, so anything that should result in a proper error status must be checked before streaming starts.
+ *
+ * A row source that reads from an open database result holds a pool connection until the client has read the whole
+ * response. It must not take another connection per row, and it should bound how long a stalled client can keep the
+ * connection, like Dot11#streamBSSIDs() does.
+ */
+public class StreamingJsonList<T> implements StreamingOutput {
+
+    @FunctionalInterface
+    public interface RowSource<T> {
+        void forEach(Consumer<T> row);
+    }
+
+    private final ObjectWriter writer;
+    private final Map<String, Object> fields;
+    private final String listField;
+    private final RowSource<T> rows;
+
+    public StreamingJsonList(Class<T> rowType, String listField, RowSource<T> rows) {
+        this(rowType, Collections.emptyMap(), listField, rows);
+    }
+
+    /**
+     * @param fields Simple values written before the list, like the total number of rows for pagination.
+     */
+    public StreamingJsonList(Class<T> rowType, Map<String, Object> fields, String listField, RowSource<T> rows) {
+        // Flushing is left to the generator buffer. Flushing after every row would send tiny chunks.
+        this.writer = ObjectMapperProvider.getSharedMapper()
+                .writerFor(rowType)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fields = fields;
+        this.listField = listField;
+        this.rows = rows;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        try (JsonGenerator json = writer.createGenerator(output)) {
+            // The container closes its own stream.
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            json.writeStartObject();
+            for (Map.Entry<String, Object> field : fields.entrySet()) {
+                json.writeObjectField(field.getKey(), field.getValue());
+            }
+
+            json.writeArrayFieldStart(listField);
+            try {
+                rows.forEach(row -> {
+                    try {
+                        writer.writeValue(json, row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+    }
+
+}
@@ -18,7 +18,6 @@ import org.apache.logging.log4j.Logger;
 import org.glassfish.grizzly.http.server.Request;
 
 import java.io.IOException;
-import java.net.InetAddress;
 import java.security.Principal;
 import java.util.Optional;
 
@@ -80,13 +79,8 @@ public class PreMFAAuthenticationFilter implements ContainerRequestFilter {
                 return;
             }
 
-            // Authenticated. Set last activity information.
-            nzyme.getAuthenticationService().updateLastUserActivity(
-                    user.get().uuid(),
-                    remoteIp,
-                    nzyme.getGeoIpService().lookup(InetAddress.getByName(remoteIp))
-                            .orElse(null)
-            );
+            // Authenticated. Set last activity information. Written to the database in batches.
+            nzyme.getAuthenticationService().recordUserActivity(user.get().uuid(), remoteIp);
 
             // Set new security context for later use in resources.
             final SecurityContext currentSecurityContext = requestContext.getSecurityContext();
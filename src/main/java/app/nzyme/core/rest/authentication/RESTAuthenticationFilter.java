@@ -18,6 +18,7 @@
 package app.nzyme.core.rest.authentication;
 
 import app.nzyme.core.NzymeNode;
+import app.nzyme.core.security.authentication.CachedPrincipal;
 import app.nzyme.core.security.authentication.db.UserEntry;
 import app.nzyme.core.security.sessions.db.SessionEntry;
 import app.nzyme.plugin.Subsystem;
@@ -40,7 +41,6 @@ import org.glassfish.grizzly.http.server.Request;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
-import java.net.InetAddress;
 import java.security.Principal;
 import java.util.Arrays;
 import java.util.List;
@@ -120,44 +120,39 @@ public class RESTAuthenticationFilter implements ContainerRequestFilter {
 
             String sessionId = authorizationHeader.substring(AUTHENTICATION_SCHEME.length()).trim();
 
-            // Check if session exists.
-            Optional<SessionEntry> session = nzyme.getAuthenticationService().findSessionWithPassedMFABySessionId(sessionId);
-            if (session.isEmpty()) {
+            // Check if session exists. Session, user, permissions and subsystem flags are cached for a few seconds.
+            Optional<CachedPrincipal> principal = nzyme.getAuthenticationService().findPrincipalBySessionId(sessionId);
+            if (principal.isEmpty()) {
                 abortWithUnauthorized(requestContext);
                 return;
             }
 
-            Optional<UserEntry> user = nzyme.getAuthenticationService().findUserById(session.get().userId());
-
-            if (user.isEmpty()) {
-                LOG.error("Session referenced user that doesn't exist. Aborting.");
-                abortWithUnauthorized(requestContext);
-                return;
-            }
+            SessionEntry session = principal.get().session();
+            UserEntry user = principal.get().user();
 
             String requestPath = requestContext.getUriInfo().getPath();
 
             // Check if we have access to potential subsystem.
             if (requestPath.startsWith("api/ethernet")
-                    && !nzyme.getSubsystems().isEnabled(Subsystem.ETHERNET, user.get().organizationId(), user.get().tenantId())) {
+                    && !principal.get().isSubsystemEnabled(Subsystem.ETHERNET)) {
                 LOG.debug("Blocking access to disabled subsystem at [{}] for user [{}].",
-                        requestPath, user.get().uuid());
+                        requestPath, user.uuid());
                 requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED).build());
                 return;
             }
 
             if (requestPath.startsWith("api/dot11")
-                    && !nzyme.getSubsystems().isEnabled(Subsystem.DOT11, user.get().organizationId(), user.get().tenantId())) {
+                    && !principal.get().isSubsystemEnabled(Subsystem.DOT11)) {
                 LOG.debug("Blocking access to disabled subsystem at [{}] for user [{}].",
-                        requestPath, user.get().uuid());
+                        requestPath, user.uuid());
                 requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED).build());
                 return;
             }
 
             if (requestPath.startsWith("api/bluetooth")
-                    && !nzyme.getSubsystems().isEnabled(Subsystem.BLUETOOTH, user.get().organizationId(), user.get().tenantId())) {
+                    && !principal.get().isSubsystemEnabled(Subsystem.BLUETOOTH)) {
                 LOG.debug("Blocking access to disabled subsystem at [{}] for user [{}].",
-                        requestPath, user.get().uuid());
+                        requestPath, user.uuid());
                 requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED).build());
                 return;
             }
@@ -165,19 +160,19 @@ public class RESTAuthenticationFilter implements ContainerRequestFilter {
             // Check if we have the permissions required by resource.
             switch (resourcePermissionLevel) {
                 case SUPERADMINISTRATOR:
-                    if (!user.get().isSuperAdmin()) {
+                    if (!user.isSuperAdmin()) {
                         LOG.warn("User <{}> requested resource [/{}] which requires super administrator permissions " +
                                         "but is not super administrator.",
-                                user.get().email(), requestPath);
+                                user.email(), requestPath);
                         abortWithUnauthorized(requestContext);
                         return;
                     }
                     break;
                 case ORGADMINISTRATOR:
-                    if (!user.get().isSuperAdmin() && !user.get().isOrganizationAdmin()) {
+                    if (!user.isSuperAdmin() && !user.isOrganizationAdmin()) {
                         LOG.warn("User <{}> requested resource [/{}] which requires organization administrator permissions " +
                                         "but is not organization administrator.",
-                                user.get().email(), requestPath);
+                                user.email(), requestPath);
                         abortWithUnauthorized(requestContext);
                         return;
                     }
@@ -188,25 +183,20 @@ public class RESTAuthenticationFilter implements ContainerRequestFilter {
             }
 
             // Check if we also need a feature permission.
-            if (requiredFeaturePermissions.isPresent() && !user.get().isOrganizationAdmin() && !user.get().isSuperAdmin()) {
-                List<String> userPermissions = nzyme.getAuthenticationService().findPermissionsOfUser(user.get().uuid());
+            if (requiredFeaturePermissions.isPresent() && !user.isOrganizationAdmin() && !user.isSuperAdmin()) {
+                List<String> userPermissions = principal.get().permissions();
                 for (String requiredPermission : requiredFeaturePermissions.get()) {
                     if(!userPermissions.contains(requiredPermission)) {
                         LOG.warn("User <{}> requested resource [/{}] which requires missing feature permission [{}].",
-                                user.get().email(), requestPath, requiredPermission);
+                                user.email(), requestPath, requiredPermission);
                         abortWithUnauthorized(requestContext);
                         return;
                     }
                 }
             }
 
-            // Authenticated. Set last activity information.
-            nzyme.getAuthenticationService().updateLastUserActivity(
-                    user.get().uuid(),
-                    remoteIp,
-                    nzyme.getGeoIpService().lookup(InetAddress.getByName(remoteIp))
-                            .orElse(null)
-            );
+            // Authenticated. Set last activity information. Written to the database in batches.
+            nzyme.getAuthenticationService().recordUserActivity(user.uuid(), remoteIp);
 
             // Set new security context for later use in resources.
             final SecurityContext currentSecurityContext = requestContext.getSecurityContext();
@@ -214,17 +204,16 @@ public class RESTAuthenticationFilter implements ContainerRequestFilter {
 
                 @Override
                 public Principal getUserPrincipal() {
-                    UserEntry u = user.get();
                     return new AuthenticatedUser(
-                            u.uuid(),
-                            session.get().sessionId(),
-                            u.email(),
-                            session.get().createdAt(),
-                            u.organizationId(),
-                            u.tenantId(),
-                            u.isOrganizationAdmin(),
-                            u.isSuperAdmin(),
-                            u.accessAllTenantTaps()
+                            user.uuid(),
+                            session.sessionId(),
+                            user.email(),
+                            session.createdAt(),
+                            user.organizationId(),
+                            user.tenantId(),
+                            user.isOrganizationAdmin(),
+                            user.isSuperAdmin(),
+                            user.accessAllTenantTaps()
                     );
                 }
 
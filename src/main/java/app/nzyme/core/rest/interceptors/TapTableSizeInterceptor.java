@@ -2,16 +2,16 @@ package app.nzyme.core.rest.interceptors;
 
 import app.nzyme.core.NzymeNode;
 import app.nzyme.core.util.MetricNames;
+import com.google.common.io.CountingInputStream;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.UriInfo;
 import jakarta.ws.rs.ext.ReaderInterceptor;
 import jakarta.ws.rs.ext.ReaderInterceptorContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 public class TapTableSizeInterceptor implements ReaderInterceptor {
@@ -29,22 +29,42 @@ public class TapTableSizeInterceptor implements ReaderInterceptor {
 
     @Override
     public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException, WebApplicationException {
-        if (uriInfo.getPath().contains("api/taps/tables")) {
-            // We do not want to consume the InputStream because we need it later in the resource of course. Copy it.
-            ByteArrayOutputStream cloner = new ByteArrayOutputStream();
-            context.getInputStream().transferTo(cloner);
+        if (!uriInfo.getPath().contains("api/taps/tables")) {
+            return context.proceed();
+        }
+
+        long contentLength = parseContentLength(context.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+        if (contentLength >= 0) {
+            Object report = context.proceed();
+            recordSize(contentLength);
+            return report;
+        }
 
-            int size = cloner.toByteArray().length;
-            LOG.debug("Tap table report size: {}", size);
+        // Chunked request without a Content-Length. Count the bytes while the report is read instead of copying it.
+        CountingInputStream counter = new CountingInputStream(context.getInputStream());
+        context.setInputStream(counter);
+        Object report = context.proceed();
+        recordSize(counter.getCount());
+        return report;
+    }
 
-            nzyme.getMetrics().histogram(MetricNames.TAP_TABLE_REQUEST_SIZES).update(size);
-            nzyme.getNodeManager().recordTapReportSize(size);
+    private void recordSize(long size) {
+        LOG.debug("Tap table report size: {}", size);
 
-            // Stick another clone right back into the request context.
-            context.setInputStream(new ByteArrayInputStream(cloner.toByteArray()));
+        nzyme.getMetrics().histogram(MetricNames.TAP_TABLE_REQUEST_SIZES).update(size);
+        nzyme.getNodeManager().recordTapReportSize(size);
+    }
+
+    private static long parseContentLength(String header) {
+        if (header == null) {
+            return -1;
         }
 
-        return context.proceed();
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
 }
@@ -917,6 +917,8 @@ public class Dot11MonitoredNetworksResource extends TapDataHandlingResource {
             }
         }
 
+        nzyme.getDot11().bumpMonitoredSSIDUpdatedAt(ssid.get().id());
+
         return Response.ok(Response.Status.CREATED).build();
     }
 
@@ -977,6 +979,8 @@ public class Dot11MonitoredNetworksResource extends TapDataHandlingResource {
 
         nzyme.getDot11().setSimilarSSIDMonitorConfiguration(ssid.get().id(), (int) req.threshold());
 
+        nzyme.getDot11().bumpMonitoredSSIDUpdatedAt(ssid.get().id());
+
         return Response.ok().build();
     }
 
@@ -1000,6 +1004,8 @@ public class Dot11MonitoredNetworksResource extends TapDataHandlingResource {
 
         nzyme.getDot11().createRestrictedSSIDSubstring(ssid.get().id(), req.substring());
 
+        nzyme.getDot11().bumpMonitoredSSIDUpdatedAt(ssid.get().id());
+
         return Response.status(Response.Status.CREATED).build();
     }
 
@@ -1023,6 +1029,8 @@ public class Dot11MonitoredNetworksResource extends TapDataHandlingResource {
 
         nzyme.getDot11().deleteRestrictedSSIDSubstring(ssid.get().id(), substringUuid);
 
+        nzyme.getDot11().bumpMonitoredSSIDUpdatedAt(ssid.get().id());
+
         return Response.ok().build();
     }
 
@@ -8,6 +8,7 @@ import app.nzyme.core.dot11.db.*;
 import app.nzyme.core.dot11.tracks.Track;
 import app.nzyme.core.dot11.tracks.TrackDetector;
 import app.nzyme.core.dot11.tracks.db.TrackDetectorConfig;
+import app.nzyme.core.rest.StreamingJsonList;
 import app.nzyme.core.rest.TapDataHandlingResource;
 import app.nzyme.core.rest.authentication.AuthenticatedUser;
 import app.nzyme.core.rest.requests.UpdateTrackDetectorConfigurationRequest;
@@ -65,40 +66,49 @@ public class Dot11NetworksResource extends TapDataHandlingResource {
         List<UUID> tapUuids = parseAndValidateTapIds(authenticatedUser, nzyme, taps);
         TimeRange timeRange = parseTimeRangeQueryParameter(timeRangeParameter);
 
-        List<BSSIDSummaryDetailsResponse> bssids = Lists.newArrayList();
+        /*
+         * Load all context before streaming. Looking it up per row could take a second database connection while the
+         * stream is holding one.
+         */
+        Map<String, MacAddressContextEntry> context = nzyme.getContextService().findMacAddressContextIndex(
+                authenticatedUser.getOrganizationId(),
+                authenticatedUser.getTenantId()
+        );
 
-        for (BSSIDSummary bssid : nzyme.getDot11().findBSSIDs(timeRange, tapUuids)) {
-            Optional<MacAddressContextEntry> bssidContext = nzyme.getContextService().findMacAddressContext(
-                    bssid.bssid(),
-                    authenticatedUser.getOrganizationId(),
-                    authenticatedUser.getTenantId()
-            );
+        // Streamed because this list can get very long. Same JSON as BSSIDListResponse.
+        return Response.ok(new StreamingJsonList<>(BSSIDSummaryDetailsResponse.class, "bssids", row ->
+                nzyme.getDot11().streamBSSIDs(timeRange, tapUuids, bssid ->
+                        row.accept(bssidSummaryToResponse(bssid, context))
+                )
+        )).build();
+    }
 
-            bssids.add(BSSIDSummaryDetailsResponse.create(
-                    Dot11MacAddressResponse.create(
-                            bssid.bssid(),
-                            nzyme.getOuiService().lookup(bssid.bssid()).orElse(null),
-                            null,
-                            bssidContext.map(macAddressContextEntry ->
-                                    Dot11MacAddressContextResponse.create(
-                                            macAddressContextEntry.name(),
-                                            macAddressContextEntry.description()
-                                    ))
-                                    .orElse(null)
-                    ),
-                    bssid.securityProtocols(),
-                    bssid.signalStrengthAverage(),
-                    bssid.firstSeen(),
-                    bssid.lastSeen(),
-                    bssid.clientCount(),
-                    bssid.fingerprints(),
-                    bssid.ssids(),
-                    bssid.hiddenSSIDFrames() > 0,
-                    bssid.infrastructureTypes()
-            ));
-        }
+    private BSSIDSummaryDetailsResponse bssidSummaryToResponse(BSSIDSummary bssid,
+                                                               Map<String, MacAddressContextEntry> context) {
+        Optional<MacAddressContextEntry> bssidContext = Optional.ofNullable(context.get(bssid.bssid()));
 
-        return Response.ok(BSSIDListResponse.create(bssids)).build();
+        return BSSIDSummaryDetailsResponse.create(
+                Dot11MacAddressResponse.create(
+                        bssid.bssid(),
+                        nzyme.getOuiService().lookup(bssid.bssid()).orElse(null),
+                        null,
+                        bssidContext.map(macAddressContextEntry ->
+                                Dot11MacAddressContextResponse.create(
+                                        macAddressContextEntry.name(),
+                                        macAddressContextEntry.description()
+                                ))
+                                .orElse(null)
+                ),
+                bssid.securityProtocols(),
+                bssid.signalStrengthAverage(),
+                bssid.firstSeen(),
+                bssid.lastSeen(),
+                bssid.clientCount(),
+                bssid.fingerprints(),
+                bssid.ssids(),
+                bssid.hiddenSSIDFrames() > 0,
+                bssid.infrastructureTypes()
+        );
     }
 
     @GET
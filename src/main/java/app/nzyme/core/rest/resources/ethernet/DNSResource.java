@@ -6,6 +6,7 @@ import app.nzyme.core.ethernet.L4Type;
 import app.nzyme.core.ethernet.dns.DNSTransaction;
 import app.nzyme.core.ethernet.dns.db.*;
 import app.nzyme.core.rest.RestHelpers;
+import app.nzyme.core.rest.StreamingJsonList;
 import app.nzyme.core.rest.TapDataHandlingResource;
 import app.nzyme.core.rest.responses.ethernet.dns.*;
 import app.nzyme.core.rest.responses.shared.*;
@@ -218,17 +219,12 @@ public class DNSResource extends TapDataHandlingResource {
 
         long total = nzyme.getEthernet().dns().countAllQueries(timeRange, filters, taps);
 
-        List<DNSLogEntryResponse> transactions = Lists.newArrayList();
-        for (DNSLogEntry q : nzyme.getEthernet().dns()
-                .findAllQueries(timeRange, filters, limit, offset, taps)) {
-            DNSLogDataResponse query = logToResponse(q);
-
-            transactions.add(DNSLogEntryResponse.create(query));
-        }
-
-        transactions.sort((o1, o2) -> o2.query().timestamp().compareTo(o1.query().timestamp()));
-
-        return Response.ok(DNSLogListResponse.create(total, transactions)).build();
+        // Streamed in the order of the query, newest first. Same JSON as DNSLogListResponse.
+        return Response.ok(new StreamingJsonList<>(DNSLogEntryResponse.class, Map.<String, Object>of("total", total), "logs", row ->
+                nzyme.getEthernet().dns().streamAllQueries(timeRange, filters, limit, offset, taps, q ->
+                        row.accept(DNSLogEntryResponse.create(logToResponse(q)))
+                )
+        )).build();
     }
 
     @GET
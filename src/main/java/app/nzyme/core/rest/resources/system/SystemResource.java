@@ -272,6 +272,9 @@ public class SystemResource {
             nzyme.getDatabaseCoreRegistry().setValue(c.getKey(), c.getValue().toString());
         }
 
+        // Subsystem flags are part of cached principals.
+        nzyme.getAuthenticationService().invalidatePrincipalCachesClusterWide();
+
         return Response.ok().build();
     }
 
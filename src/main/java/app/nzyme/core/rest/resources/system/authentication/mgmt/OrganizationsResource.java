@@ -266,6 +266,9 @@ public class OrganizationsResource extends UserAuthenticatedResource {
             nzyme.getDatabaseCoreRegistry().setValue(c.getKey(), c.getValue().toString(), org.get().uuid());
         }
 
+        // Subsystem flags are part of cached principals.
+        nzyme.getAuthenticationService().invalidatePrincipalCachesClusterWide();
+
         return Response.ok().build();
     }
 
@@ -785,6 +788,9 @@ public class OrganizationsResource extends UserAuthenticatedResource {
             nzyme.getDatabaseCoreRegistry().setValue(c.getKey(), c.getValue().toString(), organizationId, tenantId);
         }
 
+        // Subsystem flags are part of cached principals.
+        nzyme.getAuthenticationService().invalidatePrincipalCachesClusterWide();
+
         return Response.ok().build();
     }
 
@@ -18,6 +18,7 @@
 package app.nzyme.core.rest.resources.taps;
 
 import app.nzyme.core.NzymeNode;
+import app.nzyme.core.rest.ProtobufTablesReportReader;
 import app.nzyme.core.rest.authentication.AuthenticatedTap;
 import app.nzyme.core.rest.authentication.TapSecured;
 import app.nzyme.core.rest.resources.taps.reports.tables.bluetooth.BluetoothDevicesReport;
@@ -29,10 +30,12 @@ import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionsReport;
 import app.nzyme.core.rest.resources.taps.reports.tables.udp.UdpDatagramsReport;
 import app.nzyme.plugin.Subsystem;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
@@ -47,6 +50,8 @@ public class TablesResource {
 
     private static final Logger LOG = LogManager.getLogger(StatusResource.class);
 
+    private static final int RETRY_AFTER_SECONDS = 5;
+
     @Inject
     private NzymeNode nzyme;
 
@@ -55,8 +60,18 @@ public class TablesResource {
      * their request URI.
      */
 
+    /*
+     * Reports are only validated and queued here. Writing them to the database happens asynchronously, so all table
+     * endpoints respond with 202 Accepted or, if the table queue is full, 429 Too Many Requests and a Retry-After
+     * header.
+     *
+     * Except for UDP, taps can send reports as JSON or, with a Content-Type of application/x-protobuf, as the protobuf
+     * messages of tap_tables_v1.proto.
+     */
+
     @POST
     @Path("/dot11/summary")
+    @Consumes({MediaType.APPLICATION_JSON, ProtobufTablesReportReader.APPLICATION_PROTOBUF})
     public Response dot11Summary(@Context SecurityContext sc, Dot11TablesReport report) {
         AuthenticatedTap tap = ((AuthenticatedTap) sc.getUserPrincipal());
 
@@ -66,13 +81,15 @@ public class TablesResource {
         }
 
         LOG.debug("Received 802.11 summary report from tap [{}]: {}", tap.getUuid(), report);
-        nzyme.getTablesService().dot11().handleReport(tap.getUuid(), DateTime.now(), report);
-
-        return Response.status(Response.Status.CREATED).build();
+        DateTime receivedAt = DateTime.now();
+        return enqueue("dot11", tap, report, () ->
+                nzyme.getTablesService().dot11().handleReport(tap.getUuid(), receivedAt, report)
+        );
     }
 
     @POST
     @Path("/bluetooth/devices")
+    @Consumes({MediaType.APPLICATION_JSON, ProtobufTablesReportReader.APPLICATION_PROTOBUF})
     public Response bluetoothDevices(@Context SecurityContext sc, BluetoothDevicesReport report) {
         AuthenticatedTap tap = ((AuthenticatedTap) sc.getUserPrincipal());
 
@@ -82,13 +99,15 @@ public class TablesResource {
         }
 
         LOG.debug("Received Bluetooth devices report from tap [{}]: {}", tap.getUuid(), report);
-        nzyme.getTablesService().bluetooth().handleReport(tap.getUuid(), DateTime.now(), report);
-
-        return Response.status(Response.Status.CREATED).build();
+        DateTime receivedAt = DateTime.now();
+        return enqueue("bluetooth", tap, report, () ->
+                nzyme.getTablesService().bluetooth().handleReport(tap.getUuid(), receivedAt, report)
+        );
     }
 
     @POST
     @Path("/tcp/sessions")
+    @Consumes({MediaType.APPLICATION_JSON, ProtobufTablesReportReader.APPLICATION_PROTOBUF})
     public Response tcpSessions(@Context SecurityContext sc, TcpSessionsReport report) {
         AuthenticatedTap tap = ((AuthenticatedTap) sc.getUserPrincipal());
 
@@ -98,9 +117,10 @@ public class TablesResource {
         }
 
         LOG.debug("Received TCP session table report from tap [{}]: {}", tap.getUuid(), report);
-        nzyme.getTablesService().tcp().handleReport(tap.getUuid(), DateTime.now(), report);
-
-        return Response.status(Response.Status.CREATED).build();
+        DateTime receivedAt = DateTime.now();
+        return enqueue("tcp", tap, report, () ->
+                nzyme.getTablesService().tcp().handleReport(tap.getUuid(), receivedAt, report)
+        );
     }
 
     @POST
@@ -122,6 +142,7 @@ public class TablesResource {
 
     @POST
     @Path("/dns/summary")
+    @Consumes({MediaType.APPLICATION_JSON, ProtobufTablesReportReader.APPLICATION_PROTOBUF})
     public Response dnsSummary(@Context SecurityContext sc, DnsTablesReport report) {
         AuthenticatedTap tap = ((AuthenticatedTap) sc.getUserPrincipal());
 
@@ -131,13 +152,15 @@ public class TablesResource {
         }
 
         LOG.debug("Received DNS summary report from tap [{}]: {}", tap.getUuid(), report);
-        nzyme.getTablesService().dns().handleReport(tap.getUuid(), DateTime.now(), report);
-
-        return Response.status(Response.Status.CREATED).build();
+        DateTime receivedAt = DateTime.now();
+        return enqueue("dns", tap, report, () ->
+                nzyme.getTablesService().dns().handleReport(tap.getUuid(), receivedAt, report)
+        );
     }
 
     @POST
     @Path("/ssh/sessions")
+    @Consumes({MediaType.APPLICATION_JSON, ProtobufTablesReportReader.APPLICATION_PROTOBUF})
     public Response sshSessions(@Context SecurityContext sc, SshSessionsReport report) {
         AuthenticatedTap tap = ((AuthenticatedTap) sc.getUserPrincipal());
 
@@ -147,13 +170,15 @@ public class TablesResource {
         }
 
         LOG.debug("Received SSH sessions report from tap [{}]: {}", tap.getUuid(), report);
-        nzyme.getTablesService().ssh().handleReport(tap.getUuid(), DateTime.now(), report);
-
-        return Response.status(Response.Status.CREATED).build();
+        DateTime receivedAt = DateTime.now();
+        return enqueue("ssh", tap, report, () ->
+                nzyme.getTablesService().ssh().handleReport(tap.getUuid(), receivedAt, report)
+        );
     }
 
     @POST
     @Path("/socks/tunnels")
+    @Consumes({MediaType.APPLICATION_JSON, ProtobufTablesReportReader.APPLICATION_PROTOBUF})
     public Response socksTunnels(@Context SecurityContext sc, SocksTunnelsReport report) {
         AuthenticatedTap tap = ((AuthenticatedTap) sc.getUserPrincipal());
 
@@ -163,9 +188,23 @@ public class TablesResource {
         }
 
         LOG.debug("Received SOCKS tunnels report from tap [{}]: {}", tap.getUuid(), report);
-        nzyme.getTablesService().socks().handleReport(tap.getUuid(), DateTime.now(), report);
+        DateTime receivedAt = DateTime.now();
+        return enqueue("socks", tap, report, () ->
+                nzyme.getTablesService().socks().handleReport(tap.getUuid(), receivedAt, report)
+        );
+    }
 
-        return Response.status(Response.Status.CREATED).build();
+    private Response enqueue(String table, AuthenticatedTap tap, Object report, Runnable work) {
+        if (!nzyme.getTablesService().ingestionQueue(table).offer(work)) {
+            LOG.debug("Rejecting {} from tap [{}]: Ingestion queue of table [{}] is full.",
+                    report.getClass().getSimpleName(), tap.getUuid(), table);
+
+            return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+
+        return Response.accepted().build();
     }
 
 }
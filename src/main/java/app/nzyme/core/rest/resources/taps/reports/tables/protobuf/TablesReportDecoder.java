@@ -0,0 +1,399 @@
+package app.nzyme.core.rest.resources.taps.reports.tables.protobuf;
+
+import app.nzyme.core.rest.resources.taps.reports.tables.bluetooth.BluetoothDeviceReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.bluetooth.BluetoothDevicesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsEntropyLogReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsIpStatisticsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsLogReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsTablesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dot11.*;
+import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshVersionReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionsReport;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Decodes the binary tap table reports of {@code tap_tables_v1.proto} into the same report objects the JSON endpoints
+ * deserialize, so everything after decoding is shared by both formats.
+ *
+ * Fields that can be null in the JSON reports are null if they are not set in the protobuf message. All other unset
+ * fields decode to the protobuf default values.
+ */
+public class TablesReportDecoder {
+
+    public static Dot11TablesReport dot11(InputStream in) throws IOException {
+        return dot11(TapTablesV1.Dot11TablesReport.parseFrom(in));
+    }
+
+    public static DnsTablesReport dns(InputStream in) throws IOException {
+        return dns(TapTablesV1.DnsTablesReport.parseFrom(in));
+    }
+
+    public static TcpSessionsReport tcp(InputStream in) throws IOException {
+        return tcp(TapTablesV1.TcpSessionsReport.parseFrom(in));
+    }
+
+    public static SshSessionsReport ssh(InputStream in) throws IOException {
+        return ssh(TapTablesV1.SshSessionsReport.parseFrom(in));
+    }
+
+    public static SocksTunnelsReport socks(InputStream in) throws IOException {
+        return socks(TapTablesV1.SocksTunnelsReport.parseFrom(in));
+    }
+
+    public static BluetoothDevicesReport bluetooth(InputStream in) throws IOException {
+        return bluetooth(TapTablesV1.BluetoothDevicesReport.parseFrom(in));
+    }
+
+    /*
+     * 802.11
+     */
+
+    public static Dot11TablesReport dot11(TapTablesV1.Dot11TablesReport report) throws InvalidProtocolBufferException {
+        List<Dot11AlertReport> alerts = Lists.newArrayListWithCapacity(report.getAlertsCount());
+        for (TapTablesV1.Dot11AlertReport alert : report.getAlertsList()) {
+            alerts.add(dot11Alert(alert));
+        }
+
+        return Dot11TablesReport.create(
+                mapValues(report.getBssidsMap(), TablesReportDecoder::dot11BSSID),
+                mapValues(report.getClientsMap(), TablesReportDecoder::dot11Client),
+                report.hasDisco() ? dot11Disco(report.getDisco()) : null,
+                alerts
+        );
+    }
+
+    private static Dot11BSSIDReport dot11BSSID(TapTablesV1.Dot11BSSIDReport bssid) {
+        return Dot11BSSIDReport.create(
+                mapValues(bssid.getAdvertisedNetworksMap(), TablesReportDecoder::dot11AdvertisedNetwork),
+                mapValues(bssid.getClientsMap(), TablesReportDecoder::dot11ClientStatistics),
+                bssid.getHiddenSsidFrames(),
+                signalStrength(bssid.getSignalStrength()),
+                bssid.getFingerprintsList()
+        );
+    }
+
+    private static Dot11AdvertisedNetworkReport dot11AdvertisedNetwork(TapTablesV1.Dot11AdvertisedNetworkReport network) {
+        return Dot11AdvertisedNetworkReport.create(
+                list(network.getSecurityList(), TablesReportDecoder::dot11Security),
+                network.getFingerprintsList(),
+                network.getRatesList(),
+                network.getWpsList(),
+                signalStrength(network.getSignalStrength()),
+                mapValues(network.getSignalHistogramMap(), TapTablesV1.Dot11SignalHistogram::getCountsMap),
+                network.getInfrastructureTypesList(),
+                mapValues(network.getChannelStatisticsMap(), channel ->
+                        mapValues(channel.getFrameTypesMap(), frameType ->
+                                Dot11ChannelStatisticsReport.create(frameType.getBytes(), frameType.getFrames()))),
+                network.getBeaconAdvertisements(),
+                network.getProberespAdvertisements()
+        );
+    }
+
+    private static Dot11SecurityInformationReport dot11Security(TapTablesV1.Dot11SecurityInformationReport security) {
+        TapTablesV1.Dot11CipherSuitesReport suites = security.getSuites();
+
+        return Dot11SecurityInformationReport.create(
+                security.getProtocolsList(),
+                Dot11CipherSuitesReport.create(
+                        suites.getGroupCipher(),
+                        suites.getPairwiseCiphersList(),
+                        suites.getKeyManagementModesList()
+                ),
+                security.getPmf()
+        );
+    }
+
+    private static Dot11ClientStatisticsReport dot11ClientStatistics(TapTablesV1.Dot11ClientStatisticsReport client) {
+        return Dot11ClientStatisticsReport.create(
+                client.getTxFrames(),
+                client.getTxBytes(),
+                client.getRxFrames(),
+                client.getRxBytes(),
+                signalStrength(client.getSignalStrength())
+        );
+    }
+
+    private static Dot11ClientReport dot11Client(TapTablesV1.Dot11ClientReport client) {
+        return Dot11ClientReport.create(
+                client.getProbeRequestSsidsMap(),
+                client.getWildcardProbeRequests(),
+                signalStrength(client.getSignalStrength())
+        );
+    }
+
+    private static Dot11DiscoReport dot11Disco(TapTablesV1.Dot11DiscoReport disco) {
+        return Dot11DiscoReport.create(
+                mapValues(disco.getDeauthMap(), TablesReportDecoder::dot11DiscoTransmitter),
+                mapValues(disco.getDisassocMap(), TablesReportDecoder::dot11DiscoTransmitter)
+        );
+    }
+
+    private static Dot11DiscoTransmitterReport dot11DiscoTransmitter(TapTablesV1.Dot11DiscoTransmitterReport transmitter) {
+        return Dot11DiscoTransmitterReport.create(
+                transmitter.getBssid(),
+                transmitter.getSentFrames(),
+                transmitter.getReceiversMap()
+        );
+    }
+
+    private static Dot11AlertReport dot11Alert(TapTablesV1.Dot11AlertReport alert)
+            throws InvalidProtocolBufferException {
+        Dot11AlertReport.AlertType alertType;
+        try {
+            alertType = Dot11AlertReport.AlertType.valueOf(alert.getAlertType());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidProtocolBufferException("Unknown 802.11 alert type [" + alert.getAlertType() + "].");
+        }
+
+        Map<String, Map<Dot11AlertReport.AlertAttributeType, Object>> attributes
+                = Maps.newHashMapWithExpectedSize(alert.getAttributesCount());
+        for (Map.Entry<String, TapTablesV1.Dot11AlertAttribute> attribute : alert.getAttributesMap().entrySet()) {
+            TapTablesV1.Dot11AlertAttribute value = attribute.getValue();
+            switch (value.getValueCase()) {
+                case NUMBER:
+                    attributes.put(attribute.getKey(),
+                            Map.of(Dot11AlertReport.AlertAttributeType.Number, value.getNumber()));
+                    break;
+                case STRING:
+                    attributes.put(attribute.getKey(),
+                            Map.of(Dot11AlertReport.AlertAttributeType.String, value.getString()));
+                    break;
+                default:
+                    throw new InvalidProtocolBufferException(
+                            "802.11 alert attribute [" + attribute.getKey() + "] has no value.");
+            }
+        }
+
+        return Dot11AlertReport.create(alertType, attributes, alert.getSignalStrength());
+    }
+
+    private static Dot11SignalStrengthReport signalStrength(TapTablesV1.SignalStrength signalStrength) {
+        return Dot11SignalStrengthReport.create(
+                signalStrength.getMin(),
+                signalStrength.getMax(),
+                signalStrength.getAverage()
+        );
+    }
+
+    /*
+     * DNS
+     */
+
+    public static DnsTablesReport dns(TapTablesV1.DnsTablesReport report) {
+        return DnsTablesReport.create(
+                mapValues(report.getIpsMap(), ip -> DnsIpStatisticsReport.create(
+                        ip.getRequestCount(),
+                        ip.getRequestBytes(),
+                        ip.getResponseCount(),
+                        ip.getResponseBytes(),
+                        ip.getNxdomainCount()
+                )),
+                list(report.getEntropyLogList(), entropy -> DnsEntropyLogReport.create(
+                        entropy.getTransactionId(),
+                        entropy.getEntropy(),
+                        entropy.getZscore(),
+                        entropy.getEntropyMean(),
+                        timestamp(entropy.getTimestamp())
+                )),
+                list(report.getQueriesList(), TablesReportDecoder::dnsLog),
+                list(report.getResponsesList(), TablesReportDecoder::dnsLog)
+        );
+    }
+
+    private static DnsLogReport dnsLog(TapTablesV1.DnsLogReport log) {
+        return DnsLogReport.create(
+                log.hasTransactionId() ? log.getTransactionId() : null,
+                log.getClientAddress(),
+                log.getServerAddress(),
+                log.hasClientMac() ? log.getClientMac() : null,
+                log.hasServerMac() ? log.getServerMac() : null,
+                log.getClientPort(),
+                log.getServerPort(),
+                log.getDataValue(),
+                log.hasDataValueEtld() ? log.getDataValueEtld() : null,
+                log.getDataType(),
+                timestamp(log.getTimestamp())
+        );
+    }
+
+    /*
+     * TCP
+     */
+
+    public static TcpSessionsReport tcp(TapTablesV1.TcpSessionsReport report) {
+        return TcpSessionsReport.create(list(report.getSessionsList(), session -> TcpSessionReport.create(
+                session.getState(),
+                session.hasSourceMac() ? session.getSourceMac() : null,
+                session.hasDestinationMac() ? session.getDestinationMac() : null,
+                session.getSourceAddress(),
+                session.getSourcePort(),
+                session.getDestinationAddress(),
+                session.getDestinationPort(),
+                timestamp(session.getStartTime()),
+                session.hasEndTime() ? timestamp(session.getEndTime()) : null,
+                timestamp(session.getMostRecentSegmentTime()),
+                session.getSegmentsCount(),
+                session.getBytesCount(),
+                session.hasTags() ? session.getTags().getValuesList() : null
+        )));
+    }
+
+    /*
+     * SSH
+     */
+
+    public static SshSessionsReport ssh(TapTablesV1.SshSessionsReport report) {
+        return SshSessionsReport.create(list(report.getSessionsList(), session -> SshSessionReport.create(
+                sshVersion(session.getClientVersion()),
+                sshVersion(session.getServerVersion()),
+                session.getConnectionStatus(),
+                session.getTunneledBytes(),
+                session.hasSourceMac() ? session.getSourceMac() : null,
+                session.hasDestinationMac() ? session.getDestinationMac() : null,
+                session.getSourceAddress(),
+                session.getDestinationAddress(),
+                session.getSourcePort(),
+                session.getDestinationPort(),
+                timestamp(session.getEstablishedAt()),
+                session.hasTerminatedAt() ? timestamp(session.getTerminatedAt()) : null,
+                timestamp(session.getMostRecentSegmentTime())
+        )));
+    }
+
+    private static SshVersionReport sshVersion(TapTablesV1.SshVersionReport version) {
+        return SshVersionReport.create(
+                version.getVersion(),
+                version.getSoftware(),
+                version.hasComments() ? version.getComments() : null
+        );
+    }
+
+    /*
+     * SOCKS
+     */
+
+    public static SocksTunnelsReport socks(TapTablesV1.SocksTunnelsReport report) {
+        return SocksTunnelsReport.create(list(report.getTunnelsList(), tunnel -> SocksTunnelReport.create(
+                tunnel.getSocksType(),
+                tunnel.getAuthenticationStatus(),
+                tunnel.getHandshakeStatus(),
+                tunnel.getConnectionStatus(),
+                tunnel.hasUsername() ? tunnel.getUsername() : null,
+                tunnel.getTunneledBytes(),
+                tunnel.hasTunneledDestinationAddress() ? tunnel.getTunneledDestinationAddress() : null,
+                tunnel.hasTunneledDestinationHost() ? tunnel.getTunneledDestinationHost() : null,
+                tunnel.getTunneledDestinationPort(),
+                tunnel.hasSourceMac() ? tunnel.getSourceMac() : null,
+                tunnel.hasDestinationMac() ? tunnel.getDestinationMac() : null,
+                tunnel.getSourceAddress(),
+                tunnel.getSourcePort(),
+                tunnel.getDestinationAddress(),
+                tunnel.getDestinationPort(),
+                timestamp(tunnel.getEstablishedAt()),
+                tunnel.hasTerminatedAt() ? timestamp(tunnel.getTerminatedAt()) : null,
+                timestamp(tunnel.getMostRecentSegmentTime())
+        )));
+    }
+
+    /*
+     * Bluetooth
+     */
+
+    public static BluetoothDevicesReport bluetooth(TapTablesV1.BluetoothDevicesReport report)
+            throws InvalidProtocolBufferException {
+        List<BluetoothDeviceReport> devices = Lists.newArrayListWithCapacity(report.getDevicesCount());
+        for (TapTablesV1.BluetoothDeviceReport device : report.getDevicesList()) {
+            devices.add(BluetoothDeviceReport.create(
+                    device.getMac(),
+                    device.getAlias(),
+                    device.getDevice(),
+                    device.getTransport(),
+                    timestamp(device.getLastSeen()),
+                    device.hasName() ? device.getName() : null,
+                    device.hasRssi() ? device.getRssi() : null,
+                    device.hasCompanyId() ? device.getCompanyId() : null,
+                    device.hasClassNumber() ? device.getClassNumber() : null,
+                    device.hasAppearance() ? device.getAppearance() : null,
+                    device.hasModalias() ? device.getModalias() : null,
+                    device.hasTxPower() ? device.getTxPower() : null,
+                    device.hasManufacturerData() ? device.getManufacturerData() : null,
+                    device.hasUuids() ? device.getUuids().getValuesList() : null,
+                    device.hasServiceData() ? device.getServiceData().getValuesList() : null,
+                    device.hasTags() ? bluetoothTags(device.getTags()) : null
+            ));
+        }
+
+        return BluetoothDevicesReport.create(devices);
+    }
+
+    private static Map<String, Map<String, Object>> bluetoothTags(TapTablesV1.BluetoothTags tags)
+            throws InvalidProtocolBufferException {
+        Map<String, Map<String, Object>> result = Maps.newHashMapWithExpectedSize(tags.getTagsCount());
+        for (Map.Entry<String, TapTablesV1.BluetoothTagAttributes> tag : tags.getTagsMap().entrySet()) {
+            Map<String, Object> attributes = Maps.newHashMapWithExpectedSize(tag.getValue().getAttributesCount());
+            for (Map.Entry<String, TapTablesV1.BluetoothTagValue> attribute
+                    : tag.getValue().getAttributesMap().entrySet()) {
+                TapTablesV1.BluetoothTagValue value = attribute.getValue();
+                switch (value.getValueCase()) {
+                    case STRING:
+                        attributes.put(attribute.getKey(), value.getString());
+                        break;
+                    case INTEGER:
+                        attributes.put(attribute.getKey(), value.getInteger());
+                        break;
+                    case NUMBER:
+                        attributes.put(attribute.getKey(), value.getNumber());
+                        break;
+                    case BOOLEAN:
+                        attributes.put(attribute.getKey(), value.getBoolean());
+                        break;
+                    default:
+                        throw new InvalidProtocolBufferException("Bluetooth tag attribute ["
+                                + tag.getKey() + "." + attribute.getKey() + "] has no value.");
+                }
+            }
+
+            result.put(tag.getKey(), attributes);
+        }
+
+        return result;
+    }
+
+    private static DateTime timestamp(long millis) {
+        return new DateTime(millis, DateTimeZone.UTC);
+    }
+
+    private static <T, R> List<R> list(List<T> values, Function<T, R> mapper) {
+        List<R> result = Lists.newArrayListWithCapacity(values.size());
+        for (T value : values) {
+            result.add(mapper.apply(value));
+        }
+
+        return result;
+    }
+
+    private static <K, V, R> Map<K, R> mapValues(Map<K, V> values, Function<V, R> mapper) {
+        Map<K, R> result = Maps.newHashMapWithExpectedSize(values.size());
+        for (Map.Entry<K, V> value : values.entrySet()) {
+            result.put(value.getKey(), mapper.apply(value.getValue()));
+        }
+
+        return result;
+    }
+
+}
@@ -7,6 +7,7 @@ import app.nzyme.core.rest.CORSFilter;
 import app.nzyme.core.rest.NzymeExceptionMapper;
 import app.nzyme.core.rest.NzymeLeaderInjectionBinder;
 import app.nzyme.core.rest.ObjectMapperProvider;
+import app.nzyme.core.rest.ProtobufTablesReportReader;
 import app.nzyme.core.rest.authentication.*;
 import app.nzyme.core.rest.interceptors.TapTableSizeInterceptor;
 import app.nzyme.core.rest.resources.*;
@@ -39,6 +40,7 @@ import app.nzyme.core.rest.resources.taps.TapsResource;
 import app.nzyme.core.rest.resources.user.UserProfileResource;
 import app.nzyme.plugin.distributed.messaging.*;
 import com.fasterxml.jackson.jakarta.rs.json.JacksonJsonProvider;
+import jakarta.ws.rs.core.MediaType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.glassfish.grizzly.http.CompressionConfig;
@@ -116,6 +118,7 @@ public class NzymeHttpServer {
         resourceConfig.register(new NzymeLeaderInjectionBinder(nzyme));
         resourceConfig.register(new ObjectMapperProvider());
         resourceConfig.register(new JacksonJsonProvider());
+        resourceConfig.register(new ProtobufTablesReportReader());
         resourceConfig.register(new NzymeExceptionMapper());
         resourceConfig.register(new TapTableSizeInterceptor(nzyme));
         resourceConfig.register(MultiPartFeature.class);
@@ -199,10 +202,18 @@ public class NzymeHttpServer {
             throw new RuntimeException("Could not start web server.", e);
         }
 
+        /*
+         * Web interface assets are compressed once at startup and served with their Content-Encoding set. Only
+         * compress dynamic responses here and skip those too small to benefit.
+         */
         CompressionConfig compressionConfig = server.getListener("grizzly").getCompressionConfig();
         compressionConfig.setCompressionMode(CompressionConfig.CompressionMode.ON);
-        compressionConfig.setCompressionMinSize(1);
-        compressionConfig.setCompressibleMimeTypes();
+        compressionConfig.setCompressionMinSize(1024);
+        compressionConfig.setCompressibleMimeTypes(
+                MediaType.APPLICATION_JSON,
+                MediaType.TEXT_HTML,
+                MediaType.TEXT_PLAIN
+        );
 
         // Max POST size. This is important for tap reports. A too low value will lead to HTTP 413 Payload Too Large.
         int maxPostSize = nzyme.getConfiguration().httpMaxPostSize().orElse(52428800); // Default: 50 MB
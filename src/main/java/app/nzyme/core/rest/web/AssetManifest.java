@@ -21,6 +21,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,19 +29,27 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 public class AssetManifest {
 
     private final List<String> jsFiles;
     private final List<String> cssFiles;
 
+    // Asset paths with a content hash in their file name. Their content never changes.
+    private final Set<String> fingerprintedFiles;
+
     private static final List<String> CSS_FILE_EXCLUDES = new ArrayList<>() {{
         add("/static/css/dark.css");
     }};
 
+    private static final Pattern FINGERPRINT = Pattern.compile("\\.[0-9a-f]{8}(\\.chunk)?\\.(js|css)$");
+
     public AssetManifest() {
         this.jsFiles = Lists.newArrayList();
         this.cssFiles = Lists.newArrayList();
+        this.fingerprintedFiles = Sets.newHashSet();
 
         ObjectMapper om = new ObjectMapper();
         om.configure(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES, false);
@@ -62,6 +71,10 @@ public class AssetManifest {
                 if (x.endsWith(".js")) {
                     this.jsFiles.add(x.split("/")[3]);
                 }
+
+                if (FINGERPRINT.matcher(x).find()) {
+                    this.fingerprintedFiles.add(x.startsWith("/") ? x.substring(1) : x);
+                }
             }
 
         } else {
@@ -77,4 +90,11 @@ public class AssetManifest {
         return cssFiles;
     }
 
+    /**
+     * @param path Path relative to the asset root, for example <i>static/js/main.1a2b3c4d.js</i>.
+     */
+    public boolean isFingerprinted(String path) {
+        return fingerprintedFiles.contains(path);
+    }
+
 }
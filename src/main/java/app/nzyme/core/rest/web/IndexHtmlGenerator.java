@@ -20,6 +20,8 @@ package app.nzyme.core.rest.web;
 import app.nzyme.core.configuration.node.NodeConfiguration;
 import com.floreysoft.jmte.Engine;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.html.HtmlEscapers;
 import com.google.common.io.Resources;
@@ -27,6 +29,7 @@ import app.nzyme.core.rest.RestTools;
 import jakarta.ws.rs.core.MultivaluedMap;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
@@ -43,6 +46,9 @@ public class IndexHtmlGenerator {
     private final List<String> jsFiles;
     private final List<String> cssFiles;
 
+    // Rendered page by external URI. Bounded because the external URI can be built from request headers.
+    private final Cache<URI, String> rendered;
+
     public IndexHtmlGenerator(final NodeConfiguration configuration, AssetManifest assetManifest) throws IOException {
         this(
                 Resources.toString(Resources.getResource("web-interface/index.html.template"), StandardCharsets.UTF_8),
@@ -63,9 +69,19 @@ public class IndexHtmlGenerator {
         this.cssFiles = requireNonNull(cssFiles, "cssFiles");
         this.templateEngine = requireNonNull(templateEngine, "templateEngine");
         this.configuration = requireNonNull(configuration, "configuration");
+
+        this.rendered = CacheBuilder.newBuilder()
+                .maximumSize(32)
+                .build();
     }
 
     public String get(MultivaluedMap<String, String> headers) {
+        // The external URI is the only part of the page that depends on the request.
+        URI externalUri = RestTools.buildExternalUri(headers, configuration.httpExternalUri());
+        return rendered.asMap().computeIfAbsent(externalUri, this::render);
+    }
+
+    private String render(URI externalUri) {
         String title = Strings.isNullOrEmpty(configuration.misc().customTitle()) ?
                 "nzyme - Network Defense System" : configuration.misc().customTitle();
 
@@ -77,8 +93,8 @@ public class IndexHtmlGenerator {
         variables.put("favicon_url", faviconUri);
         variables.put("jsFiles", jsFiles);
         variables.put("cssFiles", cssFiles);
-        variables.put("appPrefix", RestTools.buildExternalUri(headers, configuration.httpExternalUri()));
-        variables.put("apiUri", RestTools.buildExternalUri(headers, configuration.httpExternalUri()));
+        variables.put("appPrefix", externalUri);
+        variables.put("apiUri", externalUri);
 
         return templateEngine.transform(template, variables);
     }
@@ -0,0 +1,183 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package app.nzyme.core.rest.web;
+
+import jakarta.annotation.Nullable;
+
+import java.util.Date;
+
+/**
+ * A web interface asset with all of its encodings and response headers computed when it was loaded.
+ */
+public class StaticAsset {
+
+    public enum Encoding {
+        IDENTITY(null, ""),
+        GZIP("gzip", "-gzip"),
+        BROTLI("br", "-br");
+
+        private final String contentEncoding;
+        private final String etagSuffix;
+
+        Encoding(String contentEncoding, String etagSuffix) {
+            this.contentEncoding = contentEncoding;
+            this.etagSuffix = etagSuffix;
+        }
+
+        @Nullable
+        public String getContentEncoding() {
+            return contentEncoding;
+        }
+    }
+
+    private final String contentType;
+    private final String cacheControl;
+    private final Date lastModified;
+
+    // Hex SHA-256 of the identity content.
+    private final String hash;
+
+    private final byte[] identity;
+    @Nullable
+    private final byte[] gzip;
+    @Nullable
+    private final byte[] brotli;
+
+    public StaticAsset(String contentType,
+                       String cacheControl,
+                       Date lastModified,
+                       String hash,
+                       byte[] identity,
+                       @Nullable byte[] gzip,
+                       @Nullable byte[] brotli) {
+        this.contentType = contentType;
+        this.cacheControl = cacheControl;
+        this.lastModified = lastModified;
+        this.hash = hash;
+        this.identity = identity;
+        this.gzip = gzip;
+        this.brotli = brotli;
+    }
+
+    /**
+     * @return Smallest available encoding accepted by the client. Brotli is always smaller than gzip if both exist.
+     */
+    public Encoding select(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null || (gzip == null && brotli == null)) {
+            return Encoding.IDENTITY;
+        }
+
+        if (brotli != null && accepts(acceptEncoding, "br")) {
+            return Encoding.BROTLI;
+        }
+
+        if (gzip != null && accepts(acceptEncoding, "gzip")) {
+            return Encoding.GZIP;
+        }
+
+        return Encoding.IDENTITY;
+    }
+
+    public byte[] getContent(Encoding encoding) {
+        switch (encoding) {
+            case GZIP:
+                return gzip;
+            case BROTLI:
+                return brotli;
+            default:
+                return identity;
+        }
+    }
+
+    /**
+     * @return Strong ETag of an encoding, including quotes. Each encoding has its own ETag because the bytes differ.
+     */
+    public String getEntityTag(Encoding encoding) {
+        return "\"" + hash + encoding.etagSuffix + "\"";
+    }
+
+    /**
+     * @param ifNoneMatch Value of the If-None-Match request header.
+     * @return True if the client already has any encoding of this asset. All encodings represent the same content.
+     */
+    public boolean matches(@Nullable String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+
+            for (Encoding encoding : Encoding.values()) {
+                if (tag.equals(getEntityTag(encoding))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getCacheControl() {
+        return cacheControl;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public int getSize() {
+        return identity.length;
+    }
+
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        for (String part : acceptEncoding.split(",")) {
+            String[] parameters = part.split(";");
+            if (!parameters[0].trim().equalsIgnoreCase(encoding)) {
+                continue;
+            }
+
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Float.parseFloat(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package app.nzyme.core.rest.web;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import jakarta.annotation.Nullable;
+import jakarta.ws.rs.core.MediaType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.activation.MimetypesFileTypeMap;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.*;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+
+/**
+ * Immutable in-memory copy of all web interface assets, loaded once when the HTTP server starts. Compressible assets
+ * are gzipped once at load time. Brotli variants are emitted by the web interface build as <i>.br</i> siblings and
+ * picked up here, because there is no brotli encoder on the JVM.
+ */
+public class StaticAssetStore {
+
+    private static final Logger LOG = LogManager.getLogger(StaticAssetStore.class);
+
+    public static final String ASSETS_ROOT = "web-interface/assets";
+
+    private static final String BROTLI_SUFFIX = ".br";
+
+    private static final String CACHE_CONTROL_IMMUTABLE =
+            "public, max-age=" + TimeUnit.DAYS.toSeconds(365) + ", immutable";
+
+    // Everything else can change with an upgrade and is revalidated using its ETag on every use.
+    private static final String CACHE_CONTROL_REVALIDATE = "no-cache";
+
+    private final Map<String, StaticAsset> assets;
+
+    public StaticAssetStore(Map<String, StaticAsset> assets) {
+        this.assets = ImmutableMap.copyOf(assets);
+    }
+
+    /**
+     * @param path Path relative to the asset root. Leading slashes are ignored.
+     */
+    @Nullable
+    public StaticAsset get(String path) {
+        int start = 0;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+
+        return assets.get(path.substring(start));
+    }
+
+    public Set<String> paths() {
+        return assets.keySet();
+    }
+
+    public static StaticAssetStore load(MimetypesFileTypeMap mimeTypes, AssetManifest manifest) throws IOException {
+        URL rootUrl = StaticAssetStore.class.getResource("/" + ASSETS_ROOT);
+        if (rootUrl == null) {
+            LOG.warn("No web interface assets found on classpath. Make sure to run `mvn package` at least once locally.");
+            return new StaticAssetStore(Collections.emptyMap());
+        }
+
+        URI rootUri;
+        try {
+            rootUri = rootUrl.toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid web interface asset location [" + rootUrl + "].", e);
+        }
+
+        switch (rootUrl.getProtocol()) {
+            case "file":
+                return load(Paths.get(rootUri), mimeTypes, manifest);
+            case "jar":
+                FileSystem fileSystem;
+                try {
+                    fileSystem = FileSystems.newFileSystem(rootUri, Collections.emptyMap());
+                } catch (FileSystemAlreadyExistsException e) {
+                    fileSystem = FileSystems.getFileSystem(rootUri);
+                }
+                return load(fileSystem.getPath("/" + ASSETS_ROOT), mimeTypes, manifest);
+            default:
+                throw new IllegalArgumentException("Not a JAR or local file: " + rootUrl);
+        }
+    }
+
+    public static StaticAssetStore load(Path root, MimetypesFileTypeMap mimeTypes, AssetManifest manifest) throws IOException {
+        ImmutableMap.Builder<String, StaticAsset> assets = ImmutableMap.builder();
+        long totalBytes = 0;
+
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = root.relativize(file).toString().replace('\\', '/');
+                if (!Files.isRegularFile(file) || name.endsWith(BROTLI_SUFFIX)) {
+                    continue;
+                }
+
+                byte[] content = Files.readAllBytes(file);
+                String contentType = firstNonNull(mimeTypes.getContentType(name), MediaType.APPLICATION_OCTET_STREAM);
+
+                byte[] gzip = null;
+                byte[] brotli = null;
+                if (isCompressible(contentType)) {
+                    gzip = gzip(content);
+                    if (gzip.length >= content.length) {
+                        gzip = null;
+                    }
+
+                    Path brotliFile = file.resolveSibling(file.getFileName().toString() + BROTLI_SUFFIX);
+                    if (Files.isRegularFile(brotliFile)) {
+                        brotli = Files.readAllBytes(brotliFile);
+                    }
+                }
+
+                assets.put(name, new StaticAsset(
+                        contentType,
+                        manifest.isFingerprinted(name) ? CACHE_CONTROL_IMMUTABLE : CACHE_CONTROL_REVALIDATE,
+                        Date.from(Files.getLastModifiedTime(file).toInstant()),
+                        Hashing.sha256().hashBytes(content).toString(),
+                        content,
+                        gzip,
+                        brotli
+                ));
+
+                totalBytes += content.length;
+            }
+        }
+
+        StaticAssetStore store = new StaticAssetStore(assets.build());
+        LOG.info("Loaded <{}> web interface assets with <{} bytes>.", store.paths().size(), totalBytes);
+
+        return store;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        return contentType.startsWith("text/")
+                || contentType.equals("application/javascript")
+                || contentType.equals("application/json")
+                || contentType.equals("application/xml")
+                || contentType.equals("image/svg+xml");
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(content);
+        }
+
+        return out.toByteArray();
+    }
+
+}
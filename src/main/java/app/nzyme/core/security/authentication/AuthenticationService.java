@@ -4,13 +4,14 @@ import app.nzyme.core.NzymeNode;
 import app.nzyme.core.crypto.Crypto;
 import app.nzyme.core.floorplans.db.TenantLocationEntry;
 import app.nzyme.core.floorplans.db.TenantLocationFloorEntry;
-import app.nzyme.core.integrations.geoip.GeoIpLookupResult;
 import app.nzyme.core.security.authentication.db.OrganizationEntry;
 import app.nzyme.core.security.authentication.db.TapPermissionEntry;
 import app.nzyme.core.security.authentication.db.TenantEntry;
 import app.nzyme.core.security.authentication.db.UserEntry;
 import app.nzyme.core.security.sessions.db.SessionEntry;
 import app.nzyme.core.security.sessions.db.SessionEntryWithUserDetails;
+import app.nzyme.plugin.distributed.messaging.ClusterMessage;
+import app.nzyme.plugin.distributed.messaging.MessageType;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -36,18 +37,39 @@ public class AuthenticationService {
 
     public final NzymeNode nzyme;
 
+    private final TapSecretCache tapSecretCache;
+    private final PrincipalCache principalCache;
+    private final UserActivityBuffer userActivityBuffer;
+
     public AuthenticationService(NzymeNode nzyme) {
         this.nzyme = nzyme;
+        this.tapSecretCache = new TapSecretCache(nzyme);
+        this.principalCache = new PrincipalCache(nzyme);
+        this.userActivityBuffer = new UserActivityBuffer(nzyme);
     }
 
     public void initialize() {
         seedDatabase();
 
+        tapSecretCache.rebuild();
+
         Executors.newSingleThreadScheduledExecutor(
                 new ThreadFactoryBuilder()
                         .setNameFormat("session-cleaner-%d")
                         .build()
         ).scheduleAtFixedRate(this::runSessionCleaning, 0, 30, TimeUnit.SECONDS);
+
+        Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("user-activity-flusher-%d")
+                        .build()
+        ).scheduleWithFixedDelay(userActivityBuffer::flush, 5, 5, TimeUnit.SECONDS);
+    }
+
+    public void shutdown() {
+        // Write out buffered user activity before the database pool is closed.
+        userActivityBuffer.flush();
     }
 
     private void seedDatabase() {
@@ -128,6 +150,8 @@ public class AuthenticationService {
                         .bind("user_id", userId)
                         .execute()
         );
+
+        invalidatePrincipalCachesClusterWide();
     }
 
     public OrganizationEntry createOrganization(String name, String description) {
@@ -313,6 +337,8 @@ public class AuthenticationService {
                         .bind("user_id", userId)
                         .execute()
         );
+
+        invalidatePrincipalCachesClusterWide();
     }
 
     public TenantEntry createTenant(UUID organizationId,
@@ -488,6 +514,8 @@ public class AuthenticationService {
                         .bind("user_id", userId)
                         .execute()
         );
+
+        invalidatePrincipalCachesClusterWide();
     }
 
     public void setUserTapPermissions(UUID userId, List<UUID> newPermissions) {
@@ -524,6 +552,8 @@ public class AuthenticationService {
                             .execute()
             );
         }
+
+        invalidatePrincipalCachesClusterWide();
     }
 
     public UserEntry createUserOfTenant(UUID organizationId,
@@ -559,6 +589,8 @@ public class AuthenticationService {
                         .bind("user_id", userId)
                         .execute()
         );
+
+        invalidatePrincipalCachesClusterWide();
     }
 
     public void editUserPassword(UUID userId, PasswordHasher.GeneratedHashAndSalt password) {
@@ -581,6 +613,8 @@ public class AuthenticationService {
                         .bind("user_id", userId)
                         .execute()
         );
+
+        invalidatePrincipalCachesClusterWide();
     }
 
     public void resetMFAOfUser(UUID userId) {
@@ -816,6 +850,8 @@ public class AuthenticationService {
                         .bind("id", id)
                         .execute()
         );
+
+        invalidatePrincipalCachesClusterWide();
     }
 
     public long countAllSessions() {
@@ -849,22 +885,33 @@ public class AuthenticationService {
         );
     }
 
-    public void updateLastUserActivity(UUID userId, String remoteIp, @Nullable GeoIpLookupResult remoteIpGeo) {
-        String countryCode = remoteIpGeo != null && remoteIpGeo.geo() != null ? remoteIpGeo.geo().countryCode() : null;
-        String city = remoteIpGeo != null && remoteIpGeo.geo() != null ? remoteIpGeo.geo().city() : null;
-        String asnName = remoteIpGeo != null && remoteIpGeo.asn() != null ? remoteIpGeo.asn().name() : null;;
+    /**
+     * Records that a user was active. Buffered in memory and written to the database every few seconds.
+     */
+    public void recordUserActivity(UUID userId, String remoteIp) {
+        userActivityBuffer.record(userId, remoteIp);
+    }
 
-        nzyme.getDatabase().useHandle(handle ->
-                handle.createUpdate("UPDATE auth_users SET last_activity = NOW(), last_remote_ip = :remote_ip, " +
-                                "last_geo_country = :country_code, last_geo_city = :city, last_geo_asn = :asn " +
-                                "WHERE uuid = :user_id")
-                        .bind("remote_ip", remoteIp)
-                        .bind("country_code", countryCode)
-                        .bind("city", city)
-                        .bind("asn", asnName)
-                        .bind("user_id", userId)
-                        .execute()
-        );
+    /**
+     * Finds the session, user, permissions and enabled subsystems behind a session ID. Only sessions that passed MFA.
+     */
+    public Optional<CachedPrincipal> findPrincipalBySessionId(String sessionId) {
+        return principalCache.find(sessionId);
+    }
+
+    public void invalidatePrincipalCache() {
+        principalCache.invalidate();
+    }
+
+    public void invalidatePrincipalCachesClusterWide() {
+        // Invalidate locally right away. The message will also reach this node, but only after the next bus poll.
+        principalCache.invalidate();
+
+        nzyme.getMessageBus().sendToAllOnlineNodes(ClusterMessage.create(
+                MessageType.INVALIDATE_CACHE,
+                Map.of("cache_type", "principals"),
+                false
+        ));
     }
 
     public void deleteAllSessionsOfUser(UUID userId) {
@@ -873,6 +920,8 @@ public class AuthenticationService {
                         .bind("user_id", userId)
                         .execute()
         );
+
+        invalidatePrincipalCachesClusterWide();
     }
 
     public TapPermissionEntry createTap(UUID organizationId, UUID tenantId, String secret, String name, String description) {
@@ -883,7 +932,7 @@ public class AuthenticationService {
             throw new RuntimeException("Could not encrypt tap secret.", e);
         }
 
-        return nzyme.getDatabase().withHandle(handle ->
+        TapPermissionEntry tap = nzyme.getDatabase().withHandle(handle ->
                 handle.createQuery("INSERT INTO taps(uuid, organization_id, tenant_id, secret, name, " +
                                 "description, deleted, created_at, updated_at) VALUES(:uuid, :organization_id, :tenant_id, " +
                                 ":secret, :name, :description, false, :created_at, :updated_at) RETURNING *")
@@ -898,6 +947,10 @@ public class AuthenticationService {
                         .mapTo(TapPermissionEntry.class)
                         .one()
         );
+
+        invalidateTapSecretCachesClusterWide();
+
+        return tap;
     }
 
     public List<TapPermissionEntry> findAllTapsOfTenant(UUID organizationId, UUID tenantId) {
@@ -933,33 +986,25 @@ public class AuthenticationService {
 
     public Optional<TapPermissionEntry> findTapBySecret(String secret) {
         /*
-         * We have to pull all taps here and then loop over them because the secret is encrypted, and we can't use
-         * a SELECT WHERE with a non-deterministic encryption like PGP.
+         * Tap secrets are PGP-encrypted with a non-deterministic encryption, and we can't use a SELECT WHERE. The
+         * cache holds an index of keyed hashes of all decrypted secrets and is rebuilt when taps change.
          */
+        return tapSecretCache.find(secret);
+    }
 
-        List<TapPermissionEntry> taps = nzyme.getDatabase().withHandle(handle ->
-                handle.createQuery("SELECT * FROM taps")
-                        .mapTo(TapPermissionEntry.class)
-                        .list()
-        );
-
-        for (TapPermissionEntry tap : taps) {
-            try {
-                String decryptedSecret = new String(
-                        nzyme.getCrypto().decryptWithClusterKey(
-                                BaseEncoding.base64().decode(tap.secret())
-                        )
-                );
+    public void invalidateTapSecretCache() {
+        tapSecretCache.invalidate();
+    }
 
-                if (secret.equals(decryptedSecret)) {
-                    return Optional.of(tap);
-                }
-            } catch (Crypto.CryptoOperationException e) {
-                throw new RuntimeException("Could not decrypt tap key.", e);
-            }
-        }
+    private void invalidateTapSecretCachesClusterWide() {
+        // Invalidate locally right away. The message will also reach this node, but only after the next bus poll.
+        tapSecretCache.invalidate();
 
-        return Optional.empty();
+        nzyme.getMessageBus().sendToAllOnlineNodes(ClusterMessage.create(
+                MessageType.INVALIDATE_CACHE,
+                Map.of("cache_type", "tap_secrets"),
+                false
+        ));
     }
 
     public void deleteTap(UUID organizationId, UUID tenantId, UUID tapId) {
@@ -977,6 +1022,8 @@ public class AuthenticationService {
                         .bind("uuid", tapId)
                         .execute()
         );
+
+        invalidateTapSecretCachesClusterWide();
     }
 
     public void editTap(UUID organizationId, UUID tenantId, UUID tapId, String name, String description) {
@@ -990,6 +1037,8 @@ public class AuthenticationService {
                         .bind("uuid", tapId)
                         .execute()
         );
+
+        invalidateTapSecretCachesClusterWide();
     }
 
     public void cycleTapSecret(UUID organizationId, UUID tenantId, UUID tapId, String newSecret) {
@@ -1009,6 +1058,8 @@ public class AuthenticationService {
                         .bind("uuid", tapId)
                         .execute()
         );
+
+        invalidateTapSecretCachesClusterWide();
     }
 
     public List<TenantLocationEntry> findAllTenantLocations(UUID organizationId, UUID tenantId, int limit, int offset) {
@@ -1360,6 +1411,8 @@ public class AuthenticationService {
                                 .bindList("user_ids", sessionsToClean)
                                 .execute()
                 );
+
+                invalidatePrincipalCachesClusterWide();
             } catch(Exception e) {
                 LOG.error("Could not delete sessions marked for deletion.", e);
             }
@@ -0,0 +1,51 @@
+package app.nzyme.core.security.authentication;
+
+import app.nzyme.core.security.authentication.db.UserEntry;
+import app.nzyme.core.security.sessions.db.SessionEntry;
+import app.nzyme.plugin.Subsystem;
+import com.google.auto.value.AutoValue;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Everything the REST authentication filter needs to know about the user behind a session.
+ */
+@AutoValue
+public abstract class CachedPrincipal {
+
+    public abstract SessionEntry session();
+    public abstract UserEntry user();
+    public abstract List<String> permissions();
+    public abstract Set<Subsystem> enabledSubsystems();
+
+    public boolean isSubsystemEnabled(Subsystem subsystem) {
+        return enabledSubsystems().contains(subsystem);
+    }
+
+    public static CachedPrincipal create(SessionEntry session, UserEntry user, List<String> permissions, Set<Subsystem> enabledSubsystems) {
+        return builder()
+                .session(session)
+                .user(user)
+                .permissions(permissions)
+                .enabledSubsystems(enabledSubsystems)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_CachedPrincipal.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder session(SessionEntry session);
+
+        public abstract Builder user(UserEntry user);
+
+        public abstract Builder permissions(List<String> permissions);
+
+        public abstract Builder enabledSubsystems(Set<Subsystem> enabledSubsystems);
+
+        public abstract CachedPrincipal build();
+    }
+}
@@ -0,0 +1,126 @@
+package app.nzyme.core.security.authentication;
+
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.security.authentication.db.UserEntry;
+import app.nzyme.core.security.sessions.db.SessionEntry;
+import app.nzyme.core.util.MetricNames;
+import app.nzyme.plugin.Subsystem;
+import com.codahale.metrics.Counter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of {@link CachedPrincipal}s by session ID. A page of the web interface fires many API requests at
+ * once and each of them would otherwise load the session, user, permissions and subsystem settings from the database.
+ *
+ * Only sessions with passed MFA are cached. The cache is invalidated whenever sessions are deleted or users,
+ * permissions or subsystem settings change. Entries expire after a few seconds in any case, which bounds how long any
+ * change that is not explicitly invalidated can take to be picked up.
+ */
+public class PrincipalCache {
+
+    private static final Logger LOG = LogManager.getLogger(PrincipalCache.class);
+
+    private static final int TTL_SECONDS = 10;
+    private static final int MAX_SIZE = 10000;
+
+    private static final Subsystem[] CHECKED_SUBSYSTEMS = {Subsystem.ETHERNET, Subsystem.DOT11, Subsystem.BLUETOOTH};
+
+    private final NzymeNode nzyme;
+
+    private final Cache<String, CachedPrincipal> principals;
+
+    /*
+     * Incremented on every invalidation. A loaded principal is only cached if no invalidation happened while it was
+     * loaded, because it could otherwise contain state from before the change.
+     */
+    private final AtomicLong generation = new AtomicLong(0);
+    private final Object writeLock = new Object();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public PrincipalCache(NzymeNode nzyme) {
+        this.nzyme = nzyme;
+
+        this.principals = CacheBuilder.newBuilder()
+                .expireAfterWrite(TTL_SECONDS, TimeUnit.SECONDS)
+                .maximumSize(MAX_SIZE)
+                .build();
+
+        this.hits = nzyme.getMetrics().counter(MetricNames.PRINCIPAL_CACHE_HITS);
+        this.misses = nzyme.getMetrics().counter(MetricNames.PRINCIPAL_CACHE_MISSES);
+    }
+
+    public Optional<CachedPrincipal> find(String sessionId) {
+        CachedPrincipal cached = principals.getIfPresent(sessionId);
+        if (cached != null) {
+            hits.inc();
+            return Optional.of(cached);
+        }
+
+        misses.inc();
+
+        long startGeneration = generation.get();
+        Optional<CachedPrincipal> loaded = load(sessionId);
+
+        // Missing sessions are not cached. They could pass MFA any moment.
+        if (loaded.isPresent()) {
+            synchronized (writeLock) {
+                if (generation.get() == startGeneration) {
+                    principals.put(sessionId, loaded.get());
+                }
+            }
+        }
+
+        return loaded;
+    }
+
+    public void invalidate() {
+        LOG.debug("Invalidating principal cache.");
+
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            principals.invalidateAll();
+        }
+    }
+
+    Optional<CachedPrincipal> load(String sessionId) {
+        AuthenticationService auth = nzyme.getAuthenticationService();
+
+        Optional<SessionEntry> session = auth.findSessionWithPassedMFABySessionId(sessionId);
+        if (session.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Optional<UserEntry> user = auth.findUserById(session.get().userId());
+        if (user.isEmpty()) {
+            LOG.error("Session referenced user that doesn't exist.");
+            return Optional.empty();
+        }
+
+        EnumSet<Subsystem> enabledSubsystems = EnumSet.noneOf(Subsystem.class);
+        for (Subsystem subsystem : CHECKED_SUBSYSTEMS) {
+            if (nzyme.getSubsystems().isEnabled(subsystem, user.get().organizationId(), user.get().tenantId())) {
+                enabledSubsystems.add(subsystem);
+            }
+        }
+
+        return Optional.of(CachedPrincipal.create(
+                session.get(),
+                user.get(),
+                ImmutableList.copyOf(auth.findPermissionsOfUser(user.get().uuid())),
+                Sets.immutableEnumSet(enabledSubsystems)
+        ));
+    }
+
+}
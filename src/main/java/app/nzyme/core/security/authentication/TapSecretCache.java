@@ -0,0 +1,166 @@
+package app.nzyme.core.security.authentication;
+
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.crypto.Crypto;
+import app.nzyme.core.security.authentication.db.TapPermissionEntry;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joda.time.DateTime;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory index of all tap secrets, keyed by a HMAC-SHA256 of the plaintext secret. The HMAC key is random and
+ * only lives in memory of this node.
+ *
+ * Tap secrets are stored PGP-encrypted and have to be decrypted one by one to find a tap by secret. This cache does
+ * that once and then resolves a tap with a single hash lookup. It must be invalidated whenever a tap is created,
+ * edited, deleted or has its secret cycled.
+ */
+public class TapSecretCache {
+
+    private static final Logger LOG = LogManager.getLogger(TapSecretCache.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /*
+     * Minimum time between two rebuilds caused by a cache miss. Protects against a flood of requests with invalid
+     * secrets triggering a decryption of all tap secrets for every request.
+     */
+    private static final int MISS_REBUILD_MIN_INTERVAL_SECONDS = 10;
+
+    private final NzymeNode nzyme;
+    private final SecretKeySpec hmacKey;
+    private final ThreadLocal<Mac> mac;
+
+    private final AtomicReference<Map<String, TapPermissionEntry>> index;
+    private final AtomicLong generation = new AtomicLong(0);
+    private final Object rebuildLock = new Object();
+
+    private DateTime lastMissRebuild;
+
+    public TapSecretCache(NzymeNode nzyme) {
+        this.nzyme = nzyme;
+        this.index = new AtomicReference<>(null);
+        this.lastMissRebuild = new DateTime(0);
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hmacKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance(HMAC_ALGORITHM);
+                m.init(hmacKey);
+                return m;
+            } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+                throw new RuntimeException("Could not initialize tap secret HMAC.", e);
+            }
+        });
+    }
+
+    public Optional<TapPermissionEntry> find(String secret) {
+        String hash = hash(secret);
+
+        long seenGeneration = generation.get();
+        Map<String, TapPermissionEntry> current = index.get();
+        if (current == null) {
+            current = rebuildIfMissing(seenGeneration);
+        }
+
+        TapPermissionEntry tap = current.get(hash);
+        if (tap != null) {
+            return Optional.of(tap);
+        }
+
+        /*
+         * The tap could have been created on another node and the invalidation message has not arrived yet. Rebuild
+         * and try again, but not more often than every few seconds.
+         */
+        synchronized (rebuildLock) {
+            if (lastMissRebuild.isAfter(DateTime.now().minusSeconds(MISS_REBUILD_MIN_INTERVAL_SECONDS))) {
+                return Optional.empty();
+            }
+
+            lastMissRebuild = DateTime.now();
+        }
+
+        return Optional.ofNullable(rebuild().get(hash));
+    }
+
+    public void invalidate() {
+        LOG.debug("Invalidating tap secret cache.");
+        generation.incrementAndGet();
+        index.set(null);
+    }
+
+    /*
+     * All requests arriving after an invalidation see an empty index. Only the first one rebuilds it and everyone
+     * waiting for the lock uses that result instead of loading and decrypting all taps again.
+     */
+    private Map<String, TapPermissionEntry> rebuildIfMissing(long seenGeneration) {
+        synchronized (rebuildLock) {
+            Map<String, TapPermissionEntry> current = index.get();
+            if (current != null && generation.get() == seenGeneration) {
+                return current;
+            }
+
+            return rebuild();
+        }
+    }
+
+    public Map<String, TapPermissionEntry> rebuild() {
+        synchronized (rebuildLock) {
+            long startGeneration = generation.get();
+
+            List<TapPermissionEntry> taps = nzyme.getDatabase().withHandle(handle ->
+                    handle.createQuery("SELECT * FROM taps")
+                            .mapTo(TapPermissionEntry.class)
+                            .list()
+            );
+
+            ImmutableMap.Builder<String, TapPermissionEntry> builder = ImmutableMap.builderWithExpectedSize(taps.size());
+            for (TapPermissionEntry tap : taps) {
+                try {
+                    String decryptedSecret = new String(
+                            nzyme.getCrypto().decryptWithClusterKey(
+                                    BaseEncoding.base64().decode(tap.secret())
+                            )
+                    );
+
+                    builder.put(hash(decryptedSecret), tap);
+                } catch (Crypto.CryptoOperationException e) {
+                    throw new RuntimeException("Could not decrypt tap key.", e);
+                }
+            }
+
+            Map<String, TapPermissionEntry> built = builder.buildKeepingLast();
+
+            // Don't publish the new index if it was invalidated while we were building it.
+            if (generation.get() == startGeneration) {
+                index.set(built);
+            }
+
+            LOG.debug("Rebuilt tap secret cache with <{}> taps.", built.size());
+
+            return built;
+        }
+    }
+
+    private String hash(String secret) {
+        return BaseEncoding.base16().encode(mac.get().doFinal(secret.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,113 @@
+package app.nzyme.core.security.authentication;
+
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.integrations.geoip.GeoIpLookupResult;
+import app.nzyme.core.util.MetricNames;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Maps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.joda.time.DateTime;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the last activity of users in memory and writes it to the database in batches. Every authenticated request
+ * records activity, but only the most recent activity of each user is kept until the next flush.
+ */
+public class UserActivityBuffer {
+
+    private static final Logger LOG = LogManager.getLogger(UserActivityBuffer.class);
+
+    private final NzymeNode nzyme;
+
+    private final Map<UUID, Activity> pending;
+
+    private final Timer flushTimer;
+
+    public UserActivityBuffer(NzymeNode nzyme) {
+        this.nzyme = nzyme;
+        this.pending = new ConcurrentHashMap<>();
+
+        this.flushTimer = nzyme.getMetrics().timer(MetricNames.USER_ACTIVITY_FLUSH_TIMER);
+    }
+
+    public void record(UUID userId, String remoteIp) {
+        pending.put(userId, new Activity(remoteIp, DateTime.now()));
+    }
+
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Only remove what we write. Activity recorded in the meantime stays for the next flush.
+        Map<UUID, Activity> batch = Maps.newHashMap();
+        for (Map.Entry<UUID, Activity> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Many users share the same few addresses.
+        Map<String, Optional<GeoIpLookupResult>> geo = Maps.newHashMap();
+
+        try (Timer.Context ignored = flushTimer.time()) {
+            nzyme.getDatabase().useHandle(handle -> {
+                PreparedBatch update = handle.prepareBatch("UPDATE auth_users SET last_activity = :last_activity, " +
+                        "last_remote_ip = :remote_ip, last_geo_country = :country_code, last_geo_city = :city, " +
+                        "last_geo_asn = :asn WHERE uuid = :user_id");
+
+                for (Map.Entry<UUID, Activity> entry : batch.entrySet()) {
+                    Activity activity = entry.getValue();
+                    GeoIpLookupResult remoteIpGeo = geo.computeIfAbsent(activity.remoteIp, this::lookup)
+                            .orElse(null);
+
+                    update.bind("last_activity", activity.timestamp)
+                            .bind("remote_ip", activity.remoteIp)
+                            .bind("country_code", remoteIpGeo != null && remoteIpGeo.geo() != null
+                                    ? remoteIpGeo.geo().countryCode() : null)
+                            .bind("city", remoteIpGeo != null && remoteIpGeo.geo() != null
+                                    ? remoteIpGeo.geo().city() : null)
+                            .bind("asn", remoteIpGeo != null && remoteIpGeo.asn() != null
+                                    ? remoteIpGeo.asn().name() : null)
+                            .bind("user_id", entry.getKey())
+                            .add();
+                }
+
+                update.execute();
+            });
+        } catch (Exception e) {
+            LOG.error("Could not write last activity of [{}] users.", batch.size(), e);
+        }
+    }
+
+    private Optional<GeoIpLookupResult> lookup(String remoteIp) {
+        try {
+            return nzyme.getGeoIpService().lookup(InetAddress.getByName(remoteIp));
+        } catch (Exception e) {
+            LOG.debug("Could not look up GeoIP information of [{}].", remoteIp, e);
+            return Optional.empty();
+        }
+    }
+
+    private static final class Activity {
+        private final String remoteIp;
+        private final DateTime timestamp;
+
+        private Activity(String remoteIp, DateTime timestamp) {
+            this.remoteIp = remoteIp;
+            this.timestamp = timestamp;
+        }
+    }
+
+}
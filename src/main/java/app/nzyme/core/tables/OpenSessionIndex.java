@@ -0,0 +1,79 @@
+package app.nzyme.core.tables;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Database IDs of sessions that are still open, by tap and session key. Taps report every open session again and
+ * again until it ends, so after the first report a session can be updated without looking it up in the database.
+ *
+ * The index is bounded and only a shortcut. Sessions missing from it are looked up in the database, and callers must
+ * remove sessions from it once they ended or their row disappeared.
+ */
+public class OpenSessionIndex {
+
+    private final Cache<String, Long> ids;
+
+    public OpenSessionIndex(long maximumSize) {
+        this.ids = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .build();
+    }
+
+    /**
+     * @param lookup Loads the IDs of open sessions by session key from the database. Only called with keys that are
+     *               not in the index and only if there are any.
+     * @return IDs of all open sessions among the given session keys. Keys of new sessions are missing.
+     */
+    public Map<String, Long> resolve(UUID tapUuid,
+                                     Collection<String> sessionKeys,
+                                     Function<List<String>, Map<String, Long>> lookup) {
+        Map<String, Long> result = Maps.newHashMapWithExpectedSize(sessionKeys.size());
+        List<String> unknown = Lists.newArrayList();
+
+        for (String sessionKey : sessionKeys) {
+            Long id = ids.getIfPresent(key(tapUuid, sessionKey));
+            if (id == null) {
+                unknown.add(sessionKey);
+            } else {
+                result.put(sessionKey, id);
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            for (Map.Entry<String, Long> found : lookup.apply(unknown).entrySet()) {
+                put(tapUuid, found.getKey(), found.getValue());
+                result.put(found.getKey(), found.getValue());
+            }
+        }
+
+        return result;
+    }
+
+    public void put(UUID tapUuid, String sessionKey, long id) {
+        ids.put(key(tapUuid, sessionKey), id);
+    }
+
+    public void remove(UUID tapUuid, String sessionKey) {
+        ids.invalidate(key(tapUuid, sessionKey));
+    }
+
+    public long size() {
+        return ids.size();
+    }
+
+    private static String key(UUID tapUuid, String sessionKey) {
+        return tapUuid + "/" + sessionKey;
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of nzyme.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+
+package app.nzyme.core.tables;
+
+import app.nzyme.core.util.MetricNames;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Bounded queue of tap reports for a single data table. Reports are accepted by the REST resource and written to the
+ * database by a fixed number of dedicated writer threads, so a slow database does not hold up tap HTTP requests.
+ *
+ * A full queue rejects new reports instead of blocking. The caller is expected to tell the tap to retry later.
+ */
+public class TableIngestionQueue {
+
+    private static final Logger LOG = LogManager.getLogger(TableIngestionQueue.class);
+
+    private final String tableName;
+    private final int capacity;
+    private final BlockingQueue<QueuedReport> queue;
+    private final ExecutorService writers;
+
+    private final Timer enqueueTimer;
+    private final Timer queueWaitTimer;
+    private final Meter dropped;
+    private final Meter drained;
+
+    private volatile boolean running = true;
+
+    public TableIngestionQueue(String tableName, int capacity, int workers, MetricRegistry metrics) {
+        this.tableName = tableName;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        this.enqueueTimer = metrics.timer(name(MetricNames.TABLE_INGESTION_ENQUEUE_TIMER, tableName));
+        this.queueWaitTimer = metrics.timer(name(MetricNames.TABLE_INGESTION_QUEUE_WAIT_TIMER, tableName));
+        this.dropped = metrics.meter(name(MetricNames.TABLE_INGESTION_DROPPED, tableName));
+        this.drained = metrics.meter(name(MetricNames.TABLE_INGESTION_DRAINED, tableName));
+        metrics.register(name(MetricNames.TABLE_INGESTION_QUEUE_DEPTH, tableName), (Gauge<Integer>) queue::size);
+
+        this.writers = Executors.newFixedThreadPool(workers, new ThreadFactoryBuilder()
+                .setNameFormat(tableName + "-table-writer-%d")
+                .setDaemon(true)
+                .build());
+
+        for (int i = 0; i < workers; i++) {
+            writers.submit(this::drain);
+        }
+    }
+
+    /**
+     * @param writer Writes the report to the database. Runs on a writer thread.
+     * @return true if the report was queued, false if the queue is full or shutting down.
+     */
+    public boolean offer(Runnable writer) {
+        if (!running) {
+            return false;
+        }
+
+        boolean accepted;
+        try (Timer.Context ignored = enqueueTimer.time()) {
+            accepted = queue.offer(new QueuedReport(writer, System.nanoTime()));
+        }
+
+        if (!accepted) {
+            LOG.debug("Ingestion queue of table [{}] is full. Rejecting report.", tableName);
+            dropped.mark();
+        }
+
+        return accepted;
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            QueuedReport report;
+            try {
+                report = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (report == null) {
+                continue;
+            }
+
+            queueWaitTimer.update(System.nanoTime() - report.enqueuedAt, TimeUnit.NANOSECONDS);
+
+            try {
+                report.writer.run();
+            } catch (Exception e) {
+                LOG.error("Could not write report to table [{}].", tableName, e);
+            }
+
+            drained.mark();
+        }
+    }
+
+    /**
+     * Stops accepting new reports and waits for the writers to process everything that is already queued.
+     */
+    public void shutdown(int timeoutSeconds) {
+        running = false;
+        writers.shutdown();
+
+        try {
+            if (!writers.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                LOG.warn("Ingestion queue of table [{}] did not drain in time. Discarding <{}> reports.",
+                        tableName, queue.size());
+                writers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writers.shutdownNow();
+        }
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    public Meter getDropped() {
+        return dropped;
+    }
+
+    private static final class QueuedReport {
+
+        private final Runnable writer;
+        private final long enqueuedAt;
+
+        private QueuedReport(Runnable writer, long enqueuedAt) {
+            this.writer = writer;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+    }
+
+}
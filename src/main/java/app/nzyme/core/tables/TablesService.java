@@ -17,6 +17,8 @@
 
 package app.nzyme.core.tables;
 
+import app.nzyme.core.configuration.node.PerformanceConfiguration;
+import app.nzyme.core.database.PartitionManager;
 import app.nzyme.core.tables.bluetooth.BluetoothTable;
 import app.nzyme.core.tables.dot11.Dot11Table;
 import app.nzyme.core.tables.socks.SOCKSTable;
@@ -29,8 +31,8 @@ import app.nzyme.core.tables.dns.DNSTable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
@@ -40,12 +42,14 @@ public class TablesService {
 
     private final NzymeNode nzyme;
 
-    private final Map<String, DataTable> tables;
+    private final PartitionManager partitions;
 
-    private final ExecutorService processorPool;
+    private final Map<String, DataTable> tables;
+    private final Map<String, TableIngestionQueue> ingestionQueues;
 
     public TablesService(NzymeNode nzyme) {
         this.nzyme = nzyme;
+        this.partitions = new PartitionManager(nzyme);
 
         this.tables = new ImmutableMap.Builder<String, DataTable>()
                 .put("dot11", new Dot11Table(this))
@@ -56,13 +60,17 @@ public class TablesService {
                 .put("socks", new SOCKSTable(this))
                 .build();
 
-        this.processorPool = Executors.newFixedThreadPool(
-                nzyme.getConfiguration().performance().reportProcessorPoolSize(),
-                new ThreadFactoryBuilder()
-                        .setNameFormat("dot11-report-writer-%d")
-                        .setDaemon(true)
-                        .build()
-        );
+        PerformanceConfiguration performance = nzyme.getConfiguration().performance();
+        ImmutableMap.Builder<String, TableIngestionQueue> queues = new ImmutableMap.Builder<>();
+        for (String tableName : tables.keySet()) {
+            queues.put(tableName, new TableIngestionQueue(
+                    tableName,
+                    performance.reportIngestionQueueSize(),
+                    performance.reportIngestionWorkers(),
+                    nzyme.getMetrics()
+            ));
+        }
+        this.ingestionQueues = queues.build();
 
         Executors.newSingleThreadScheduledExecutor(
                 new ThreadFactoryBuilder()
@@ -73,6 +81,9 @@ public class TablesService {
     }
 
     private void retentionClean() {
+        // Create partitions for the next days before dropping expired ones.
+        partitions.createPartitions();
+
         for (Map.Entry<String, DataTable> table : tables.entrySet()) {
             LOG.debug("Retention cleaning data table [{}].", table.getKey());
             table.getValue().retentionClean();
@@ -104,8 +115,28 @@ public class TablesService {
         return (SOCKSTable) tables.get("socks");
     }
 
-    public ExecutorService getProcessorPool() {
-        return processorPool;
+    public TableIngestionQueue ingestionQueue(String tableName) {
+        TableIngestionQueue queue = ingestionQueues.get(tableName);
+
+        if (queue == null) {
+            throw new IllegalArgumentException("Unknown table [" + tableName + "].");
+        }
+
+        return queue;
+    }
+
+    public Collection<TableIngestionQueue> getIngestionQueues() {
+        return ingestionQueues.values();
+    }
+
+    public void shutdown() {
+        for (TableIngestionQueue queue : ingestionQueues.values()) {
+            queue.shutdown(10);
+        }
+    }
+
+    public PartitionManager getPartitions() {
+        return partitions;
     }
 
     public NzymeNode getNzyme() {
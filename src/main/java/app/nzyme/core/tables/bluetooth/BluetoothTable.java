@@ -12,6 +12,7 @@ import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdbi.v3.core.Handle;
@@ -19,6 +20,7 @@ import org.jdbi.v3.core.statement.PreparedBatch;
 import org.joda.time.DateTime;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class BluetoothTable implements DataTable {
@@ -41,11 +43,57 @@ public class BluetoothTable implements DataTable {
     public void handleReport(UUID tapUuid, DateTime timestamp, BluetoothDevicesReport report) {
         tablesService.getNzyme().getDatabase().useHandle(handle -> {
             try(Timer.Context ignored = totalReportTimer.time()) {
-                writeDevices(handle, tapUuid, report.devices());
+                // One transaction so that NOW() puts the rollups into the same buckets as the device rows.
+                handle.useTransaction(tx -> {
+                    writeDevices(tx, tapUuid, report.devices());
+                    writeSignalStrengthRollups(tx, tapUuid, report.devices());
+                });
             }
         });
     }
 
+    /**
+     * Adds the RSSI of all reported devices to the hour and day rollups that serve the signal strength histograms.
+     * There are no minute rollups because they would hold about as many rows as the device table itself.
+     */
+    private void writeSignalStrengthRollups(Handle handle, UUID tapUuid, List<BluetoothDeviceReport> devices) {
+        // Sorted by MAC to always upsert in the same order and not deadlock with concurrent reports of the same tap.
+        Map<String, long[]> rssi = Maps.newTreeMap();
+        for (BluetoothDeviceReport device : devices) {
+            if (device.rssi() == null || device.rssi() == 0) {
+                // Not written to the device table either.
+                continue;
+            }
+
+            long[] sumAndCount = rssi.computeIfAbsent(device.mac(), mac -> new long[2]);
+            sumAndCount[0] += device.rssi();
+            sumAndCount[1]++;
+        }
+
+        if (rssi.isEmpty()) {
+            return;
+        }
+
+        PreparedBatch batch = handle.prepareBatch("INSERT INTO bluetooth_signal_strength_rollups(mac, tap_uuid, " +
+                "granularity, bucket, rssi_sum, rssi_count) " +
+                "SELECT :mac, :tap_uuid, g.granularity, date_trunc(g.granularity, NOW()), :rssi_sum, :rssi_count " +
+                "FROM (VALUES ('hour'), ('day')) AS g(granularity) " +
+                "ON CONFLICT (mac, granularity, bucket, tap_uuid) DO UPDATE SET " +
+                "rssi_sum = bluetooth_signal_strength_rollups.rssi_sum + EXCLUDED.rssi_sum, " +
+                "rssi_count = bluetooth_signal_strength_rollups.rssi_count + EXCLUDED.rssi_count");
+
+        for (Map.Entry<String, long[]> device : rssi.entrySet()) {
+            batch
+                    .bind("mac", device.getKey())
+                    .bind("tap_uuid", tapUuid)
+                    .bind("rssi_sum", device.getValue()[0])
+                    .bind("rssi_count", device.getValue()[1])
+                    .add();
+        }
+
+        batch.execute();
+    }
+
     private void writeDevices(Handle handle, UUID tapUuid, List<BluetoothDeviceReport> devices) {
         PreparedBatch batch = handle.prepareBatch("INSERT INTO bluetooth_devices(uuid, tap_uuid, mac, alias, " +
                 "device, transport, name, rssi, company_id, class_number, appearance, modalias, tx_power, " +
@@ -162,6 +210,10 @@ public class BluetoothTable implements DataTable {
             handle.createUpdate("DELETE FROM bluetooth_devices WHERE last_seen < :cutoff")
                     .bind("cutoff", bluetoothCutoff)
                     .execute();
+
+            handle.createUpdate("DELETE FROM bluetooth_signal_strength_rollups WHERE bucket < :cutoff")
+                    .bind("cutoff", bluetoothCutoff)
+                    .execute();
         });
     }
 
@@ -17,6 +17,7 @@
 
 package app.nzyme.core.tables.dns;
 
+import app.nzyme.core.database.CopyWriter;
 import app.nzyme.core.ethernet.EthernetRegistryKeys;
 import app.nzyme.core.integrations.geoip.GeoIpLookupResult;
 import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsEntropyLogReport;
@@ -35,6 +36,7 @@ import org.jdbi.v3.core.statement.PreparedBatch;
 import org.joda.time.DateTime;
 
 import java.net.InetAddress;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -71,17 +73,20 @@ public class DNSTable implements DataTable {
 
     public void handleReport(UUID tapUuid, DateTime timestamp, DnsTablesReport report) {
         try (Timer.Context ignored = totalReportTimer.time()) {
+            // Addresses repeat a lot within a report. Parse and enrich each one only once.
+            Map<String, EnrichedAddress> addresses = Maps.newHashMap();
+
             tablesService.getNzyme().getDatabase().useHandle(handle -> {
                 try (Timer.Context ignored2 = statisticsReportTimer.time()) {
                     registerStatistics(handle, tapUuid, report.ips(), timestamp);
                 }
 
                 try (Timer.Context ignored2 = pairsReportTimer.time()) {
-                    registerPairs(handle, tapUuid, report.queryLog(), timestamp);
+                    registerPairs(handle, tapUuid, report.queryLog(), timestamp, addresses);
                 }
 
                 try (Timer.Context ignored2 = logReportTimer.time()) {
-                    registerLogs(handle, tapUuid, report.queryLog(), report.responseLog());
+                    registerLogs(handle, tapUuid, report.queryLog(), report.responseLog(), addresses);
                 }
 
                 try (Timer.Context ignored2 = entropyReportTimer.time()) {
@@ -95,30 +100,80 @@ public class DNSTable implements DataTable {
                                     UUID tapUuid,
                                     Map<String, DnsIpStatisticsReport> m,
                                     DateTime timestamp) {
-        PreparedBatch batch = handle.prepareBatch("INSERT INTO dns_statistics(tap_uuid, ip, request_count, " +
-                "request_bytes, response_count, response_bytes, nxdomain_count, created_at) VALUES(:tap_uuid, " +
-                ":ip::inet, :request_count, :request_bytes, :response_count, :response_bytes, :nxdomain_count, " +
-                ":created_at)");
-
-        for (Map.Entry<String, DnsIpStatisticsReport> x : m.entrySet()) {
-            String ip = x.getKey();
-            DnsIpStatisticsReport stats = x.getValue();
-
-            batch.bind("tap_uuid", tapUuid)
-                    .bind("ip", ip)
-                    .bind("request_count", stats.requestCount())
-                    .bind("request_bytes", stats.requestBytes())
-                    .bind("response_count", stats.responseCount())
-                    .bind("response_bytes", stats.responseBytes())
-                    .bind("nxdomain_count", stats.nxDomainCount())
-                    .bind("created_at", timestamp)
-                    .add();
+        if (m.isEmpty()) {
+            return;
         }
 
-        batch.execute();
+        try (CopyWriter copy = CopyWriter.open(handle, "dns_statistics", "tap_uuid", "ip", "request_count",
+                "request_bytes", "response_count", "response_bytes", "nxdomain_count", "created_at")) {
+            for (Map.Entry<String, DnsIpStatisticsReport> x : m.entrySet()) {
+                String ip = x.getKey();
+                DnsIpStatisticsReport stats = x.getValue();
+
+                copy.value(tapUuid)
+                        .value(ip)
+                        .value(stats.requestCount())
+                        .value(stats.requestBytes())
+                        .value(stats.responseCount())
+                        .value(stats.responseBytes())
+                        .value(stats.nxDomainCount())
+                        .value(timestamp)
+                        .endRow();
+            }
+
+            copy.finish();
+        }
+
+        registerStatisticsRollups(handle, tapUuid, m.values(), timestamp);
+    }
+
+    /**
+     * Adds the totals of a report to the minute, hour and day rollups that serve the DNS statistics histograms.
+     */
+    private void registerStatisticsRollups(Handle handle,
+                                           UUID tapUuid,
+                                           Collection<DnsIpStatisticsReport> stats,
+                                           DateTime timestamp) {
+        long requestCount = 0;
+        long requestBytes = 0;
+        long responseCount = 0;
+        long responseBytes = 0;
+        long nxDomainCount = 0;
+        for (DnsIpStatisticsReport s : stats) {
+            requestCount += s.requestCount();
+            requestBytes += s.requestBytes();
+            responseCount += s.responseCount();
+            responseBytes += s.responseBytes();
+            nxDomainCount += s.nxDomainCount();
+        }
+
+        // Always in the same granularity order to not deadlock with concurrent reports of the same tap.
+        handle.createUpdate("INSERT INTO dns_statistics_rollups(tap_uuid, granularity, bucket, request_count, " +
+                        "request_bytes, response_count, response_bytes, nxdomain_count) " +
+                        "SELECT :tap_uuid, g.granularity, date_trunc(g.granularity, CAST(:timestamp AS timestamptz)), " +
+                        ":request_count, :request_bytes, :response_count, :response_bytes, :nxdomain_count " +
+                        "FROM (VALUES ('minute'), ('hour'), ('day')) AS g(granularity) " +
+                        "ON CONFLICT (granularity, bucket, tap_uuid) DO UPDATE SET " +
+                        "request_count = dns_statistics_rollups.request_count + EXCLUDED.request_count, " +
+                        "request_bytes = dns_statistics_rollups.request_bytes + EXCLUDED.request_bytes, " +
+                        "response_count = dns_statistics_rollups.response_count + EXCLUDED.response_count, " +
+                        "response_bytes = dns_statistics_rollups.response_bytes + EXCLUDED.response_bytes, " +
+                        "nxdomain_count = dns_statistics_rollups.nxdomain_count + EXCLUDED.nxdomain_count")
+                .bind("tap_uuid", tapUuid)
+                .bind("timestamp", timestamp)
+                .bind("request_count", requestCount)
+                .bind("request_bytes", requestBytes)
+                .bind("response_count", responseCount)
+                .bind("response_bytes", responseBytes)
+                .bind("nxdomain_count", nxDomainCount)
+                .execute();
     }
 
-    private void registerPairs(Handle handle, UUID tapUuid, List<DnsLogReport> logs, DateTime timestamp) {
+    private void registerPairs(Handle handle,
+                               UUID tapUuid,
+                               List<DnsLogReport> logs,
+                               DateTime timestamp,
+                               Map<String, EnrichedAddress> addresses) {
         // Build pairs.
         Map<String, Map<Integer, Map<String, Long>>> pairs = Maps.newHashMap();
         for (DnsLogReport log : logs) {
@@ -139,165 +194,99 @@ public class DNSTable implements DataTable {
             }
         }
 
-        PreparedBatch batch = handle.prepareBatch("INSERT INTO dns_pairs(tap_uuid, client_address, " +
-                "server_address, server_port, server_address_geo_asn_number, server_address_geo_asn_name, " +
-                "server_address_geo_asn_domain, server_address_geo_city, server_address_geo_country_code, " +
-                "server_address_geo_latitude, server_address_geo_longitude, server_address_is_site_local, " +
-                "server_address_is_multicast, server_address_is_loopback, count, " +
-                "created_at) VALUES(:tap_uuid, :client_address::inet, :server_address::inet, :server_port, " +
-                ":server_address_geo_asn_number, :server_address_geo_asn_name, :server_address_geo_asn_domain, " +
-                ":server_address_geo_city, :server_address_geo_country_code, :server_address_geo_latitude, " +
-                ":server_address_geo_longitude, :server_address_is_site_local, :server_address_is_multicast, " +
-                ":server_address_is_loopback, :count, :timestamp)");
-
-        for (Map.Entry<String, Map<Integer, Map<String, Long>>> pair : pairs.entrySet()) {
-            for (Map.Entry<Integer, Map<String, Long>> server : pair.getValue().entrySet()) {
-                for (Map.Entry<String, Long> port : server.getValue().entrySet()) {
-                    InetAddress serverAddress = stringtoInetAddress(port.getKey());
-                    Optional<GeoIpLookupResult> geo = tablesService.getNzyme().getGeoIpService().lookup(serverAddress);
-
-                    batch.bind("tap_uuid", tapUuid)
-                            .bind("client_address", pair.getKey())
-                            .bind("server_address", port.getKey())
-                            .bind("server_port", server.getKey())
-                            .bind("server_address_geo_asn_number", geo.map(g -> g.asn().number()).orElse(null))
-                            .bind("server_address_geo_asn_name", geo.map(g -> g.asn().name()).orElse(null))
-                            .bind("server_address_geo_asn_domain", geo.map(g -> g.asn().domain()).orElse(null))
-                            .bind("server_address_geo_city", geo.map(g -> g.geo().city()).orElse(null))
-                            .bind("server_address_geo_country_code", geo.map(g -> g.geo().countryCode()).orElse(null))
-                            .bind("server_address_geo_latitude", geo.map(g -> g.geo().latitude()).orElse(null))
-                            .bind("server_address_geo_longitude", geo.map(g -> g.geo().longitude()).orElse(null))
-                            .bind("server_address_is_site_local", serverAddress.isSiteLocalAddress())
-                            .bind("server_address_is_multicast", serverAddress.isMulticastAddress())
-                            .bind("server_address_is_loopback", serverAddress.isLoopbackAddress())
-                            .bind("count", port.getValue())
-                            .bind("timestamp", timestamp)
-                            .add();
+        if (pairs.isEmpty()) {
+            return;
+        }
+
+        try (CopyWriter copy = CopyWriter.open(handle, "dns_pairs", "tap_uuid", "client_address",
+                "server_address", "server_port", "server_address_geo_asn_number", "server_address_geo_asn_name",
+                "server_address_geo_asn_domain", "server_address_geo_city", "server_address_geo_country_code",
+                "server_address_geo_latitude", "server_address_geo_longitude", "server_address_is_site_local",
+                "server_address_is_multicast", "server_address_is_loopback", "count", "created_at")) {
+            for (Map.Entry<String, Map<Integer, Map<String, Long>>> pair : pairs.entrySet()) {
+                for (Map.Entry<Integer, Map<String, Long>> server : pair.getValue().entrySet()) {
+                    for (Map.Entry<String, Long> port : server.getValue().entrySet()) {
+                        copy.value(tapUuid)
+                                .value(pair.getKey())
+                                .value(port.getKey())
+                                .value(server.getKey());
+                        enrich(addresses, port.getKey()).write(copy);
+                        copy.value(port.getValue())
+                                .value(timestamp)
+                                .endRow();
+                    }
                 }
             }
-        }
 
-        batch.execute();
+            copy.finish();
+        }
     }
 
-    /*
-     */
-
     private void registerLogs(Handle handle,
                               UUID tapUuid,
                               List<DnsLogReport> queries,
-                              List<DnsLogReport> responses) {
-        PreparedBatch batch = handle.prepareBatch("INSERT INTO dns_log(uuid, tap_uuid, transaction_id, " +
-                "dns_type, client_address, client_port, client_mac, client_address_geo_asn_number, " +
-                "client_address_geo_asn_name, client_address_geo_asn_domain, client_address_geo_city, " +
-                "client_address_geo_country_code, client_address_geo_latitude, client_address_geo_longitude, " +
-                "client_address_is_site_local, client_address_is_multicast, client_address_is_loopback, " +
-                "server_address, server_port, server_mac, server_address_geo_asn_number, " +
-                "server_address_geo_asn_name, server_address_geo_asn_domain, server_address_geo_city, " +
-                "server_address_geo_country_code, server_address_geo_latitude, server_address_geo_longitude, " +
-                "server_address_is_site_local, server_address_is_multicast, server_address_is_loopback, " +
-                "data_value, data_value_etld, data_type, timestamp, created_at) VALUES(:uuid, :tap_uuid, " +
-                ":transaction_id, :dns_type, :client_address::inet, :client_port, :client_mac, " +
-                ":client_address_geo_asn_number, :client_address_geo_asn_name, :client_address_geo_asn_domain, " +
-                ":client_address_geo_city, :client_address_geo_country_code, :client_address_geo_latitude, " +
-                ":client_address_geo_longitude, :client_address_is_site_local, :client_address_is_multicast, " +
-                ":client_address_is_loopback, :server_address::inet, :server_port, :server_mac, " +
-                ":server_address_geo_asn_number, :server_address_geo_asn_name, :server_address_geo_asn_domain, " +
-                ":server_address_geo_city, :server_address_geo_country_code, :server_address_geo_latitude, " +
-                ":server_address_geo_longitude, :server_address_is_site_local, :server_address_is_multicast, " +
-                ":server_address_is_loopback, :data_value, :data_value_etld, :data_type, :timestamp, NOW())");
-
-        for (DnsLogReport d : queries) {
-            InetAddress serverAddress = stringtoInetAddress(d.serverAddress());
-            Optional<GeoIpLookupResult> serverGeo = tablesService.getNzyme().getGeoIpService().lookup(serverAddress);
-
-            InetAddress clientAddress = stringtoInetAddress(d.clientAddress());
-            Optional<GeoIpLookupResult> clientGeo = tablesService.getNzyme().getGeoIpService().lookup(clientAddress);
-
-            batch
-                    .bind("uuid", UUID.randomUUID())
-                    .bind("tap_uuid", tapUuid)
-                    .bind("transaction_id", d.transactionId())
-                    .bind("dns_type", "query")
-                    .bind("client_address", d.clientAddress())
-                    .bind("client_port", d.clientPort())
-                    .bind("client_mac", d.clientMac())
-                    .bind("client_address_geo_asn_number", clientGeo.map(g -> g.asn().number()).orElse(null))
-                    .bind("client_address_geo_asn_name", clientGeo.map(g -> g.asn().name()).orElse(null))
-                    .bind("client_address_geo_asn_domain", clientGeo.map(g -> g.asn().domain()).orElse(null))
-                    .bind("client_address_geo_city", clientGeo.map(g -> g.geo().city()).orElse(null))
-                    .bind("client_address_geo_country_code", clientGeo.map(g -> g.geo().countryCode()).orElse(null))
-                    .bind("client_address_geo_latitude", clientGeo.map(g -> g.geo().latitude()).orElse(null))
-                    .bind("client_address_geo_longitude", clientGeo.map(g -> g.geo().longitude()).orElse(null))
-                    .bind("client_address_is_site_local", clientAddress.isSiteLocalAddress())
-                    .bind("client_address_is_multicast", clientAddress.isMulticastAddress())
-                    .bind("client_address_is_loopback", clientAddress.isLoopbackAddress())
-                    .bind("server_address", d.serverAddress())
-                    .bind("server_port", d.serverPort())
-                    .bind("server_mac", d.serverMac())
-                    .bind("server_address_geo_asn_number", serverGeo.map(g -> g.asn().number()).orElse(null))
-                    .bind("server_address_geo_asn_name", serverGeo.map(g -> g.asn().name()).orElse(null))
-                    .bind("server_address_geo_asn_domain", serverGeo.map(g -> g.asn().domain()).orElse(null))
-                    .bind("server_address_geo_city", serverGeo.map(g -> g.geo().city()).orElse(null))
-                    .bind("server_address_geo_country_code", serverGeo.map(g -> g.geo().countryCode()).orElse(null))
-                    .bind("server_address_geo_latitude", serverGeo.map(g -> g.geo().latitude()).orElse(null))
-                    .bind("server_address_geo_longitude", serverGeo.map(g -> g.geo().longitude()).orElse(null))
-                    .bind("server_address_is_site_local", serverAddress.isSiteLocalAddress())
-                    .bind("server_address_is_multicast", serverAddress.isMulticastAddress())
-                    .bind("server_address_is_loopback", serverAddress.isLoopbackAddress())
-                    .bind("data_value", d.dataValue())
-                    .bind("data_value_etld", d.dataValueEtld())
-                    .bind("data_type", d.dataType())
-                    .bind("timestamp", d.timestamp())
-                    .add();
+                              List<DnsLogReport> responses,
+                              Map<String, EnrichedAddress> addresses) {
+        if (queries.isEmpty() && responses.isEmpty()) {
+            return;
         }
 
-        for (DnsLogReport d : responses) {
-            InetAddress serverAddress = stringtoInetAddress(d.serverAddress());
-            Optional<GeoIpLookupResult> serverGeo = tablesService.getNzyme().getGeoIpService().lookup(serverAddress);
+        DateTime now = DateTime.now();
+        try (CopyWriter copy = CopyWriter.open(handle, "dns_log", "uuid", "tap_uuid", "transaction_id",
+                "dns_type", "client_address", "client_port", "client_mac", "client_address_geo_asn_number",
+                "client_address_geo_asn_name", "client_address_geo_asn_domain", "client_address_geo_city",
+                "client_address_geo_country_code", "client_address_geo_latitude", "client_address_geo_longitude",
+                "client_address_is_site_local", "client_address_is_multicast", "client_address_is_loopback",
+                "server_address", "server_port", "server_mac", "server_address_geo_asn_number",
+                "server_address_geo_asn_name", "server_address_geo_asn_domain", "server_address_geo_city",
+                "server_address_geo_country_code", "server_address_geo_latitude", "server_address_geo_longitude",
+                "server_address_is_site_local", "server_address_is_multicast", "server_address_is_loopback",
+                "data_value", "data_value_etld", "data_type", "timestamp", "created_at")) {
+            for (DnsLogReport d : queries) {
+                writeLog(copy, tapUuid, "query", d, addresses, now);
+            }
 
-            InetAddress clientAddress = stringtoInetAddress(d.clientAddress());
-            Optional<GeoIpLookupResult> clientGeo = tablesService.getNzyme().getGeoIpService().lookup(clientAddress);
+            for (DnsLogReport d : responses) {
+                writeLog(copy, tapUuid, "response", d, addresses, now);
+            }
 
-            batch
-                    .bind("uuid", UUID.randomUUID())
-                    .bind("tap_uuid", tapUuid)
-                    .bind("transaction_id", d.transactionId())
-                    .bind("dns_type", "response")
-                    .bind("client_address", d.clientAddress())
-                    .bind("client_port", d.clientPort())
-                    .bind("client_mac", d.clientMac())
-                    .bind("client_address_geo_asn_number", clientGeo.map(g -> g.asn().number()).orElse(null))
-                    .bind("client_address_geo_asn_name", clientGeo.map(g -> g.asn().name()).orElse(null))
-                    .bind("client_address_geo_asn_domain", clientGeo.map(g -> g.asn().domain()).orElse(null))
-                    .bind("client_address_geo_city", clientGeo.map(g -> g.geo().city()).orElse(null))
-                    .bind("client_address_geo_country_code", clientGeo.map(g -> g.geo().countryCode()).orElse(null))
-                    .bind("client_address_geo_latitude", clientGeo.map(g -> g.geo().latitude()).orElse(null))
-                    .bind("client_address_geo_longitude", clientGeo.map(g -> g.geo().longitude()).orElse(null))
-                    .bind("client_address_is_site_local", clientAddress.isSiteLocalAddress())
-                    .bind("client_address_is_multicast", clientAddress.isMulticastAddress())
-                    .bind("client_address_is_loopback", clientAddress.isLoopbackAddress())
-                    .bind("server_address", d.serverAddress())
-                    .bind("server_port", d.serverPort())
-                    .bind("server_mac", d.serverMac())
-                    .bind("server_address_geo_asn_number", serverGeo.map(g -> g.asn().number()).orElse(null))
-                    .bind("server_address_geo_asn_name", serverGeo.map(g -> g.asn().name()).orElse(null))
-                    .bind("server_address_geo_asn_domain", serverGeo.map(g -> g.asn().domain()).orElse(null))
-                    .bind("server_address_geo_city", serverGeo.map(g -> g.geo().city()).orElse(null))
-                    .bind("server_address_geo_country_code", serverGeo.map(g -> g.geo().countryCode()).orElse(null))
-                    .bind("server_address_geo_latitude", serverGeo.map(g -> g.geo().latitude()).orElse(null))
-                    .bind("server_address_geo_longitude", serverGeo.map(g -> g.geo().longitude()).orElse(null))
-                    .bind("server_address_is_site_local", serverAddress.isSiteLocalAddress())
-                    .bind("server_address_is_multicast", serverAddress.isMulticastAddress())
-                    .bind("server_address_is_loopback", serverAddress.isLoopbackAddress())
-                    .bind("data_value", d.dataValue())
-                    .bind("data_value_etld", d.dataValueEtld())
-                    .bind("data_type", d.dataType())
-                    .bind("timestamp", d.timestamp())
-                    .add();
+            copy.finish();
         }
+    }
 
-        batch.execute();
+    private void writeLog(CopyWriter copy,
+                          UUID tapUuid,
+                          String dnsType,
+                          DnsLogReport d,
+                          Map<String, EnrichedAddress> addresses,
+                          DateTime now) {
+        copy.value(UUID.randomUUID())
+                .value(tapUuid)
+                .value(d.transactionId())
+                .value(dnsType)
+                .value(d.clientAddress())
+                .value(d.clientPort())
+                .value(d.clientMac());
+        enrich(addresses, d.clientAddress()).write(copy);
+
+        copy.value(d.serverAddress())
+                .value(d.serverPort())
+                .value(d.serverMac());
+        enrich(addresses, d.serverAddress()).write(copy);
+
+        copy.value(d.dataValue())
+                .value(d.dataValueEtld())
+                .value(d.dataType())
+                .value(d.timestamp())
+                .value(now)
+                .endRow();
+    }
+
+    private EnrichedAddress enrich(Map<String, EnrichedAddress> addresses, String address) {
+        return addresses.computeIfAbsent(address, a -> {
+            InetAddress parsed = stringtoInetAddress(a);
+            return new EnrichedAddress(parsed, tablesService.getNzyme().getGeoIpService().lookup(parsed));
+        });
     }
 
     public void registerEntropyLogs(Handle handle,
@@ -327,23 +316,82 @@ public class DNSTable implements DataTable {
                 .getValue(EthernetRegistryKeys.DNS_RETENTION_TIME_DAYS.key())
                 .orElse(EthernetRegistryKeys.DNS_RETENTION_TIME_DAYS.defaultValue().orElse("MISSING"))
         );
+        DateTime cutoff = DateTime.now().minusDays(retentionTimeDays);
+
+        // Expired days are dropped as a whole. The deletes below only touch the partition that contains the cutoff.
+        for (String table : List.of("dns_statistics", "dns_pairs", "dns_log", "dns_entropy_log")) {
+            try {
+                tablesService.getPartitions().dropExpiredPartitions(table, cutoff);
+            } catch (Exception e) {
+                LOG.error("Could not drop expired partitions of table [{}].", table, e);
+            }
+        }
 
         tablesService.getNzyme().getDatabase().useHandle(handle -> {
             handle.createUpdate("DELETE FROM dns_statistics WHERE created_at < :created_at")
-                    .bind("created_at", DateTime.now().minusDays(retentionTimeDays))
+                    .bind("created_at", cutoff)
                     .execute();
 
             handle.createUpdate("DELETE FROM dns_pairs WHERE created_at < :created_at")
-                    .bind("created_at", DateTime.now().minusDays(retentionTimeDays))
+                    .bind("created_at", cutoff)
                     .execute();
 
             handle.createUpdate("DELETE FROM dns_log WHERE timestamp < :created_at")
-                    .bind("created_at", DateTime.now().minusDays(retentionTimeDays))
+                    .bind("created_at", cutoff)
                     .execute();
 
             handle.createUpdate("DELETE FROM dns_entropy_log WHERE timestamp < :created_at")
-                    .bind("created_at", DateTime.now().minusDays(retentionTimeDays))
+                    .bind("created_at", cutoff)
+                    .execute();
+
+            handle.createUpdate("DELETE FROM dns_statistics_rollups WHERE bucket < :created_at")
+                    .bind("created_at", cutoff)
                     .execute();
         });
     }
+
+    private static final class EnrichedAddress {
+
+        private final Long asnNumber;
+        private final String asnName;
+        private final String asnDomain;
+        private final String city;
+        private final String countryCode;
+        private final Float latitude;
+        private final Float longitude;
+        private final boolean siteLocal;
+        private final boolean multicast;
+        private final boolean loopback;
+
+        EnrichedAddress(InetAddress address, Optional<GeoIpLookupResult> geo) {
+            this.asnNumber = geo.map(g -> g.asn().number()).orElse(null);
+            this.asnName = geo.map(g -> g.asn().name()).orElse(null);
+            this.asnDomain = geo.map(g -> g.asn().domain()).orElse(null);
+            this.city = geo.map(g -> g.geo().city()).orElse(null);
+            this.countryCode = geo.map(g -> g.geo().countryCode()).orElse(null);
+            this.latitude = geo.map(g -> g.geo().latitude()).orElse(null);
+            this.longitude = geo.map(g -> g.geo().longitude()).orElse(null);
+            this.siteLocal = address.isSiteLocalAddress();
+            this.multicast = address.isMulticastAddress();
+            this.loopback = address.isLoopbackAddress();
+        }
+
+        /**
+         * Writes the GeoIP and address type columns, in the order they have in all DNS tables.
+         */
+        void write(CopyWriter copy) {
+            copy.value(asnNumber)
+                    .value(asnName)
+                    .value(asnDomain)
+                    .value(city)
+                    .value(countryCode)
+                    .value(latitude)
+                    .value(longitude)
+                    .value(siteLocal)
+                    .value(multicast)
+                    .value(loopback);
+        }
+
+    }
+
 }
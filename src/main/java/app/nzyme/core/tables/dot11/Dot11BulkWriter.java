@@ -0,0 +1,466 @@
+package app.nzyme.core.tables.dot11;
+
+import app.nzyme.core.rest.resources.taps.reports.tables.dot11.*;
+import app.nzyme.core.taps.Tap;
+import app.nzyme.core.util.Tools;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Joiner;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.Handle;
+import org.joda.time.DateTime;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the BSSIDs and SSIDs of a 802.11 tables report with a fixed number of set-based statements. Every table is
+ * written with a single INSERT that reads its rows from bound arrays via unnest(). Generated IDs are mapped back by
+ * the natural key of the row, never by position.
+ *
+ * This class only writes. All detection happens in {@link Dot11Table} after the report was written.
+ */
+public class Dot11BulkWriter {
+
+    private static final Logger LOG = LogManager.getLogger(Dot11BulkWriter.class);
+
+    private final ObjectMapper om;
+
+    public Dot11BulkWriter(ObjectMapper om) {
+        this.om = om;
+    }
+
+    /**
+     * @return All SSIDs of the report, including those that were skipped because they sanitized to an empty string.
+     */
+    public List<SSIDProcessingTask> write(Handle handle, Tap tap, DateTime timestamp, Map<String, Dot11BSSIDReport> bssids) {
+        if (bssids.isEmpty()) {
+            return Lists.newArrayList();
+        }
+
+        Map<String, Long> bssidIds = writeBSSIDs(handle, tap, timestamp, bssids);
+
+        Fingerprints fingerprints = new Fingerprints();
+        BSSIDClients clients = new BSSIDClients();
+        List<SSIDProcessingTask> tasks = Lists.newArrayList();
+
+        for (Map.Entry<String, Dot11BSSIDReport> entry : bssids.entrySet()) {
+            String bssid = entry.getKey();
+            Dot11BSSIDReport report = entry.getValue();
+            long bssidId = bssidIds.get(bssid);
+
+            for (String fingerprint : report.fingerprints()) {
+                fingerprints.add(fingerprint, bssidId, null);
+            }
+
+            for (Map.Entry<String, Dot11ClientStatisticsReport> client : report.clients().entrySet()) {
+                if (!bssid.equals(client.getKey())) { // Don't record BSSID itself.
+                    clients.add(bssidId, client.getKey(), client.getValue());
+                }
+            }
+
+            for (Map.Entry<String, Dot11AdvertisedNetworkReport> ssid : report.advertisedNetworks().entrySet()) {
+                tasks.add(SSIDProcessingTask.create(bssid, ssid.getKey(), ssid.getValue(), bssidId, tap, timestamp));
+            }
+        }
+
+        clients.write(handle);
+
+        Table<Long, String, Long> ssidIds = writeSSIDs(handle, tap, timestamp, tasks);
+
+        SSIDSettings settings = new SSIDSettings();
+        SSIDRates rates = new SSIDRates();
+        SSIDChannels channels = new SSIDChannels();
+        SSIDHistograms histograms = new SSIDHistograms();
+        SSIDInfrastructureTypes infrastructureTypes = new SSIDInfrastructureTypes();
+
+        for (SSIDProcessingTask task : tasks) {
+            String ssid = Tools.sanitizeSSID(task.ssid());
+            Long ssidId = ssidIds.get(task.bssidDatabaseId(), ssid);
+            if (ssidId == null) {
+                // Hidden or duplicate SSID. Nothing was written for it.
+                continue;
+            }
+
+            Dot11AdvertisedNetworkReport report = task.ssidReport();
+
+            for (boolean hasWps : report.wps()) {
+                settings.add(ssidId, "has_wps", String.valueOf(hasWps));
+            }
+
+            for (Dot11SecurityInformationReport sec : report.security()) {
+                if (sec.protocols().isEmpty()) {
+                    // We insert NULL to signal "NONE".
+                    settings.add(ssidId, "security_protocol", null);
+                } else {
+                    for (String protocol : sec.protocols()) {
+                        settings.add(ssidId, "security_protocol", protocol);
+                    }
+                }
+
+                Map<String, String> suiteMap = Maps.newHashMap();
+                suiteMap.put("group_cipher", sec.suites().groupCipher());
+                suiteMap.put("pairwise_ciphers", Joiner.on(",").join(sec.suites().pairwiseCiphers()));
+                suiteMap.put("key_management_modes", Joiner.on(",").join(sec.suites().keyManagementModes()));
+                suiteMap.put("pmf_mode", sec.pmf());
+
+                try {
+                    settings.add(ssidId, "security_suite", om.writeValueAsString(suiteMap));
+                } catch (JsonProcessingException e) {
+                    LOG.error("Could not serialize SSID <{}> security suites.", ssidId, e);
+                }
+            }
+
+            for (String fingerprint : report.fingerprints()) {
+                fingerprints.add(fingerprint, null, ssidId);
+            }
+
+            for (Float rate : report.rates()) {
+                rates.add(ssidId, rate);
+            }
+
+            for (Map.Entry<Long, Map<String, Dot11ChannelStatisticsReport>> cs : report.channelStatistics().entrySet()) {
+                for (Map.Entry<String, Dot11ChannelStatisticsReport> ft : cs.getValue().entrySet()) {
+                    channels.add(ssidId, cs.getKey(), ft.getKey().toLowerCase(), ft.getValue());
+                }
+            }
+
+            for (Map.Entry<Long, Map<Long, Long>> channel : report.signalHistogram().entrySet()) {
+                for (Map.Entry<Long, Long> histo : channel.getValue().entrySet()) {
+                    histograms.add(ssidId, channel.getKey(), histo.getKey(), histo.getValue());
+                }
+            }
+
+            for (String infrastructureType : report.infrastructureTypes()) {
+                infrastructureTypes.add(ssidId, infrastructureType.toLowerCase());
+            }
+        }
+
+        fingerprints.write(handle);
+        settings.write(handle);
+        rates.write(handle);
+        channels.write(handle);
+        histograms.write(handle);
+        infrastructureTypes.write(handle);
+
+        return tasks;
+    }
+
+    private Map<String, Long> writeBSSIDs(Handle handle, Tap tap, DateTime timestamp, Map<String, Dot11BSSIDReport> bssids) {
+        List<String> macs = Lists.newArrayListWithCapacity(bssids.size());
+        List<Float> signalAverages = Lists.newArrayListWithCapacity(bssids.size());
+        List<Long> signalMaximums = Lists.newArrayListWithCapacity(bssids.size());
+        List<Long> signalMinimums = Lists.newArrayListWithCapacity(bssids.size());
+        List<Long> hiddenSSIDFrames = Lists.newArrayListWithCapacity(bssids.size());
+
+        for (Map.Entry<String, Dot11BSSIDReport> entry : bssids.entrySet()) {
+            macs.add(entry.getKey());
+            signalAverages.add(entry.getValue().signalStrength().average());
+            signalMaximums.add(entry.getValue().signalStrength().max());
+            signalMinimums.add(entry.getValue().signalStrength().min());
+            hiddenSSIDFrames.add(entry.getValue().hiddenSSIDFrames());
+        }
+
+        Map<String, Long> ids = Maps.newHashMapWithExpectedSize(bssids.size());
+        handle.createQuery("INSERT INTO dot11_bssids(tap_uuid, bssid, oui, signal_strength_average, " +
+                        "signal_strength_max, signal_strength_min, hidden_ssid_frames, created_at) " +
+                        "SELECT :tap_uuid, r.bssid, NULL, r.signal_strength_average, r.signal_strength_max, " +
+                        "r.signal_strength_min, r.hidden_ssid_frames, :created_at " +
+                        "FROM unnest(:bssids, :signal_strength_averages, :signal_strength_maximums, " +
+                        ":signal_strength_minimums, :hidden_ssid_frames) AS r(bssid, signal_strength_average, " +
+                        "signal_strength_max, signal_strength_min, hidden_ssid_frames) " +
+                        "RETURNING id, bssid")
+                .bind("tap_uuid", tap.uuid())
+                .bind("created_at", timestamp)
+                .bindArray("bssids", String.class, macs)
+                .bindArray("signal_strength_averages", Float.class, signalAverages)
+                .bindArray("signal_strength_maximums", Long.class, signalMaximums)
+                .bindArray("signal_strength_minimums", Long.class, signalMinimums)
+                .bindArray("hidden_ssid_frames", Long.class, hiddenSSIDFrames)
+                .map((rs, ctx) -> Maps.immutableEntry(rs.getString("bssid"), rs.getLong("id")))
+                .forEach(e -> ids.put(e.getKey(), e.getValue()));
+
+        return ids;
+    }
+
+    /**
+     * @return Database IDs of the written SSIDs by BSSID database ID and sanitized SSID.
+     */
+    private Table<Long, String, Long> writeSSIDs(Handle handle, Tap tap, DateTime timestamp, List<SSIDProcessingTask> tasks) {
+        List<Long> bssidIds = Lists.newArrayList();
+        List<String> ssids = Lists.newArrayList();
+        List<String> bssids = Lists.newArrayList();
+        List<Float> signalAverages = Lists.newArrayList();
+        List<Long> signalMaximums = Lists.newArrayList();
+        List<Long> signalMinimums = Lists.newArrayList();
+        List<Long> beaconAdvertisements = Lists.newArrayList();
+        List<Long> probeResponseAdvertisements = Lists.newArrayList();
+
+        Table<Long, String, Boolean> seen = HashBasedTable.create();
+        for (SSIDProcessingTask task : tasks) {
+            // Replace all non-printable characters.
+            String ssid = Tools.sanitizeSSID(task.ssid());
+
+            /*
+             * If all characters were sanitized away, this is a hidden SSID.
+             * (some access points build hidden SSIDs this way)
+             */
+            if (ssid.isEmpty()) {
+                continue;
+            }
+
+            // Two SSIDs of the same BSSID can sanitize to the same string. We need a unique key to map IDs back.
+            if (seen.contains(task.bssidDatabaseId(), ssid)) {
+                LOG.debug("Skipping duplicate sanitized SSID [{}] of BSSID [{}].", ssid, task.bssid());
+                continue;
+            }
+            seen.put(task.bssidDatabaseId(), ssid, true);
+
+            bssidIds.add(task.bssidDatabaseId());
+            ssids.add(ssid);
+            bssids.add(task.bssid());
+            signalAverages.add(task.ssidReport().signalStrength().average());
+            signalMaximums.add(task.ssidReport().signalStrength().max());
+            signalMinimums.add(task.ssidReport().signalStrength().min());
+            beaconAdvertisements.add(task.ssidReport().beaconAdvertisements());
+            probeResponseAdvertisements.add(task.ssidReport().probeResponseAdvertisements());
+        }
+
+        Table<Long, String, Long> ids = HashBasedTable.create();
+        if (ssids.isEmpty()) {
+            return ids;
+        }
+
+        handle.createQuery("INSERT INTO dot11_ssids(bssid_id, tap_uuid, ssid, bssid, signal_strength_average, " +
+                        "signal_strength_max, signal_strength_min, beacon_advertisements, " +
+                        "proberesp_advertisements, created_at) " +
+                        "SELECT r.bssid_id, :tap_uuid, r.ssid, r.bssid, r.signal_strength_average, " +
+                        "r.signal_strength_max, r.signal_strength_min, r.beacon_advertisements, " +
+                        "r.proberesp_advertisements, :created_at " +
+                        "FROM unnest(:bssid_ids, :ssids, :bssids, :signal_strength_averages, " +
+                        ":signal_strength_maximums, :signal_strength_minimums, :beacon_advertisements, " +
+                        ":proberesp_advertisements) AS r(bssid_id, ssid, bssid, signal_strength_average, " +
+                        "signal_strength_max, signal_strength_min, beacon_advertisements, proberesp_advertisements) " +
+                        "RETURNING id, bssid_id, ssid")
+                .bind("tap_uuid", tap.uuid())
+                .bind("created_at", timestamp)
+                .bindArray("bssid_ids", Long.class, bssidIds)
+                .bindArray("ssids", String.class, ssids)
+                .bindArray("bssids", String.class, bssids)
+                .bindArray("signal_strength_averages", Float.class, signalAverages)
+                .bindArray("signal_strength_maximums", Long.class, signalMaximums)
+                .bindArray("signal_strength_minimums", Long.class, signalMinimums)
+                .bindArray("beacon_advertisements", Long.class, beaconAdvertisements)
+                .bindArray("proberesp_advertisements", Long.class, probeResponseAdvertisements)
+                .map((rs, ctx) -> new Object[]{rs.getLong("bssid_id"), rs.getString("ssid"), rs.getLong("id")})
+                .forEach(r -> ids.put((Long) r[0], (String) r[1], (Long) r[2]));
+
+        return ids;
+    }
+
+    private static final class Fingerprints {
+        private final List<String> fingerprints = Lists.newArrayList();
+        private final List<Long> bssidIds = Lists.newArrayList();
+        private final List<Long> ssidIds = Lists.newArrayList();
+
+        void add(String fingerprint, Long bssidId, Long ssidId) {
+            fingerprints.add(fingerprint);
+            bssidIds.add(bssidId);
+            ssidIds.add(ssidId);
+        }
+
+        void write(Handle handle) {
+            if (fingerprints.isEmpty()) {
+                return;
+            }
+
+            handle.createUpdate("INSERT INTO dot11_fingerprints(fingerprint, bssid_id, ssid_id) " +
+                            "SELECT * FROM unnest(:fingerprints, :bssid_ids, :ssid_ids)")
+                    .bindArray("fingerprints", String.class, fingerprints)
+                    .bindArray("bssid_ids", Long.class, bssidIds)
+                    .bindArray("ssid_ids", Long.class, ssidIds)
+                    .execute();
+        }
+    }
+
+    private static final class BSSIDClients {
+        private final List<Long> bssidIds = Lists.newArrayList();
+        private final List<String> macs = Lists.newArrayList();
+        private final List<Long> txFrames = Lists.newArrayList();
+        private final List<Long> txBytes = Lists.newArrayList();
+        private final List<Long> rxFrames = Lists.newArrayList();
+        private final List<Long> rxBytes = Lists.newArrayList();
+        private final List<Float> signalAverages = Lists.newArrayList();
+        private final List<Long> signalMinimums = Lists.newArrayList();
+        private final List<Long> signalMaximums = Lists.newArrayList();
+
+        void add(long bssidId, String mac, Dot11ClientStatisticsReport stats) {
+            bssidIds.add(bssidId);
+            macs.add(mac);
+            txFrames.add(stats.txFrames());
+            txBytes.add(stats.txBytes());
+            rxFrames.add(stats.rxFrames());
+            rxBytes.add(stats.rxBytes());
+            signalAverages.add(stats.signalStrength().average());
+            signalMinimums.add(stats.signalStrength().min());
+            signalMaximums.add(stats.signalStrength().max());
+        }
+
+        void write(Handle handle) {
+            if (bssidIds.isEmpty()) {
+                return;
+            }
+
+            handle.createUpdate("INSERT INTO dot11_bssid_clients(bssid_id, client_mac, tx_frames, tx_bytes, " +
+                            "rx_frames, rx_bytes, signal_strength_average, signal_strength_min, signal_strength_max) " +
+                            "SELECT * FROM unnest(:bssid_ids, :client_macs, :tx_frames, :tx_bytes, :rx_frames, " +
+                            ":rx_bytes, :signal_strength_averages, :signal_strength_minimums, " +
+                            ":signal_strength_maximums)")
+                    .bindArray("bssid_ids", Long.class, bssidIds)
+                    .bindArray("client_macs", String.class, macs)
+                    .bindArray("tx_frames", Long.class, txFrames)
+                    .bindArray("tx_bytes", Long.class, txBytes)
+                    .bindArray("rx_frames", Long.class, rxFrames)
+                    .bindArray("rx_bytes", Long.class, rxBytes)
+                    .bindArray("signal_strength_averages", Float.class, signalAverages)
+                    .bindArray("signal_strength_minimums", Long.class, signalMinimums)
+                    .bindArray("signal_strength_maximums", Long.class, signalMaximums)
+                    .execute();
+        }
+    }
+
+    private static final class SSIDSettings {
+        private final List<Long> ssidIds = Lists.newArrayList();
+        private final List<String> attributes = Lists.newArrayList();
+        private final List<String> values = Lists.newArrayList();
+
+        void add(long ssidId, String attribute, String value) {
+            ssidIds.add(ssidId);
+            attributes.add(attribute);
+            values.add(value);
+        }
+
+        void write(Handle handle) {
+            if (ssidIds.isEmpty()) {
+                return;
+            }
+
+            handle.createUpdate("INSERT INTO dot11_ssid_settings(ssid_id, attribute, value) " +
+                            "SELECT * FROM unnest(:ssid_ids, :attributes, :values)")
+                    .bindArray("ssid_ids", Long.class, ssidIds)
+                    .bindArray("attributes", String.class, attributes)
+                    .bindArray("values", String.class, values)
+                    .execute();
+        }
+    }
+
+    private static final class SSIDRates {
+        private final List<Long> ssidIds = Lists.newArrayList();
+        private final List<Float> rates = Lists.newArrayList();
+
+        void add(long ssidId, Float rate) {
+            ssidIds.add(ssidId);
+            rates.add(rate);
+        }
+
+        void write(Handle handle) {
+            if (ssidIds.isEmpty()) {
+                return;
+            }
+
+            handle.createUpdate("INSERT INTO dot11_rates(rate, ssid_id) SELECT * FROM unnest(:rates, :ssid_ids)")
+                    .bindArray("rates", Float.class, rates)
+                    .bindArray("ssid_ids", Long.class, ssidIds)
+                    .execute();
+        }
+    }
+
+    private static final class SSIDChannels {
+        private final List<Long> ssidIds = Lists.newArrayList();
+        private final List<Long> frequencies = Lists.newArrayList();
+        private final List<String> frameTypes = Lists.newArrayList();
+        private final List<Long> bytes = Lists.newArrayList();
+        private final List<Long> frames = Lists.newArrayList();
+
+        void add(long ssidId, long frequency, String frameType, Dot11ChannelStatisticsReport stats) {
+            ssidIds.add(ssidId);
+            frequencies.add(frequency);
+            frameTypes.add(frameType);
+            bytes.add(stats.bytes());
+            frames.add(stats.frames());
+        }
+
+        void write(Handle handle) {
+            if (ssidIds.isEmpty()) {
+                return;
+            }
+
+            handle.createUpdate("INSERT INTO dot11_channels(ssid_id, frequency, frame_type, stats_bytes, " +
+                            "stats_frames) SELECT * FROM unnest(:ssid_ids, :frequencies, :frame_types, " +
+                            ":stats_bytes, :stats_frames)")
+                    .bindArray("ssid_ids", Long.class, ssidIds)
+                    .bindArray("frequencies", Long.class, frequencies)
+                    .bindArray("frame_types", String.class, frameTypes)
+                    .bindArray("stats_bytes", Long.class, bytes)
+                    .bindArray("stats_frames", Long.class, frames)
+                    .execute();
+        }
+    }
+
+    private static final class SSIDHistograms {
+        private final List<Long> ssidIds = Lists.newArrayList();
+        private final List<Long> frequencies = Lists.newArrayList();
+        private final List<Long> signalStrengths = Lists.newArrayList();
+        private final List<Long> frameCounts = Lists.newArrayList();
+
+        void add(long ssidId, long frequency, long signalStrength, long frameCount) {
+            ssidIds.add(ssidId);
+            frequencies.add(frequency);
+            signalStrengths.add(signalStrength);
+            frameCounts.add(frameCount);
+        }
+
+        void write(Handle handle) {
+            if (ssidIds.isEmpty()) {
+                return;
+            }
+
+            handle.createUpdate("INSERT INTO dot11_channel_histograms(ssid_id, frequency, signal_strength, " +
+                            "frame_count) SELECT * FROM unnest(:ssid_ids, :frequencies, :signal_strengths, " +
+                            ":frame_counts)")
+                    .bindArray("ssid_ids", Long.class, ssidIds)
+                    .bindArray("frequencies", Long.class, frequencies)
+                    .bindArray("signal_strengths", Long.class, signalStrengths)
+                    .bindArray("frame_counts", Long.class, frameCounts)
+                    .execute();
+        }
+    }
+
+    private static final class SSIDInfrastructureTypes {
+        private final List<Long> ssidIds = Lists.newArrayList();
+        private final List<String> types = Lists.newArrayList();
+
+        void add(long ssidId, String type) {
+            ssidIds.add(ssidId);
+            types.add(type);
+        }
+
+        void write(Handle handle) {
+            if (ssidIds.isEmpty()) {
+                return;
+            }
+
+            handle.createUpdate("INSERT INTO dot11_infrastructure_types(infrastructure_type, ssid_id) " +
+                            "SELECT * FROM unnest(:infrastructure_types, :ssid_ids)")
+                    .bindArray("infrastructure_types", String.class, types)
+                    .bindArray("ssid_ids", Long.class, ssidIds)
+                    .execute();
+        }
+    }
+
+}
@@ -4,15 +4,18 @@ import app.nzyme.core.NzymeNode;
 import app.nzyme.core.detection.alerts.DetectionType;
 import app.nzyme.core.dot11.Dot11;
 import app.nzyme.core.dot11.Dot11RegistryKeys;
-import app.nzyme.core.dot11.db.monitoring.*;
 import app.nzyme.core.dot11.bandits.Dot11BanditDescription;
+import app.nzyme.core.dot11.bandits.Dot11BanditIndex;
 import app.nzyme.core.dot11.bandits.Dot11Bandits;
-import app.nzyme.core.dot11.db.monitoring.probereq.MonitoredProbeRequestEntry;
 import app.nzyme.core.rest.resources.taps.reports.tables.dot11.*;
 import app.nzyme.core.tables.DataTable;
 import app.nzyme.core.tables.TablesService;
+import app.nzyme.core.tables.dot11.monitoring.MonitoringSnapshot;
 import app.nzyme.core.tables.dot11.monitoring.PreLoadedMonitoredBSSID;
 import app.nzyme.core.tables.dot11.monitoring.PreLoadedMonitoredSSID;
+import app.nzyme.core.tables.dot11.monitoring.RestrictedSubstringMatch;
+import app.nzyme.core.tables.dot11.monitoring.SSIDMatches;
+import app.nzyme.core.tables.dot11.monitoring.SimilarSSIDMatch;
 import app.nzyme.core.taps.Tap;
 import app.nzyme.core.util.MetricNames;
 import app.nzyme.core.util.Tools;
@@ -22,7 +25,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import info.debatty.java.stringsimilarity.JaroWinkler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdbi.v3.core.Handle;
@@ -33,9 +35,8 @@ import com.codahale.metrics.Timer;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
-import java.util.stream.Collectors;
 
 public class Dot11Table implements DataTable {
 
@@ -44,6 +45,9 @@ public class Dot11Table implements DataTable {
     private final TablesService tablesService;
     private final ObjectMapper om;
 
+    private final boolean bulkWrites;
+    private final Dot11BulkWriter bulkWriter;
+
     private final Timer totalReportTimer;
     private final Timer bssidReportTimer;
     private final Timer clientsReportTimer;
@@ -54,6 +58,9 @@ public class Dot11Table implements DataTable {
         this.tablesService = tablesService;
         this.om = new ObjectMapper();
 
+        this.bulkWrites = tablesService.getNzyme().getConfiguration().performance().dot11BulkWrites();
+        this.bulkWriter = new Dot11BulkWriter(om);
+
         this.totalReportTimer = tablesService.getNzyme().getMetrics()
                 .timer(MetricNames.DOT11_TOTAL_REPORT_PROCESSING_TIMER);
         this.bssidReportTimer = tablesService.getNzyme().getMetrics()
@@ -76,7 +83,7 @@ public class Dot11Table implements DataTable {
             }
 
             try (Timer.Context ignored2 = bssidReportTimer.time()) {
-                writeBSSIDs(tap.get(), timestamp, report.bssids(), tap.get().organizationId(), tap.get().tenantId());
+                writeBSSIDs(tap.get(), timestamp, report.bssids());
             }
 
             try (Timer.Context ignored2 = clientsReportTimer.time()) {
@@ -94,10 +101,9 @@ public class Dot11Table implements DataTable {
     }
 
     private void writeClients(Tap tap, DateTime timestamp, Map<String, Dot11ClientReport> clients) {
-        Map<String, MonitoredProbeRequestEntry> monitoredProbeRequests = tablesService.getNzyme().getDot11()
-                .findAllMonitoredProbeRequests(tap.organizationId(), tap.tenantId(), Integer.MAX_VALUE, 0)
-                .stream()
-                .collect(Collectors.toMap(MonitoredProbeRequestEntry::ssid, entry -> entry));
+        Set<String> monitoredProbeRequestSSIDs = tablesService.getNzyme().getDot11()
+                .getMonitoringSnapshot(tap.organizationId(), tap.tenantId())
+                .monitoredProbeRequestSSIDs();
 
         for (Map.Entry<String, Dot11ClientReport> entry : clients.entrySet()) {
             String clientMac = entry.getKey();
@@ -131,7 +137,7 @@ public class Dot11Table implements DataTable {
                     String ssid = Tools.sanitizeSSID(pr.getKey());
 
                     // Check if we are monitoring for this probe request SSID and raise alert if so.
-                    if (monitoredProbeRequests.containsKey(ssid)) {
+                    if (monitoredProbeRequestSSIDs.contains(ssid)) {
                         // Raise alert.
                         Map<String, String> attributes = Maps.newHashMap();
                         attributes.put("ssid", ssid);
@@ -163,77 +169,55 @@ public class Dot11Table implements DataTable {
         }
     }
 
-    public void writeBSSIDs(Tap tap, DateTime timestamp,
-                            Map<String, Dot11BSSIDReport> bssids,
-                            UUID organizationId,
-                            UUID tenantId) {
-        // Collect all monitored SSIDs and their attributes.
-        Map<String, PreLoadedMonitoredSSID> monitoredSSIDs = Maps.newHashMap();
-        List<String> monitoredSSIDNames = Lists.newArrayList();
-        NzymeNode nzyme = tablesService.getNzyme();
-
-        nzyme.getDatabase().useHandle(handle -> {
-            for (MonitoredSSID s : nzyme.getDot11().findAllMonitoredSSIDs(tap.organizationId(), tap.tenantId())) {
-                if (!s.isEnabled()) {
-                    continue;
-                }
-
-                monitoredSSIDNames.add(s.ssid());
+    public void writeBSSIDs(Tap tap, DateTime timestamp, Map<String, Dot11BSSIDReport> bssids) {
+        MonitoringSnapshot monitoring = tablesService.getNzyme().getDot11()
+                .getMonitoringSnapshot(tap.organizationId(), tap.tenantId());
 
-                Map<String, PreLoadedMonitoredBSSID> preLoadedBSSIDs = Maps.newHashMap();
-                for (MonitoredBSSID b : nzyme.getDot11().findMonitoredBSSIDsOfMonitoredNetwork(s.id())) {
-                    List<String> fingerprints = Lists.newArrayList();
-                    for (MonitoredFingerprint f : nzyme.getDot11().findMonitoredFingerprintsOfMonitoredBSSID(b.id())) {
-                        fingerprints.add(f.fingerprint());
-                    }
-
-                    preLoadedBSSIDs.put(b.bssid(), PreLoadedMonitoredBSSID.create(b.bssid(), fingerprints));
-                }
+        if (bulkWrites) {
+            writeBSSIDsBulk(tap, timestamp, bssids, monitoring);
+        } else {
+            writeBSSIDsRowByRow(tap, timestamp, bssids, monitoring);
+        }
+    }
 
-                List<Integer> preLoadedChannels = Lists.newArrayList();
-                for (MonitoredChannel c : nzyme.getDot11().findMonitoredChannelsOfMonitoredNetwork(s.id())) {
-                    preLoadedChannels.add((int) c.frequency());
-                }
+    void writeBSSIDsBulk(Tap tap,
+                         DateTime timestamp,
+                         Map<String, Dot11BSSIDReport> bssids,
+                         MonitoringSnapshot monitoring) {
+        NzymeNode nzyme = tablesService.getNzyme();
 
-                List<String> preLoadedSecuritySuites = Lists.newArrayList();
-                for (MonitoredSecuritySuite ss : nzyme.getDot11().findMonitoredSecuritySuitesOfMonitoredNetwork(s.id())) {
-                    preLoadedSecuritySuites.add(ss.securitySuite());
-                }
+        List<SSIDProcessingTask> ssidProcessingTasks = nzyme.getDatabase().withHandle(handle ->
+                handle.inTransaction(transaction -> bulkWriter.write(transaction, tap, timestamp, bssids))
+        );
 
-                monitoredSSIDs.put(s.ssid(), PreLoadedMonitoredSSID.create(
-                        s.id(),
-                        s.uuid(),
-                        s.ssid(),
-                        preLoadedBSSIDs,
-                        preLoadedChannels,
-                        preLoadedSecuritySuites,
-                        s.enabledUnexpectedBSSID(),
-                        s.enabledUnexpectedChannel(),
-                        s.enabledUnexpectedSecuritySuites(),
-                        s.enabledUnexpectedFingerprint(),
-                        s.enabledUnexpectedSignalTracks(),
-                        s.enabledSimilarLookingSSID(),
-                        s.enabledSSIDSubstring(),
-                        s.detectionConfigSimilarLookingSSIDThreshold()
-                ));
+        // Detection runs after the whole report is written.
+        for (Map.Entry<String, Dot11BSSIDReport> entry : bssids.entrySet()) {
+            for (String fingerprint : entry.getValue().fingerprints()) {
+                checkBanditFingerprint(tap, entry.getKey(), entry.getValue(), fingerprint, monitoring.bandits());
             }
+        }
 
+        for (SSIDProcessingTask task : ssidProcessingTasks) {
+            String ssid = Tools.sanitizeSSID(task.ssid());
+            if (ssid.isEmpty()) {
+                continue;
+            }
 
-            // Load all bandits.
-            List<Dot11BanditDescription> bandits = Lists.newArrayList(Dot11Bandits.BUILT_IN);
-            for (CustomBanditDescription bandit : nzyme.getDot11()
-                    .findAllCustomBandits(organizationId, tenantId, Integer.MAX_VALUE, 0)) {
-                List<String> fingerprints = nzyme.getDot11().findFingerprintsOfCustomBandit(bandit.id());
-
-                bandits.add(Dot11BanditDescription.create(
-                        bandit.uuid().toString(),
-                        true,
-                        bandit.name(),
-                        bandit.description(),
-                        fingerprints
-                ));
+            try {
+                checkSSID(nzyme, monitoring, task, ssid);
+            } catch(Exception e) {
+                LOG.error("Could not run SSID detection.", e);
             }
+        }
+    }
+
+    void writeBSSIDsRowByRow(Tap tap,
+                             DateTime timestamp,
+                             Map<String, Dot11BSSIDReport> bssids,
+                             MonitoringSnapshot monitoring) {
+        NzymeNode nzyme = tablesService.getNzyme();
 
+        nzyme.getDatabase().useHandle(handle -> {
             List<SSIDProcessingTask> ssidProcessingTasks = Lists.newArrayList();
 
             for (Map.Entry<String, Dot11BSSIDReport> entry : bssids.entrySet()) {
@@ -266,32 +250,7 @@ public class Dot11Table implements DataTable {
                             .bind("bssid_id", bssidDatabaseId)
                             .add();
 
-                    // Is this a known bandit fingerprint?
-                    for (Dot11BanditDescription bandit : bandits) {
-                        if (bandit.fingerprints() != null && bandit.fingerprints().contains(fingerprint)) {
-                            Map<String, String> attributes = Maps.newHashMap();
-                            attributes.put("fingerprint", fingerprint);
-                            attributes.put("bssid", bssid);
-                            attributes.put("tap_uuid", tap.uuid().toString());
-                            attributes.put("bandit_name", bandit.name());
-                            attributes.put("bandit_description", bandit.description());
-                            attributes.put("bandit_is_custom", String.valueOf(bandit.isCustom()));
-
-                            tablesService.getNzyme().getDetectionAlertService().raiseAlert(
-                                    tap.organizationId(),
-                                    tap.tenantId(),
-                                    null,
-                                    tap.uuid(),
-                                    DetectionType.DOT11_BANDIT_CONTACT,
-                                    Subsystem.DOT11,
-                                    "Bandit \"" + bandit.name() + "\" advertising BSSID \"" + bssid + "\" " +
-                                            "detected in range.",
-                                    attributes,
-                                    new String[]{"bssid", "fingerprint", "bandit_is_custom"},
-                                    report.signalStrength().average()
-                            );
-                        }
-                    }
+                    checkBanditFingerprint(tap, bssid, report, fingerprint, monitoring.bandits());
                 }
                 fingerprintBatch.execute();
 
@@ -316,8 +275,8 @@ public class Dot11Table implements DataTable {
                                 .bind("rx_frames", stats.rxFrames())
                                 .bind("rx_bytes", stats.rxBytes())
                                 .bind("signal_strength_average", stats.signalStrength().average())
-                                .bind("signal_strength_min", stats.signalStrength().average())
-                                .bind("signal_strength_max", stats.signalStrength().average())
+                                .bind("signal_strength_min", stats.signalStrength().min())
+                                .bind("signal_strength_max", stats.signalStrength().max())
                                 .add();
                     }
                 }
@@ -331,29 +290,19 @@ public class Dot11Table implements DataTable {
                 }
             }
 
-            // Write all SSIDs.
-            CountDownLatch latch = new CountDownLatch(ssidProcessingTasks.size());
+            /*
+             * Write all SSIDs on this thread. It is a table ingestion worker, so the queue limits cover these writes,
+             * and the handle is not shared between threads.
+             */
             for (SSIDProcessingTask ssidProcessingTask : ssidProcessingTasks) {
-                tablesService.getProcessorPool().submit(() -> {
-                    writeSSID(nzyme, handle, monitoredSSIDNames, monitoredSSIDs, ssidProcessingTask);
-
-                    latch.countDown();
-                });
-            }
-
-            // Wait for SSID processing to finish.
-            try {
-                latch.await();
-            } catch (InterruptedException e) {
-                LOG.error("SSID writer process interrupted.", e);
+                writeSSID(nzyme, handle, monitoring, ssidProcessingTask);
             }
         });
     }
 
     private void writeSSID(NzymeNode nzyme,
                            Handle handle,
-                           List<String> monitoredSSIDNames,
-                           Map<String, PreLoadedMonitoredSSID> monitoredSSIDs,
+                           MonitoringSnapshot monitoring,
                            SSIDProcessingTask task) {
         try {
             // Replace all non-printable characters.
@@ -399,7 +348,7 @@ public class Dot11Table implements DataTable {
             // Security protocols and suites.
             PreparedBatch noneSettingsBatch = handle.prepareBatch(
                     "INSERT INTO dot11_ssid_settings(ssid_id, attribute, value) " +
-                            "VALUES(:ssid_id, 'security_protocol', NULL"); // We insert NULL to signal "NONE".
+                            "VALUES(:ssid_id, 'security_protocol', NULL)"); // We insert NULL to signal "NONE".
             PreparedBatch someSettingsBatch = handle.prepareBatch(
                     "INSERT INTO dot11_ssid_settings(ssid_id, attribute, value) " +
                             "VALUES(:ssid_id, 'security_protocol', :value)");
@@ -511,174 +460,198 @@ public class Dot11Table implements DataTable {
             }
             infraBatch.execute();
 
-            /*
-             * Check if this SSID is similar to any monitored SSIDs or includes a monitored substring. Skip
-             * other monitored SSIDs because they are considered trusted.
-             */
-            JaroWinkler jaroWinkler = new JaroWinkler();
-            for (PreLoadedMonitoredSSID monitoredSSID : monitoredSSIDs.values()) {
-                if (!monitoredSSIDNames.contains(ssid)) {
-                    // Similar looking SSIDs.
-                    if (monitoredSSID.enabledSimilarLookingSSID()) {
-                        double similarity = jaroWinkler
-                                .similarity(monitoredSSID.ssid().toLowerCase(), ssid.toLowerCase()) * 100.0;
-
-                        if (similarity > monitoredSSID.detectionConfigSimilarLookingSSIDThreshold()) {
+            checkSSID(nzyme, monitoring, task, ssid);
+        } catch(Exception e) {
+            LOG.error("Could not write SSID.", e);
+        }
+    }
+
+    private void checkSSID(NzymeNode nzyme,
+                           MonitoringSnapshot monitoring,
+                           SSIDProcessingTask task,
+                           String ssid) {
+        /*
+         * Check if this SSID is similar to any monitored SSIDs or includes a monitored substring. The matcher skips
+         * other monitored SSIDs because they are considered trusted.
+         */
+        SSIDMatches matches = monitoring.ssidMatcher().match(ssid);
+
+        // Similar looking SSIDs.
+        for (SimilarSSIDMatch similar : matches.similarSSIDs()) {
+            Map<String, String> attributes = Maps.newHashMap();
+            attributes.put("similar_ssid", ssid);
+            attributes.put("similarity", String.valueOf(similar.similarity()));
+            attributes.put("similarity_threshold",
+                    String.valueOf(similar.monitoredSSID().detectionConfigSimilarLookingSSIDThreshold()));
+
+            nzyme.getDetectionAlertService().raiseAlert(
+                    task.tap().organizationId(),
+                    task.tap().tenantId(),
+                    similar.monitoredSSID().uuid(),
+                    task.tap().uuid(),
+                    DetectionType.DOT11_MONITOR_SIMILAR_LOOKING_SSID,
+                    Subsystem.DOT11,
+                    "SSID \"" + ssid + "\" looking similar to monitored network SSID " +
+                            "\"" + similar.monitoredSSID().ssid() + "\"",
+                    attributes,
+                    new String[]{"similar_ssid"},
+                    task.ssidReport().signalStrength().average()
+            );
+        }
+
+        // Restricted substrings.
+        for (RestrictedSubstringMatch restricted : matches.restrictedSubstrings()) {
+            Map<String, String> attributes = Maps.newHashMap();
+            attributes.put("ssid", ssid);
+            attributes.put("restricted_substring", restricted.substring());
+
+            nzyme.getDetectionAlertService().raiseAlert(
+                    task.tap().organizationId(),
+                    task.tap().tenantId(),
+                    restricted.monitoredSSID().uuid(),
+                    task.tap().uuid(),
+                    DetectionType.DOT11_MONITOR_SSID_SUBSTRING,
+                    Subsystem.DOT11,
+                    "SSID \"" + ssid + "\" contains restricted " +
+                            "substring \"" + restricted.substring() + "\"",
+                    attributes,
+                    new String[]{"ssid", "restricted_substring"},
+                    task.ssidReport().signalStrength().average()
+            );
+        }
+
+        // Network Monitoring / Alerting.
+        PreLoadedMonitoredSSID monitoredSSID = monitoring.monitoredSSIDs().get(ssid);
+        if (monitoredSSID != null) {
+            // This is a monitored SSID.
+
+            PreLoadedMonitoredBSSID monitoredBSSID = monitoredSSID.bssids().get(task.bssid());
+            if (monitoredBSSID == null) {
+                if (monitoredSSID.enabledUnexpectedBSSID()) {
+                    // Unexpected BSSID.
+                    Map<String, String> attributes = Maps.newHashMap();
+                    attributes.put("bssid", task.bssid());
+
+                    nzyme.getDetectionAlertService().raiseAlert(
+                            task.tap().organizationId(),
+                            task.tap().tenantId(),
+                            monitoredSSID.uuid(),
+                            task.tap().uuid(),
+                            DetectionType.DOT11_MONITOR_BSSID,
+                            Subsystem.DOT11,
+                            "Monitored network \"" + monitoredSSID.ssid() + "\" advertised with " +
+                                    "unexpected BSSID \"" + task.bssid() + "\"",
+                            attributes,
+                            new String[]{"bssid"},
+                            task.ssidReport().signalStrength().average()
+                    );
+                }
+            } else {
+                // Expected BSSID. Compare fingerprints.
+                if (monitoredSSID.enabledUnexpectedFingerprint()) {
+                    for (String observedFingerprint : task.ssidReport().fingerprints()) {
+                        if (!monitoredBSSID.fingerprints().contains(observedFingerprint)) {
+                            // Unexpected fingerprint.
                             Map<String, String> attributes = Maps.newHashMap();
-                            attributes.put("similar_ssid", ssid);
-                            attributes.put("similarity", String.valueOf(similarity));
-                            attributes.put("similarity_threshold",
-                                    String.valueOf(monitoredSSID.detectionConfigSimilarLookingSSIDThreshold()));
+                            attributes.put("bssid", task.bssid());
+                            attributes.put("fingerprint", observedFingerprint);
 
                             nzyme.getDetectionAlertService().raiseAlert(
                                     task.tap().organizationId(),
                                     task.tap().tenantId(),
                                     monitoredSSID.uuid(),
                                     task.tap().uuid(),
-                                    DetectionType.DOT11_MONITOR_SIMILAR_LOOKING_SSID,
+                                    DetectionType.DOT11_MONITOR_FINGERPRINT,
                                     Subsystem.DOT11,
-                                    "SSID \"" + ssid + "\" looking similar to monitored network SSID " +
-                                            "\"" + monitoredSSID.ssid() + "\"",
+                                    "Monitored network \"" + monitoredSSID.ssid() + "\" advertised " +
+                                            "with unexpected fingerprint \"" + observedFingerprint + "\".",
                                     attributes,
-                                    new String[]{"similar_ssid"},
+                                    new String[]{"bssid", "fingerprint"},
                                     task.ssidReport().signalStrength().average()
                             );
                         }
                     }
-
-                    // Restricted substrings.
-                    if (monitoredSSID.enabledSSIDSubstring()) {
-                        // Pull all restricted substrings.
-                        for (RestrictedSSIDSubstring rss :
-                                nzyme.getDot11().findAllRestrictedSSIDSubstrings(monitoredSSID.id())) {
-                            if (ssid.toLowerCase().contains(rss.substring().toLowerCase())) {
-                                Map<String, String> attributes = Maps.newHashMap();
-                                attributes.put("ssid", ssid);
-                                attributes.put("restricted_substring", rss.substring());
-
-                                nzyme.getDetectionAlertService().raiseAlert(
-                                        task.tap().organizationId(),
-                                        task.tap().tenantId(),
-                                        monitoredSSID.uuid(),
-                                        task.tap().uuid(),
-                                        DetectionType.DOT11_MONITOR_SSID_SUBSTRING,
-                                        Subsystem.DOT11,
-                                        "SSID \"" + ssid + "\" contains restricted " +
-                                                "substring \"" + rss.substring() + "\"",
-                                        attributes,
-                                        new String[]{"ssid", "restricted_substring"},
-                                        task.ssidReport().signalStrength().average()
-                                );
-                            }
-                        }
-                    }
                 }
             }
 
-            // Network Monitoring / Alerting.
-            PreLoadedMonitoredSSID monitoredSSID = monitoredSSIDs.get(ssid);
-            if (monitoredSSID != null) {
-                // This is a monitored SSID.
-
-                PreLoadedMonitoredBSSID monitoredBSSID = monitoredSSID.bssids().get(task.bssid());
-                if (monitoredBSSID == null) {
-                    if (monitoredSSID.enabledUnexpectedBSSID()) {
-                        // Unexpected BSSID.
+            if (monitoredSSID.enabledUnexpectedChannel()) {
+                for (Long frequency : task.ssidReport().channelStatistics().keySet()) {
+                    if (!monitoredSSID.channels().contains(frequency.intValue())) {
+                        // Unexpected channel.
                         Map<String, String> attributes = Maps.newHashMap();
-                        attributes.put("bssid", task.bssid());
+                        attributes.put("frequency", String.valueOf(frequency));
 
                         nzyme.getDetectionAlertService().raiseAlert(
                                 task.tap().organizationId(),
                                 task.tap().tenantId(),
                                 monitoredSSID.uuid(),
                                 task.tap().uuid(),
-                                DetectionType.DOT11_MONITOR_BSSID,
+                                DetectionType.DOT11_MONITOR_CHANNEL,
                                 Subsystem.DOT11,
-                                "Monitored network \"" + monitoredSSID.ssid() + "\" advertised with " +
-                                        "unexpected BSSID \"" + task.bssid() + "\"",
+                                "Monitored network \"" + monitoredSSID.ssid() + "\" advertised on " +
+                                        "unexpected frequency " + frequency + "MHz",
                                 attributes,
-                                new String[]{"bssid"},
+                                new String[]{"frequency"},
                                 task.ssidReport().signalStrength().average()
                         );
                     }
-                } else {
-                    // Expected BSSID. Compare fingerprints.
-                    if (monitoredSSID.enabledUnexpectedFingerprint()) {
-                        for (String observedFingerprint : task.ssidReport().fingerprints()) {
-                            if (!monitoredBSSID.fingerprints().contains(observedFingerprint)) {
-                                // Unexpected fingerprint.
-                                Map<String, String> attributes = Maps.newHashMap();
-                                attributes.put("bssid", task.bssid());
-                                attributes.put("fingerprint", observedFingerprint);
-
-                                nzyme.getDetectionAlertService().raiseAlert(
-                                        task.tap().organizationId(),
-                                        task.tap().tenantId(),
-                                        monitoredSSID.uuid(),
-                                        task.tap().uuid(),
-                                        DetectionType.DOT11_MONITOR_FINGERPRINT,
-                                        Subsystem.DOT11,
-                                        "Monitored network \"" + monitoredSSID.ssid() + "\" advertised " +
-                                                "with unexpected fingerprint \"" + observedFingerprint + "\".",
-                                        attributes,
-                                        new String[]{"bssid", "fingerprint"},
-                                        task.ssidReport().signalStrength().average()
-                                );
-                            }
-                        }
-                    }
-                }
-
-                if (monitoredSSID.enabledUnexpectedChannel()) {
-                    for (Long frequency : task.ssidReport().channelStatistics().keySet()) {
-                        if (!monitoredSSID.channels().contains(frequency.intValue())) {
-                            // Unexpected channel.
-                            Map<String, String> attributes = Maps.newHashMap();
-                            attributes.put("frequency", String.valueOf(frequency));
-
-                            nzyme.getDetectionAlertService().raiseAlert(
-                                    task.tap().organizationId(),
-                                    task.tap().tenantId(),
-                                    monitoredSSID.uuid(),
-                                    task.tap().uuid(),
-                                    DetectionType.DOT11_MONITOR_CHANNEL,
-                                    Subsystem.DOT11,
-                                    "Monitored network \"" + monitoredSSID.ssid() + "\" advertised on " +
-                                            "unexpected frequency " + frequency + "MHz",
-                                    attributes,
-                                    new String[]{"frequency"},
-                                    task.ssidReport().signalStrength().average()
-                            );
-                        }
-                    }
                 }
+            }
 
-                if (monitoredSSID.enabledUnexpectedSecuritySuites()) {
-                    for (Dot11SecurityInformationReport security : task.ssidReport().security()) {
-                        String suite = Dot11.securitySuitesToIdentifier(security);
-                        if (!monitoredSSID.securitySuites().contains(suite)) {
-                            Map<String, String> attributes = Maps.newHashMap();
-                            attributes.put("suite", suite);
+            if (monitoredSSID.enabledUnexpectedSecuritySuites()) {
+                for (Dot11SecurityInformationReport security : task.ssidReport().security()) {
+                    String suite = Dot11.securitySuitesToIdentifier(security);
+                    if (!monitoredSSID.securitySuites().contains(suite)) {
+                        Map<String, String> attributes = Maps.newHashMap();
+                        attributes.put("suite", suite);
 
-                            nzyme.getDetectionAlertService().raiseAlert(
-                                    task.tap().organizationId(),
-                                    task.tap().tenantId(),
-                                    monitoredSSID.uuid(),
-                                    task.tap().uuid(),
-                                    DetectionType.DOT11_MONITOR_SECURITY_SUITE,
-                                    Subsystem.DOT11,
-                                    "Monitored network \"" + monitoredSSID.ssid() + "\" advertised with " +
-                                            "unexpected security suites \"" + suite + "\"",
-                                    attributes,
-                                    new String[]{"suite"},
-                                    task.ssidReport().signalStrength().average()
-                            );
-                        }
+                        nzyme.getDetectionAlertService().raiseAlert(
+                                task.tap().organizationId(),
+                                task.tap().tenantId(),
+                                monitoredSSID.uuid(),
+                                task.tap().uuid(),
+                                DetectionType.DOT11_MONITOR_SECURITY_SUITE,
+                                Subsystem.DOT11,
+                                "Monitored network \"" + monitoredSSID.ssid() + "\" advertised with " +
+                                        "unexpected security suites \"" + suite + "\"",
+                                attributes,
+                                new String[]{"suite"},
+                                task.ssidReport().signalStrength().average()
+                        );
                     }
                 }
             }
-        } catch(Exception e) {
-            LOG.error("Could not write SSID.", e);
+        }
+    }
+
+    private void checkBanditFingerprint(Tap tap,
+                                        String bssid,
+                                        Dot11BSSIDReport report,
+                                        String fingerprint,
+                                        Dot11BanditIndex bandits) {
+        // Is this a known bandit fingerprint?
+        for (Dot11BanditDescription bandit : bandits.match(fingerprint)) {
+            Map<String, String> attributes = Maps.newHashMap();
+            attributes.put("fingerprint", fingerprint);
+            attributes.put("bssid", bssid);
+            attributes.put("tap_uuid", tap.uuid().toString());
+            attributes.put("bandit_name", bandit.name());
+            attributes.put("bandit_description", bandit.description());
+            attributes.put("bandit_is_custom", String.valueOf(bandit.isCustom()));
+
+            tablesService.getNzyme().getDetectionAlertService().raiseAlert(
+                    tap.organizationId(),
+                    tap.tenantId(),
+                    null,
+                    tap.uuid(),
+                    DetectionType.DOT11_BANDIT_CONTACT,
+                    Subsystem.DOT11,
+                    "Bandit \"" + bandit.name() + "\" advertising BSSID \"" + bssid + "\" " +
+                            "detected in range.",
+                    attributes,
+                    new String[]{"bssid", "fingerprint", "bandit_is_custom"},
+                    report.signalStrength().average()
+            );
         }
     }
 
@@ -0,0 +1,52 @@
+package app.nzyme.core.tables.dot11.monitoring;
+
+import app.nzyme.core.dot11.bandits.Dot11BanditIndex;
+import com.google.auto.value.AutoValue;
+import org.joda.time.DateTime;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of the 802.11 monitoring configuration of a tenant: Enabled monitored SSIDs with everything we
+ * compare against, all bandits and all monitored probe request SSIDs. Report processing reads it without locking.
+ */
+@AutoValue
+public abstract class MonitoringSnapshot {
+
+    public abstract Map<String, PreLoadedMonitoredSSID> monitoredSSIDs();
+    public abstract SimilarSSIDMatcher ssidMatcher();
+    public abstract Dot11BanditIndex bandits();
+    public abstract Set<String> monitoredProbeRequestSSIDs();
+    public abstract DateTime createdAt();
+
+    public static MonitoringSnapshot create(Map<String, PreLoadedMonitoredSSID> monitoredSSIDs, SimilarSSIDMatcher ssidMatcher, Dot11BanditIndex bandits, Set<String> monitoredProbeRequestSSIDs, DateTime createdAt) {
+        return builder()
+                .monitoredSSIDs(monitoredSSIDs)
+                .ssidMatcher(ssidMatcher)
+                .bandits(bandits)
+                .monitoredProbeRequestSSIDs(monitoredProbeRequestSSIDs)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_MonitoringSnapshot.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder monitoredSSIDs(Map<String, PreLoadedMonitoredSSID> monitoredSSIDs);
+
+        public abstract Builder ssidMatcher(SimilarSSIDMatcher ssidMatcher);
+
+        public abstract Builder bandits(Dot11BanditIndex bandits);
+
+        public abstract Builder monitoredProbeRequestSSIDs(Set<String> monitoredProbeRequestSSIDs);
+
+        public abstract Builder createdAt(DateTime createdAt);
+
+        public abstract MonitoringSnapshot build();
+    }
+
+}
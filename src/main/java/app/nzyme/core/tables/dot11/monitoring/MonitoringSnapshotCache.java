@@ -0,0 +1,170 @@
+package app.nzyme.core.tables.dot11.monitoring;
+
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.dot11.bandits.Dot11BanditDescription;
+import app.nzyme.core.dot11.bandits.Dot11BanditIndex;
+import app.nzyme.core.dot11.bandits.Dot11Bandits;
+import app.nzyme.core.dot11.db.monitoring.*;
+import app.nzyme.core.dot11.db.monitoring.probereq.MonitoredProbeRequestEntry;
+import app.nzyme.core.util.MetricNames;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds one {@link MonitoringSnapshot} per tenant. A snapshot is built on first use and then served until the
+ * monitoring configuration changes. Any change invalidates the snapshots of all tenants: Configuration changes are
+ * rare and most change paths only know the ID of the changed network or bandit.
+ */
+public class MonitoringSnapshotCache {
+
+    private static final Logger LOG = LogManager.getLogger(MonitoringSnapshotCache.class);
+
+    private final NzymeNode nzyme;
+
+    private final Map<String, MonitoringSnapshot> snapshots;
+
+    /*
+     * Incremented on every invalidation. A snapshot is only published if no invalidation happened while it was built,
+     * because it could otherwise contain configuration from before the change.
+     */
+    private final AtomicLong generation = new AtomicLong(0);
+    private final Object buildLock = new Object();
+
+    private final Timer buildTimer;
+
+    public MonitoringSnapshotCache(NzymeNode nzyme) {
+        this.nzyme = nzyme;
+        this.snapshots = new ConcurrentHashMap<>();
+
+        this.buildTimer = nzyme.getMetrics().timer(MetricNames.DOT11_MONITORING_SNAPSHOT_BUILD_TIMER);
+    }
+
+    public MonitoringSnapshot get(@Nullable UUID organizationId, @Nullable UUID tenantId) {
+        String key = organizationId + "/" + tenantId;
+
+        MonitoringSnapshot snapshot = snapshots.get(key);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        // Only one build at a time. Report processing threads of the same tenant wait for the first one.
+        synchronized (buildLock) {
+            snapshot = snapshots.get(key);
+            if (snapshot != null) {
+                return snapshot;
+            }
+
+            long startGeneration = generation.get();
+            try (Timer.Context ignored = buildTimer.time()) {
+                snapshot = build(organizationId, tenantId);
+            }
+
+            if (generation.get() == startGeneration) {
+                snapshots.put(key, snapshot);
+            }
+
+            return snapshot;
+        }
+    }
+
+    public void invalidate() {
+        LOG.debug("Invalidating 802.11 monitoring snapshots.");
+        generation.incrementAndGet();
+        snapshots.clear();
+    }
+
+    private MonitoringSnapshot build(@Nullable UUID organizationId, @Nullable UUID tenantId) {
+        // Collect all enabled monitored SSIDs and their attributes.
+        ImmutableMap.Builder<String, PreLoadedMonitoredSSID> monitoredSSIDs = ImmutableMap.builder();
+        for (MonitoredSSID s : nzyme.getDot11().findAllMonitoredSSIDs(organizationId, tenantId)) {
+            if (!s.isEnabled()) {
+                continue;
+            }
+
+            ImmutableMap.Builder<String, PreLoadedMonitoredBSSID> bssids = ImmutableMap.builder();
+            for (MonitoredBSSID b : nzyme.getDot11().findMonitoredBSSIDsOfMonitoredNetwork(s.id())) {
+                ImmutableList.Builder<String> fingerprints = ImmutableList.builder();
+                for (MonitoredFingerprint f : nzyme.getDot11().findMonitoredFingerprintsOfMonitoredBSSID(b.id())) {
+                    fingerprints.add(f.fingerprint());
+                }
+
+                bssids.put(b.bssid(), PreLoadedMonitoredBSSID.create(b.bssid(), fingerprints.build()));
+            }
+
+            ImmutableList.Builder<Integer> channels = ImmutableList.builder();
+            for (MonitoredChannel c : nzyme.getDot11().findMonitoredChannelsOfMonitoredNetwork(s.id())) {
+                channels.add((int) c.frequency());
+            }
+
+            ImmutableList.Builder<String> securitySuites = ImmutableList.builder();
+            for (MonitoredSecuritySuite ss : nzyme.getDot11().findMonitoredSecuritySuitesOfMonitoredNetwork(s.id())) {
+                securitySuites.add(ss.securitySuite());
+            }
+
+            ImmutableList.Builder<String> restrictedSubstrings = ImmutableList.builder();
+            for (RestrictedSSIDSubstring rss : nzyme.getDot11().findAllRestrictedSSIDSubstrings(s.id())) {
+                restrictedSubstrings.add(rss.substring());
+            }
+
+            monitoredSSIDs.put(s.ssid(), PreLoadedMonitoredSSID.create(
+                    s.id(),
+                    s.uuid(),
+                    s.ssid(),
+                    bssids.buildKeepingLast(),
+                    channels.build(),
+                    securitySuites.build(),
+                    restrictedSubstrings.build(),
+                    s.enabledUnexpectedBSSID(),
+                    s.enabledUnexpectedChannel(),
+                    s.enabledUnexpectedSecuritySuites(),
+                    s.enabledUnexpectedFingerprint(),
+                    s.enabledUnexpectedSignalTracks(),
+                    s.enabledSimilarLookingSSID(),
+                    s.enabledSSIDSubstring(),
+                    s.detectionConfigSimilarLookingSSIDThreshold()
+            ));
+        }
+
+        // Built-in and custom bandits.
+        ImmutableList.Builder<Dot11BanditDescription> bandits = ImmutableList.builder();
+        bandits.addAll(Dot11Bandits.BUILT_IN);
+        for (CustomBanditDescription bandit : nzyme.getDot11()
+                .findAllCustomBandits(organizationId, tenantId, Integer.MAX_VALUE, 0)) {
+            bandits.add(Dot11BanditDescription.create(
+                    bandit.uuid().toString(),
+                    true,
+                    bandit.name(),
+                    bandit.description(),
+                    ImmutableList.copyOf(nzyme.getDot11().findFingerprintsOfCustomBandit(bandit.id()))
+            ));
+        }
+
+        ImmutableSet.Builder<String> probeRequestSSIDs = ImmutableSet.builder();
+        for (MonitoredProbeRequestEntry pr : nzyme.getDot11()
+                .findAllMonitoredProbeRequests(organizationId, tenantId, Integer.MAX_VALUE, 0)) {
+            probeRequestSSIDs.add(pr.ssid());
+        }
+
+        Map<String, PreLoadedMonitoredSSID> builtMonitoredSSIDs = monitoredSSIDs.buildKeepingLast();
+
+        return MonitoringSnapshot.create(
+                builtMonitoredSSIDs,
+                new SimilarSSIDMatcher(builtMonitoredSSIDs.values()),
+                new Dot11BanditIndex(bandits.build()),
+                probeRequestSSIDs.build(),
+                DateTime.now()
+        );
+    }
+
+}
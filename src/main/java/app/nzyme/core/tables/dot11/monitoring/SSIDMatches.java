@@ -0,0 +1,33 @@
+package app.nzyme.core.tables.dot11.monitoring;
+
+import com.google.auto.value.AutoValue;
+
+import java.util.List;
+
+@AutoValue
+public abstract class SSIDMatches {
+
+    public abstract List<SimilarSSIDMatch> similarSSIDs();
+    public abstract List<RestrictedSubstringMatch> restrictedSubstrings();
+
+    public static SSIDMatches create(List<SimilarSSIDMatch> similarSSIDs, List<RestrictedSubstringMatch> restrictedSubstrings) {
+        return builder()
+                .similarSSIDs(similarSSIDs)
+                .restrictedSubstrings(restrictedSubstrings)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_SSIDMatches.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder similarSSIDs(List<SimilarSSIDMatch> similarSSIDs);
+
+        public abstract Builder restrictedSubstrings(List<RestrictedSubstringMatch> restrictedSubstrings);
+
+        public abstract SSIDMatches build();
+    }
+
+}
@@ -0,0 +1,31 @@
+package app.nzyme.core.tables.dot11.monitoring;
+
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class SimilarSSIDMatch {
+
+    public abstract PreLoadedMonitoredSSID monitoredSSID();
+    public abstract double similarity();
+
+    public static SimilarSSIDMatch create(PreLoadedMonitoredSSID monitoredSSID, double similarity) {
+        return builder()
+                .monitoredSSID(monitoredSSID)
+                .similarity(similarity)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new AutoValue_SimilarSSIDMatch.Builder();
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+        public abstract Builder monitoredSSID(PreLoadedMonitoredSSID monitoredSSID);
+
+        public abstract Builder similarity(double similarity);
+
+        public abstract SimilarSSIDMatch build();
+    }
+
+}
@@ -0,0 +1,181 @@
+package app.nzyme.core.tables.dot11.monitoring;
+
+import app.nzyme.core.util.AhoCorasick;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import info.debatty.java.stringsimilarity.JaroWinkler;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Finds monitored SSIDs that an observed SSID looks similar to or contains a restricted substring of. Built once per
+ * {@link MonitoringSnapshot}, so every monitoring configuration change starts with a fresh matcher.
+ *
+ * Similarity is the Jaro-Winkler similarity of the lowercased SSIDs. Most candidates are ruled out with an upper bound
+ * of the similarity before it is computed: Jaro-Winkler can never be higher than what the lengths of both strings and
+ * the number of characters they have in common allow. Restricted substrings of all monitored SSIDs are found with a
+ * single Aho-Corasick pass.
+ *
+ * Results are memoized per SSID because the same SSIDs are reported over and over again.
+ */
+public class SimilarSSIDMatcher {
+
+    private static final int MEMO_MAX_SIZE = 25000;
+
+    /*
+     * The largest Winkler prefix boost of the JaroWinkler implementation we use: A common prefix of up to 4 characters,
+     * scaled by 0.1. Applied to the upper bound unconditionally, which keeps it an upper bound.
+     */
+    private static final double MAX_PREFIX_BOOST = 4 * 0.1;
+
+    // Guards the bound against floating point differences to the exact computation.
+    private static final double BOUND_TOLERANCE = 1e-9;
+
+    private final Set<String> monitoredSSIDNames;
+    private final List<Candidate> similarityCandidates;
+    private final AhoCorasick substringAutomaton;
+    private final ListMultimap<String, RestrictedSubstringMatch> substringMatches;
+
+    private final JaroWinkler jaroWinkler = new JaroWinkler();
+
+    private final Cache<String, SSIDMatches> memo;
+
+    public SimilarSSIDMatcher(Collection<PreLoadedMonitoredSSID> monitoredSSIDs) {
+        ImmutableList.Builder<Candidate> candidates = ImmutableList.builder();
+        ImmutableListMultimap.Builder<String, RestrictedSubstringMatch> substrings = ImmutableListMultimap.builder();
+
+        for (PreLoadedMonitoredSSID monitoredSSID : monitoredSSIDs) {
+            if (monitoredSSID.enabledSimilarLookingSSID()
+                    && monitoredSSID.detectionConfigSimilarLookingSSIDThreshold() != null) {
+                candidates.add(new Candidate(monitoredSSID));
+            }
+
+            if (monitoredSSID.enabledSSIDSubstring()) {
+                for (String substring : monitoredSSID.restrictedSubstrings()) {
+                    substrings.put(
+                            substring.toLowerCase(),
+                            RestrictedSubstringMatch.create(monitoredSSID, substring)
+                    );
+                }
+            }
+        }
+
+        this.monitoredSSIDNames = monitoredSSIDs.stream()
+                .map(PreLoadedMonitoredSSID::ssid)
+                .collect(ImmutableSet.toImmutableSet());
+        this.similarityCandidates = candidates.build();
+        this.substringMatches = substrings.build();
+        this.substringAutomaton = new AhoCorasick(substringMatches.keySet());
+
+        this.memo = CacheBuilder.newBuilder()
+                .maximumSize(MEMO_MAX_SIZE)
+                .build();
+    }
+
+    public SSIDMatches match(String ssid) {
+        try {
+            return memo.get(ssid, () -> computeMatches(ssid));
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Could not match SSID.", e.getCause());
+        }
+    }
+
+    private SSIDMatches computeMatches(String ssid) {
+        // Monitored SSIDs are considered trusted.
+        if (monitoredSSIDNames.contains(ssid)) {
+            return SSIDMatches.create(ImmutableList.of(), ImmutableList.of());
+        }
+
+        String lowercaseSSID = ssid.toLowerCase();
+        char[] sortedSSID = sortedCharacters(lowercaseSSID);
+
+        ImmutableList.Builder<SimilarSSIDMatch> similar = ImmutableList.builder();
+        for (Candidate candidate : similarityCandidates) {
+            double threshold = candidate.monitoredSSID.detectionConfigSimilarLookingSSIDThreshold();
+
+            // Length bound: There can't be more matching characters than characters in the shorter string.
+            int maxMatches = Math.min(lowercaseSSID.length(), candidate.lowercaseSSID.length());
+            if (upperBound(maxMatches, lowercaseSSID.length(), candidate.lowercaseSSID.length()) <= threshold) {
+                continue;
+            }
+
+            // Character bound: Every matching character must occur in both strings.
+            maxMatches = commonCharacters(sortedSSID, candidate.sortedCharacters);
+            if (upperBound(maxMatches, lowercaseSSID.length(), candidate.lowercaseSSID.length()) <= threshold) {
+                continue;
+            }
+
+            double similarity = jaroWinkler.similarity(candidate.lowercaseSSID, lowercaseSSID) * 100.0;
+            if (similarity > threshold) {
+                similar.add(SimilarSSIDMatch.create(candidate.monitoredSSID, similarity));
+            }
+        }
+
+        ImmutableList.Builder<RestrictedSubstringMatch> restricted = ImmutableList.builder();
+        for (String substring : substringAutomaton.findAll(lowercaseSSID)) {
+            restricted.addAll(substringMatches.get(substring));
+        }
+
+        return SSIDMatches.create(similar.build(), restricted.build());
+    }
+
+    /**
+     * @return Highest possible Jaro-Winkler similarity, scaled to 0-100, of two strings of the given lengths with at
+     *         most maxMatches matching characters.
+     */
+    static double upperBound(int maxMatches, int length1, int length2) {
+        if (maxMatches == 0) {
+            return 0;
+        }
+
+        double jaro = ((double) maxMatches / length1 + (double) maxMatches / length2 + 1.0) / 3.0;
+        return (jaro + MAX_PREFIX_BOOST * (1.0 - jaro)) * 100.0 + BOUND_TOLERANCE;
+    }
+
+    /**
+     * @return Size of the multiset intersection of two sorted character arrays.
+     */
+    static int commonCharacters(char[] a, char[] b) {
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return common;
+    }
+
+    private static char[] sortedCharacters(String s) {
+        char[] chars = s.toCharArray();
+        Arrays.sort(chars);
+        return chars;
+    }
+
+    private static final class Candidate {
+        private final PreLoadedMonitoredSSID monitoredSSID;
+        private final String lowercaseSSID;
+        private final char[] sortedCharacters;
+
+        private Candidate(PreLoadedMonitoredSSID monitoredSSID) {
+            this.monitoredSSID = monitoredSSID;
+            this.lowercaseSSID = monitoredSSID.ssid().toLowerCase();
+            this.sortedCharacters = sortedCharacters(lowercaseSSID);
+        }
+    }
+
+}
@@ -5,10 +5,14 @@ import app.nzyme.core.ethernet.EthernetRegistryKeys;
 import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelReport;
 import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelsReport;
 import app.nzyme.core.tables.DataTable;
+import app.nzyme.core.tables.OpenSessionIndex;
 import app.nzyme.core.tables.TablesService;
 import app.nzyme.core.util.MetricNames;
 import app.nzyme.core.util.Tools;
 import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.net.InetAddresses;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdbi.v3.core.Handle;
@@ -16,68 +20,122 @@ import org.jdbi.v3.core.statement.PreparedBatch;
 import org.joda.time.DateTime;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
 
 public class SOCKSTable implements DataTable {
 
     private static final Logger LOG = LogManager.getLogger(SOCKSTable.class);
 
+    private static final long OPEN_SESSION_INDEX_SIZE = 100_000;
+
     private final TablesService tablesService;
 
     private final Timer totalReportTimer;
 
+    private final OpenSessionIndex openSessions;
+
     public SOCKSTable(TablesService tablesService) {
         this.tablesService = tablesService;
+        this.openSessions = new OpenSessionIndex(OPEN_SESSION_INDEX_SIZE);
 
         this.totalReportTimer = tablesService.getNzyme().getMetrics()
                 .timer(MetricNames.SOCKS_TOTAL_REPORT_PROCESSING_TIMER);
     }
 
     public void handleReport(UUID tapUuid, DateTime timestamp, SocksTunnelsReport report) {
-        tablesService.getNzyme().getDatabase().useHandle(handle -> {
+        // Updates and inserts are written together or not at all.
+        tablesService.getNzyme().getDatabase().useHandle(h -> h.useTransaction(handle -> {
             try(Timer.Context ignored = totalReportTimer.time()) {
                 writeTunnels(handle, tapUuid, report.tunnels());
             }
-        });
+        }));
     }
 
     private void writeTunnels(Handle handle, UUID tapUuid, List<SocksTunnelReport> tunnels) {
-        PreparedBatch insertBatch = handle.prepareBatch("INSERT INTO socks_tunnels(uuid, tap_uuid, " +
-                "tcp_session_key, socks_type, authentication_status, handshake_status, connection_status, " +
-                "username, tunneled_bytes, tunneled_destination_address, tunneled_destination_host, " +
-                "tunneled_destination_port, established_at, terminated_at, most_recent_segment_time, " +
-                "updated_at, created_at) VALUES(:uuid, :tap_uuid, :tcp_session_key, :socks_type, " +
-                ":authentication_status, :handshake_status, :connection_status, :username, :tunneled_bytes, " +
-                ":tunneled_destination_address::inet, :tunneled_destination_host, :tunneled_destination_port, " +
-                ":established_at, :terminated_at, :most_recent_segment_time, NOW(), NOW())");
-
-        PreparedBatch updateBatch = handle.prepareBatch("UPDATE socks_tunnels SET " +
-                "authentication_status = :authentication_status, handshake_status = :handshake_status, " +
-                "connection_status = :connection_status, tunneled_bytes = :tunneled_bytes, " +
-                "terminated_at = :terminated_at, most_recent_segment_time = :most_recent_segment_time, " +
-                "updated_at = NOW() WHERE id = :id");
+        if (tunnels.isEmpty()) {
+            return;
+        }
 
+        // A tunnel can only be written once per report. Invalid tunnels are skipped and don't fail the report.
+        Map<String, SocksTunnelReport> byKey = Maps.newLinkedHashMap();
         for (SocksTunnelReport tunnel : tunnels) {
-            String tcpSessionKey = Tools.buildTcpSessionKey(
-                    tunnel.establishedAt(),
-                    tunnel.sourceAddress(),
-                    tunnel.destinationAddress(),
-                    tunnel.sourcePort(),
-                    tunnel.destinationPort());
-
-            Optional<Long> existingTunnel = handle.createQuery("SELECT id FROM socks_tunnels " +
-                            "WHERE tcp_session_key = :tcp_session_key AND established_at = :established_at " +
-                            "AND tap_uuid = :tap_uuid AND connection_status = :connection_status")
-                    .bind("tcp_session_key", tcpSessionKey)
-                    .bind("established_at", tunnel.establishedAt())
-                    .bind("tap_uuid", tapUuid)
-                    .bind("connection_status", "Active")
-                    .bind("most_recent_segment_time", tunnel.mostRecentSegmentTime())
-                    .mapTo(Long.class)
-                    .findOne();
-
-            if (existingTunnel.isEmpty()) {
+            try {
+                validate(tunnel);
+
+                byKey.put(Tools.buildTcpSessionKey(
+                        tunnel.establishedAt(),
+                        tunnel.sourceAddress(),
+                        tunnel.destinationAddress(),
+                        tunnel.sourcePort(),
+                        tunnel.destinationPort()), tunnel);
+            } catch (Exception e) {
+                LOG.error("Could not write SOCKS tunnel.", e);
+            }
+        }
+
+        if (byKey.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> existing = openSessions.resolve(tapUuid, byKey.keySet(),
+                tcpSessionKeys -> findActive(handle, tapUuid, tcpSessionKeys));
+
+        List<String> updateKeys = Lists.newArrayListWithCapacity(existing.size());
+        List<String> insertKeys = Lists.newArrayList();
+        for (String tcpSessionKey : byKey.keySet()) {
+            if (existing.containsKey(tcpSessionKey)) {
+                updateKeys.add(tcpSessionKey);
+            } else {
+                insertKeys.add(tcpSessionKey);
+            }
+        }
+
+        if (!updateKeys.isEmpty()) {
+            PreparedBatch updateBatch = handle.prepareBatch("UPDATE socks_tunnels SET " +
+                    "authentication_status = :authentication_status, handshake_status = :handshake_status, " +
+                    "connection_status = :connection_status, tunneled_bytes = :tunneled_bytes, " +
+                    "terminated_at = :terminated_at, most_recent_segment_time = :most_recent_segment_time, " +
+                    "updated_at = NOW() WHERE id = :id");
+
+            for (String tcpSessionKey : updateKeys) {
+                SocksTunnelReport tunnel = byKey.get(tcpSessionKey);
+                updateBatch
+                        .bind("authentication_status", tunnel.authenticationStatus())
+                        .bind("handshake_status", tunnel.handshakeStatus())
+                        .bind("connection_status", tunnel.connectionStatus())
+                        .bind("tunneled_bytes", tunnel.tunneledBytes())
+                        .bind("terminated_at", tunnel.terminatedAt())
+                        .bind("most_recent_segment_time", tunnel.mostRecentSegmentTime())
+                        .bind("id", existing.get(tcpSessionKey))
+                        .add();
+            }
+
+            int[] updated = updateBatch.execute();
+            for (int i = 0; i < updated.length; i++) {
+                String tcpSessionKey = updateKeys.get(i);
+                if (updated[i] == 0) {
+                    // Deleted by retention cleaning. Write it again.
+                    openSessions.remove(tapUuid, tcpSessionKey);
+                    insertKeys.add(tcpSessionKey);
+                } else if (!isActive(byKey.get(tcpSessionKey).connectionStatus())) {
+                    openSessions.remove(tapUuid, tcpSessionKey);
+                }
+            }
+        }
+
+        if (!insertKeys.isEmpty()) {
+            PreparedBatch insertBatch = handle.prepareBatch("INSERT INTO socks_tunnels(uuid, tap_uuid, " +
+                    "tcp_session_key, socks_type, authentication_status, handshake_status, connection_status, " +
+                    "username, tunneled_bytes, tunneled_destination_address, tunneled_destination_host, " +
+                    "tunneled_destination_port, established_at, terminated_at, most_recent_segment_time, " +
+                    "updated_at, created_at) VALUES(:uuid, :tap_uuid, :tcp_session_key, :socks_type, " +
+                    ":authentication_status, :handshake_status, :connection_status, :username, :tunneled_bytes, " +
+                    ":tunneled_destination_address::inet, :tunneled_destination_host, :tunneled_destination_port, " +
+                    ":established_at, :terminated_at, :most_recent_segment_time, NOW(), NOW())");
+
+            for (String tcpSessionKey : insertKeys) {
+                SocksTunnelReport tunnel = byKey.get(tcpSessionKey);
                 insertBatch
                         .bind("uuid", UUID.randomUUID())
                         .bind("tap_uuid", tapUuid)
@@ -95,22 +153,49 @@ public class SOCKSTable implements DataTable {
                         .bind("terminated_at", tunnel.terminatedAt())
                         .bind("most_recent_segment_time", tunnel.mostRecentSegmentTime())
                         .add();
-            } else {
-                // Update existing open tunnel.
-                updateBatch
-                        .bind("id", existingTunnel.get())
-                        .bind("authentication_status", tunnel.authenticationStatus())
-                        .bind("handshake_status", tunnel.handshakeStatus())
-                        .bind("connection_status", tunnel.connectionStatus())
-                        .bind("tunneled_bytes", tunnel.tunneledBytes())
-                        .bind("terminated_at", tunnel.terminatedAt())
-                        .bind("most_recent_segment_time", tunnel.mostRecentSegmentTime())
-                        .add();
             }
+
+            insertBatch.executePreparedBatch("id", "tcp_session_key")
+                    .map((rs, ctx) -> Maps.immutableEntry(rs.getString("tcp_session_key"), rs.getLong("id")))
+                    .forEach(e -> {
+                        if (isActive(byKey.get(e.getKey()).connectionStatus())) {
+                            openSessions.put(tapUuid, e.getKey(), e.getValue());
+                        }
+                    });
+        }
+    }
+
+    private static void validate(SocksTunnelReport tunnel) {
+        if (!InetAddresses.isInetAddress(tunnel.sourceAddress())
+                || !InetAddresses.isInetAddress(tunnel.destinationAddress())) {
+            throw new IllegalArgumentException("Invalid address in SOCKS tunnel [" + tunnel.sourceAddress() + ":"
+                    + tunnel.sourcePort() + " -> " + tunnel.destinationAddress() + ":"
+                    + tunnel.destinationPort() + "].");
         }
 
-        insertBatch.execute();
-        updateBatch.execute();
+        if (tunnel.tunneledDestinationAddress() != null
+                && !InetAddresses.isInetAddress(tunnel.tunneledDestinationAddress())) {
+            throw new IllegalArgumentException("Invalid tunneled destination address ["
+                    + tunnel.tunneledDestinationAddress() + "].");
+        }
+    }
+
+    private Map<String, Long> findActive(Handle handle, UUID tapUuid, List<String> tcpSessionKeys) {
+        Map<String, Long> ids = Maps.newHashMapWithExpectedSize(tcpSessionKeys.size());
+        handle.createQuery("SELECT id, tcp_session_key FROM socks_tunnels " +
+                        "WHERE tap_uuid = :tap_uuid AND connection_status = :connection_status " +
+                        "AND tcp_session_key IN (<tcp_session_keys>)")
+                .bind("tap_uuid", tapUuid)
+                .bind("connection_status", "Active")
+                .bindList("tcp_session_keys", tcpSessionKeys)
+                .map((rs, ctx) -> Maps.immutableEntry(rs.getString("tcp_session_key"), rs.getLong("id")))
+                .forEach(e -> ids.put(e.getKey(), e.getValue()));
+
+        return ids;
+    }
+
+    private static boolean isActive(String connectionStatus) {
+        return "Active".equals(connectionStatus);
     }
 
     @Override
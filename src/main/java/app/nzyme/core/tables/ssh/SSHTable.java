@@ -5,10 +5,14 @@ import app.nzyme.core.ethernet.EthernetRegistryKeys;
 import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionReport;
 import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionsReport;
 import app.nzyme.core.tables.DataTable;
+import app.nzyme.core.tables.OpenSessionIndex;
 import app.nzyme.core.tables.TablesService;
 import app.nzyme.core.util.MetricNames;
 import app.nzyme.core.util.Tools;
 import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.net.InetAddresses;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdbi.v3.core.Handle;
@@ -16,67 +20,119 @@ import org.jdbi.v3.core.statement.PreparedBatch;
 import org.joda.time.DateTime;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
 
 public class SSHTable implements DataTable {
 
     private static final Logger LOG = LogManager.getLogger(SSHTable.class);
 
+    private static final long OPEN_SESSION_INDEX_SIZE = 100_000;
+
     private final TablesService tablesService;
 
     private final Timer totalReportTimer;
 
+    private final OpenSessionIndex openSessions;
+
     public SSHTable(TablesService tablesService) {
         this.tablesService = tablesService;
+        this.openSessions = new OpenSessionIndex(OPEN_SESSION_INDEX_SIZE);
 
         this.totalReportTimer = tablesService.getNzyme().getMetrics()
                 .timer(MetricNames.SSH_TOTAL_REPORT_PROCESSING_TIMER);
     }
 
     public void handleReport(UUID tapUuid, DateTime timestamp, SshSessionsReport report) {
-        tablesService.getNzyme().getDatabase().useHandle(handle -> {
+        // Updates and inserts are written together or not at all.
+        tablesService.getNzyme().getDatabase().useHandle(h -> h.useTransaction(handle -> {
             try(Timer.Context ignored = totalReportTimer.time()) {
                 writeSessions(handle, tapUuid, report.sessions());
             }
-        });
+        }));
     }
 
     private void writeSessions(Handle handle, UUID tapUuid, List<SshSessionReport> sessions) {
-        PreparedBatch insertBatch = handle.prepareBatch("INSERT INTO ssh_sessions(uuid, tap_uuid, " +
-                "tcp_session_key, client_version_version, client_version_software, client_version_comments, " +
-                "server_version_version, server_version_software, server_version_comments, connection_status, " +
-                "tunneled_bytes, established_at, terminated_at, most_recent_segment_time, updated_at, created_at) " +
-                "VALUES(:uuid, :tap_uuid, :tcp_session_key, :client_version_version, :client_version_software, " +
-                ":client_version_comments, :server_version_version, :server_version_software, " +
-                ":server_version_comments, :connection_status, :tunneled_bytes, :established_at, :terminated_at, " +
-                ":most_recent_segment_time, NOW(), NOW())");
-
-        PreparedBatch updateBatch = handle.prepareBatch("UPDATE ssh_sessions " +
-                "SET connection_status = :connection_status, tunneled_bytes = :tunneled_bytes, " +
-                "terminated_at = :terminated_at, most_recent_segment_time = :most_recent_segment_time, " +
-                "updated_at = NOW() WHERE id = :id");
+        if (sessions.isEmpty()) {
+            return;
+        }
 
+        // A session can only be written once per report. Invalid sessions are skipped and don't fail the report.
+        Map<String, SshSessionReport> byKey = Maps.newLinkedHashMap();
         for (SshSessionReport session : sessions) {
-            String tcpSessionKey = Tools.buildTcpSessionKey(
-                    session.establishedAt(),
-                    session.sourceAddress(),
-                    session.destinationAddress(),
-                    session.sourcePort(),
-                    session.destinationPort());
-
-            Optional<Long> existingSession = handle.createQuery("SELECT id FROM ssh_sessions " +
-                            "WHERE tcp_session_key = :tcp_session_key AND established_at = :established_at " +
-                            "AND tap_uuid = :tap_uuid AND connection_status = :connection_status")
-                    .bind("tcp_session_key", tcpSessionKey)
-                    .bind("established_at", session.establishedAt())
-                    .bind("tap_uuid", tapUuid)
-                    .bind("connection_status", "Active")
-                    .bind("most_recent_segment_time", session.mostRecentSegmentTime())
-                    .mapTo(Long.class)
-                    .findOne();
-
-            if (existingSession.isEmpty()) {
+            try {
+                validate(session);
+
+                byKey.put(Tools.buildTcpSessionKey(
+                        session.establishedAt(),
+                        session.sourceAddress(),
+                        session.destinationAddress(),
+                        session.sourcePort(),
+                        session.destinationPort()), session);
+            } catch (Exception e) {
+                LOG.error("Could not write SSH session.", e);
+            }
+        }
+
+        if (byKey.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> existing = openSessions.resolve(tapUuid, byKey.keySet(),
+                tcpSessionKeys -> findActive(handle, tapUuid, tcpSessionKeys));
+
+        List<String> updateKeys = Lists.newArrayListWithCapacity(existing.size());
+        List<String> insertKeys = Lists.newArrayList();
+        for (String tcpSessionKey : byKey.keySet()) {
+            if (existing.containsKey(tcpSessionKey)) {
+                updateKeys.add(tcpSessionKey);
+            } else {
+                insertKeys.add(tcpSessionKey);
+            }
+        }
+
+        if (!updateKeys.isEmpty()) {
+            PreparedBatch updateBatch = handle.prepareBatch("UPDATE ssh_sessions " +
+                    "SET connection_status = :connection_status, tunneled_bytes = :tunneled_bytes, " +
+                    "terminated_at = :terminated_at, most_recent_segment_time = :most_recent_segment_time, " +
+                    "updated_at = NOW() WHERE id = :id");
+
+            for (String tcpSessionKey : updateKeys) {
+                SshSessionReport session = byKey.get(tcpSessionKey);
+                updateBatch
+                        .bind("connection_status", session.connectionStatus())
+                        .bind("tunneled_bytes", session.tunneledBytes())
+                        .bind("terminated_at", session.terminatedAt())
+                        .bind("most_recent_segment_time", session.mostRecentSegmentTime())
+                        .bind("id", existing.get(tcpSessionKey))
+                        .add();
+            }
+
+            int[] updated = updateBatch.execute();
+            for (int i = 0; i < updated.length; i++) {
+                String tcpSessionKey = updateKeys.get(i);
+                if (updated[i] == 0) {
+                    // Deleted by retention cleaning. Write it again.
+                    openSessions.remove(tapUuid, tcpSessionKey);
+                    insertKeys.add(tcpSessionKey);
+                } else if (!isActive(byKey.get(tcpSessionKey).connectionStatus())) {
+                    openSessions.remove(tapUuid, tcpSessionKey);
+                }
+            }
+        }
+
+        if (!insertKeys.isEmpty()) {
+            PreparedBatch insertBatch = handle.prepareBatch("INSERT INTO ssh_sessions(uuid, tap_uuid, " +
+                    "tcp_session_key, client_version_version, client_version_software, client_version_comments, " +
+                    "server_version_version, server_version_software, server_version_comments, connection_status, " +
+                    "tunneled_bytes, established_at, terminated_at, most_recent_segment_time, updated_at, created_at) " +
+                    "VALUES(:uuid, :tap_uuid, :tcp_session_key, :client_version_version, :client_version_software, " +
+                    ":client_version_comments, :server_version_version, :server_version_software, " +
+                    ":server_version_comments, :connection_status, :tunneled_bytes, :established_at, :terminated_at, " +
+                    ":most_recent_segment_time, NOW(), NOW())");
+
+            for (String tcpSessionKey : insertKeys) {
+                SshSessionReport session = byKey.get(tcpSessionKey);
                 insertBatch
                         .bind("uuid", UUID.randomUUID())
                         .bind("tap_uuid", tapUuid)
@@ -93,20 +149,43 @@ public class SSHTable implements DataTable {
                         .bind("terminated_at", session.terminatedAt())
                         .bind("most_recent_segment_time", session.mostRecentSegmentTime())
                         .add();
-            } else {
-                // Update existing open SSH session.
-                updateBatch
-                        .bind("connection_status", session.connectionStatus())
-                        .bind("tunneled_bytes", session.tunneledBytes())
-                        .bind("terminated_at", session.terminatedAt())
-                        .bind("most_recent_segment_time", session.mostRecentSegmentTime())
-                        .bind("id", existingSession)
-                        .add();
             }
+
+            insertBatch.executePreparedBatch("id", "tcp_session_key")
+                    .map((rs, ctx) -> Maps.immutableEntry(rs.getString("tcp_session_key"), rs.getLong("id")))
+                    .forEach(e -> {
+                        if (isActive(byKey.get(e.getKey()).connectionStatus())) {
+                            openSessions.put(tapUuid, e.getKey(), e.getValue());
+                        }
+                    });
+        }
+    }
+
+    private static void validate(SshSessionReport session) {
+        if (!InetAddresses.isInetAddress(session.sourceAddress())
+                || !InetAddresses.isInetAddress(session.destinationAddress())) {
+            throw new IllegalArgumentException("Invalid address in SSH session [" + session.sourceAddress() + ":"
+                    + session.sourcePort() + " -> " + session.destinationAddress() + ":"
+                    + session.destinationPort() + "].");
         }
+    }
+
+    private Map<String, Long> findActive(Handle handle, UUID tapUuid, List<String> tcpSessionKeys) {
+        Map<String, Long> ids = Maps.newHashMapWithExpectedSize(tcpSessionKeys.size());
+        handle.createQuery("SELECT id, tcp_session_key FROM ssh_sessions " +
+                        "WHERE tap_uuid = :tap_uuid AND connection_status = :connection_status " +
+                        "AND tcp_session_key IN (<tcp_session_keys>)")
+                .bind("tap_uuid", tapUuid)
+                .bind("connection_status", "Active")
+                .bindList("tcp_session_keys", tcpSessionKeys)
+                .map((rs, ctx) -> Maps.immutableEntry(rs.getString("tcp_session_key"), rs.getLong("id")))
+                .forEach(e -> ids.put(e.getKey(), e.getValue()));
+
+        return ids;
+    }
 
-        insertBatch.execute();
-        updateBatch.execute();
+    private static boolean isActive(String connectionStatus) {
+        return "Active".equals(connectionStatus);
     }
 
     @Override
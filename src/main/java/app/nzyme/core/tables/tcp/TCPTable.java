@@ -3,24 +3,30 @@ package app.nzyme.core.tables.tcp;
 import app.nzyme.core.NzymeNode;
 import app.nzyme.core.ethernet.EthernetRegistryKeys;
 import app.nzyme.core.ethernet.tcp.TcpSessionState;
-import app.nzyme.core.ethernet.tcp.db.TcpSessionEntry;
 import app.nzyme.core.integrations.geoip.GeoIpLookupResult;
 import app.nzyme.core.integrations.geoip.GeoIpService;
 import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionReport;
 import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionsReport;
 import app.nzyme.core.tables.DataTable;
+import app.nzyme.core.tables.OpenSessionIndex;
 import app.nzyme.core.tables.TablesService;
 import app.nzyme.core.util.MetricNames;
 import app.nzyme.core.util.Tools;
 import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.net.InetAddresses;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.statement.PreparedBatch;
 import org.joda.time.DateTime;
 
 import java.net.InetAddress;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
 
 import static app.nzyme.core.util.Tools.stringtoInetAddress;
 
@@ -28,6 +34,8 @@ public class TCPTable implements DataTable {
 
     private static final Logger LOG = LogManager.getLogger(TCPTable.class);
 
+    private static final long OPEN_SESSION_INDEX_SIZE = 100_000;
+
     private final TablesService tablesService;
 
     private final Timer totalReportTimer;
@@ -36,8 +44,11 @@ public class TCPTable implements DataTable {
 
     private final GeoIpService geoIp;
 
+    private final OpenSessionIndex openSessions;
+
     public TCPTable(TablesService tablesService) {
         this.tablesService = tablesService;
+        this.openSessions = new OpenSessionIndex(OPEN_SESSION_INDEX_SIZE);
 
         this.geoIp = tablesService.getNzyme().getGeoIpService();
 
@@ -54,139 +65,228 @@ public class TCPTable implements DataTable {
     public void handleReport(UUID tapUuid, DateTime timestamp, TcpSessionsReport report) {
         try (Timer.Context ignored = totalReportTimer.time()) {
             try (Timer.Context ignored2 = sessionsReportTimer.time()) {
-                CountDownLatch latch = new CountDownLatch(report.sessions().size());
-                for (TcpSessionReport session : report.sessions()) {
-                    tablesService.getProcessorPool().submit(() -> {
-                        writeSession(tapUuid, timestamp, session);
+                writeSessions(tapUuid, timestamp, report.sessions());
+            } catch (Exception e) {
+                LOG.error("Could not write TCP sessions.", e);
+            }
+        }
+    }
 
-                        latch.countDown();
-                    });
-                }
+    private void writeSessions(UUID tapUuid, DateTime timestamp, List<TcpSessionReport> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+
+        // A session can only be written once per report. Invalid sessions are skipped and don't fail the report.
+        Map<String, TcpSessionReport> sessions = Maps.newLinkedHashMap();
+        for (TcpSessionReport session : reports) {
+            try {
+                validate(session);
+
+                sessions.put(Tools.buildTcpSessionKey(
+                        session.startTime(),
+                        session.sourceAddress(),
+                        session.destinationAddress(),
+                        session.sourcePort(),
+                        session.destinationPort()
+                ), session);
+            } catch (Exception e) {
+                LOG.error("Could not write TCP session.", e);
+            }
+        }
+
+        if (sessions.isEmpty()) {
+            return;
+        }
+
+        /*
+         * Updates and inserts are written together or not at all. The open session index is not rolled back, but a
+         * stale entry only causes a re-insert on the next report.
+         */
+        tablesService.getNzyme().getDatabase().useHandle(h -> h.useTransaction(handle -> {
+            Map<String, Long> existing;
+            try (Timer.Context ignored = sessionDiscoveryTimer.time()) {
+                existing = openSessions.resolve(tapUuid, sessions.keySet(),
+                        sessionKeys -> findOpenSessions(handle, tapUuid, sessionKeys));
+            }
 
-                try {
-                    latch.await();
-                } catch (InterruptedException e) {
-                    LOG.error("TCP sessions writer process interrupted.", e);
+            List<String> newSessions = Lists.newArrayList();
+            for (String sessionKey : sessions.keySet()) {
+                if (!existing.containsKey(sessionKey)) {
+                    newSessions.add(sessionKey);
                 }
             }
+
+            if (!existing.isEmpty()) {
+                newSessions.addAll(updateSessions(handle, tapUuid, sessions, existing));
+            }
+
+            if (!newSessions.isEmpty()) {
+                insertSessions(handle, tapUuid, timestamp, sessions, newSessions);
+            }
+        }));
+    }
+
+    private static void validate(TcpSessionReport session) {
+        TcpSessionState.valueOf(session.state().toUpperCase());
+
+        if (!InetAddresses.isInetAddress(session.sourceAddress())
+                || !InetAddresses.isInetAddress(session.destinationAddress())) {
+            throw new IllegalArgumentException("Invalid address in TCP session [" + session.sourceAddress() + ":"
+                    + session.sourcePort() + " -> " + session.destinationAddress() + ":"
+                    + session.destinationPort() + "].");
+        }
+    }
+
+    private Map<String, Long> findOpenSessions(Handle handle, UUID tapUuid, List<String> sessionKeys) {
+        Map<String, Long> ids = Maps.newHashMapWithExpectedSize(sessionKeys.size());
+        handle.createQuery("SELECT id, session_key FROM l4_sessions " +
+                        "WHERE tap_uuid = :tap_uuid AND end_time IS NULL AND session_key IN (<session_keys>)")
+                .bind("tap_uuid", tapUuid)
+                .bindList("session_keys", sessionKeys)
+                .map((rs, ctx) -> Maps.immutableEntry(rs.getString("session_key"), rs.getLong("id")))
+                .forEach(e -> ids.put(e.getKey(), e.getValue()));
+
+        return ids;
+    }
+
+    /**
+     * @return Keys of sessions that were in the index but no longer in the database and have to be inserted again.
+     */
+    private List<String> updateSessions(Handle handle,
+                                        UUID tapUuid,
+                                        Map<String, TcpSessionReport> sessions,
+                                        Map<String, Long> existing) {
+        PreparedBatch batch = handle.prepareBatch("UPDATE l4_sessions SET state = :state, " +
+                "bytes_count = :bytes_count, segments_count = :segments_count, " +
+                "end_time = :end_time, most_recent_segment_time = :most_recent_segment_time " +
+                "WHERE id = :id");
+
+        List<String> sessionKeys = Lists.newArrayListWithCapacity(existing.size());
+        for (Map.Entry<String, Long> id : existing.entrySet()) {
+            TcpSessionReport session = sessions.get(id.getKey());
+            batch.bind("state", TcpSessionState.valueOf(session.state().toUpperCase()))
+                    .bind("bytes_count", session.bytesCount())
+                    .bind("segments_count", session.segmentsCount())
+                    .bind("end_time", session.endTime())
+                    .bind("most_recent_segment_time", session.mostRecentSegmentTime())
+                    .bind("id", id.getValue())
+                    .add();
+
+            sessionKeys.add(id.getKey());
+        }
+
+        int[] updated = batch.execute();
+
+        List<String> missing = Lists.newArrayList();
+        for (int i = 0; i < updated.length; i++) {
+            String sessionKey = sessionKeys.get(i);
+            if (updated[i] == 0) {
+                // Deleted by retention cleaning or another process.
+                openSessions.remove(tapUuid, sessionKey);
+                missing.add(sessionKey);
+            } else if (sessions.get(sessionKey).endTime() != null) {
+                // Ended sessions are never updated again.
+                openSessions.remove(tapUuid, sessionKey);
+            }
         }
+
+        return missing;
     }
 
-    private void writeSession(UUID tapUuid, DateTime timestamp, TcpSessionReport session) {
-        try {
-            String sessionKey = Tools.buildTcpSessionKey(
-                    session.startTime(),
-                    session.sourceAddress(),
-                    session.destinationAddress(),
-                    session.sourcePort(),
-                    session.destinationPort()
-            );
+    private void insertSessions(Handle handle,
+                                UUID tapUuid,
+                                DateTime timestamp,
+                                Map<String, TcpSessionReport> sessions,
+                                List<String> sessionKeys) {
+        PreparedBatch batch = handle.prepareBatch("INSERT INTO l4_sessions(tap_uuid, l4_type, session_key, " +
+                "source_mac, source_address, source_address_is_site_local, " +
+                "source_address_is_loopback, source_address_is_multicast, source_port, " +
+                "destination_mac, destination_address, destination_address_is_site_local, " +
+                "destination_address_is_loopback, destination_address_is_multicast," +
+                " destination_port, bytes_count, segments_count, " +
+                "start_time, end_time, most_recent_segment_time, state, " +
+                "source_address_geo_asn_number, source_address_geo_asn_name, " +
+                "source_address_geo_asn_domain, source_address_geo_city, " +
+                "source_address_geo_country_code, " +
+                "source_address_geo_latitude, source_address_geo_longitude, " +
+                "destination_address_geo_asn_number, destination_address_geo_asn_name, " +
+                "destination_address_geo_asn_domain, destination_address_geo_city, " +
+                "destination_address_geo_country_code, " +
+                "destination_address_geo_latitude, destination_address_geo_longitude, " +
+                "created_at) VALUES(:tap_uuid, :l4_type, :session_key, :source_mac, " +
+                ":source_address::inet, " +
+                ":source_address_is_site_local, :source_address_is_loopback, " +
+                ":source_address_is_multicast, :source_port, :destination_mac, " +
+                ":destination_address::inet, :destination_address_is_site_local, " +
+                ":destination_address_is_loopback, :destination_address_is_multicast, " +
+                ":destination_port, :bytes_count, :segments_count, :start_time, " +
+                ":end_time, :most_recent_segment_time, :state, " +
+                ":source_address_geo_asn_number, :source_address_geo_asn_name, " +
+                ":source_address_geo_asn_domain, :source_address_geo_city, " +
+                ":source_address_geo_country_code, " +
+                ":source_address_geo_latitude, :source_address_geo_longitude, " +
+                ":destination_address_geo_asn_number, :destination_address_geo_asn_name, " +
+                ":destination_address_geo_asn_domain, :destination_address_geo_city, " +
+                ":destination_address_geo_country_code, " +
+                ":destination_address_geo_latitude, :destination_address_geo_longitude, " +
+                ":created_at)");
 
+        for (String sessionKey : sessionKeys) {
+            TcpSessionReport session = sessions.get(sessionKey);
+
+            // Only new sessions are enriched. The addresses of a session never change.
             InetAddress sourceAddress = stringtoInetAddress(session.sourceAddress());
             InetAddress destinationAddress = stringtoInetAddress(session.destinationAddress());
             Optional<GeoIpLookupResult> sourceGeo = geoIp.lookup(sourceAddress);
             Optional<GeoIpLookupResult> destinationGeo = geoIp.lookup(destinationAddress);
 
-            tablesService.getNzyme().getDatabase().useHandle(handle -> {
-                Optional<TcpSessionEntry> existingSession;
-                try (Timer.Context ignored = sessionDiscoveryTimer.time()) {
-                    existingSession = handle.createQuery("SELECT * FROM l4_sessions " +
-                                    "WHERE session_key = :session_key AND end_time IS NULL AND tap_uuid = :tap_uuid")
-                            .bind("session_key", sessionKey)
-                            .bind("tap_uuid", tapUuid)
-                            .mapTo(TcpSessionEntry.class)
-                            .findOne();
-                }
-
-                if (existingSession.isPresent()) {
-                    // Existing session. Update.
-                    handle.createUpdate("UPDATE l4_sessions SET state = :state, " +
-                                    "bytes_count = :bytes_count, segments_count = :segments_count, " +
-                                    "end_time = :end_time, most_recent_segment_time = :most_recent_segment_time " +
-                                    "WHERE id = :id")
-                            .bind("state", TcpSessionState.valueOf(session.state().toUpperCase()))
-                            .bind("bytes_count", session.bytesCount())
-                            .bind("segments_count", session.segmentsCount())
-                            .bind("end_time", session.endTime())
-                            .bind("most_recent_segment_time", session.mostRecentSegmentTime())
-                            .bind("id", existingSession.get().id())
-                            .execute();
-                } else {
-                    // This is a new session.
-                    handle.createUpdate("INSERT INTO l4_sessions(tap_uuid, l4_type, session_key, " +
-                                    "source_mac, source_address, source_address_is_site_local, " +
-                                    "source_address_is_loopback, source_address_is_multicast, source_port, " +
-                                    "destination_mac, destination_address, destination_address_is_site_local, " +
-                                    "destination_address_is_loopback, destination_address_is_multicast," +
-                                    " destination_port, bytes_count, segments_count, " +
-                                    "start_time, end_time, most_recent_segment_time, state, " +
-                                    "source_address_geo_asn_number, source_address_geo_asn_name, " +
-                                    "source_address_geo_asn_domain, source_address_geo_city, " +
-                                    "source_address_geo_country_code, " +
-                                    "source_address_geo_latitude, source_address_geo_longitude, " +
-                                    "destination_address_geo_asn_number, destination_address_geo_asn_name, " +
-                                    "destination_address_geo_asn_domain, destination_address_geo_city, " +
-                                    "destination_address_geo_country_code, " +
-                                    "destination_address_geo_latitude, destination_address_geo_longitude, " +
-                                    "created_at) VALUES(:tap_uuid, :l4_type, :session_key, :source_mac, " +
-                                    ":source_address::inet, " +
-                                    ":source_address_is_site_local, :source_address_is_loopback, " +
-                                    ":source_address_is_multicast, :source_port, :destination_mac, " +
-                                    ":destination_address::inet, :destination_address_is_site_local, " +
-                                    ":destination_address_is_loopback, :destination_address_is_multicast, " +
-                                    ":destination_port, :bytes_count, :segments_count, :start_time, " +
-                                    ":end_time, :most_recent_segment_time, :state, " +
-                                    ":source_address_geo_asn_number, :source_address_geo_asn_name, " +
-                                    ":source_address_geo_asn_domain, :source_address_geo_city, " +
-                                    ":source_address_geo_country_code, " +
-                                    ":source_address_geo_latitude, :source_address_geo_longitude, " +
-                                    ":destination_address_geo_asn_number, :destination_address_geo_asn_name, " +
-                                    ":destination_address_geo_asn_domain, :destination_address_geo_city, " +
-                                    ":destination_address_geo_country_code, " +
-                                    ":destination_address_geo_latitude, :destination_address_geo_longitude, " +
-                                    ":created_at)")
-                            .bind("tap_uuid", tapUuid)
-                            .bind("l4_type", "TCP")
-                            .bind("session_key", sessionKey)
-                            .bind("source_mac", session.sourceMac())
-                            .bind("source_address", session.sourceAddress())
-                            .bind("source_address_is_site_local", sourceAddress.isSiteLocalAddress())
-                            .bind("source_address_is_loopback", sourceAddress.isLoopbackAddress())
-                            .bind("source_address_is_multicast", sourceAddress.isMulticastAddress())
-                            .bind("source_port", session.sourcePort())
-                            .bind("destination_mac", session.destinationMac())
-                            .bind("destination_address", session.destinationAddress())
-                            .bind("destination_address_is_site_local", destinationAddress.isSiteLocalAddress())
-                            .bind("destination_address_is_loopback", destinationAddress.isLoopbackAddress())
-                            .bind("destination_address_is_multicast", destinationAddress.isMulticastAddress())
-                            .bind("destination_port", session.destinationPort())
-                            .bind("bytes_count", session.bytesCount())
-                            .bind("segments_count", session.segmentsCount())
-                            .bind("start_time", session.startTime())
-                            .bind("end_time", session.endTime())
-                            .bind("most_recent_segment_time", session.mostRecentSegmentTime())
-                            .bind("state", TcpSessionState.valueOf(session.state().toUpperCase()))
-                            .bind("source_address_geo_asn_number", sourceGeo.map(g -> g.asn().number()).orElse(null))
-                            .bind("source_address_geo_asn_name", sourceGeo.map(g -> g.asn().name()).orElse(null))
-                            .bind("source_address_geo_asn_domain", sourceGeo.map(g -> g.asn().domain()).orElse(null))
-                            .bind("source_address_geo_city", sourceGeo.map(g -> g.geo().city()).orElse(null))
-                            .bind("source_address_geo_country_code", sourceGeo.map(g -> g.geo().countryCode()).orElse(null))
-                            .bind("source_address_geo_latitude", sourceGeo.map(g -> g.geo().latitude()).orElse(null))
-                            .bind("source_address_geo_longitude", sourceGeo.map(g -> g.geo().longitude()).orElse(null))
-                            .bind("destination_address_geo_asn_number", destinationGeo.map(g -> g.asn().number()).orElse(null))
-                            .bind("destination_address_geo_asn_name", destinationGeo.map(g -> g.asn().name()).orElse(null))
-                            .bind("destination_address_geo_asn_domain", destinationGeo.map(g -> g.asn().domain()).orElse(null))
-                            .bind("destination_address_geo_city", destinationGeo.map(g -> g.geo().city()).orElse(null))
-                            .bind("destination_address_geo_country_code", destinationGeo.map(g -> g.geo().countryCode()).orElse(null))
-                            .bind("destination_address_geo_latitude", destinationGeo.map(g -> g.geo().latitude()).orElse(null))
-                            .bind("destination_address_geo_longitude", destinationGeo.map(g -> g.geo().longitude()).orElse(null))
-                            .bind("created_at", timestamp)
-                            .execute();
-                }
-            });
-        } catch(Exception e) {
-            LOG.error("Could not write TCP session.", e);
+            batch.bind("tap_uuid", tapUuid)
+                    .bind("l4_type", "TCP")
+                    .bind("session_key", sessionKey)
+                    .bind("source_mac", session.sourceMac())
+                    .bind("source_address", session.sourceAddress())
+                    .bind("source_address_is_site_local", sourceAddress.isSiteLocalAddress())
+                    .bind("source_address_is_loopback", sourceAddress.isLoopbackAddress())
+                    .bind("source_address_is_multicast", sourceAddress.isMulticastAddress())
+                    .bind("source_port", session.sourcePort())
+                    .bind("destination_mac", session.destinationMac())
+                    .bind("destination_address", session.destinationAddress())
+                    .bind("destination_address_is_site_local", destinationAddress.isSiteLocalAddress())
+                    .bind("destination_address_is_loopback", destinationAddress.isLoopbackAddress())
+                    .bind("destination_address_is_multicast", destinationAddress.isMulticastAddress())
+                    .bind("destination_port", session.destinationPort())
+                    .bind("bytes_count", session.bytesCount())
+                    .bind("segments_count", session.segmentsCount())
+                    .bind("start_time", session.startTime())
+                    .bind("end_time", session.endTime())
+                    .bind("most_recent_segment_time", session.mostRecentSegmentTime())
+                    .bind("state", TcpSessionState.valueOf(session.state().toUpperCase()))
+                    .bind("source_address_geo_asn_number", sourceGeo.map(g -> g.asn().number()).orElse(null))
+                    .bind("source_address_geo_asn_name", sourceGeo.map(g -> g.asn().name()).orElse(null))
+                    .bind("source_address_geo_asn_domain", sourceGeo.map(g -> g.asn().domain()).orElse(null))
+                    .bind("source_address_geo_city", sourceGeo.map(g -> g.geo().city()).orElse(null))
+                    .bind("source_address_geo_country_code", sourceGeo.map(g -> g.geo().countryCode()).orElse(null))
+                    .bind("source_address_geo_latitude", sourceGeo.map(g -> g.geo().latitude()).orElse(null))
+                    .bind("source_address_geo_longitude", sourceGeo.map(g -> g.geo().longitude()).orElse(null))
+                    .bind("destination_address_geo_asn_number", destinationGeo.map(g -> g.asn().number()).orElse(null))
+                    .bind("destination_address_geo_asn_name", destinationGeo.map(g -> g.asn().name()).orElse(null))
+                    .bind("destination_address_geo_asn_domain", destinationGeo.map(g -> g.asn().domain()).orElse(null))
+                    .bind("destination_address_geo_city", destinationGeo.map(g -> g.geo().city()).orElse(null))
+                    .bind("destination_address_geo_country_code", destinationGeo.map(g -> g.geo().countryCode()).orElse(null))
+                    .bind("destination_address_geo_latitude", destinationGeo.map(g -> g.geo().latitude()).orElse(null))
+                    .bind("destination_address_geo_longitude", destinationGeo.map(g -> g.geo().longitude()).orElse(null))
+                    .bind("created_at", timestamp)
+                    .add();
         }
+
+        batch.executePreparedBatch("id", "session_key")
+                .map((rs, ctx) -> Maps.immutableEntry(rs.getString("session_key"), rs.getLong("id")))
+                .forEach(e -> {
+                    if (sessions.get(e.getKey()).endTime() == null) {
+                        openSessions.put(tapUuid, e.getKey(), e.getValue());
+                    }
+                });
     }
 
     @Override
@@ -17,6 +17,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import jakarta.annotation.Nullable;
 import org.apache.logging.log4j.LogManager;
@@ -37,6 +38,8 @@ public class TapManager {
 
     private final NzymeNode nzyme;
 
+    private final TapMetricsCache metricsCache = new TapMetricsCache();
+
     public TapManager(NzymeNode nzyme) {
         this.nzyme = nzyme;
 
@@ -131,236 +134,232 @@ public class TapManager {
     public void registerTapStatus(StatusReport report, String remoteAddress, UUID tapUUID) {
         LOG.debug("Registering report from tap [{}].", tapUUID);
 
-        nzyme.getDatabase().useHandle(handle ->
-                handle.createUpdate("UPDATE taps SET version = :version, clock = :clock, " +
-                                "processed_bytes_total = :processed_bytes_total, " +
-                                "processed_bytes_average = :processed_bytes_average, memory_total = :memory_total, " +
-                                "memory_free = :memory_free, memory_used = :memory_used, cpu_load = :cpu_load, " +
-                                "remote_address = :remote_address, last_report = NOW() WHERE uuid = :uuid")
-                        .bind("version", report.version())
-                        .bind("clock", report.timestamp())
-                        .bind("processed_bytes_total", report.processedBytes().total())
-                        .bind("processed_bytes_average", report.processedBytes().average())
-                        .bind("memory_total", report.systemMetrics().memoryTotal())
-                        .bind("memory_free", report.systemMetrics().memoryFree())
-                        .bind("memory_used", report.systemMetrics().memoryTotal()-report.systemMetrics().memoryFree())
-                        .bind("cpu_load", report.systemMetrics().cpuLoad())
-                        .bind("remote_address", remoteAddress)
-                        .bind("uuid", tapUUID)
-                        .execute()
+        List<TapMetricsGauge> gauges = buildGauges(report, tapUUID);
+        List<TapMetricsTimer> timers = buildTimers(report);
+
+        // Apply the whole report in one transaction.
+        nzyme.getDatabase().useHandle(handle -> handle.useTransaction(tx -> {
+            tx.createUpdate("UPDATE taps SET version = :version, clock = :clock, " +
+                            "processed_bytes_total = :processed_bytes_total, " +
+                            "processed_bytes_average = :processed_bytes_average, memory_total = :memory_total, " +
+                            "memory_free = :memory_free, memory_used = :memory_used, cpu_load = :cpu_load, " +
+                            "remote_address = :remote_address, last_report = NOW() WHERE uuid = :uuid")
+                    .bind("version", report.version())
+                    .bind("clock", report.timestamp())
+                    .bind("processed_bytes_total", report.processedBytes().total())
+                    .bind("processed_bytes_average", report.processedBytes().average())
+                    .bind("memory_total", report.systemMetrics().memoryTotal())
+                    .bind("memory_free", report.systemMetrics().memoryFree())
+                    .bind("memory_used", report.systemMetrics().memoryTotal()-report.systemMetrics().memoryFree())
+                    .bind("cpu_load", report.systemMetrics().cpuLoad())
+                    .bind("remote_address", remoteAddress)
+                    .bind("uuid", tapUUID)
+                    .execute();
+
+            writeCaptures(tx, tapUUID, report.captures());
+            writeChannels(tx, writeBuses(tx, tapUUID, report.buses()), report.buses());
+            writeGauges(tx, tapUUID, report.timestamp(), gauges);
+            writeTimers(tx, tapUUID, timers);
+        }));
+
+        metricsCache.update(tapUUID, gauges, timers);
+    }
+
+    private void writeCaptures(Handle handle, UUID tapUUID, List<CapturesReport> captures) {
+        if (captures.isEmpty()) {
+            return;
+        }
+
+        Map<String, CapturesReport> byInterface = Maps.newLinkedHashMap();
+        for (CapturesReport capture : captures) {
+            byInterface.put(capture.interfaceName(), capture);
+        }
+
+        Set<String> existing = Sets.newHashSet(
+                handle.createQuery("SELECT interface FROM tap_captures " +
+                                "WHERE tap_uuid = :tap_uuid AND interface IN (<interfaces>)")
+                        .bind("tap_uuid", tapUUID)
+                        .bindList("interfaces", Lists.newArrayList(byInterface.keySet()))
+                        .mapTo(String.class)
+                        .list()
         );
 
-        // Register captures.
-        for (CapturesReport capture : report.captures()) {
-            long captureCount = nzyme.getDatabase().withHandle(handle ->
-                    handle.createQuery("SELECT COUNT(*) AS count FROM tap_captures " +
-                                    "WHERE interface = :interface AND tap_uuid = :tap_uuid")
-                            .bind("interface", capture.interfaceName())
-                            .bind("tap_uuid",  tapUUID)
-                            .mapTo(Long.class)
-                            .one()
-            );
+        PreparedBatch insert = handle.prepareBatch("INSERT INTO tap_captures(tap_uuid, uuid, interface, capture_type, " +
+                "is_running, received, dropped_buffer, dropped_interface, updated_at, created_at) " +
+                "VALUES(:tap_uuid, :uuid, :interface, :capture_type, :is_running, :received, " +
+                ":dropped_buffer, :dropped_interface, NOW(), NOW())");
 
-            if (captureCount == 0) {
-                nzyme.getDatabase().withHandle(handle ->
-                    handle.createUpdate("INSERT INTO tap_captures(tap_uuid, uuid, interface, capture_type, " +
-                                    "is_running, received, dropped_buffer, dropped_interface, updated_at, created_at) " +
-                                    "VALUES(:tap_uuid, :uuid, :interface, :capture_type, :is_running, :received, " +
-                                    ":dropped_buffer, :dropped_interface, NOW(), NOW())")
-                            .bind("tap_uuid", tapUUID)
-                            .bind("uuid", UUID.randomUUID())
-                            .bind("interface", capture.interfaceName())
-                            .bind("capture_type", capture.captureType())
-                            .bind("is_running", capture.isRunning())
-                            .bind("received", capture.received())
-                            .bind("dropped_buffer", capture.droppedBuffer())
-                            .bind("dropped_interface", capture.droppedInterface())
-                            .execute()
-                );
+        PreparedBatch update = handle.prepareBatch("UPDATE tap_captures SET capture_type = :capture_type, " +
+                "is_running = :is_running, received = :received, dropped_buffer = :dropped_buffer, " +
+                "dropped_interface = :dropped_interface, updated_at = NOW() " +
+                "WHERE tap_uuid = :tap_uuid AND interface = :interface");
+
+        for (CapturesReport capture : byInterface.values()) {
+            PreparedBatch batch;
+            if (existing.contains(capture.interfaceName())) {
+                batch = update;
             } else {
-                nzyme.getDatabase().withHandle(handle ->
-                        handle.createUpdate("UPDATE tap_captures SET capture_type = :capture_type, " +
-                                "is_running = :is_running, received = :received, dropped_buffer = :dropped_buffer, " +
-                                "dropped_interface = :dropped_interface, updated_at = NOW() " +
-                                "WHERE tap_uuid = :tap_uuid AND interface = :interface")
-                                .bind("capture_type", capture.captureType())
-                                .bind("is_running", capture.isRunning())
-                                .bind("received", capture.received())
-                                .bind("dropped_buffer", capture.droppedBuffer())
-                                .bind("dropped_interface", capture.droppedInterface())
-                                .bind("tap_uuid", tapUUID)
-                                .bind("interface", capture.interfaceName())
-                                .execute()
-                );
+                batch = insert.bind("uuid", UUID.randomUUID());
             }
 
-            // Capture metrics.
-            writeGauge(
-                    tapUUID,
-                    "captures." + capture.interfaceName().toLowerCase() + ".received",
-                    capture.received(),
-                    report.timestamp()
-            );
+            batch.bind("tap_uuid", tapUUID)
+                    .bind("interface", capture.interfaceName())
+                    .bind("capture_type", capture.captureType())
+                    .bind("is_running", capture.isRunning())
+                    .bind("received", capture.received())
+                    .bind("dropped_buffer", capture.droppedBuffer())
+                    .bind("dropped_interface", capture.droppedInterface())
+                    .add();
+        }
 
-            writeGauge(
-                    tapUUID,
-                    "captures." + capture.interfaceName().toLowerCase() + ".dropped_if",
-                    capture.droppedInterface(),
-                    report.timestamp()
-            );
+        if (insert.size() > 0) {
+            insert.execute();
+        }
 
-            writeGauge(
-                    tapUUID,
-                    "captures." + capture.interfaceName().toLowerCase() + ".dropped_buffer",
-                    capture.droppedBuffer(),
-                    report.timestamp()
-            );
+        if (update.size() > 0) {
+            update.execute();
         }
+    }
 
-        // Register buses.
-        for (BusReport bus : report.buses()) {
-            long busCount = nzyme.getDatabase().withHandle(handle ->
-                    handle.createQuery("SELECT COUNT(*) AS count FROM tap_buses " +
-                                    "WHERE tap_uuid = :tap_uuid AND name = :name")
-                            .bind("tap_uuid", tapUUID)
-                            .bind("name", bus.name())
-                            .mapTo(Long.class)
-                            .one()
-            );
+    /**
+     * @return Database IDs of all buses in the report by name.
+     */
+    private Map<String, Long> writeBuses(Handle handle, UUID tapUUID, List<BusReport> buses) {
+        Map<String, Long> ids = Maps.newHashMap();
+        if (buses.isEmpty()) {
+            return ids;
+        }
 
-            if (busCount == 0) {
-                nzyme.getDatabase().useHandle(handle ->
-                        handle.createUpdate("INSERT INTO tap_buses(tap_uuid, name, created_at, updated_at) " +
-                                        "VALUES(:tap_uuid, :name, NOW(), NOW())")
-                                .bind("tap_uuid", tapUUID)
-                                .bind("name", bus.name())
-                                .execute()
-                );
-            } else {
-                nzyme.getDatabase().useHandle(handle ->
-                        handle.createUpdate("UPDATE tap_buses SET updated_at = NOW() " +
-                                        "WHERE tap_uuid = :tap_uuid AND name = :name")
-                                .bind("tap_uuid", tapUUID)
-                                .bind("name", bus.name())
-                                .execute()
-                );
+        Set<String> names = Sets.newLinkedHashSet();
+        for (BusReport bus : buses) {
+            names.add(bus.name());
+        }
+
+        handle.createUpdate("UPDATE tap_buses SET updated_at = NOW() WHERE tap_uuid = :tap_uuid AND name IN (<names>)")
+                .bind("tap_uuid", tapUUID)
+                .bindList("names", Lists.newArrayList(names))
+                .execute();
+
+        handle.createQuery("SELECT id, name FROM tap_buses WHERE tap_uuid = :tap_uuid AND name IN (<names>)")
+                .bind("tap_uuid", tapUUID)
+                .bindList("names", Lists.newArrayList(names))
+                .map((rs, ctx) -> Maps.immutableEntry(rs.getString("name"), rs.getLong("id")))
+                .forEach(e -> ids.put(e.getKey(), e.getValue()));
+
+        PreparedBatch insert = handle.prepareBatch("INSERT INTO tap_buses(tap_uuid, name, created_at, updated_at) " +
+                "VALUES(:tap_uuid, :name, NOW(), NOW())");
+
+        for (String name : names) {
+            if (!ids.containsKey(name)) {
+                insert.bind("tap_uuid", tapUUID).bind("name", name).add();
             }
+        }
 
-            Long busId = nzyme.getDatabase().withHandle(handle ->
-                    handle.createQuery("SELECT id FROM tap_buses WHERE tap_uuid = :tap_uuid AND name = :name")
-                            .bind("tap_uuid", tapUUID)
-                            .bind("name", bus.name())
-                            .mapTo(Long.class)
-                            .one()
-            );
+        if (insert.size() > 0) {
+            insert.executePreparedBatch("id", "name")
+                    .map((rs, ctx) -> Maps.immutableEntry(rs.getString("name"), rs.getLong("id")))
+                    .forEach(e -> ids.put(e.getKey(), e.getValue()));
+        }
 
-            // Register bus channels.
-            for (ChannelReport channel : bus.channels()) {
-                long channelCount = nzyme.getDatabase().withHandle(handle ->
-                        handle.createQuery("SELECT COUNT(*) AS count FROM bus_channels " +
-                                        "WHERE bus_id = :bus_id AND name = :channel_name")
-                                .bind("bus_id", busId)
-                                .bind("channel_name", channel.name())
-                                .mapTo(Long.class)
-                                .one()
-                );
+        return ids;
+    }
 
-                if (channelCount == 0) {
-                    nzyme.getDatabase().withHandle(handle ->
-                            handle.createUpdate("INSERT INTO bus_channels(name, bus_id, capacity, watermark, errors_total, " +
-                                            "errors_average, throughput_bytes_total, throughput_bytes_average, " +
-                                            "throughput_messages_total, throughput_messages_average, created_at, updated_at) " +
-                                            "VALUES(:name, :bus_id, :capacity, :watermark, :errors_total, :errors_average, " +
-                                            ":throughput_bytes_total, :throughput_bytes_average, :throughput_messages_total, " +
-                                            ":throughput_messages_average, NOW(), NOW())")
-                                    .bind("name", channel.name())
-                                    .bind("bus_id", busId)
-                                    .bind("capacity", channel.capacity())
-                                    .bind("watermark", channel.watermark())
-                                    .bind("errors_total", channel.errors().total())
-                                    .bind("errors_average", channel.errors().average())
-                                    .bind("throughput_bytes_total", channel.throughputBytes().total())
-                                    .bind("throughput_bytes_average", channel.throughputBytes().average())
-                                    .bind("throughput_messages_total", channel.throughputMessages().total())
-                                    .bind("throughput_messages_average", channel.throughputMessages().average())
-                                    .execute()
-                    );
-                } else {
-                    nzyme.getDatabase().withHandle(handle ->
-                            handle.createUpdate("UPDATE bus_channels SET capacity = :capacity, watermark = :watermark, " +
-                                            "errors_total = :errors_total, errors_average = :errors_average, " +
-                                            "throughput_bytes_total = :throughput_bytes_total, " +
-                                            "throughput_bytes_average = :throughput_bytes_average, " +
-                                            "throughput_messages_total = :throughput_messages_total, " +
-                                            "throughput_messages_average = :throughput_messages_average, " +
-                                            "updated_at = NOW() WHERE bus_id = :bus_id AND name = :name")
-                                    .bind("name", channel.name())
-                                    .bind("bus_id", busId)
-                                    .bind("capacity", channel.capacity())
-                                    .bind("watermark", channel.watermark())
-                                    .bind("errors_total", channel.errors().total())
-                                    .bind("errors_average", channel.errors().average())
-                                    .bind("throughput_bytes_total", channel.throughputBytes().total())
-                                    .bind("throughput_bytes_average", channel.throughputBytes().average())
-                                    .bind("throughput_messages_total", channel.throughputMessages().total())
-                                    .bind("throughput_messages_average", channel.throughputMessages().average())
-                                    .execute()
-                    );
+    private void writeChannels(Handle handle, Map<String, Long> busIds, List<BusReport> buses) {
+        if (busIds.isEmpty()) {
+            return;
+        }
+
+        Set<String> existing = Sets.newHashSet(
+                handle.createQuery("SELECT bus_id, name FROM bus_channels WHERE bus_id IN (<bus_ids>)")
+                        .bindList("bus_ids", Lists.newArrayList(busIds.values()))
+                        .map((rs, ctx) -> rs.getLong("bus_id") + "/" + rs.getString("name"))
+                        .list()
+        );
+
+        PreparedBatch insert = handle.prepareBatch("INSERT INTO bus_channels(name, bus_id, capacity, watermark, " +
+                "errors_total, errors_average, throughput_bytes_total, throughput_bytes_average, " +
+                "throughput_messages_total, throughput_messages_average, created_at, updated_at) " +
+                "VALUES(:name, :bus_id, :capacity, :watermark, :errors_total, :errors_average, " +
+                ":throughput_bytes_total, :throughput_bytes_average, :throughput_messages_total, " +
+                ":throughput_messages_average, NOW(), NOW())");
+
+        PreparedBatch update = handle.prepareBatch("UPDATE bus_channels SET capacity = :capacity, " +
+                "watermark = :watermark, errors_total = :errors_total, errors_average = :errors_average, " +
+                "throughput_bytes_total = :throughput_bytes_total, " +
+                "throughput_bytes_average = :throughput_bytes_average, " +
+                "throughput_messages_total = :throughput_messages_total, " +
+                "throughput_messages_average = :throughput_messages_average, " +
+                "updated_at = NOW() WHERE bus_id = :bus_id AND name = :name");
+
+        Set<String> written = Sets.newHashSet();
+        for (BusReport bus : buses) {
+            long busId = busIds.get(bus.name());
+
+            for (ChannelReport channel : bus.channels()) {
+                String key = busId + "/" + channel.name();
+                if (!written.add(key)) {
+                    // Duplicate in report.
+                    continue;
                 }
 
-                // Capture metrics.
-                writeGauge(
-                        tapUUID,
-                        "channels." + bus.name().toLowerCase() + "." + channel.name().toLowerCase() + ".usage",
-                        channel.watermark(),
-                        report.timestamp()
-                );
+                PreparedBatch batch = existing.contains(key) ? update : insert;
+                batch.bind("name", channel.name())
+                        .bind("bus_id", busId)
+                        .bind("capacity", channel.capacity())
+                        .bind("watermark", channel.watermark())
+                        .bind("errors_total", channel.errors().total())
+                        .bind("errors_average", channel.errors().average())
+                        .bind("throughput_bytes_total", channel.throughputBytes().total())
+                        .bind("throughput_bytes_average", channel.throughputBytes().average())
+                        .bind("throughput_messages_total", channel.throughputMessages().total())
+                        .bind("throughput_messages_average", channel.throughputMessages().average())
+                        .add();
+            }
+        }
 
-                writeGauge(
-                        tapUUID,
-                        "channels." + bus.name().toLowerCase() + "." + channel.name().toLowerCase() + ".usage_percent",
-                        channel.watermark() > 0 ? channel.watermark()*100/channel.capacity() : 0,
-                        report.timestamp()
-                );
+        if (insert.size() > 0) {
+            insert.execute();
+        }
 
-                writeGauge(
-                        tapUUID,
-                        "channels." + bus.name().toLowerCase() + "." + channel.name().toLowerCase() + ".throughput_messages",
-                        channel.throughputMessages().average()/10,
-                        report.timestamp()
-                );
+        if (update.size() > 0) {
+            update.execute();
+        }
+    }
 
-                writeGauge(
-                        tapUUID,
-                        "channels." + bus.name().toLowerCase() + "." + channel.name().toLowerCase() + ".throughput_bytes",
-                        channel.throughputBytes().average()/10,
-                        report.timestamp()
-                );
+    private List<TapMetricsGauge> buildGauges(StatusReport report, UUID tapUUID) {
+        Map<String, Double> values = Maps.newLinkedHashMap();
 
-                writeGauge(
-                        tapUUID,
-                        "channels." + bus.name().toLowerCase() + "." + channel.name().toLowerCase() + ".errors",
-                        channel.errors().average()/10,
-                        report.timestamp()
-                );
+        // Capture metrics.
+        for (CapturesReport capture : report.captures()) {
+            String prefix = "captures." + capture.interfaceName().toLowerCase();
+            values.put(prefix + ".received", capture.received().doubleValue());
+            values.put(prefix + ".dropped_if", capture.droppedInterface().doubleValue());
+            values.put(prefix + ".dropped_buffer", capture.droppedBuffer().doubleValue());
+        }
+
+        // Channel metrics.
+        for (BusReport bus : report.buses()) {
+            for (ChannelReport channel : bus.channels()) {
+                String prefix = "channels." + bus.name().toLowerCase() + "." + channel.name().toLowerCase();
+                values.put(prefix + ".usage", channel.watermark().doubleValue());
+                values.put(prefix + ".usage_percent",
+                        (double) (channel.watermark() > 0 ? channel.watermark()*100/channel.capacity() : 0));
+                values.put(prefix + ".throughput_messages", (double) (channel.throughputMessages().average()/10));
+                values.put(prefix + ".throughput_bytes", (double) (channel.throughputBytes().average()/10));
+                values.put(prefix + ".errors", (double) (channel.errors().average()/10));
             }
         }
 
         // Gauges.
         for (Map.Entry<String, Long> metric : report.gaugesLong().entrySet()) {
-            writeGauge(tapUUID, metric.getKey(), metric.getValue(), report.timestamp());
+            values.put(metric.getKey(), metric.getValue().doubleValue());
         }
 
-        // Timers.
-        for (Map.Entry<String, TimersReport> timer : report.timers().entrySet()) {
-            writeTimer(tapUUID, timer.getKey(), timer.getValue().mean(), timer.getValue().p99(), report.timestamp());
-        }
-
-
         // Additional metrics.
-        writeGauge(tapUUID, "system.captures.throughput_bit_sec", report.processedBytes().average()*8/10, report.timestamp());
-        writeGauge(tapUUID, "os.memory.bytes_used", report.systemMetrics().memoryTotal()-report.systemMetrics().memoryFree(), report.timestamp());
-        writeGauge(tapUUID, "os.cpu.load.percent", report.systemMetrics().cpuLoad(), report.timestamp());
+        values.put("system.captures.throughput_bit_sec", (double) (report.processedBytes().average()*8/10));
+        values.put("os.memory.bytes_used",
+                (double) (report.systemMetrics().memoryTotal()-report.systemMetrics().memoryFree()));
+        values.put("os.cpu.load.percent", report.systemMetrics().cpuLoad());
 
         // Log counts.
         for (Map.Entry<String, Long> lc : report.logCounts().entrySet()) {
@@ -370,12 +369,29 @@ public class TapManager {
                     || lc.getKey().equals("debug")
                     || lc.getKey().equals("trace")) {
 
-                writeGauge(tapUUID, "logs.counts." + lc.getKey(), lc.getValue(), report.timestamp());
+                values.put("logs.counts." + lc.getKey(), lc.getValue().doubleValue());
             } else {
                 LOG.error("Unexpected log level in tap [{}] log counts report: {}", tapUUID, lc.getKey());
             }
         }
 
+        List<TapMetricsGauge> gauges = Lists.newArrayListWithCapacity(values.size());
+        for (Map.Entry<String, Double> value : values.entrySet()) {
+            gauges.add(TapMetricsGauge.create(value.getKey(), value.getValue(), report.timestamp()));
+        }
+
+        return gauges;
+    }
+
+    private List<TapMetricsTimer> buildTimers(StatusReport report) {
+        DateTime now = DateTime.now();
+
+        List<TapMetricsTimer> timers = Lists.newArrayListWithCapacity(report.timers().size());
+        for (Map.Entry<String, TimersReport> timer : report.timers().entrySet()) {
+            timers.add(TapMetricsTimer.create(timer.getKey(), timer.getValue().mean(), timer.getValue().p99(), now));
+        }
+
+        return timers;
     }
 
     public void registerTapContext(TapContextReport report, UUID tapUuid) {
@@ -504,33 +520,50 @@ public class TapManager {
         }
     }
 
-    private void writeGauge(UUID tapUUID, String metricName, Long metricValue, DateTime timestamp) {
-        writeGauge(tapUUID, metricName, metricValue.doubleValue(), timestamp);
-    }
+    private void writeGauges(Handle handle, UUID tapUUID, DateTime timestamp, List<TapMetricsGauge> gauges) {
+        if (gauges.isEmpty()) {
+            return;
+        }
 
-    private void writeGauge(UUID tapUUID, String metricName, Double metricValue, DateTime timestamp) {
-        nzyme.getDatabase().withHandle(handle ->
-                handle.createUpdate("INSERT INTO tap_metrics_gauges(tap_uuid, metric_name, metric_value, created_at) " +
-                                "VALUES(:tap_uuid, :metric_name, :metric_value, :timestamp)")
-                        .bind("tap_uuid", tapUUID)
-                        .bind("metric_name", metricName)
-                        .bind("metric_value", metricValue)
-                        .bind("timestamp", timestamp)
-                        .execute()
-        );
+        List<String> names = Lists.newArrayListWithCapacity(gauges.size());
+        List<Double> values = Lists.newArrayListWithCapacity(gauges.size());
+        for (TapMetricsGauge gauge : gauges) {
+            names.add(gauge.metricName());
+            values.add(gauge.metricValue());
+        }
+
+        handle.createUpdate("INSERT INTO tap_metrics_gauges(tap_uuid, metric_name, metric_value, created_at) " +
+                        "SELECT :tap_uuid, m.metric_name, m.metric_value, :created_at " +
+                        "FROM unnest(:metric_names, :metric_values) AS m(metric_name, metric_value)")
+                .bind("tap_uuid", tapUUID)
+                .bind("created_at", timestamp)
+                .bindArray("metric_names", String.class, names)
+                .bindArray("metric_values", Double.class, values)
+                .execute();
     }
 
-    private void writeTimer(UUID tapUUID, String metricName, double mean, double p99, DateTime timestamp) {
-        nzyme.getDatabase().withHandle(handle ->
-                handle.createUpdate("INSERT INTO tap_metrics_timers(tap_uuid, metric_name, mean, p99, created_at) " +
-                                "VALUES(:tap_uuid, :metric_name, :mean, :p99, NOW())")
-                        .bind("tap_uuid", tapUUID)
-                        .bind("metric_name", metricName)
-                        .bind("mean", mean)
-                        .bind("p99", p99)
-                        .bind("timestamp", timestamp)
-                        .execute()
-        );
+    private void writeTimers(Handle handle, UUID tapUUID, List<TapMetricsTimer> timers) {
+        if (timers.isEmpty()) {
+            return;
+        }
+
+        List<String> names = Lists.newArrayListWithCapacity(timers.size());
+        List<Double> means = Lists.newArrayListWithCapacity(timers.size());
+        List<Double> p99s = Lists.newArrayListWithCapacity(timers.size());
+        for (TapMetricsTimer timer : timers) {
+            names.add(timer.metricName());
+            means.add(timer.mean());
+            p99s.add(timer.p99());
+        }
+
+        handle.createUpdate("INSERT INTO tap_metrics_timers(tap_uuid, metric_name, mean, p99, created_at) " +
+                        "SELECT :tap_uuid, m.metric_name, m.mean, m.p99, NOW() " +
+                        "FROM unnest(:metric_names, :means, :p99s) AS m(metric_name, mean, p99)")
+                .bind("tap_uuid", tapUUID)
+                .bindArray("metric_names", String.class, names)
+                .bindArray("means", Double.class, means)
+                .bindArray("p99s", Double.class, p99s)
+                .execute();
     }
 
     private void retentionCleanMetrics() {
@@ -720,24 +753,40 @@ public class TapManager {
     }
 
     public List<TapMetricsGauge> findGaugesOfTap(UUID tapUUID) {
-         return nzyme.getDatabase().withHandle(handle ->
+        DateTime since = DateTime.now().minusMinutes(1);
+
+        Optional<List<TapMetricsGauge>> cached = metricsCache.findGauges(tapUUID, since);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        // Tap reports to another node.
+        return nzyme.getDatabase().withHandle(handle ->
                 handle.createQuery("SELECT DISTINCT ON (metric_name) metric_name, tap_uuid, metric_value, created_at " +
                         "FROM tap_metrics_gauges WHERE tap_uuid = :tap_uuid AND created_at > :created_at " +
                         "ORDER BY metric_name, created_at DESC")
                         .bind("tap_uuid", tapUUID)
-                        .bind("created_at", DateTime.now().minusMinutes(1))
+                        .bind("created_at", since)
                         .mapTo(TapMetricsGauge.class)
                         .list()
         );
     }
 
     public List<TapMetricsTimer> findTimersOfTap(UUID tapUUID) {
+        DateTime since = DateTime.now().minusMinutes(1);
+
+        Optional<List<TapMetricsTimer>> cached = metricsCache.findTimers(tapUUID, since);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        // Tap reports to another node.
         return nzyme.getDatabase().withHandle(handle ->
                 handle.createQuery("SELECT DISTINCT ON (metric_name) metric_name, tap_uuid, mean, p99, created_at " +
                                 "FROM tap_metrics_timers WHERE tap_uuid = :tap_uuid AND created_at > :created_at " +
                                 "ORDER BY metric_name, created_at DESC")
                         .bind("tap_uuid", tapUUID)
-                        .bind("created_at", DateTime.now().minusMinutes(1))
+                        .bind("created_at", since)
                         .mapTo(TapMetricsTimer.class)
                         .list()
         );
@@ -783,6 +832,19 @@ public class TapManager {
     public Optional<Double> findLatestActiveMetricsGaugeValue(UUID tapUuid,
                                                               String metricName,
                                                               Handle handle) {
+        DateTime since = DateTime.now().minusMinutes(2);
+
+        Optional<List<TapMetricsGauge>> cached = metricsCache.findGauges(tapUuid, since);
+        if (cached.isPresent()) {
+            for (TapMetricsGauge gauge : cached.get()) {
+                if (gauge.metricName().equals(metricName)) {
+                    return Optional.of(gauge.metricValue());
+                }
+            }
+
+            return Optional.empty();
+        }
+
         return handle.createQuery("SELECT metric_value FROM tap_metrics_gauges " +
                         "WHERE tap_uuid = :tap_uuid AND metric_name = :metric_name " +
                         "AND created_at > :created_at " +
@@ -790,7 +852,7 @@ public class TapManager {
                         "LIMIT 1")
                 .bind("tap_uuid", tapUuid)
                 .bind("metric_name", metricName)
-                .bind("created_at", DateTime.now().minusMinutes(2))
+                .bind("created_at", since)
                 .mapTo(Double.class)
                 .findOne();
     }
@@ -0,0 +1,94 @@
+package app.nzyme.core.taps;
+
+import app.nzyme.core.taps.db.metrics.TapMetricsGauge;
+import app.nzyme.core.taps.db.metrics.TapMetricsTimer;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.joda.time.DateTime;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latest gauge and timer values of every tap that reported its status to this node. Every status report replaces all
+ * values of its tap, so reading current values does not have to go to the database.
+ *
+ * The cache is node-local. A tap that reports to another node is either missing or only has outdated values here, and
+ * callers must read those from the database instead.
+ */
+public class TapMetricsCache {
+
+    private final ConcurrentMap<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public void update(UUID tapUuid, Collection<TapMetricsGauge> gauges, Collection<TapMetricsTimer> timers) {
+        ImmutableMap.Builder<String, TapMetricsGauge> g = ImmutableMap.builder();
+        for (TapMetricsGauge gauge : gauges) {
+            g.put(gauge.metricName(), gauge);
+        }
+
+        ImmutableMap.Builder<String, TapMetricsTimer> t = ImmutableMap.builder();
+        for (TapMetricsTimer timer : timers) {
+            t.put(timer.metricName(), timer);
+        }
+
+        snapshots.put(tapUuid, new Snapshot(DateTime.now(), g.buildKeepingLast(), t.buildKeepingLast()));
+    }
+
+    /**
+     * @return Gauges of the tap written after the given time or empty if the tap has not reported to this node since.
+     */
+    public Optional<List<TapMetricsGauge>> findGauges(UUID tapUuid, DateTime since) {
+        Snapshot snapshot = snapshots.get(tapUuid);
+        if (snapshot == null || !snapshot.receivedAt.isAfter(since)) {
+            return Optional.empty();
+        }
+
+        List<TapMetricsGauge> result = Lists.newArrayListWithCapacity(snapshot.gauges.size());
+        for (TapMetricsGauge gauge : snapshot.gauges.values()) {
+            if (gauge.createdAt().isAfter(since)) {
+                result.add(gauge);
+            }
+        }
+
+        return Optional.of(result);
+    }
+
+    /**
+     * @return Timers of the tap written after the given time or empty if the tap has not reported to this node since.
+     */
+    public Optional<List<TapMetricsTimer>> findTimers(UUID tapUuid, DateTime since) {
+        Snapshot snapshot = snapshots.get(tapUuid);
+        if (snapshot == null || !snapshot.receivedAt.isAfter(since)) {
+            return Optional.empty();
+        }
+
+        List<TapMetricsTimer> result = Lists.newArrayListWithCapacity(snapshot.timers.size());
+        for (TapMetricsTimer timer : snapshot.timers.values()) {
+            if (timer.createdAt().isAfter(since)) {
+                result.add(timer);
+            }
+        }
+
+        return Optional.of(result);
+    }
+
+    private static final class Snapshot {
+
+        private final DateTime receivedAt;
+        private final Map<String, TapMetricsGauge> gauges;
+        private final Map<String, TapMetricsTimer> timers;
+
+        Snapshot(DateTime receivedAt, Map<String, TapMetricsGauge> gauges, Map<String, TapMetricsTimer> timers) {
+            this.receivedAt = receivedAt;
+            this.gauges = gauges;
+            this.timers = timers;
+        }
+
+    }
+
+}
@@ -0,0 +1,116 @@
+package app.nzyme.core.util;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Aho-Corasick automaton that finds all of a fixed set of patterns in a text with one pass over the text, no matter
+ * how many patterns there are. Immutable after construction and safe to share between threads.
+ */
+public class AhoCorasick {
+
+    private final List<Map<Character, Integer>> transitions;
+    private final List<Set<String>> outputs;
+    private final int[] failure;
+
+    /**
+     * @param patterns Patterns to search for. Empty patterns are ignored.
+     */
+    public AhoCorasick(Collection<String> patterns) {
+        this.transitions = Lists.newArrayList();
+        List<ImmutableSet.Builder<String>> outputBuilders = Lists.newArrayList();
+
+        // Root node.
+        transitions.add(Maps.newHashMap());
+        outputBuilders.add(ImmutableSet.builder());
+
+        // Build the trie.
+        for (String pattern : patterns) {
+            if (pattern.isEmpty()) {
+                continue;
+            }
+
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = transitions.get(node).get(pattern.charAt(i));
+                if (next == null) {
+                    next = transitions.size();
+                    transitions.add(Maps.newHashMap());
+                    outputBuilders.add(ImmutableSet.builder());
+                    transitions.get(node).put(pattern.charAt(i), next);
+                }
+                node = next;
+            }
+
+            outputBuilders.get(node).add(pattern);
+        }
+
+        // Build failure links breadth-first and merge the outputs of each node's failure chain into the node.
+        this.failure = new int[transitions.size()];
+        List<Set<String>> builtOutputs = Lists.newArrayListWithCapacity(transitions.size());
+        for (int i = 0; i < transitions.size(); i++) {
+            builtOutputs.add(null);
+        }
+        builtOutputs.set(0, outputBuilders.get(0).build());
+
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : transitions.get(0).values()) {
+            failure[child] = 0;
+            builtOutputs.set(child, outputBuilders.get(child).build());
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int node = queue.remove();
+
+            for (Map.Entry<Character, Integer> t : transitions.get(node).entrySet()) {
+                int child = t.getValue();
+
+                int f = failure[node];
+                while (f != 0 && !transitions.get(f).containsKey(t.getKey())) {
+                    f = failure[f];
+                }
+                Integer target = transitions.get(f).get(t.getKey());
+                failure[child] = target == null ? 0 : target;
+
+                builtOutputs.set(child, outputBuilders.get(child)
+                        .addAll(builtOutputs.get(failure[child]))
+                        .build());
+
+                queue.add(child);
+            }
+        }
+
+        this.outputs = builtOutputs;
+    }
+
+    /**
+     * @return All patterns that occur in the text.
+     */
+    public Set<String> findAll(String text) {
+        ImmutableSet.Builder<String> found = ImmutableSet.builder();
+
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            while (node != 0 && !transitions.get(node).containsKey(c)) {
+                node = failure[node];
+            }
+            node = transitions.get(node).getOrDefault(c, 0);
+
+            found.addAll(outputs.get(node));
+        }
+
+        return found.build();
+    }
+
+}
@@ -21,13 +21,23 @@ import app.nzyme.core.bluetooth.sig.BluetoothSigService;
 import app.nzyme.core.context.ContextService;
 import app.nzyme.core.crypto.Crypto;
 import app.nzyme.core.database.DatabaseImpl;
+import app.nzyme.core.distributed.messaging.postgres.PostgresMessageBusImpl;
+import app.nzyme.core.dot11.monitoring.Dot11SignalTrackMonitor;
+import app.nzyme.core.dot11.monitoring.disco.DiscoActivityWindows;
+import app.nzyme.core.distributed.tasksqueue.postgres.PostgresTasksQueueImpl;
+import app.nzyme.core.events.EventActionDispatcher;
 import app.nzyme.core.integrations.geoip.GeoIpService;
 import app.nzyme.core.ouis.OuiService;
+import app.nzyme.core.registry.RegistryCache;
 import app.nzyme.core.rest.interceptors.TapTableSizeInterceptor;
 import app.nzyme.core.security.authentication.PasswordHasher;
+import app.nzyme.core.security.authentication.PrincipalCache;
+import app.nzyme.core.security.authentication.UserActivityBuffer;
+import app.nzyme.core.tables.TablesService;
 import app.nzyme.core.tables.bluetooth.BluetoothTable;
 import app.nzyme.core.tables.dns.DNSTable;
 import app.nzyme.core.tables.dot11.Dot11Table;
+import app.nzyme.core.tables.dot11.monitoring.MonitoringSnapshotCache;
 import app.nzyme.core.tables.socks.SOCKSTable;
 import app.nzyme.core.tables.ssh.SSHTable;
 import app.nzyme.core.tables.tcp.TCPTable;
@@ -40,20 +50,48 @@ public class MetricNames {
     public static final String BTSIG_CID_LOOKUP_TIMING = name(BluetoothSigService.class, "company-id-lookup-timing");
     public static final String BTSIG_SUUID_LOOKUP_TIMING = name(BluetoothSigService.class, "service-uuid-lookup-timing");
     public static final String DATABASE_SIZE = name(DatabaseImpl.class, "size");
+    public static final String DATABASE_POOL = name(DatabaseImpl.class, "connections");
+    public static final String MESSAGE_BUS_DELIVERY_LATENCY = name(PostgresMessageBusImpl.class, "delivery-latency");
+    public static final String TASKS_QUEUE_DELIVERY_LATENCY = name(PostgresTasksQueueImpl.class, "delivery-latency");
     public static final String GEOIP_CACHE_SIZE = name(GeoIpService.class, "cache-size");
     public static final String GEOIP_LOOKUP_TIMING_UNCACHED = name(GeoIpService.class, "lookup-timing-uncached");
+    public static final String GEOIP_CACHE_HIT_RATE = name(GeoIpService.class, "cache-hit-rate");
+    public static final String GEOIP_CACHE_HITS = name(GeoIpService.class, "cache-hits");
+    public static final String GEOIP_CACHE_MISSES = name(GeoIpService.class, "cache-misses");
     public static final String PGP_ENCRYPTION_TIMING = name(Crypto.class, "encryption-timing");
     public static final String PGP_DECRYPTION_TIMING = name(Crypto.class, "decryption-timing");
     public static final String PASSWORD_HASHING_TIMER = name(PasswordHasher.class, "hashing-timer");
     public static final String TAP_TABLE_REQUEST_SIZES = name(TapTableSizeInterceptor.class, "request_size");
     public static final String CONTEXT_MAC_CACHE_SIZE = name(ContextService.class, "mac-cache-size");
     public static final String CONTEXT_MAC_LOOKUP_TIMING = name(ContextService.class, "mac-lookup-timing");
+    public static final String REGISTRY_CACHE_HITS = name(RegistryCache.class, "hits");
+    public static final String REGISTRY_CACHE_MISSES = name(RegistryCache.class, "misses");
+    public static final String REGISTRY_CACHE_SIZE = name(RegistryCache.class, "size");
+    public static final String PRINCIPAL_CACHE_HITS = name(PrincipalCache.class, "hits");
+    public static final String PRINCIPAL_CACHE_MISSES = name(PrincipalCache.class, "misses");
+    public static final String USER_ACTIVITY_FLUSH_TIMER = name(UserActivityBuffer.class, "flush-timing");
+
+    public static final String TABLE_INGESTION_QUEUE_DEPTH = name(TablesService.class, "ingestion-queue-depth");
+    public static final String TABLE_INGESTION_ENQUEUE_TIMER = name(TablesService.class, "ingestion-enqueue-timing");
+    public static final String TABLE_INGESTION_QUEUE_WAIT_TIMER = name(TablesService.class, "ingestion-queue-wait-timing");
+    public static final String TABLE_INGESTION_DROPPED = name(TablesService.class, "ingestion-dropped");
+    public static final String TABLE_INGESTION_DRAINED = name(TablesService.class, "ingestion-drained");
+
+    public static final String EVENT_ACTION_EXECUTION_TIMER = name(EventActionDispatcher.class, "execution-timing");
+    public static final String EVENT_ACTION_QUEUE_WAIT_TIMER = name(EventActionDispatcher.class, "queue-wait-timing");
+    public static final String EVENT_ACTION_FAILURES = name(EventActionDispatcher.class, "failures");
+    public static final String EVENT_ACTION_RETRIES = name(EventActionDispatcher.class, "retries");
+    public static final String EVENT_ACTION_ACTIVE_EXECUTIONS = name(EventActionDispatcher.class, "active-executions");
 
     public static final String DOT11_TOTAL_REPORT_PROCESSING_TIMER = name(Dot11Table.class, "total-report-processing-timing");
     public static final String DOT11_BSSID_REPORT_PROCESSING_TIMER = name(Dot11Table.class, "bssid-report-processing-timing");
     public static final String DOT11_CLIENTS_REPORT_PROCESSING_TIMER = name(Dot11Table.class, "clients-report-processing-timing");
     public static final String DOT11_DISCO_REPORT_PROCESSING_TIMER = name(Dot11Table.class, "disco-report-processing-timing");
     public static final String DOT11_ALERT_PROCESSING_TIMER = name(Dot11Table.class, "alert-processing-timing");
+    public static final String DOT11_MONITORING_SNAPSHOT_BUILD_TIMER = name(MonitoringSnapshotCache.class, "build-timing");
+    public static final String DOT11_DISCO_WINDOW_FULL_LOADS = name(DiscoActivityWindows.class, "full-loads");
+    public static final String DOT11_SIGNAL_TRACK_MONITOR_RUN_TIMER = name(Dot11SignalTrackMonitor.class, "run-timing");
+    public static final String DOT11_SIGNAL_TRACK_MONITOR_SERIES = name(Dot11SignalTrackMonitor.class, "series-per-run");
 
     public static final String BLUETOOTH_TOTAL_REPORT_PROCESSING_TIMER = name(BluetoothTable.class, "total-report-processing-timing");
 
@@ -0,0 +1,174 @@
+package app.nzyme.core.util;
+
+import com.google.common.collect.Lists;
+import jakarta.annotation.Nullable;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.util.List;
+
+/**
+ * Splits a time range into segments that can be answered from pre-aggregated rollups of minute, hour or day buckets
+ * and the remaining edges that must be read from raw rows. The middle of the range is covered by the coarsest
+ * rollups that fit completely, and each edge by the next finer ones. Only the partial minutes at both ends, including
+ * the still open current minute, are left to raw rows. Data that is not rolled up into minute buckets leaves larger
+ * edges to raw rows.
+ *
+ * Buckets are aligned in the default time zone of the JVM, which is also the session time zone of our database
+ * connections and therefore the one <i>DATE_TRUNC()</i> uses when rollups are written.
+ */
+public class RollupPlan {
+
+    public static class Segment {
+
+        @Nullable
+        private final Bucketing.Type granularity;
+        private final DateTime from;
+        private final DateTime to;
+        private final boolean toInclusive;
+
+        private Segment(@Nullable Bucketing.Type granularity, DateTime from, DateTime to, boolean toInclusive) {
+            this.granularity = granularity;
+            this.from = from;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        /**
+         * @return Rollup granularity or null if this segment must be read from raw rows.
+         */
+        @Nullable
+        public Bucketing.Type granularity() {
+            return granularity;
+        }
+
+        public boolean isRaw() {
+            return granularity == null;
+        }
+
+        /**
+         * @return Start of the segment, inclusive.
+         */
+        public DateTime from() {
+            return from;
+        }
+
+        public DateTime to() {
+            return to;
+        }
+
+        /**
+         * @return True if {@link #to()} is part of the segment. Only ever the case for the last, raw segment.
+         */
+        public boolean toInclusive() {
+            return toInclusive;
+        }
+
+        @Override
+        public String toString() {
+            return (isRaw() ? "raw" : granularity.getDateTruncName())
+                    + "[" + from + ", " + to + (toInclusive ? "]" : ")");
+        }
+    }
+
+    /**
+     * @param from Start of the range, inclusive.
+     * @param to End of the range, inclusive.
+     * @param coarsest Coarsest rollup granularity to use. Histograms must pass their bucket size because a coarser
+     *                 rollup bucket cannot be split into smaller histogram buckets.
+     * @return Segments in chronological order, covering the range without gaps or overlaps.
+     */
+    public static List<Segment> plan(DateTime from, DateTime to, Bucketing.Type coarsest) {
+        return plan(from, to, Bucketing.Type.MINUTE, coarsest);
+    }
+
+    /**
+     * @param from Start of the range, inclusive.
+     * @param to End of the range, inclusive.
+     * @param finest Finest rollup granularity to use, for data that is not rolled up into all granularities. Edges
+     *               that no rollup of this granularity fits into completely are read from raw rows.
+     * @param coarsest Coarsest rollup granularity to use. No rollups are used at all if it is finer than finest.
+     * @return Segments in chronological order, covering the range without gaps or overlaps.
+     */
+    public static List<Segment> plan(DateTime from, DateTime to, Bucketing.Type finest, Bucketing.Type coarsest) {
+        List<Bucketing.Type> granularities = Lists.newArrayList();
+        for (Bucketing.Type type : Bucketing.Type.values()) {
+            if (type.ordinal() >= finest.ordinal() && type.ordinal() <= coarsest.ordinal()) {
+                granularities.add(0, type);
+            }
+        }
+
+        DateTimeZone zone = DateTimeZone.getDefault();
+        List<Segment> segments = Lists.newArrayList();
+        cover(from.withZone(zone), to.withZone(zone), true, granularities, 0, segments);
+
+        if (segments.isEmpty()) {
+            // Empty range.
+            segments.add(new Segment(null, from, to, true));
+        }
+
+        return segments;
+    }
+
+    private static void cover(DateTime from,
+                              DateTime to,
+                              boolean toInclusive,
+                              List<Bucketing.Type> granularities,
+                              int level,
+                              List<Segment> segments) {
+        if (from.isAfter(to) || (from.isEqual(to) && !toInclusive)) {
+            return;
+        }
+
+        if (level == granularities.size()) {
+            segments.add(new Segment(null, from, to, toInclusive));
+            return;
+        }
+
+        Bucketing.Type granularity = granularities.get(level);
+        DateTime start = ceil(from, granularity);
+        DateTime end = floor(to, granularity);
+
+        if (!start.isBefore(end)) {
+            // Not a single complete bucket of this granularity in range.
+            cover(from, to, toInclusive, granularities, level + 1, segments);
+            return;
+        }
+
+        cover(from, start, false, granularities, level + 1, segments);
+        segments.add(new Segment(granularity, start, end, false));
+        cover(end, to, toInclusive, granularities, level + 1, segments);
+    }
+
+    static DateTime floor(DateTime t, Bucketing.Type granularity) {
+        switch (granularity) {
+            case MINUTE:
+                return t.minuteOfHour().roundFloorCopy();
+            case HOUR:
+                return t.hourOfDay().roundFloorCopy();
+            case DAY:
+                return t.withTimeAtStartOfDay();
+            default:
+                throw new IllegalArgumentException("Unknown granularity: " + granularity);
+        }
+    }
+
+    static DateTime ceil(DateTime t, Bucketing.Type granularity) {
+        DateTime floor = floor(t, granularity);
+        if (floor.isEqual(t)) {
+            return t;
+        }
+
+        switch (granularity) {
+            case MINUTE:
+                return floor.plusMinutes(1);
+            case HOUR:
+                return floor.plusHours(1);
+            case DAY:
+                return floor.plusDays(1).withTimeAtStartOfDay();
+            default:
+                throw new IllegalArgumentException("Unknown granularity: " + granularity);
+        }
+    }
+
+}
@@ -17,6 +17,7 @@
 
 package app.nzyme.core.configuration;
 
+import app.nzyme.core.configuration.node.DatabaseConfiguration;
 import app.nzyme.core.configuration.node.NodeConfiguration;
 import app.nzyme.core.ResourcesAccessingTest;
 import app.nzyme.core.configuration.node.NodeConfigurationLoader;
@@ -48,6 +49,7 @@ public class NzymeNodeConfigurationLoaderTest extends ResourcesAccessingTest {
         assertFalse(c.databasePath().isEmpty()); // This one is different based on ENV vars
         assertTrue(c.versionchecksEnabled());
         assertEquals(c.restListenUri(), URI.create("https://127.0.0.1:23900/"));
+        assertEquals(c.database(), DatabaseConfiguration.createDefault());
     }
 
     @Test(expectedExceptions = IncompleteConfigurationException.class)
@@ -0,0 +1,82 @@
+package app.nzyme.core.crypto;
+
+import app.nzyme.core.MockNzyme;
+import app.nzyme.core.NzymeNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares cluster key encryption/decryption with cached key material against the previous approach of parsing
+ * the key files on every operation.
+ *
+ * Requires the test database. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CryptoPGPBenchmark {
+
+    private static final byte[] VALUE = "a typical tap secret or encrypted registry value".getBytes();
+
+    private Crypto crypto;
+    private File privateKeyFile;
+    private File publicKeyFile;
+    private byte[] encrypted;
+
+    @Setup
+    public void setup() throws Crypto.CryptoInitializationException, Crypto.CryptoOperationException {
+        NzymeNode nzyme = new MockNzyme();
+        crypto = new Crypto(nzyme);
+        crypto.initialize(false);
+
+        privateKeyFile = Paths.get(CryptoTestUtils.CRYPTO_TEST_FOLDER.toString(), Crypto.PGP_PRIVATE_KEY_FILE_NAME).toFile();
+        publicKeyFile = Paths.get(CryptoTestUtils.CRYPTO_TEST_FOLDER.toString(), Crypto.PGP_PUBLIC_KEY_FILE_NAME).toFile();
+
+        encrypted = crypto.encryptWithClusterKey(VALUE);
+    }
+
+    @Benchmark
+    public byte[] encryptReadingKeyFromDisk() throws Exception, Crypto.CryptoOperationException {
+        return crypto.encrypt(VALUE, Crypto.readPublicKey(publicKeyFile));
+    }
+
+    @Benchmark
+    public byte[] encryptWithCachedClusterKey() throws Crypto.CryptoOperationException {
+        return crypto.encryptWithClusterKey(VALUE);
+    }
+
+    @Benchmark
+    public byte[] decryptReadingKeyFromDisk() throws IOException, Crypto.CryptoOperationException {
+        try (InputStream keyIn = new BufferedInputStream(new FileInputStream(privateKeyFile))) {
+            return crypto.decrypt(encrypted, keyIn);
+        }
+    }
+
+    @Benchmark
+    public byte[] decryptWithCachedClusterKey() throws Crypto.CryptoOperationException {
+        return crypto.decryptWithClusterKey(encrypted);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CryptoPGPBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -182,8 +182,9 @@ public class CryptoPGPTest {
         byte[] value = "IT IS A SECRET.".getBytes();
         byte[] encrypted = crypto.encryptWithClusterKey(value);
 
-        crypto.initialize();
+        // Key pair is re-generated because the private key is missing.
         privatePath.toFile().delete();
+        crypto.initialize();
 
         crypto.decryptWithClusterKey(encrypted);
     }
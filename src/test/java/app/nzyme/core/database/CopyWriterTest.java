@@ -0,0 +1,49 @@
+package app.nzyme.core.database;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import java.util.UUID;
+
+import static org.testng.Assert.*;
+
+public class CopyWriterTest {
+
+    private static String encode(Object value) {
+        StringBuilder sb = new StringBuilder();
+        CopyWriter.encode(sb, value);
+        return sb.toString();
+    }
+
+    @Test
+    public void testEncodeNull() {
+        assertEquals(encode(null), "\\N");
+    }
+
+    @Test
+    public void testEncodeScalars() {
+        assertEquals(encode(true), "t");
+        assertEquals(encode(false), "f");
+        assertEquals(encode(53), "53");
+        assertEquals(encode(9000000000L), "9000000000");
+        assertEquals(encode(-12.5F), "-12.5");
+        assertEquals(encode("10.0.0.1"), "10.0.0.1");
+
+        UUID uuid = UUID.randomUUID();
+        assertEquals(encode(uuid), uuid.toString());
+    }
+
+    @Test
+    public void testEncodeDateTime() {
+        DateTime timestamp = new DateTime(2023, 5, 1, 12, 30, 15, 250, DateTimeZone.UTC);
+        assertEquals(encode(timestamp), "2023-05-01T12:30:15.250Z");
+    }
+
+    @Test
+    public void testEncodeEscapesSpecialCharacters() {
+        assertEquals(encode("a\tb\nc\rd\\e"), "a\\tb\\nc\\rd\\\\e");
+        assertEquals(encode("\\N"), "\\\\N");
+    }
+
+}
@@ -0,0 +1,189 @@
+package app.nzyme.core.database;
+
+import app.nzyme.core.MockNzyme;
+import app.nzyme.core.NzymeNode;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+public class PartitionManagerTest {
+
+    // Set up like the partitioned DNS tables, with a legacy partition up to LEGACY_END and a default partition.
+    private static final String TABLE = "partition_manager_test";
+
+    private static final DateTime LEGACY_END = new DateTime(2024, 8, 5, 0, 0, DateTimeZone.UTC);
+
+    @BeforeMethod
+    public void createTable() {
+        NzymeNode nzyme = new MockNzyme();
+
+        dropTable(nzyme);
+        nzyme.getDatabase().useHandle(handle -> {
+            handle.execute("CREATE TABLE " + TABLE + " (id bigserial, value text NOT NULL, " +
+                    "created_at timestamp with time zone NOT NULL, PRIMARY KEY (id, created_at)) " +
+                    "PARTITION BY RANGE (created_at)");
+            handle.execute("CREATE TABLE " + TABLE + "_legacy PARTITION OF " + TABLE + " " +
+                    "FOR VALUES FROM (MINVALUE) TO ('" + LEGACY_END + "')");
+            handle.execute("CREATE TABLE " + TABLE + "_default PARTITION OF " + TABLE + " DEFAULT");
+        });
+    }
+
+    @AfterMethod
+    public void clean() {
+        dropTable(new MockNzyme());
+    }
+
+    @Test
+    public void testCreatePartitionsIsIdempotent() {
+        NzymeNode nzyme = new MockNzyme();
+        PartitionManager partitions = new PartitionManager(nzyme);
+
+        partitions.createPartitions();
+        Map<String, Set<String>> first = Map.of(
+                "dns_log", partitionsOf(nzyme, "dns_log"),
+                "dns_entropy_log", partitionsOf(nzyme, "dns_entropy_log"),
+                "dns_pairs", partitionsOf(nzyme, "dns_pairs"),
+                "dns_statistics", partitionsOf(nzyme, "dns_statistics")
+        );
+
+        String today = "dns_log_p" + DateTime.now(DateTimeZone.UTC).toString("yyyyMMdd");
+        String lastDay = "dns_log_p" + DateTime.now(DateTimeZone.UTC).plusDays(3).toString("yyyyMMdd");
+        assertTrue(first.get("dns_log").contains(today));
+        assertTrue(first.get("dns_log").contains(lastDay));
+
+        partitions.createPartitions();
+        for (Map.Entry<String, Set<String>> table : first.entrySet()) {
+            assertEquals(partitionsOf(nzyme, table.getKey()), table.getValue());
+        }
+    }
+
+    @Test
+    public void testCreatePartitionMovesRowsOutOfDefaultPartition() {
+        NzymeNode nzyme = new MockNzyme();
+        PartitionManager partitions = new PartitionManager(nzyme);
+
+        DateTime day = LEGACY_END.plusDays(2);
+        insert(nzyme, day.plusHours(3));
+        insert(nzyme, day.plusHours(23).plusMinutes(59));
+        insert(nzyme, day.plusDays(1)); // The next day stays in the default partition.
+        insert(nzyme, LEGACY_END.minusHours(1));
+
+        assertEquals(count(nzyme, TABLE + "_default"), 3);
+
+        partitions.createPartition(TABLE, "created_at", day);
+
+        assertTrue(partitionsOf(nzyme, TABLE).contains(TABLE + "_p20240807"));
+        assertEquals(count(nzyme, TABLE + "_p20240807"), 2);
+        assertEquals(count(nzyme, TABLE + "_default"), 1);
+        assertEquals(count(nzyme, TABLE + "_legacy"), 1);
+        assertEquals(count(nzyme, TABLE), 4);
+
+        // Creating it again does nothing.
+        partitions.createPartition(TABLE, "created_at", day);
+        assertEquals(count(nzyme, TABLE + "_p20240807"), 2);
+
+        // Days already covered by the legacy partition are never created.
+        partitions.createPartition(TABLE, "created_at", LEGACY_END.minusDays(1));
+        assertFalse(partitionsOf(nzyme, TABLE).contains(TABLE + "_p20240804"));
+    }
+
+    @Test
+    public void testDropExpiredPartitionsOnlyDropsPartitionsBelowCutoff() {
+        NzymeNode nzyme = new MockNzyme();
+        PartitionManager partitions = new PartitionManager(nzyme);
+
+        for (int i = 0; i < 3; i++) {
+            partitions.createPartition(TABLE, "created_at", LEGACY_END.plusDays(i));
+            insert(nzyme, LEGACY_END.plusDays(i).plusHours(1));
+        }
+        insert(nzyme, LEGACY_END.minusDays(10));
+
+        // Cutoff within the legacy partition. It still holds rows after the cutoff.
+        assertEquals(partitions.dropExpiredPartitions(TABLE, LEGACY_END.minusHours(1)), 0);
+        assertEquals(partitionsOf(nzyme, TABLE).size(), 5);
+
+        // Cutoff within the second daily partition.
+        assertEquals(partitions.dropExpiredPartitions(TABLE, LEGACY_END.plusDays(1).plusHours(12)), 2);
+        assertEquals(partitionsOf(nzyme, TABLE), Set.of(
+                TABLE + "_p20240806",
+                TABLE + "_p20240807",
+                TABLE + "_default"
+        ));
+        assertEquals(count(nzyme, TABLE), 2);
+
+        // The default partition is never dropped, no matter the cutoff.
+        assertEquals(partitions.dropExpiredPartitions(TABLE, LEGACY_END.plusYears(10)), 2);
+        assertEquals(partitionsOf(nzyme, TABLE), Set.of(TABLE + "_default"));
+    }
+
+    @Test
+    public void testGetTableSizeSumsPartitions() {
+        NzymeNode nzyme = new MockNzyme();
+        DatabaseImpl database = (DatabaseImpl) nzyme.getDatabase();
+
+        new PartitionManager(nzyme).createPartition(TABLE, "created_at", LEGACY_END);
+        for (int i = 0; i < 100; i++) {
+            insert(nzyme, LEGACY_END.minusDays(1));
+            insert(nzyme, LEGACY_END.plusHours(1));
+            insert(nzyme, LEGACY_END.plusDays(5));
+        }
+
+        long partitionSizes = 0;
+        for (String partition : partitionsOf(nzyme, TABLE)) {
+            partitionSizes += database.getTableSize(partition);
+        }
+
+        assertTrue(partitionSizes > 0);
+        assertEquals(database.getTableSize(TABLE), partitionSizes + relationSize(nzyme, TABLE));
+    }
+
+    private static void insert(NzymeNode nzyme, DateTime createdAt) {
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate("INSERT INTO " + TABLE + "(value, created_at) VALUES('test', :created_at)")
+                        .bind("created_at", createdAt)
+                        .execute()
+        );
+    }
+
+    private static long count(NzymeNode nzyme, String table) {
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT COUNT(*) FROM " + table)
+                        .mapTo(Long.class)
+                        .one()
+        );
+    }
+
+    private static long relationSize(NzymeNode nzyme, String table) {
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT pg_total_relation_size(:table::regclass)")
+                        .bind("table", table)
+                        .mapTo(Long.class)
+                        .one()
+        );
+    }
+
+    private static Set<String> partitionsOf(NzymeNode nzyme, String table) {
+        List<String> names = nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                                "WHERE i.inhparent = to_regclass(:table)")
+                        .bind("table", table)
+                        .mapTo(String.class)
+                        .list()
+        );
+
+        return Set.copyOf(names);
+    }
+
+    private static void dropTable(NzymeNode nzyme) {
+        nzyme.getDatabase().useHandle(handle -> handle.execute("DROP TABLE IF EXISTS " + TABLE + " CASCADE"));
+    }
+
+}
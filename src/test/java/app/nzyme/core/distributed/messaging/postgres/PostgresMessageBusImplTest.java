@@ -10,6 +10,7 @@ import org.testng.annotations.Test;
 
 import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -288,4 +289,42 @@ public class PostgresMessageBusImplTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSendIsPushedWithNotifications() throws InterruptedException {
+        // Never polls on its own. Delivery can only be triggered by the notification.
+        NzymeNode nzyme = new MockNzyme(Integer.MAX_VALUE, TimeUnit.DAYS, true);
+
+        Semaphore handled = new Semaphore(0);
+        nzyme.getMessageBus().onMessageReceived(MessageType.CHECK_RESTART_HTTP_SERVER, new MessageHandler() {
+            @Override
+            public MessageProcessingResult handle(ReceivedMessage message) {
+                handled.release();
+                return MessageProcessingResult.SUCCESS;
+            }
+
+            @Override
+            public String getName() {
+                return "test";
+            }
+        });
+
+        // Warm up. The first delivery also pays for connections and class loading.
+        nzyme.getMessageBus().send(Message.create(
+                nzyme.getNodeManager().getLocalNodeId(),
+                MessageType.CHECK_RESTART_HTTP_SERVER,
+                Collections.emptyMap(),
+                false
+        ));
+        assertTrue(handled.tryAcquire(5, TimeUnit.SECONDS), "Message was not delivered.");
+
+        nzyme.getMessageBus().send(Message.create(
+                nzyme.getNodeManager().getLocalNodeId(),
+                MessageType.CHECK_RESTART_HTTP_SERVER,
+                Collections.emptyMap(),
+                false
+        ));
+        // Meant to be delivered within 100ms. Some slack for loaded test databases.
+        assertTrue(handled.tryAcquire(250, TimeUnit.MILLISECONDS), "Message was not delivered within 250ms.");
+    }
+
+}
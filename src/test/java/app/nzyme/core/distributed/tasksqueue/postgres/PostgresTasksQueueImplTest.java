@@ -11,6 +11,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -113,6 +115,45 @@ public class PostgresTasksQueueImplTest {
         assertTrue(processingTime > 0);
     }
 
+    @Test
+    public void testPublishIsPushedWithNotifications() throws InterruptedException {
+        // Never polls on its own. Delivery can only be triggered by the notification.
+        MockNzyme nzyme = new MockNzyme(Integer.MAX_VALUE, TimeUnit.DAYS, true);
+        PostgresTasksQueueImpl tq = (PostgresTasksQueueImpl) nzyme.getTasksQueue();
+
+        Semaphore handled = new Semaphore(0);
+        tq.onMessageReceived(TaskType.TEST, new TaskHandler() {
+            @Override
+            public TaskProcessingResult handle(ReceivedTask task) {
+                handled.release();
+                return TaskProcessingResult.SUCCESS;
+            }
+
+            @Override
+            public String getName() {
+                return null;
+            }
+        });
+
+        // Warm up. The first delivery also pays for connections and class loading.
+        tq.publish(Task.create(
+                TaskType.TEST,
+                true,
+                Collections.emptyMap(),
+                true
+        ));
+        assertTrue(handled.tryAcquire(5, TimeUnit.SECONDS), "Task was not delivered.");
+
+        tq.publish(Task.create(
+                TaskType.TEST,
+                true,
+                Collections.emptyMap(),
+                true
+        ));
+        // Meant to be delivered within 100ms. Some slack for loaded test databases.
+        assertTrue(handled.tryAcquire(250, TimeUnit.MILLISECONDS), "Task was not delivered within 250ms.");
+    }
+
     @Test
     public void testPublishFailure() throws InterruptedException {
         MockNzyme nzyme = new MockNzyme(Integer.MAX_VALUE, TimeUnit.DAYS);
@@ -176,6 +217,66 @@ public class PostgresTasksQueueImplTest {
         assertTrue(processingTime > 0);
     }
 
+    @Test
+    public void testPollRespectsTaskTypeConcurrency() throws InterruptedException {
+        MockNzyme nzyme = new MockNzyme(Integer.MAX_VALUE, TimeUnit.DAYS);
+        PostgresTasksQueueImpl tq = (PostgresTasksQueueImpl) nzyme.getTasksQueue();
+        int concurrency = nzyme.getConfiguration().performance().taskConcurrency();
+
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger(0);
+        tq.onMessageReceived(TaskType.TEST, new TaskHandler() {
+            @Override
+            public TaskProcessingResult handle(ReceivedTask task) {
+                calls.incrementAndGet();
+                try {
+                    finish.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {}
+                return TaskProcessingResult.SUCCESS;
+            }
+
+            @Override
+            public String getName() {
+                return null;
+            }
+        });
+
+        for (int i = 0; i < concurrency + 1; i++) {
+            tq.publish(Task.create(
+                    TaskType.TEST,
+                    true,
+                    Collections.emptyMap(),
+                    true
+            ));
+        }
+
+        tq.poll();
+        Thread.sleep(100);
+        assertEquals(calls.get(), concurrency);
+
+        // The task over the limit was left in the queue for other nodes.
+        long stillNew = nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT COUNT(*) FROM tasks_queue WHERE status = 'NEW'")
+                        .mapTo(Long.class)
+                        .one()
+        );
+        assertEquals(stillNew, 1);
+
+        finish.countDown();
+        Thread.sleep(100);
+
+        tq.poll();
+        Thread.sleep(100);
+        assertEquals(calls.get(), concurrency + 1);
+
+        long notSuccess = nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT COUNT(*) FROM tasks_queue WHERE status != 'PROCESSED_SUCCESS'")
+                        .mapTo(Long.class)
+                        .one()
+        );
+        assertEquals(notSuccess, 0);
+    }
+
     @Test
     public void testMultiProducerSingleConsumer() throws IOException, InterruptedException {
         MockNzyme nzyme = new MockNzyme(Integer.MAX_VALUE, TimeUnit.DAYS);
@@ -0,0 +1,105 @@
+package app.nzyme.core.dot11.bandits;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching the fingerprints of a report against all bandits with the previous linear scan and with the
+ * {@link Dot11BanditIndex}. One operation matches all fingerprints of a report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class Dot11BanditIndexBenchmark {
+
+    private static final int FINGERPRINTS_PER_BANDIT = 5;
+    private static final int REPORT_FINGERPRINTS = 500;
+
+    @Param({"10", "100", "1000"})
+    public int customBandits;
+
+    private List<Dot11BanditDescription> bandits;
+    private Dot11BanditIndex index;
+    private List<String> reportFingerprints;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        bandits = Lists.newArrayList(Dot11Bandits.BUILT_IN);
+        List<String> banditFingerprints = Lists.newArrayList();
+        for (int i = 0; i < customBandits; i++) {
+            List<String> fingerprints = Lists.newArrayList();
+            for (int f = 0; f < FINGERPRINTS_PER_BANDIT; f++) {
+                fingerprints.add(fingerprint(random));
+            }
+            banditFingerprints.addAll(fingerprints);
+
+            bandits.add(Dot11BanditDescription.create(
+                    UUID.randomUUID().toString(), true, "bandit-" + i, "Benchmark bandit.", fingerprints
+            ));
+        }
+
+        index = new Dot11BanditIndex(bandits);
+
+        // Most observed fingerprints are not bandits.
+        reportFingerprints = Lists.newArrayList();
+        for (int i = 0; i < REPORT_FINGERPRINTS; i++) {
+            if (i % 20 == 0) {
+                reportFingerprints.add(banditFingerprints.get(random.nextInt(banditFingerprints.size())));
+            } else {
+                reportFingerprints.add(fingerprint(random));
+            }
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole bh) {
+        for (String fingerprint : reportFingerprints) {
+            for (Dot11BanditDescription bandit : bandits) {
+                if (bandit.fingerprints() != null && bandit.fingerprints().contains(fingerprint)) {
+                    bh.consume(bandit);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void indexLookup(Blackhole bh) {
+        for (String fingerprint : reportFingerprints) {
+            for (Dot11BanditDescription bandit : index.match(fingerprint)) {
+                bh.consume(bandit);
+            }
+        }
+    }
+
+    private static String fingerprint(Random random) {
+        StringBuilder sb = new StringBuilder(64);
+        for (int i = 0; i < 64; i++) {
+            sb.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(Dot11BanditIndexBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
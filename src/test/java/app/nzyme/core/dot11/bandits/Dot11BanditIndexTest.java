@@ -0,0 +1,26 @@
+package app.nzyme.core.dot11.bandits;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class Dot11BanditIndexTest {
+
+    @Test
+    public void testMatchesAllBanditsOfFingerprint() {
+        Dot11BanditDescription a = Dot11BanditDescription.create("a", true, "A", "A", List.of("fp1", "fp2"));
+        Dot11BanditDescription b = Dot11BanditDescription.create("b", true, "B", "B", List.of("fp2", "fp2"));
+        Dot11BanditDescription noFingerprints = Dot11BanditDescription.create("c", false, "C", "C", null);
+
+        Dot11BanditIndex index = new Dot11BanditIndex(List.of(a, b, noFingerprints));
+
+        assertEquals(List.copyOf(index.match("fp1")), List.of(a));
+        assertEquals(List.copyOf(index.match("fp2")), List.of(a, b));
+        assertTrue(index.match("fp3").isEmpty());
+        assertEquals(index.getFingerprintCount(), 2);
+        assertEquals(index.getBandits().size(), 3);
+    }
+
+}
@@ -0,0 +1,285 @@
+package app.nzyme.core.dot11.monitoring;
+
+import app.nzyme.core.MockNzyme;
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.detection.alerts.DetectionAlertService;
+import app.nzyme.core.detection.alerts.DetectionType;
+import app.nzyme.core.dot11.Dot11;
+import app.nzyme.core.dot11.db.SignalTrackHistogramEntry;
+import app.nzyme.core.dot11.db.monitoring.MonitoredBSSID;
+import app.nzyme.core.dot11.db.monitoring.MonitoredChannel;
+import app.nzyme.core.dot11.db.monitoring.MonitoredSSID;
+import app.nzyme.core.dot11.tracks.TrackDetector;
+import app.nzyme.core.dot11.tracks.db.TrackDetectorConfig;
+import app.nzyme.core.security.authentication.db.OrganizationEntry;
+import app.nzyme.core.security.authentication.db.TenantEntry;
+import app.nzyme.core.taps.Tap;
+import app.nzyme.core.taps.TapManager;
+import app.nzyme.core.util.TimeRangeFactory;
+import app.nzyme.plugin.Subsystem;
+import com.google.common.collect.Sets;
+import jakarta.annotation.Nullable;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.jdbi.v3.core.Handle;
+import org.joda.time.DateTime;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+
+public class Dot11SignalTrackMonitorTest {
+
+    private static final String BSSID_A = "00:C0:CA:00:00:01";
+    private static final String BSSID_B = "00:C0:CA:00:00:02";
+
+    @BeforeMethod
+    public void clean() {
+        NzymeNode nzyme = new MockNzyme();
+
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM dot11_channel_histograms").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM dot11_ssids").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM dot11_bssids").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM dot11_track_detector_configuration").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM dot11_monitored_networks_channels").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM dot11_monitored_networks_bssids").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM dot11_monitored_networks").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM bus_channels").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM tap_buses").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM taps").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM auth_users").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM auth_tenants").execute());
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM auth_organizations").execute());
+    }
+
+    @Test
+    public void testRaisesSameAlertsAsPerCombinationDetection() {
+        SignalTrackNzyme nzyme = new SignalTrackNzyme();
+
+        OrganizationEntry org = nzyme.getAuthenticationService().createOrganization("test org", "test org");
+        TenantEntry tenant = nzyme.getAuthenticationService()
+                .createTenant(org.uuid(), "test tenant", "test tenant", 720, 15, 5);
+
+        UUID tap1 = nzyme.getAuthenticationService().createTap(org.uuid(), tenant.uuid(),
+                RandomStringUtils.random(64, true, true), "test tap 1", "test tap 1").uuid();
+        UUID tap2 = nzyme.getAuthenticationService().createTap(org.uuid(), tenant.uuid(),
+                RandomStringUtils.random(64, true, true), "test tap 2", "test tap 2").uuid();
+
+        MonitoredSSID network1 = createMonitoredNetwork(nzyme, "network 1", org.uuid(), tenant.uuid(),
+                List.of(BSSID_A), List.of(2412L, 2437L));
+        MonitoredSSID network2 = createMonitoredNetwork(nzyme, "network 2", org.uuid(), tenant.uuid(),
+                List.of(BSSID_A, BSSID_B), List.of(2412L));
+
+        writeSignals(nzyme, tap1, BSSID_A, "network 1", 2412, 2);
+        writeSignals(nzyme, tap1, BSSID_A, "network 1", 2437, 1);
+        writeSignals(nzyme, tap2, BSSID_A, "network 1", 2437, 2);
+        writeSignals(nzyme, tap1, BSSID_A, "network 2", 2412, 1);
+        writeSignals(nzyme, tap1, BSSID_B, "network 2", 2412, 2);
+        writeSignals(nzyme, tap2, BSSID_B, "network 2", 2412, 2);
+
+        // Not monitored: BSSID of network 1, channel of network 2 and an unmonitored network on a monitored BSSID.
+        writeSignals(nzyme, tap1, BSSID_B, "network 1", 2412, 2);
+        writeSignals(nzyme, tap1, BSSID_B, "network 2", 2437, 2);
+        writeSignals(nzyme, tap1, BSSID_A, "network 3", 2412, 2);
+
+        // Custom detector configuration that does not detect the two tracks of this combination.
+        nzyme.getDot11().updateCustomTrackDetectorConfiguration(
+                org.uuid(), tap2, BSSID_B, "network 2", 2412, 1000, 9, 8);
+
+        new Dot11SignalTrackMonitor(nzyme).execute();
+
+        Set<String> expected = Sets.newHashSet(
+                alertKey(network1, BSSID_A, 2412, tap1),
+                alertKey(network1, BSSID_A, 2437, tap2),
+                alertKey(network2, BSSID_B, 2412, tap1)
+        );
+        assertEquals(nzyme.alerts.raised, expected);
+        assertEquals(detectPerCombination(nzyme), expected);
+    }
+
+    /**
+     * The detection as it ran before signals were loaded with one query per monitored network.
+     */
+    private static Set<String> detectPerCombination(SignalTrackNzyme nzyme) {
+        Set<String> alerts = Sets.newHashSet();
+
+        for (MonitoredSSID monitoredSSID : nzyme.getDot11().findAllMonitoredSSIDs(null, null)) {
+            List<UUID> tapUUIDs = nzyme.getTapManager()
+                    .allTapUUIDsAccessibleByScope(monitoredSSID.organizationId(), monitoredSSID.tenantId());
+
+            for (MonitoredBSSID monitoredBSSID : nzyme.getDot11().findMonitoredBSSIDsOfMonitoredNetwork(monitoredSSID.id())) {
+                for (MonitoredChannel frequency : nzyme.getDot11().findMonitoredChannelsOfMonitoredNetwork(monitoredSSID.id())) {
+                    for (UUID tapId : tapUUIDs) {
+                        Tap tap = nzyme.getTapManager().findTap(tapId).orElseThrow();
+
+                        List<SignalTrackHistogramEntry> signals = nzyme.getDot11().getSSIDSignalStrengthWaterfall(
+                                monitoredBSSID.bssid(), monitoredSSID.ssid(), (int) frequency.frequency(),
+                                TimeRangeFactory.eightHours(), tap.uuid());
+
+                        TrackDetectorConfig config = nzyme.getDot11()
+                                .findCustomTrackDetectorConfiguration(tap.organizationId(), tap.uuid(),
+                                        monitoredBSSID.bssid(), monitoredSSID.ssid(), (int) frequency.frequency())
+                                .orElse(TrackDetector.DEFAULT_CONFIG);
+
+                        TrackDetector.TrackDetectorHeatmapData heatmap = TrackDetector.toChartAxisMaps(signals);
+                        if (new TrackDetector().detect(heatmap.z(), heatmap.y(), config).size() > 1) {
+                            alerts.add(alertKey(monitoredSSID, monitoredBSSID.bssid(),
+                                    frequency.frequency(), tap.uuid()));
+                        }
+                    }
+                }
+            }
+        }
+
+        return alerts;
+    }
+
+    private static MonitoredSSID createMonitoredNetwork(NzymeNode nzyme,
+                                                       String ssid,
+                                                       UUID organizationId,
+                                                       UUID tenantId,
+                                                       List<String> bssids,
+                                                       List<Long> frequencies) {
+        nzyme.getDot11().createMonitoredSSID(ssid, organizationId, tenantId);
+
+        MonitoredSSID network = nzyme.getDot11().findAllMonitoredSSIDs(organizationId, tenantId).stream()
+                .filter(n -> n.ssid().equals(ssid))
+                .findFirst()
+                .orElseThrow();
+
+        nzyme.getDot11().setMonitoredSSIDEnabledState(network.id(), true);
+        nzyme.getDot11().setMonitorAlertStatus(
+                network.id(), Dot11.MonitorActiveStatusTypeColumn.UNEXPECTED_SIGNAL_TRACKS, true);
+
+        for (String bssid : bssids) {
+            nzyme.getDot11().createMonitoredBSSID(network.id(), bssid);
+        }
+
+        for (long frequency : frequencies) {
+            nzyme.getDot11().createMonitoredChannel(network.id(), frequency);
+        }
+
+        return network;
+    }
+
+    /**
+     * Writes ten minutes of signals of one advertised network, with one track around -50 dBm and, for two tracks, a
+     * second one around -80 dBm.
+     */
+    private static void writeSignals(NzymeNode nzyme, UUID tapId, String bssid, String ssid, int frequency, int tracks) {
+        DateTime now = DateTime.now();
+
+        nzyme.getDatabase().useHandle(handle -> {
+            for (int minute = 1; minute <= 10; minute++) {
+                DateTime createdAt = now.minusMinutes(minute);
+
+                long bssidId = handle.createQuery("INSERT INTO dot11_bssids(tap_uuid, bssid, oui, " +
+                                "signal_strength_average, signal_strength_max, signal_strength_min, " +
+                                "hidden_ssid_frames, created_at) VALUES(:tap_uuid, :bssid, NULL, -50, -48, -52, " +
+                                "0, :created_at) RETURNING id")
+                        .bind("tap_uuid", tapId)
+                        .bind("bssid", bssid)
+                        .bind("created_at", createdAt)
+                        .mapTo(Long.class)
+                        .one();
+
+                long ssidId = handle.createQuery("INSERT INTO dot11_ssids(bssid_id, tap_uuid, ssid, bssid, " +
+                                "signal_strength_average, signal_strength_max, signal_strength_min, " +
+                                "beacon_advertisements, proberesp_advertisements, created_at) " +
+                                "VALUES(:bssid_id, :tap_uuid, :ssid, :bssid, -50, -48, -52, 600, 0, :created_at) " +
+                                "RETURNING id")
+                        .bind("bssid_id", bssidId)
+                        .bind("tap_uuid", tapId)
+                        .bind("ssid", ssid)
+                        .bind("bssid", bssid)
+                        .bind("created_at", createdAt)
+                        .mapTo(Long.class)
+                        .one();
+
+                for (int signal = -52; signal <= -48; signal++) {
+                    writeHistogramEntry(handle, ssidId, frequency, signal);
+                }
+
+                if (tracks > 1) {
+                    for (int signal = -82; signal <= -78; signal++) {
+                        writeHistogramEntry(handle, ssidId, frequency, signal);
+                    }
+                }
+            }
+        });
+    }
+
+    private static void writeHistogramEntry(Handle handle, long ssidId, int frequency, int signal) {
+        handle.createUpdate("INSERT INTO dot11_channel_histograms(ssid_id, frequency, signal_strength, " +
+                        "frame_count) VALUES(:ssid_id, :frequency, :signal_strength, 100)")
+                .bind("ssid_id", ssidId)
+                .bind("frequency", frequency)
+                .bind("signal_strength", signal)
+                .execute();
+    }
+
+    private static String alertKey(MonitoredSSID network, String bssid, long frequency, UUID tapId) {
+        return network.uuid() + "/" + bssid + "/" + frequency + "/" + tapId;
+    }
+
+    private static final class SignalTrackNzyme extends MockNzyme {
+
+        private final Dot11 dot11;
+        private final TapManager tapManager;
+        private final RecordingAlertService alerts;
+
+        SignalTrackNzyme() {
+            this.dot11 = new Dot11(this);
+            this.tapManager = new TapManager(this);
+            this.alerts = new RecordingAlertService(this);
+        }
+
+        @Override
+        public Dot11 getDot11() {
+            return dot11;
+        }
+
+        @Override
+        public TapManager getTapManager() {
+            return tapManager;
+        }
+
+        @Override
+        public DetectionAlertService getDetectionAlertService() {
+            return alerts;
+        }
+
+    }
+
+    private static final class RecordingAlertService extends DetectionAlertService {
+
+        private final Set<String> raised = Sets.newConcurrentHashSet();
+
+        RecordingAlertService(NzymeNode nzyme) {
+            super(nzyme);
+        }
+
+        @Override
+        public void raiseAlert(UUID organizationId,
+                               UUID tenantId,
+                               @Nullable UUID dot11MonitoredNetworkId,
+                               @Nullable UUID tapId,
+                               DetectionType detectionType,
+                               Subsystem subsystem,
+                               String details,
+                               Map<String, String> attributes,
+                               String[] comparisonAttributeKeys,
+                               @Nullable Float signalStrength) {
+            assertEquals(detectionType, DetectionType.DOT11_MONITOR_SIGNAL_TRACK);
+
+            raised.add(dot11MonitoredNetworkId + "/" + attributes.get("bssid") + "/"
+                    + attributes.get("channel") + "/" + attributes.get("tap_id"));
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package app.nzyme.core.dot11.monitoring.disco;
+
+import app.nzyme.core.dot11.db.DiscoHistogramEntry;
+import com.google.common.collect.ImmutableSet;
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class DiscoActivityWindowTest {
+
+    private static final DateTime NOW = new DateTime(2024, 3, 1, 12, 30, 15);
+
+    private static DateTime minute(int minutesAgo) {
+        return NOW.withSecondOfMinute(0).withMillisOfSecond(0).minusMinutes(minutesAgo);
+    }
+
+    @Test
+    public void testHistogramIsNewestFirst() {
+        DiscoActivityWindow window = new DiscoActivityWindow(ImmutableSet.of("00:c0:ca:95:68:3b"),
+                Duration.standardHours(24), List.of(
+                        DiscoHistogramEntry.create(minute(10), 5),
+                        DiscoHistogramEntry.create(minute(0), 7),
+                        DiscoHistogramEntry.create(minute(5), 2)
+                ), NOW);
+
+        List<DiscoHistogramEntry> histogram = window.histogram();
+        assertEquals(histogram.size(), 3);
+        assertEquals(histogram.get(0).bucket(), minute(0));
+        assertEquals(histogram.get(1).bucket(), minute(5));
+        assertEquals(histogram.get(2).bucket(), minute(10));
+    }
+
+    @Test
+    public void testUpdateReplacesRecentBucketsAndEvictsOldBuckets() {
+        DiscoActivityWindow window = new DiscoActivityWindow(ImmutableSet.of("00:c0:ca:95:68:3b"),
+                Duration.standardMinutes(30), List.of(
+                        DiscoHistogramEntry.create(minute(29), 1),
+                        DiscoHistogramEntry.create(minute(2), 4),
+                        DiscoHistogramEntry.create(minute(0), 3)
+                ), NOW);
+
+        // Two minutes later. The previously newest bucket was still filling up.
+        DateTime later = NOW.plusMinutes(2);
+        window.update(minute(2), List.of(
+                DiscoHistogramEntry.create(minute(2), 4),
+                DiscoHistogramEntry.create(minute(0), 9),
+                DiscoHistogramEntry.create(minute(-2), 6)
+        ), later);
+
+        List<DiscoHistogramEntry> histogram = window.histogram();
+        assertEquals(histogram.size(), 3);
+        assertEquals(histogram.get(0).bucket(), minute(-2));
+        assertEquals(histogram.get(0).frameCount(), 6);
+        assertEquals(histogram.get(1).bucket(), minute(0));
+        assertEquals(histogram.get(1).frameCount(), 9);
+        assertEquals(histogram.get(2).bucket(), minute(2));
+        assertEquals(histogram.get(2).frameCount(), 4);
+
+        assertEquals(window.refreshedAt(), later);
+    }
+
+    @Test
+    public void testUpdateDropsBucketsThatHadNoMoreActivity() {
+        DiscoActivityWindow window = new DiscoActivityWindow(ImmutableSet.of("00:c0:ca:95:68:3b"),
+                Duration.standardHours(24), List.of(
+                        DiscoHistogramEntry.create(minute(5), 2),
+                        DiscoHistogramEntry.create(minute(1), 3)
+                ), NOW);
+
+        window.update(minute(2), List.of(), NOW.plusMinutes(1));
+
+        List<DiscoHistogramEntry> histogram = window.histogram();
+        assertEquals(histogram.size(), 1);
+        assertEquals(histogram.get(0).bucket(), minute(5));
+    }
+
+}
@@ -0,0 +1,94 @@
+package app.nzyme.core.events;
+
+import app.nzyme.core.MockNzyme;
+import app.nzyme.core.NzymeNode;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.UUID;
+
+import static org.testng.Assert.*;
+
+public class EventActionDispatcherTest {
+
+    @BeforeMethod
+    public void clean() {
+        NzymeNode nzyme = new MockNzyme();
+
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate("TRUNCATE event_action_queue")
+                        .execute()
+        );
+    }
+
+    @Test
+    public void testRetryDelayBacksOffExponentially() {
+        assertEquals(EventActionDispatcher.retryDelaySeconds(0), 5);
+        assertEquals(EventActionDispatcher.retryDelaySeconds(1), 10);
+        assertEquals(EventActionDispatcher.retryDelaySeconds(2), 20);
+        assertEquals(EventActionDispatcher.retryDelaySeconds(5), 160);
+    }
+
+    @Test
+    public void testRetryDelayIsCapped() {
+        assertEquals(EventActionDispatcher.retryDelaySeconds(7), 600);
+        assertEquals(EventActionDispatcher.retryDelaySeconds(100), 600);
+        assertEquals(EventActionDispatcher.retryDelaySeconds(Integer.MAX_VALUE), 600);
+        assertEquals(EventActionDispatcher.retryDelaySeconds(-1), 5);
+    }
+
+    @Test
+    public void testReclaimsStaleActionsOfAnyNode() {
+        NzymeNode nzyme = new MockNzyme();
+        EventActionDispatcher dispatcher = new EventActionDispatcher(nzyme, (EventEngineImpl) nzyme.getEventEngine());
+
+        // Claimed by a node that is no longer part of the cluster.
+        long stale = queueClaimed(nzyme, UUID.randomUUID(), 20);
+        // Claimed by this node and still running.
+        long running = queueClaimed(nzyme, nzyme.getNodeInformation().id(), 1);
+
+        assertEquals(dispatcher.reclaimStaleActions(15), 1);
+
+        assertEquals(status(nzyme, stale), "RETRY");
+        assertNull(ackedBy(nzyme, stale));
+        assertEquals(status(nzyme, running), "ACK");
+        assertEquals(ackedBy(nzyme, running), nzyme.getNodeInformation().id());
+
+        // Nothing left to reclaim.
+        assertEquals(dispatcher.reclaimStaleActions(15), 0);
+    }
+
+    private static long queueClaimed(NzymeNode nzyme, UUID ackedBy, int ackedMinutesAgo) {
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("INSERT INTO event_action_queue(action_id, event_type, reference, details, " +
+                                "event_timestamp, status, retries, next_attempt_at, acked_by, acked_at, created_at) " +
+                                "VALUES(:action_id, 'SYSTEM', 'TEST', '', NOW(), 'ACK', 0, NOW(), :acked_by, " +
+                                "NOW() - make_interval(mins => :minutes), NOW()) RETURNING id")
+                        .bind("action_id", UUID.randomUUID())
+                        .bind("acked_by", ackedBy)
+                        .bind("minutes", ackedMinutesAgo)
+                        .mapTo(Long.class)
+                        .one()
+        );
+    }
+
+    private static String status(NzymeNode nzyme, long id) {
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT status FROM event_action_queue WHERE id = :id")
+                        .bind("id", id)
+                        .mapTo(String.class)
+                        .one()
+        );
+    }
+
+    private static UUID ackedBy(NzymeNode nzyme, long id) {
+        return nzyme.getDatabase().withHandle(handle ->
+                handle.createQuery("SELECT acked_by FROM event_action_queue WHERE id = :id")
+                        .bind("id", id)
+                        .mapTo(UUID.class)
+                        .findOne()
+                        .orElse(null)
+        );
+    }
+
+}
@@ -0,0 +1,90 @@
+package app.nzyme.core.ouis;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compares OUI lookups per second of the lock-free table against the previous locked map under contention from
+ * several threads, the way REST list responses and table writes look up vendors concurrently.
+ *
+ * Uses a synthetic table of the size of the IEEE registry. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class OuiTableBenchmark {
+
+    private static final int OUIS = 35_000;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, String> lockedMap;
+
+    private OuiTable table;
+
+    private String[] macs;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int position;
+    }
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        lockedMap = new HashMap<>();
+        for (int i = 0; i < OUIS; i++) {
+            lockedMap.put(String.format("%06X", random.nextInt(0xFFFFFF)), "Vendor " + i);
+        }
+        table = OuiTable.build(lockedMap);
+
+        // Mix of known and unknown vendors, in lowercase like most MAC addresses we see.
+        macs = new String[4096];
+        String[] known = lockedMap.keySet().toArray(new String[0]);
+        for (int i = 0; i < macs.length; i++) {
+            String oui = i % 2 == 0 ? known[random.nextInt(known.length)] : String.format("%06X", random.nextInt(0xFFFFFF));
+            macs[i] = String.format("%s:%s:%s:%02x:%02x:%02x",
+                    oui.substring(0, 2), oui.substring(2, 4), oui.substring(4, 6),
+                    random.nextInt(256), random.nextInt(256), random.nextInt(256)).toLowerCase();
+        }
+    }
+
+    @Benchmark
+    public String lockedMap(Cursor cursor) {
+        String mac = macs[cursor.position++ & (macs.length - 1)];
+
+        lock.lock();
+        try {
+            return lockedMap.get(mac.toUpperCase().substring(0, 8).replace(":", ""));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Benchmark
+    public String lockFreeTable(Cursor cursor) {
+        return table.lookup(macs[cursor.position++ & (macs.length - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OuiTableBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,75 @@
+package app.nzyme.core.ouis;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class OuiTableTest {
+
+    @Test
+    public void testLookup() {
+        OuiTable table = OuiTable.build(ImmutableMap.of(
+                "001122", "Vendor A",
+                "AABBCC", "Vendor B"
+        ));
+
+        assertEquals(table.size(), 2);
+        assertEquals(table.lookup("00:11:22:33:44:55"), "Vendor A");
+        assertEquals(table.lookup("aa:bb:cc:dd:ee:ff"), "Vendor B");
+        assertEquals(table.lookup("AA-BB-CC-DD-EE-FF"), "Vendor B");
+        assertNull(table.lookup("00:11:23:33:44:55"));
+    }
+
+    @Test
+    public void testMostSpecificPrefixWins() {
+        OuiTable table = OuiTable.build(ImmutableMap.of(
+                "70B3D5", "IEEE Registration Authority",
+                "70B3D51", "MA-M Vendor",
+                "70B3D5F2A", "MA-S Vendor"
+        ));
+
+        assertEquals(table.lookup("70:B3:D5:F2:A0:01"), "MA-S Vendor");
+        assertEquals(table.lookup("70:B3:D5:F2:B0:01"), "IEEE Registration Authority");
+        assertEquals(table.lookup("70:B3:D5:1F:00:01"), "MA-M Vendor");
+        assertEquals(table.lookup("70:B3:D5:20:00:01"), "IEEE Registration Authority");
+    }
+
+    @Test
+    public void testInvalidInput() {
+        OuiTable table = OuiTable.build(ImmutableMap.of(
+                "001122", "Vendor A",
+                "0011", "Too short",
+                "0011223344", "Too long",
+                "00112X", "Not hex"
+        ));
+
+        assertEquals(table.size(), 1);
+        assertNull(table.lookup(null));
+        assertNull(table.lookup("00:11:22"));
+        assertNull(table.lookup("0G:11:22:33:44:55"));
+    }
+
+    @Test
+    public void testLargeTable() {
+        Map<String, String> ouis = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            ouis.put(String.format("%06X", i * 7), "Vendor " + i);
+        }
+
+        OuiTable table = OuiTable.build(ouis);
+        assertEquals(table.size(), 50_000);
+
+        for (int i = 0; i < 50_000; i++) {
+            String oui = String.format("%06X", i * 7);
+            String mac = oui.substring(0, 2) + ":" + oui.substring(2, 4) + ":" + oui.substring(4, 6) + ":00:00:00";
+            assertEquals(table.lookup(mac), "Vendor " + i);
+        }
+
+        assertNull(table.lookup("FF:FF:FF:00:00:00"));
+    }
+
+}
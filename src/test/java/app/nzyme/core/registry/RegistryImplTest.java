@@ -73,8 +73,9 @@ public class RegistryImplTest {
 
         r.setEncryptedValue("foo", "bar");
 
-        nzyme.getCrypto().initialize();
+        // Key pair is re-generated because the private key is missing.
         privatePath.toFile().delete();
+        nzyme.getCrypto().initialize();
 
         r.getEncryptedValue("foo");
 
@@ -251,6 +252,31 @@ public class RegistryImplTest {
         nzyme.shutdown();
     }
 
+    @Test
+    public void testValueIsServedFromCacheUntilInvalidated() {
+        NzymeNode nzyme = new MockNzyme();
+        Registry r = new RegistryImpl(nzyme, "test");
+
+        r.setValue("foo", "bar");
+
+        // Change the value behind the back of the registry.
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate("UPDATE registry SET value = 'baz' WHERE key = 'test.foo'")
+                        .execute()
+        );
+
+        assertEquals(r.getValue("foo").get(), "bar");
+
+        nzyme.getRegistryCache().invalidate(RegistryImpl.buildNamespacedKey("test", "foo"));
+        assertEquals(r.getValue("foo").get(), "baz");
+
+        // Writes and deletes go through.
+        r.setValue("foo", "qux");
+        assertEquals(r.getValue("foo").get(), "qux");
+        r.deleteValue("foo");
+        assertTrue(r.getValue("foo").isEmpty());
+    }
+
     @Test(expectedExceptions = {IllegalArgumentException.class},
             expectedExceptionsMessageRegExp = "Value length exceeded\\.")
     public void testSetExceedinglyLongValue() {
@@ -0,0 +1,157 @@
+package app.nzyme.core.rest;
+
+import app.nzyme.core.dot11.db.BSSIDSummary;
+import app.nzyme.core.ethernet.L4AddressData;
+import app.nzyme.core.ethernet.L4Type;
+import app.nzyme.core.rest.responses.dot11.BSSIDListResponse;
+import app.nzyme.core.rest.responses.dot11.BSSIDSummaryDetailsResponse;
+import app.nzyme.core.rest.responses.dot11.Dot11MacAddressResponse;
+import app.nzyme.core.rest.responses.ethernet.dns.DNSLogDataResponse;
+import app.nzyme.core.rest.responses.ethernet.dns.DNSLogEntryResponse;
+import app.nzyme.core.rest.responses.ethernet.dns.DNSLogListResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the BSSID list and the DNS transaction log, the largest list responses of the REST API. Compares a
+ * new mapper per response, the shared mapper with the whole response built in memory first and the shared mapper
+ * streaming rows as they are mapped. Results are microseconds per response.
+ *
+ * Rows are built from synthetic database results, so this does not require the test database. Run the main method
+ * from the test classpath. It also attaches the GC profiler, which reports allocated bytes per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RestSerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private List<BSSIDSummary> bssids;
+    private List<DNSLogDataResponse> dnsLogs;
+
+    @Setup
+    public void setup() {
+        DateTime now = DateTime.now();
+
+        bssids = Lists.newArrayListWithCapacity(rows);
+        dnsLogs = Lists.newArrayListWithCapacity(rows);
+        for (int i = 0; i < rows; i++) {
+            String mac = String.format("02:00:00:%02X:%02X:%02X", (i >> 16) & 0xFF, (i >> 8) & 0xFF, i & 0xFF);
+
+            bssids.add(BSSIDSummary.create(mac, -60.5F, now.minusHours(1), now, 0, i % 25,
+                    List.of("Network " + (i % 100)), List.of("WPA2-PSK-CCMP"), List.of("a1b2c3d4" + (i % 10)),
+                    List.of("Infrastructure"), List.of()));
+
+            dnsLogs.add(DNSLogDataResponse.create(UUID.randomUUID(), UUID.randomUUID(), i,
+                    RestHelpers.L4AddressDataToResponse(L4Type.UDP,
+                            L4AddressData.create(mac, "192.168.1." + (i % 250), 40000 + (i % 20000), null, null)),
+                    RestHelpers.L4AddressDataToResponse(L4Type.UDP,
+                            L4AddressData.create("02:00:00:00:00:01", "10.0.0.53", 53, null, null)),
+                    "host" + i + ".example.com", "example.com", "A", "query", now, now));
+        }
+    }
+
+    @Benchmark
+    public void bssidsFreshMapper() throws IOException {
+        ObjectMapper om = ObjectMapperProvider.buildMapper();
+        om.writeValue(sink, BSSIDListResponse.create(buildBSSIDResponses()));
+    }
+
+    @Benchmark
+    public void bssidsSharedMapper() throws IOException {
+        ObjectMapperProvider.getSharedMapper().writeValue(sink, BSSIDListResponse.create(buildBSSIDResponses()));
+    }
+
+    @Benchmark
+    public void bssidsStreamed() throws IOException {
+        new StreamingJsonList<>(BSSIDSummaryDetailsResponse.class, "bssids", row -> {
+            for (BSSIDSummary bssid : bssids) {
+                row.accept(bssidToResponse(bssid));
+            }
+        }).write(sink);
+    }
+
+    @Benchmark
+    public void dnsLogFreshMapper() throws IOException {
+        ObjectMapper om = ObjectMapperProvider.buildMapper();
+        om.writeValue(sink, DNSLogListResponse.create(rows, buildDNSLogResponses()));
+    }
+
+    @Benchmark
+    public void dnsLogSharedMapper() throws IOException {
+        ObjectMapperProvider.getSharedMapper().writeValue(sink, DNSLogListResponse.create(rows, buildDNSLogResponses()));
+    }
+
+    @Benchmark
+    public void dnsLogStreamed() throws IOException {
+        new StreamingJsonList<>(DNSLogEntryResponse.class, Map.<String, Object>of("total", (long) rows), "logs", row -> {
+            for (DNSLogDataResponse log : dnsLogs) {
+                row.accept(DNSLogEntryResponse.create(log));
+            }
+        }).write(sink);
+    }
+
+    private List<BSSIDSummaryDetailsResponse> buildBSSIDResponses() {
+        List<BSSIDSummaryDetailsResponse> result = Lists.newArrayListWithCapacity(bssids.size());
+        for (BSSIDSummary bssid : bssids) {
+            result.add(bssidToResponse(bssid));
+        }
+
+        return result;
+    }
+
+    private List<DNSLogEntryResponse> buildDNSLogResponses() {
+        List<DNSLogEntryResponse> result = Lists.newArrayListWithCapacity(dnsLogs.size());
+        for (DNSLogDataResponse log : dnsLogs) {
+            result.add(DNSLogEntryResponse.create(log));
+        }
+
+        return result;
+    }
+
+    private static BSSIDSummaryDetailsResponse bssidToResponse(BSSIDSummary bssid) {
+        return BSSIDSummaryDetailsResponse.create(
+                Dot11MacAddressResponse.create(bssid.bssid(), "Example Corp", null, null),
+                bssid.securityProtocols(),
+                bssid.signalStrengthAverage(),
+                bssid.firstSeen(),
+                bssid.lastSeen(),
+                bssid.clientCount(),
+                bssid.fingerprints(),
+                bssid.ssids(),
+                bssid.hiddenSSIDFrames() > 0,
+                bssid.infrastructureTypes()
+        );
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RestSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,88 @@
+package app.nzyme.core.rest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class StreamingJsonListTest {
+
+    public static class Row {
+
+        private final String name;
+        private final DateTime timestamp;
+
+        public Row(String name, DateTime timestamp) {
+            this.name = name;
+            this.timestamp = timestamp;
+        }
+
+        @JsonProperty("name")
+        public String name() {
+            return name;
+        }
+
+        @JsonProperty("timestamp")
+        public DateTime timestamp() {
+            return timestamp;
+        }
+
+    }
+
+    private static String write(StreamingJsonList<Row> list) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        list.write(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testWritesFieldsAndRows() throws IOException {
+        List<Row> rows = List.of(
+                new Row("first", new DateTime(2024, 8, 1, 10, 0, DateTimeZone.UTC)),
+                new Row("second", new DateTime(2024, 8, 1, 11, 0, DateTimeZone.UTC))
+        );
+
+        String streamed = write(new StreamingJsonList<>(Row.class, Map.of("total", 2L), "rows", rows::forEach));
+
+        assertEquals(streamed, "{\"total\":2,\"rows\":[" +
+                "{\"name\":\"first\",\"timestamp\":\"2024-08-01T10:00:00.000Z\"}," +
+                "{\"name\":\"second\",\"timestamp\":\"2024-08-01T11:00:00.000Z\"}]}");
+    }
+
+    @Test
+    public void testWritesEmptyList() throws IOException {
+        assertEquals(write(new StreamingJsonList<>(Row.class, "rows", row -> { })), "{\"rows\":[]}");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testPassesWriteFailures() throws IOException {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Connection reset.");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Connection reset.");
+            }
+        };
+
+        // Enough rows to overflow the generator buffer while streaming.
+        new StreamingJsonList<>(Row.class, "rows", row -> {
+            for (int i = 0; i < 10000; i++) {
+                row.accept(new Row("row-" + i, DateTime.now()));
+            }
+        }).write(broken);
+    }
+
+}
@@ -65,6 +65,37 @@ public class TapAuthenticationFilterTest {
         assertFalse(ctx.aborted);
     }
 
+    @Test
+    public void testFilterRejectsCycledSecret() throws IOException {
+        NzymeNode nzyme = new MockNzyme();
+
+        OrganizationEntry org = nzyme.getAuthenticationService()
+                .createOrganization("test org", "test org");
+        TenantEntry tenant = nzyme.getAuthenticationService()
+                .createTenant(org.uuid(), "test tenant", "test tenant", 720, 15, 5);
+
+        String oldSecret = RandomStringUtils.random(64, true, true);
+        TapPermissionEntry tap = nzyme.getAuthenticationService()
+                .createTap(org.uuid(), tenant.uuid(), oldSecret, "test tap", "test tap");
+
+        TapAuthenticationFilter f = new TapAuthenticationFilter(nzyme);
+
+        MockHeaderContainerRequest ctx1 = new MockHeaderContainerRequest("Bearer " + oldSecret);
+        f.filter(ctx1);
+        assertFalse(ctx1.aborted);
+
+        String newSecret = RandomStringUtils.random(64, true, true);
+        nzyme.getAuthenticationService().cycleTapSecret(org.uuid(), tenant.uuid(), tap.uuid(), newSecret);
+
+        MockHeaderContainerRequest ctx2 = new MockHeaderContainerRequest("Bearer " + oldSecret);
+        f.filter(ctx2);
+        assertTrue(ctx2.aborted);
+
+        MockHeaderContainerRequest ctx3 = new MockHeaderContainerRequest("Bearer " + newSecret);
+        f.filter(ctx3);
+        assertFalse(ctx3.aborted);
+    }
+
     @Test()
     public void testFilterRejectsInvalidSecret() throws IOException {
         NzymeNode nzyme = new MockNzyme();
@@ -0,0 +1,132 @@
+package app.nzyme.core.rest.resources.assets;
+
+import app.nzyme.core.MockNzyme;
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.rest.web.AssetManifest;
+import app.nzyme.core.rest.web.IndexHtmlGenerator;
+import app.nzyme.core.rest.web.StaticAsset;
+import app.nzyme.core.rest.web.StaticAssetStore;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.message.DeflateEncoder;
+import org.glassfish.jersey.message.GZipEncoder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.filter.EncodingFilter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.activation.MimetypesFileTypeMap;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second of the web interface index and of its largest JavaScript bundle, served over HTTP by the
+ * asset resource.
+ *
+ * Requires the test database and the web interface assets on the classpath. Run `mvn package` at least once and then
+ * the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class WebInterfaceAssetsBenchmark {
+
+    private HttpServer server;
+    private OkHttpClient client;
+
+    private String baseUri;
+    private String bundlePath;
+    private String bundleEntityTag;
+
+    @Setup
+    public void setup() throws IOException {
+        NzymeNode nzyme = new MockNzyme();
+
+        MimetypesFileTypeMap mimeTypes = new MimetypesFileTypeMap();
+        AssetManifest manifest = new AssetManifest();
+        StaticAssetStore assets = StaticAssetStore.load(mimeTypes, manifest);
+        IndexHtmlGenerator indexHtmlGenerator = new IndexHtmlGenerator(nzyme.getConfiguration(), manifest);
+
+        // The largest bundle is where per-request reading and compressing used to hurt most.
+        StaticAsset largest = null;
+        for (String path : assets.paths()) {
+            StaticAsset asset = assets.get(path);
+            if (path.endsWith(".js") && (largest == null || asset.getSize() > largest.getSize())) {
+                largest = asset;
+                bundlePath = path;
+            }
+        }
+
+        if (largest == null) {
+            throw new IllegalStateException("No JavaScript bundle found. Run `mvn package` at least once.");
+        }
+
+        bundleEntityTag = largest.getEntityTag(largest.select("gzip, deflate, br"));
+
+        ResourceConfig resourceConfig = new ResourceConfig();
+        resourceConfig.register(new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(assets).to(StaticAssetStore.class);
+                bind(indexHtmlGenerator).to(IndexHtmlGenerator.class);
+            }
+        });
+        resourceConfig.registerClasses(EncodingFilter.class, GZipEncoder.class, DeflateEncoder.class);
+        resourceConfig.register(WebInterfaceAssetsResource.class);
+
+        server = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://127.0.0.1:0/"), resourceConfig);
+        baseUri = "http://127.0.0.1:" + server.getListener("grizzly").getPort() + "/";
+
+        client = new OkHttpClient();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.shutdownNow();
+    }
+
+    @Benchmark
+    public int index() throws IOException {
+        return fetch(new Request.Builder().url(baseUri));
+    }
+
+    @Benchmark
+    public int largeBundle() throws IOException {
+        return fetch(new Request.Builder().url(baseUri + "assets/" + bundlePath));
+    }
+
+    @Benchmark
+    public int largeBundleNotModified() throws IOException {
+        return fetch(new Request.Builder()
+                .url(baseUri + "assets/" + bundlePath)
+                .header("If-None-Match", bundleEntityTag));
+    }
+
+    private int fetch(Request.Builder request) throws IOException {
+        // Setting Accept-Encoding ourselves keeps OkHttp from decompressing. We measure the server.
+        try (Response response = client.newCall(request.header("Accept-Encoding", "gzip, deflate, br").build()).execute()) {
+            return response.body().bytes().length;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(WebInterfaceAssetsBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,152 @@
+package app.nzyme.core.rest.resources.taps.reports.tables.protobuf;
+
+import app.nzyme.core.rest.ProtobufTablesReportReader;
+import app.nzyme.core.rest.resources.taps.reports.tables.bluetooth.BluetoothDeviceReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.bluetooth.BluetoothDevicesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsEntropyLogReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsIpStatisticsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsLogReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsTablesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dot11.*;
+import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshVersionReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionsReport;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class TablesReportDecoderTest {
+
+    private static final DateTime T1 = new DateTime(1722508215123L, DateTimeZone.UTC);
+    private static final DateTime T2 = T1.plusSeconds(30);
+
+    private static Object roundTrip(Object report) throws IOException {
+        byte[] bytes = TablesReportEncoder.encode(report).toByteArray();
+        return ProtobufTablesReportReader.decode(report.getClass(), new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void testDot11RoundTrip() throws IOException {
+        Dot11SignalStrengthReport signal = Dot11SignalStrengthReport.create(-70, -40, -55.5F);
+
+        Dot11TablesReport report = Dot11TablesReport.create(
+                Map.of("00:11:22:33:44:55", Dot11BSSIDReport.create(
+                        Map.of("Example Network", Dot11AdvertisedNetworkReport.create(
+                                List.of(Dot11SecurityInformationReport.create(
+                                        List.of("WPA2"),
+                                        Dot11CipherSuitesReport.create("CCMP", List.of("CCMP"), List.of("PSK")),
+                                        "Optional")),
+                                List.of("a1b2c3"),
+                                List.of(1.0F, 5.5F, 54.0F),
+                                List.of(false),
+                                signal,
+                                Map.of(6L, Map.of(-55L, 10L, -60L, 2L)),
+                                List.of("infrastructure"),
+                                Map.of(6L, Map.of("beacon", Dot11ChannelStatisticsReport.create(5000, 25))),
+                                25,
+                                3)),
+                        Map.of("66:77:88:99:AA:BB", Dot11ClientStatisticsReport.create(10, 1000, 12, 1400, signal)),
+                        0,
+                        signal,
+                        List.of("a1b2c3"))),
+                Map.of("66:77:88:99:AA:BB", Dot11ClientReport.create(Map.of("Other Network", 4L), 2, signal)),
+                Dot11DiscoReport.create(
+                        Map.of("00:11:22:33:44:55", Dot11DiscoTransmitterReport.create(
+                                "00:11:22:33:44:55", 20, Map.of("66:77:88:99:AA:BB", 20L))),
+                        Map.of()),
+                List.of(Dot11AlertReport.create(
+                        Dot11AlertReport.AlertType.PwnagotchiDetected,
+                        Map.of("name", Map.of(Dot11AlertReport.AlertAttributeType.String, "pwny"),
+                                "pwned_run", Map.of(Dot11AlertReport.AlertAttributeType.Number, 12L)),
+                        -50L))
+        );
+
+        assertEquals(roundTrip(report), report);
+    }
+
+    @Test
+    public void testDnsRoundTripKeepsNulls() throws IOException {
+        DnsTablesReport report = DnsTablesReport.create(
+                Map.of("10.0.0.1", DnsIpStatisticsReport.create(10L, 800L, 9L, 1600L, 1L)),
+                List.of(DnsEntropyLogReport.create(5, 4.2F, 3.1F, 1.5F, T1)),
+                List.of(DnsLogReport.create(5, "10.0.0.1", "10.0.0.53", "02:00:00:00:00:01", null,
+                        40000, 53, "example.com", null, "A", T1)),
+                List.of(DnsLogReport.create(null, "10.0.0.1", "10.0.0.53", null, null,
+                        40000, 53, "93.184.216.34", "example.com", "A", T2))
+        );
+
+        assertEquals(roundTrip(report), report);
+    }
+
+    @Test
+    public void testSessionRoundTrips() throws IOException {
+        TcpSessionsReport tcp = TcpSessionsReport.create(List.of(
+                TcpSessionReport.create("Established", null, "02:00:00:00:00:02", "10.0.0.1", 40000,
+                        "10.0.0.2", 22, T1, null, T2, 10, 4000, null),
+                TcpSessionReport.create("ClosedFin", "02:00:00:00:00:01", null, "10.0.0.1", 40001,
+                        "10.0.0.2", 80, T1, T2, T2, 4, 500, List.of())
+        ));
+        assertEquals(roundTrip(tcp), tcp);
+
+        SshSessionsReport ssh = SshSessionsReport.create(List.of(SshSessionReport.create(
+                SshVersionReport.create("2.0", "OpenSSH_9.6", null),
+                SshVersionReport.create("2.0", "OpenSSH_9.6p1", "Ubuntu-3ubuntu13"),
+                "Active", 4000, null, null, "10.0.0.1", "10.0.0.2", 40000, 22, T1, null, T2
+        )));
+        assertEquals(roundTrip(ssh), ssh);
+
+        SocksTunnelsReport socks = SocksTunnelsReport.create(List.of(SocksTunnelReport.create(
+                "Socks5", "Success", "Granted", "Active", null, 9000, "93.184.216.34", null, 443,
+                "02:00:00:00:00:01", null, "10.0.0.1", 40000, "10.0.0.9", 1080, T1, T2, T2
+        )));
+        assertEquals(roundTrip(socks), socks);
+    }
+
+    @Test
+    public void testBluetoothRoundTripKeepsTagValueTypes() throws IOException {
+        BluetoothDevicesReport report = BluetoothDevicesReport.create(List.of(
+                BluetoothDeviceReport.create("AA:BB:CC:DD:EE:FF", "Headphones", "hci0", "LE", T1, "Headphones",
+                        -60, 76, null, 961, null, 4, "4c0010", List.of("0000180f-0000-1000-8000-00805f9b34fb"),
+                        null, Map.of("apple_find_my", Map.of("paired", true, "battery", 80L, "distance", 1.5D,
+                                "status", "Nearby"))),
+                BluetoothDeviceReport.create("11:22:33:44:55:66", "11-22-33-44-55-66", "hci0", "BR/EDR", T2,
+                        null, null, null, null, null, null, null, null, null, null, null)
+        ));
+
+        assertEquals(roundTrip(report), report);
+    }
+
+    @Test
+    public void testMalformedReportIsIllegalArgument() {
+        byte[] truncated = TablesReportEncoder.encode(DnsTablesReport.create(
+                Map.of(), List.of(), List.of(DnsLogReport.create(5, "10.0.0.1", "10.0.0.53", null, null,
+                        40000, 53, "example.com", null, "A", T1)), List.of()
+        )).toByteArray();
+
+        assertThrows(IllegalArgumentException.class, () -> ProtobufTablesReportReader.decode(DnsTablesReport.class,
+                new ByteArrayInputStream(truncated, 0, truncated.length - 3)));
+    }
+
+    @Test
+    public void testUnknownAlertTypeIsIllegalArgument() {
+        byte[] report = TapTablesV1.Dot11TablesReport.newBuilder()
+                .addAlerts(TapTablesV1.Dot11AlertReport.newBuilder().setAlertType("NotAnAlert").setSignalStrength(-50))
+                .build()
+                .toByteArray();
+
+        assertThrows(IllegalArgumentException.class, () -> ProtobufTablesReportReader.decode(Dot11TablesReport.class,
+                new ByteArrayInputStream(report)));
+    }
+
+}
@@ -0,0 +1,96 @@
+package app.nzyme.core.rest.resources.taps.reports.tables.protobuf;
+
+import app.nzyme.core.rest.ObjectMapperProvider;
+import app.nzyme.core.rest.ProtobufTablesReportReader;
+import app.nzyme.core.rest.resources.taps.reports.tables.bluetooth.BluetoothDevicesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsTablesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dot11.Dot11TablesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionsReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of tap table reports from JSON and from protobuf. Results are microseconds per report.
+ *
+ * Replays recorded JSON reports from the directory passed in the nzyme.benchmark.tablesReports system property, one
+ * file per report type named like the report parameter, for example dot11.json. The protobuf variant of each report
+ * is encoded from the decoded JSON report, so both formats carry exactly the same data.
+ *
+ * Does not require the test database. Run the main method from the test classpath. It also attaches the GC profiler,
+ * which reports allocated bytes per report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TablesReportDecodingBenchmark {
+
+    private static final String REPORTS_PROPERTY = "nzyme.benchmark.tablesReports";
+
+    private static final Map<String, Class<?>> REPORT_TYPES = Map.of(
+            "dot11", Dot11TablesReport.class,
+            "dns", DnsTablesReport.class,
+            "tcp", TcpSessionsReport.class,
+            "ssh", SshSessionsReport.class,
+            "socks", SocksTunnelsReport.class,
+            "bluetooth", BluetoothDevicesReport.class
+    );
+
+    @Param({"dot11", "dns", "tcp", "ssh", "socks", "bluetooth"})
+    public String report;
+
+    private final ObjectMapper om = ObjectMapperProvider.getSharedMapper();
+
+    private Class<?> type;
+    private byte[] json;
+    private byte[] protobuf;
+
+    @Setup
+    public void setup() throws IOException {
+        String directory = System.getProperty(REPORTS_PROPERTY);
+        if (directory == null) {
+            throw new IllegalStateException("Pass the directory of recorded reports in the ["
+                    + REPORTS_PROPERTY + "] system property.");
+        }
+
+        type = REPORT_TYPES.get(report);
+        json = Files.readAllBytes(Path.of(directory, report + ".json"));
+        protobuf = TablesReportEncoder.encode(om.readValue(json, type)).toByteArray();
+    }
+
+    @Benchmark
+    public Object json() throws IOException {
+        return om.readValue(new ByteArrayInputStream(json), type);
+    }
+
+    @Benchmark
+    public Object protobuf() throws IOException {
+        return ProtobufTablesReportReader.decode(type, new ByteArrayInputStream(protobuf));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TablesReportDecodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,436 @@
+package app.nzyme.core.rest.resources.taps.reports.tables.protobuf;
+
+import app.nzyme.core.rest.resources.taps.reports.tables.bluetooth.BluetoothDeviceReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.bluetooth.BluetoothDevicesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsEntropyLogReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsIpStatisticsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsLogReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.DnsTablesReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.dot11.*;
+import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.socks.SocksTunnelsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshSessionsReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.ssh.SshVersionReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionReport;
+import app.nzyme.core.rest.resources.taps.reports.tables.tcp.TcpSessionsReport;
+import com.google.protobuf.Message;
+
+import java.util.Map;
+
+/**
+ * The reverse of {@link TablesReportDecoder}, for tests and benchmarks. Taps encode their reports themselves.
+ */
+public class TablesReportEncoder {
+
+    public static Message encode(Object report) {
+        if (report instanceof Dot11TablesReport) {
+            return dot11((Dot11TablesReport) report);
+        }
+        if (report instanceof DnsTablesReport) {
+            return dns((DnsTablesReport) report);
+        }
+        if (report instanceof TcpSessionsReport) {
+            return tcp((TcpSessionsReport) report);
+        }
+        if (report instanceof SshSessionsReport) {
+            return ssh((SshSessionsReport) report);
+        }
+        if (report instanceof SocksTunnelsReport) {
+            return socks((SocksTunnelsReport) report);
+        }
+        if (report instanceof BluetoothDevicesReport) {
+            return bluetooth((BluetoothDevicesReport) report);
+        }
+
+        throw new IllegalArgumentException("No protobuf encoder for [" + report.getClass().getName() + "].");
+    }
+
+    public static TapTablesV1.Dot11TablesReport dot11(Dot11TablesReport report) {
+        TapTablesV1.Dot11TablesReport.Builder result = TapTablesV1.Dot11TablesReport.newBuilder();
+
+        for (Map.Entry<String, Dot11BSSIDReport> bssid : report.bssids().entrySet()) {
+            result.putBssids(bssid.getKey(), dot11BSSID(bssid.getValue()));
+        }
+
+        for (Map.Entry<String, Dot11ClientReport> client : report.clients().entrySet()) {
+            result.putClients(client.getKey(), TapTablesV1.Dot11ClientReport.newBuilder()
+                    .putAllProbeRequestSsids(client.getValue().probeRequestSSIDs())
+                    .setWildcardProbeRequests(client.getValue().wildcardProbeRequests())
+                    .setSignalStrength(signalStrength(client.getValue().signalStrength()))
+                    .build());
+        }
+
+        if (report.disco() != null) {
+            TapTablesV1.Dot11DiscoReport.Builder disco = TapTablesV1.Dot11DiscoReport.newBuilder();
+            for (Map.Entry<String, Dot11DiscoTransmitterReport> t : report.disco().deauthentication().entrySet()) {
+                disco.putDeauth(t.getKey(), dot11DiscoTransmitter(t.getValue()));
+            }
+            for (Map.Entry<String, Dot11DiscoTransmitterReport> t : report.disco().disassociation().entrySet()) {
+                disco.putDisassoc(t.getKey(), dot11DiscoTransmitter(t.getValue()));
+            }
+            result.setDisco(disco);
+        }
+
+        for (Dot11AlertReport alert : report.alerts()) {
+            TapTablesV1.Dot11AlertReport.Builder a = TapTablesV1.Dot11AlertReport.newBuilder()
+                    .setAlertType(alert.alertType().name())
+                    .setSignalStrength(alert.signalStrength());
+
+            for (Map.Entry<String, Map<Dot11AlertReport.AlertAttributeType, Object>> attribute
+                    : alert.attributes().entrySet()) {
+                TapTablesV1.Dot11AlertAttribute.Builder value = TapTablesV1.Dot11AlertAttribute.newBuilder();
+                Object number = attribute.getValue().get(Dot11AlertReport.AlertAttributeType.Number);
+                if (number != null) {
+                    value.setNumber(((Number) number).longValue());
+                } else {
+                    value.setString(String.valueOf(attribute.getValue().get(Dot11AlertReport.AlertAttributeType.String)));
+                }
+                a.putAttributes(attribute.getKey(), value.build());
+            }
+
+            result.addAlerts(a);
+        }
+
+        return result.build();
+    }
+
+    private static TapTablesV1.Dot11BSSIDReport dot11BSSID(Dot11BSSIDReport bssid) {
+        TapTablesV1.Dot11BSSIDReport.Builder result = TapTablesV1.Dot11BSSIDReport.newBuilder()
+                .setHiddenSsidFrames(bssid.hiddenSSIDFrames())
+                .setSignalStrength(signalStrength(bssid.signalStrength()))
+                .addAllFingerprints(bssid.fingerprints());
+
+        for (Map.Entry<String, Dot11AdvertisedNetworkReport> network : bssid.advertisedNetworks().entrySet()) {
+            result.putAdvertisedNetworks(network.getKey(), dot11AdvertisedNetwork(network.getValue()));
+        }
+
+        for (Map.Entry<String, Dot11ClientStatisticsReport> client : bssid.clients().entrySet()) {
+            Dot11ClientStatisticsReport c = client.getValue();
+            result.putClients(client.getKey(), TapTablesV1.Dot11ClientStatisticsReport.newBuilder()
+                    .setTxFrames(c.txFrames())
+                    .setTxBytes(c.txBytes())
+                    .setRxFrames(c.rxFrames())
+                    .setRxBytes(c.rxBytes())
+                    .setSignalStrength(signalStrength(c.signalStrength()))
+                    .build());
+        }
+
+        return result.build();
+    }
+
+    private static TapTablesV1.Dot11AdvertisedNetworkReport dot11AdvertisedNetwork(Dot11AdvertisedNetworkReport network) {
+        TapTablesV1.Dot11AdvertisedNetworkReport.Builder result = TapTablesV1.Dot11AdvertisedNetworkReport.newBuilder()
+                .addAllFingerprints(network.fingerprints())
+                .addAllRates(network.rates())
+                .addAllWps(network.wps())
+                .setSignalStrength(signalStrength(network.signalStrength()))
+                .addAllInfrastructureTypes(network.infrastructureTypes())
+                .setBeaconAdvertisements(network.beaconAdvertisements())
+                .setProberespAdvertisements(network.probeResponseAdvertisements());
+
+        for (Dot11SecurityInformationReport security : network.security()) {
+            result.addSecurity(TapTablesV1.Dot11SecurityInformationReport.newBuilder()
+                    .addAllProtocols(security.protocols())
+                    .setSuites(TapTablesV1.Dot11CipherSuitesReport.newBuilder()
+                            .setGroupCipher(security.suites().groupCipher())
+                            .addAllPairwiseCiphers(security.suites().pairwiseCiphers())
+                            .addAllKeyManagementModes(security.suites().keyManagementModes()))
+                    .setPmf(security.pmf()));
+        }
+
+        for (Map.Entry<Long, Map<Long, Long>> histogram : network.signalHistogram().entrySet()) {
+            result.putSignalHistogram(histogram.getKey(), TapTablesV1.Dot11SignalHistogram.newBuilder()
+                    .putAllCounts(histogram.getValue())
+                    .build());
+        }
+
+        for (Map.Entry<Long, Map<String, Dot11ChannelStatisticsReport>> channel
+                : network.channelStatistics().entrySet()) {
+            TapTablesV1.Dot11ChannelStatistics.Builder statistics = TapTablesV1.Dot11ChannelStatistics.newBuilder();
+            for (Map.Entry<String, Dot11ChannelStatisticsReport> frameType : channel.getValue().entrySet()) {
+                statistics.putFrameTypes(frameType.getKey(), TapTablesV1.Dot11ChannelStatisticsReport.newBuilder()
+                        .setBytes(frameType.getValue().bytes())
+                        .setFrames(frameType.getValue().frames())
+                        .build());
+            }
+            result.putChannelStatistics(channel.getKey(), statistics.build());
+        }
+
+        return result.build();
+    }
+
+    private static TapTablesV1.Dot11DiscoTransmitterReport dot11DiscoTransmitter(Dot11DiscoTransmitterReport t) {
+        return TapTablesV1.Dot11DiscoTransmitterReport.newBuilder()
+                .setBssid(t.bssid())
+                .setSentFrames(t.sentFrames())
+                .putAllReceivers(t.receivers())
+                .build();
+    }
+
+    private static TapTablesV1.SignalStrength signalStrength(Dot11SignalStrengthReport signalStrength) {
+        return TapTablesV1.SignalStrength.newBuilder()
+                .setMin(signalStrength.min())
+                .setMax(signalStrength.max())
+                .setAverage(signalStrength.average())
+                .build();
+    }
+
+    public static TapTablesV1.DnsTablesReport dns(DnsTablesReport report) {
+        TapTablesV1.DnsTablesReport.Builder result = TapTablesV1.DnsTablesReport.newBuilder();
+
+        for (Map.Entry<String, DnsIpStatisticsReport> ip : report.ips().entrySet()) {
+            DnsIpStatisticsReport s = ip.getValue();
+            result.putIps(ip.getKey(), TapTablesV1.DnsIpStatisticsReport.newBuilder()
+                    .setRequestCount(s.requestCount())
+                    .setRequestBytes(s.requestBytes())
+                    .setResponseCount(s.responseCount())
+                    .setResponseBytes(s.responseBytes())
+                    .setNxdomainCount(s.nxDomainCount())
+                    .build());
+        }
+
+        for (DnsEntropyLogReport entropy : report.entropyLog()) {
+            result.addEntropyLog(TapTablesV1.DnsEntropyLogReport.newBuilder()
+                    .setTransactionId(entropy.transactionId())
+                    .setEntropy(entropy.entropy())
+                    .setZscore(entropy.zScore())
+                    .setEntropyMean(entropy.entropyMean())
+                    .setTimestamp(entropy.timestamp().getMillis()));
+        }
+
+        for (DnsLogReport query : report.queryLog()) {
+            result.addQueries(dnsLog(query));
+        }
+
+        for (DnsLogReport response : report.responseLog()) {
+            result.addResponses(dnsLog(response));
+        }
+
+        return result.build();
+    }
+
+    private static TapTablesV1.DnsLogReport dnsLog(DnsLogReport log) {
+        TapTablesV1.DnsLogReport.Builder result = TapTablesV1.DnsLogReport.newBuilder()
+                .setClientAddress(log.clientAddress())
+                .setServerAddress(log.serverAddress())
+                .setClientPort(log.clientPort())
+                .setServerPort(log.serverPort())
+                .setDataValue(log.dataValue())
+                .setDataType(log.dataType())
+                .setTimestamp(log.timestamp().getMillis());
+
+        if (log.transactionId() != null) {
+            result.setTransactionId(log.transactionId());
+        }
+        if (log.clientMac() != null) {
+            result.setClientMac(log.clientMac());
+        }
+        if (log.serverMac() != null) {
+            result.setServerMac(log.serverMac());
+        }
+        if (log.dataValueEtld() != null) {
+            result.setDataValueEtld(log.dataValueEtld());
+        }
+
+        return result.build();
+    }
+
+    public static TapTablesV1.TcpSessionsReport tcp(TcpSessionsReport report) {
+        TapTablesV1.TcpSessionsReport.Builder result = TapTablesV1.TcpSessionsReport.newBuilder();
+
+        for (TcpSessionReport session : report.sessions()) {
+            TapTablesV1.TcpSessionReport.Builder s = TapTablesV1.TcpSessionReport.newBuilder()
+                    .setState(session.state())
+                    .setSourceAddress(session.sourceAddress())
+                    .setSourcePort(session.sourcePort())
+                    .setDestinationAddress(session.destinationAddress())
+                    .setDestinationPort(session.destinationPort())
+                    .setStartTime(session.startTime().getMillis())
+                    .setMostRecentSegmentTime(session.mostRecentSegmentTime().getMillis())
+                    .setSegmentsCount(session.segmentsCount())
+                    .setBytesCount(session.bytesCount());
+
+            if (session.sourceMac() != null) {
+                s.setSourceMac(session.sourceMac());
+            }
+            if (session.destinationMac() != null) {
+                s.setDestinationMac(session.destinationMac());
+            }
+            if (session.endTime() != null) {
+                s.setEndTime(session.endTime().getMillis());
+            }
+            if (session.tags() != null) {
+                s.setTags(TapTablesV1.StringList.newBuilder().addAllValues(session.tags()));
+            }
+
+            result.addSessions(s);
+        }
+
+        return result.build();
+    }
+
+    public static TapTablesV1.SshSessionsReport ssh(SshSessionsReport report) {
+        TapTablesV1.SshSessionsReport.Builder result = TapTablesV1.SshSessionsReport.newBuilder();
+
+        for (SshSessionReport session : report.sessions()) {
+            TapTablesV1.SshSessionReport.Builder s = TapTablesV1.SshSessionReport.newBuilder()
+                    .setClientVersion(sshVersion(session.clientVersion()))
+                    .setServerVersion(sshVersion(session.serverVersion()))
+                    .setConnectionStatus(session.connectionStatus())
+                    .setTunneledBytes(session.tunneledBytes())
+                    .setSourceAddress(session.sourceAddress())
+                    .setDestinationAddress(session.destinationAddress())
+                    .setSourcePort(session.sourcePort())
+                    .setDestinationPort(session.destinationPort())
+                    .setEstablishedAt(session.establishedAt().getMillis())
+                    .setMostRecentSegmentTime(session.mostRecentSegmentTime().getMillis());
+
+            if (session.sourceMac() != null) {
+                s.setSourceMac(session.sourceMac());
+            }
+            if (session.destinationMac() != null) {
+                s.setDestinationMac(session.destinationMac());
+            }
+            if (session.terminatedAt() != null) {
+                s.setTerminatedAt(session.terminatedAt().getMillis());
+            }
+
+            result.addSessions(s);
+        }
+
+        return result.build();
+    }
+
+    private static TapTablesV1.SshVersionReport sshVersion(SshVersionReport version) {
+        TapTablesV1.SshVersionReport.Builder result = TapTablesV1.SshVersionReport.newBuilder()
+                .setVersion(version.version())
+                .setSoftware(version.software());
+
+        if (version.comments() != null) {
+            result.setComments(version.comments());
+        }
+
+        return result.build();
+    }
+
+    public static TapTablesV1.SocksTunnelsReport socks(SocksTunnelsReport report) {
+        TapTablesV1.SocksTunnelsReport.Builder result = TapTablesV1.SocksTunnelsReport.newBuilder();
+
+        for (SocksTunnelReport tunnel : report.tunnels()) {
+            TapTablesV1.SocksTunnelReport.Builder t = TapTablesV1.SocksTunnelReport.newBuilder()
+                    .setSocksType(tunnel.socksType())
+                    .setAuthenticationStatus(tunnel.authenticationStatus())
+                    .setHandshakeStatus(tunnel.handshakeStatus())
+                    .setConnectionStatus(tunnel.connectionStatus())
+                    .setTunneledBytes(tunnel.tunneledBytes())
+                    .setTunneledDestinationPort(tunnel.tunneledDestinationPort())
+                    .setSourceAddress(tunnel.sourceAddress())
+                    .setSourcePort(tunnel.sourcePort())
+                    .setDestinationAddress(tunnel.destinationAddress())
+                    .setDestinationPort(tunnel.destinationPort())
+                    .setEstablishedAt(tunnel.establishedAt().getMillis())
+                    .setMostRecentSegmentTime(tunnel.mostRecentSegmentTime().getMillis());
+
+            if (tunnel.username() != null) {
+                t.setUsername(tunnel.username());
+            }
+            if (tunnel.tunneledDestinationAddress() != null) {
+                t.setTunneledDestinationAddress(tunnel.tunneledDestinationAddress());
+            }
+            if (tunnel.tunneledDestinationHost() != null) {
+                t.setTunneledDestinationHost(tunnel.tunneledDestinationHost());
+            }
+            if (tunnel.sourceMac() != null) {
+                t.setSourceMac(tunnel.sourceMac());
+            }
+            if (tunnel.destinationMac() != null) {
+                t.setDestinationMac(tunnel.destinationMac());
+            }
+            if (tunnel.terminatedAt() != null) {
+                t.setTerminatedAt(tunnel.terminatedAt().getMillis());
+            }
+
+            result.addTunnels(t);
+        }
+
+        return result.build();
+    }
+
+    public static TapTablesV1.BluetoothDevicesReport bluetooth(BluetoothDevicesReport report) {
+        TapTablesV1.BluetoothDevicesReport.Builder result = TapTablesV1.BluetoothDevicesReport.newBuilder();
+
+        for (BluetoothDeviceReport device : report.devices()) {
+            TapTablesV1.BluetoothDeviceReport.Builder d = TapTablesV1.BluetoothDeviceReport.newBuilder()
+                    .setMac(device.mac())
+                    .setAlias(device.alias())
+                    .setDevice(device.device())
+                    .setTransport(device.transport())
+                    .setLastSeen(device.lastSeen().getMillis());
+
+            if (device.name() != null) {
+                d.setName(device.name());
+            }
+            if (device.rssi() != null) {
+                d.setRssi(device.rssi());
+            }
+            if (device.companyId() != null) {
+                d.setCompanyId(device.companyId());
+            }
+            if (device.classNumber() != null) {
+                d.setClassNumber(device.classNumber());
+            }
+            if (device.appearance() != null) {
+                d.setAppearance(device.appearance());
+            }
+            if (device.modalias() != null) {
+                d.setModalias(device.modalias());
+            }
+            if (device.txPower() != null) {
+                d.setTxPower(device.txPower());
+            }
+            if (device.manufacturerData() != null) {
+                d.setManufacturerData(device.manufacturerData());
+            }
+            if (device.uuids() != null) {
+                d.setUuids(TapTablesV1.StringList.newBuilder().addAllValues(device.uuids()));
+            }
+            if (device.serviceData() != null) {
+                d.setServiceData(TapTablesV1.StringList.newBuilder().addAllValues(device.serviceData()));
+            }
+            if (device.tags() != null) {
+                d.setTags(bluetoothTags(device.tags()));
+            }
+
+            result.addDevices(d);
+        }
+
+        return result.build();
+    }
+
+    private static TapTablesV1.BluetoothTags bluetoothTags(Map<String, Map<String, Object>> tags) {
+        TapTablesV1.BluetoothTags.Builder result = TapTablesV1.BluetoothTags.newBuilder();
+
+        for (Map.Entry<String, Map<String, Object>> tag : tags.entrySet()) {
+            TapTablesV1.BluetoothTagAttributes.Builder attributes = TapTablesV1.BluetoothTagAttributes.newBuilder();
+            for (Map.Entry<String, Object> attribute : tag.getValue().entrySet()) {
+                TapTablesV1.BluetoothTagValue.Builder value = TapTablesV1.BluetoothTagValue.newBuilder();
+                Object v = attribute.getValue();
+                if (v instanceof Boolean) {
+                    value.setBoolean((Boolean) v);
+                } else if (v instanceof Integer || v instanceof Long) {
+                    value.setInteger(((Number) v).longValue());
+                } else if (v instanceof Number) {
+                    value.setNumber(((Number) v).doubleValue());
+                } else {
+                    value.setString(String.valueOf(v));
+                }
+                attributes.putAttributes(attribute.getKey(), value.build());
+            }
+            result.putTags(tag.getKey(), attributes.build());
+        }
+
+        return result.build();
+    }
+
+}
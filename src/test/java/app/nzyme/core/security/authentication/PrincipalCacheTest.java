@@ -0,0 +1,92 @@
+package app.nzyme.core.security.authentication;
+
+import app.nzyme.core.MockNzyme;
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.rest.authentication.RESTAuthenticationFilterTestBase;
+import app.nzyme.core.security.authentication.db.UserEntry;
+import app.nzyme.core.util.MetricNames;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static org.testng.Assert.*;
+
+public class PrincipalCacheTest extends RESTAuthenticationFilterTestBase {
+
+    @Test
+    public void testServesCachedPrincipalWithinTtl() {
+        NzymeNode nzyme = new MockNzyme();
+        PrincipalCache cache = new PrincipalCache(nzyme);
+
+        UserEntry user = createUser("lennart@example.org", "456456456456");
+        String sessionId = createSession(user.uuid(), true);
+
+        Optional<CachedPrincipal> loaded = cache.find(sessionId);
+        assertTrue(loaded.isPresent());
+        assertEquals(loaded.get().user().uuid(), user.uuid());
+
+        // Deleted without invalidation. Only visible after the TTL.
+        deleteSessionsInDatabase(nzyme);
+
+        Optional<CachedPrincipal> cached = cache.find(sessionId);
+        assertTrue(cached.isPresent());
+        assertEquals(cached.get().user().uuid(), user.uuid());
+
+        assertEquals(nzyme.getMetrics().counter(MetricNames.PRINCIPAL_CACHE_MISSES).getCount(), 1);
+        assertEquals(nzyme.getMetrics().counter(MetricNames.PRINCIPAL_CACHE_HITS).getCount(), 1);
+    }
+
+    @Test
+    public void testClusterWideInvalidationDropsCachedPrincipal() {
+        NzymeNode nzyme = new MockNzyme();
+
+        UserEntry user = createUser("lennart@example.org", "456456456456");
+        String sessionId = createSession(user.uuid(), true);
+
+        assertTrue(nzyme.getAuthenticationService().findPrincipalBySessionId(sessionId).isPresent());
+
+        deleteSessionsInDatabase(nzyme);
+        assertTrue(nzyme.getAuthenticationService().findPrincipalBySessionId(sessionId).isPresent());
+
+        nzyme.getAuthenticationService().invalidatePrincipalCachesClusterWide();
+        assertTrue(nzyme.getAuthenticationService().findPrincipalBySessionId(sessionId).isEmpty());
+    }
+
+    @Test
+    public void testDoesNotCachePrincipalLoadedDuringInvalidation() {
+        NzymeNode nzyme = new MockNzyme();
+
+        // Invalidates while the first principal is loaded, like a concurrent permission change would.
+        PrincipalCache cache = new PrincipalCache(nzyme) {
+            private boolean invalidated = false;
+
+            @Override
+            Optional<CachedPrincipal> load(String sessionId) {
+                Optional<CachedPrincipal> loaded = super.load(sessionId);
+                if (!invalidated) {
+                    invalidated = true;
+                    invalidate();
+                }
+                return loaded;
+            }
+        };
+
+        UserEntry user = createUser("lennart@example.org", "456456456456");
+        String sessionId = createSession(user.uuid(), true);
+
+        // The caller still gets what was loaded.
+        assertTrue(cache.find(sessionId).isPresent());
+
+        // But it was not cached and the next lookup goes to the database again.
+        deleteSessionsInDatabase(nzyme);
+        assertTrue(cache.find(sessionId).isEmpty());
+
+        assertEquals(nzyme.getMetrics().counter(MetricNames.PRINCIPAL_CACHE_MISSES).getCount(), 2);
+        assertEquals(nzyme.getMetrics().counter(MetricNames.PRINCIPAL_CACHE_HITS).getCount(), 0);
+    }
+
+    private static void deleteSessionsInDatabase(NzymeNode nzyme) {
+        nzyme.getDatabase().useHandle(handle -> handle.createUpdate("DELETE FROM auth_sessions").execute());
+    }
+
+}
@@ -0,0 +1,69 @@
+package app.nzyme.core.security.authentication;
+
+import app.nzyme.core.MockNzyme;
+import app.nzyme.core.NzymeNode;
+import app.nzyme.core.rest.authentication.RESTAuthenticationFilterTestBase;
+import app.nzyme.core.security.authentication.db.UserEntry;
+import org.testng.annotations.Test;
+
+import java.util.UUID;
+
+import static org.testng.Assert.*;
+
+public class UserActivityBufferTest extends RESTAuthenticationFilterTestBase {
+
+    @Test
+    public void testFlushWritesLatestActivityOfEachUser() {
+        NzymeNode nzyme = new MockNzyme();
+        UserActivityBuffer buffer = new UserActivityBuffer(nzyme);
+
+        UserEntry user1 = createUser("test@example.org", "123123123123");
+        UserEntry user2 = createUser("lennart@example.org", "456456456456");
+
+        buffer.record(user1.uuid(), "10.0.0.1");
+        buffer.record(user2.uuid(), "10.0.0.2");
+        buffer.record(user1.uuid(), "10.0.0.3");
+
+        // Nothing is written before the flush.
+        assertNull(lastRemoteIp(nzyme, user1.uuid()));
+        assertNull(lastRemoteIp(nzyme, user2.uuid()));
+
+        buffer.flush();
+
+        assertEquals(lastRemoteIp(nzyme, user1.uuid()), "10.0.0.3");
+        assertEquals(lastRemoteIp(nzyme, user2.uuid()), "10.0.0.2");
+
+        // Flushed activity is not written again.
+        setLastRemoteIp(nzyme, user1.uuid(), "10.0.0.99");
+        buffer.flush();
+        assertEquals(lastRemoteIp(nzyme, user1.uuid()), "10.0.0.99");
+    }
+
+    @Test
+    public void testShutdownFlushesBufferedActivity() {
+        NzymeNode nzyme = new MockNzyme();
+
+        UserEntry user = createUser("lennart@example.org", "456456456456");
+
+        nzyme.getAuthenticationService().recordUserActivity(user.uuid(), "10.0.0.1");
+        assertNull(lastRemoteIp(nzyme, user.uuid()));
+
+        nzyme.getAuthenticationService().shutdown();
+
+        assertEquals(lastRemoteIp(nzyme, user.uuid()), "10.0.0.1");
+    }
+
+    private static String lastRemoteIp(NzymeNode nzyme, UUID userId) {
+        return nzyme.getAuthenticationService().findUserById(userId).orElseThrow().lastRemoteIp();
+    }
+
+    private static void setLastRemoteIp(NzymeNode nzyme, UUID userId, String remoteIp) {
+        nzyme.getDatabase().useHandle(handle ->
+                handle.createUpdate("UPDATE auth_users SET last_remote_ip = :remote_ip WHERE uuid = :user_id")
+                        .bind("remote_ip", remoteIp)
+                        .bind("user_id", userId)
+                        .execute()
+        );
+    }
+
+}
@@ -0,0 +1,72 @@
+package app.nzyme.core.tables;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.testng.Assert.*;
+
+public class OpenSessionIndexTest {
+
+    @Test
+    public void testResolveOnlyLooksUpUnknownSessions() {
+        OpenSessionIndex index = new OpenSessionIndex(100);
+        UUID tap = UUID.randomUUID();
+        List<List<String>> lookups = Lists.newArrayList();
+
+        Map<String, Long> first = index.resolve(tap, List.of("a", "b", "c"), keys -> {
+            lookups.add(keys);
+            return ImmutableMap.of("a", 1L, "b", 2L);
+        });
+
+        assertEquals(first, ImmutableMap.of("a", 1L, "b", 2L));
+        assertEquals(index.size(), 2);
+
+        Map<String, Long> second = index.resolve(tap, List.of("a", "b", "c"), keys -> {
+            lookups.add(keys);
+            return ImmutableMap.of();
+        });
+
+        assertEquals(second, ImmutableMap.of("a", 1L, "b", 2L));
+        assertEquals(lookups, List.of(List.of("a", "b", "c"), List.of("c")));
+    }
+
+    @Test
+    public void testResolveSkipsLookupIfAllKnown() {
+        OpenSessionIndex index = new OpenSessionIndex(100);
+        UUID tap = UUID.randomUUID();
+        index.put(tap, "a", 1L);
+
+        Map<String, Long> result = index.resolve(tap, List.of("a"), keys -> {
+            throw new AssertionError("Unexpected lookup.");
+        });
+
+        assertEquals(result, ImmutableMap.of("a", 1L));
+    }
+
+    @Test
+    public void testTapsAreSeparated() {
+        OpenSessionIndex index = new OpenSessionIndex(100);
+        UUID tap1 = UUID.randomUUID();
+        UUID tap2 = UUID.randomUUID();
+        index.put(tap1, "a", 1L);
+
+        assertTrue(index.resolve(tap2, List.of("a"), keys -> ImmutableMap.of()).isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        OpenSessionIndex index = new OpenSessionIndex(100);
+        UUID tap = UUID.randomUUID();
+        index.put(tap, "a", 1L);
+        index.remove(tap, "a");
+
+        assertEquals(index.size(), 0);
+        assertTrue(index.resolve(tap, List.of("a"), keys -> ImmutableMap.of()).isEmpty());
+    }
+
+}
@@ -0,0 +1,56 @@
+package app.nzyme.core.tables;
+
+import com.codahale.metrics.MetricRegistry;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class TableIngestionQueueTest {
+
+    @Test
+    public void testReportsAreWritten() throws InterruptedException {
+        TableIngestionQueue queue = new TableIngestionQueue("test", 10, 2, new MetricRegistry());
+
+        CountDownLatch written = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(queue.offer(written::countDown));
+        }
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        queue.shutdown(5);
+    }
+
+    @Test
+    public void testRejectsReportsWhenFull() throws InterruptedException {
+        TableIngestionQueue queue = new TableIngestionQueue("test", 2, 1, new MetricRegistry());
+
+        // Block the only writer.
+        CountDownLatch writerStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(queue.offer(() -> {
+            writerStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }));
+        assertTrue(writerStarted.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger writes = new AtomicInteger(0);
+        assertTrue(queue.offer(writes::incrementAndGet));
+        assertTrue(queue.offer(writes::incrementAndGet));
+        assertFalse(queue.offer(writes::incrementAndGet));
+        assertEquals(queue.getDropped().getCount(), 1);
+
+        release.countDown();
+        queue.shutdown(5);
+
+        assertEquals(writes.get(), 2);
+        assertEquals(queue.getDepth(), 0);
+    }
+
+}
@@ -0,0 +1,107 @@
+package app.nzyme.core.tables.dns;
+
+import app.nzyme.core.MockNzyme;
+import app.nzyme.core.rest.resources.taps.reports.tables.dns.*;
+import app.nzyme.core.tables.TablesService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures DNS table ingestion. Results are reports per second.
+ *
+ * Replays a recorded tables report if the path to a JSON file is passed in the nzyme.benchmark.dnsReport system
+ * property. Builds a synthetic report of a busy resolver otherwise.
+ *
+ * Requires the test database. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class DNSTableBenchmark {
+
+    private static final String REPORT_PROPERTY = "nzyme.benchmark.dnsReport";
+
+    @Param({"5000"})
+    public int syntheticQueries;
+
+    private DNSTable table;
+    private UUID tapUuid;
+    private DnsTablesReport report;
+
+    @Setup
+    public void setup() throws IOException {
+        table = new TablesService(new MockNzyme()).dns();
+        tapUuid = UUID.randomUUID();
+
+        String recorded = System.getProperty(REPORT_PROPERTY);
+        if (recorded != null) {
+            ObjectMapper om = new ObjectMapper();
+            om.registerModule(new JodaModule());
+            report = om.readValue(new File(recorded), DnsTablesReport.class);
+        } else {
+            report = buildSyntheticReport(syntheticQueries);
+        }
+    }
+
+    @Benchmark
+    public void handleReport() {
+        table.handleReport(tapUuid, DateTime.now(), report);
+    }
+
+    private static DnsTablesReport buildSyntheticReport(int count) {
+        // A few resolvers serving many clients, like a busy network.
+        String[] servers = {"10.0.0.53", "1.1.1.1", "8.8.8.8", "9.9.9.9"};
+
+        List<DnsLogReport> queries = Lists.newArrayListWithCapacity(count);
+        List<DnsLogReport> responses = Lists.newArrayListWithCapacity(count);
+        List<DnsEntropyLogReport> entropy = Lists.newArrayList();
+        Map<String, DnsIpStatisticsReport> ips = Maps.newHashMap();
+
+        DateTime now = DateTime.now();
+        for (int i = 0; i < count; i++) {
+            String client = "192.168." + ((i / 250) % 250) + "." + (i % 250 + 1);
+            String server = servers[i % servers.length];
+            String domain = "host" + (i % 500) + ".example" + (i % 20) + ".com";
+
+            queries.add(DnsLogReport.create(i, client, server, "02:00:00:00:00:01", "02:00:00:00:00:02",
+                    40000 + (i % 20000), 53, domain, "example" + (i % 20) + ".com", "A", now));
+            responses.add(DnsLogReport.create(i, client, server, "02:00:00:00:00:01", "02:00:00:00:00:02",
+                    40000 + (i % 20000), 53, "93.184.216." + (i % 250), "example" + (i % 20) + ".com", "A", now));
+
+            if (i % 100 == 0) {
+                entropy.add(DnsEntropyLogReport.create(i, 4.2F, 3.1F, 1.5F, now));
+            }
+
+            ips.putIfAbsent(client, DnsIpStatisticsReport.create(10L, 800L, 10L, 1600L, 0L));
+        }
+
+        return DnsTablesReport.create(ips, entropy, queries, responses);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DNSTableBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,146 @@
+package app.nzyme.core.tables.dot11;
+
+import app.nzyme.core.MockNzyme;
+import app.nzyme.core.dot11.bandits.Dot11BanditIndex;
+import app.nzyme.core.dot11.bandits.Dot11Bandits;
+import app.nzyme.core.rest.resources.taps.reports.tables.dot11.*;
+import app.nzyme.core.tables.TablesService;
+import app.nzyme.core.tables.dot11.monitoring.MonitoringSnapshot;
+import app.nzyme.core.tables.dot11.monitoring.SimilarSSIDMatcher;
+import app.nzyme.core.taps.Tap;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.google.common.collect.Maps;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the row-by-row and the set-based bulk write path of 802.11 BSSID/SSID ingestion. Results are reports per
+ * second.
+ *
+ * Replays a recorded tables report if the path to a JSON file is passed in the nzyme.benchmark.dot11Report system
+ * property. Builds a synthetic report of a busy environment otherwise.
+ *
+ * Requires the test database. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class Dot11TableBenchmark {
+
+    private static final String REPORT_PROPERTY = "nzyme.benchmark.dot11Report";
+
+    @Param({"row", "bulk"})
+    public String path;
+
+    @Param({"250"})
+    public int syntheticBSSIDs;
+
+    private Dot11Table table;
+    private Tap tap;
+    private Map<String, Dot11BSSIDReport> bssids;
+    private MonitoringSnapshot monitoring;
+
+    @Setup
+    public void setup() throws IOException {
+        table = new TablesService(new MockNzyme()).dot11();
+
+        tap = Tap.create(1, UUID.randomUUID(), "benchmark", "benchmark tap", null, null, null, null, null,
+                null, null, null, DateTime.now(), DateTime.now(), null, null, null, null, null, null, null,
+                "127.0.0.1");
+
+        String recorded = System.getProperty(REPORT_PROPERTY);
+        if (recorded != null) {
+            ObjectMapper om = new ObjectMapper();
+            om.registerModule(new JodaModule());
+            bssids = om.readValue(new File(recorded), Dot11TablesReport.class).bssids();
+        } else {
+            bssids = buildSyntheticBSSIDs(syntheticBSSIDs);
+        }
+
+        monitoring = MonitoringSnapshot.create(Map.of(), new SimilarSSIDMatcher(List.of()), new Dot11BanditIndex(Dot11Bandits.BUILT_IN), Set.of(), DateTime.now());
+    }
+
+    @Benchmark
+    public void writeBSSIDs() {
+        if (path.equals("bulk")) {
+            table.writeBSSIDsBulk(tap, DateTime.now(), bssids, monitoring);
+        } else {
+            table.writeBSSIDsRowByRow(tap, DateTime.now(), bssids, monitoring);
+        }
+    }
+
+    private static Map<String, Dot11BSSIDReport> buildSyntheticBSSIDs(int count) {
+        Map<String, Dot11BSSIDReport> result = Maps.newHashMap();
+
+        for (int i = 0; i < count; i++) {
+            String bssid = mac(0x00, i);
+
+            Map<String, Dot11ClientStatisticsReport> clients = Maps.newHashMap();
+            for (int c = 0; c < 4; c++) {
+                clients.put(mac(0x02, i * 4 + c), Dot11ClientStatisticsReport.create(
+                        120, 48000, 95, 31000, signal()
+                ));
+            }
+
+            Map<String, Dot11AdvertisedNetworkReport> ssids = Maps.newHashMap();
+            for (int s = 0; s < 2; s++) {
+                ssids.put("network-" + i + "-" + s, Dot11AdvertisedNetworkReport.create(
+                        List.of(Dot11SecurityInformationReport.create(
+                                List.of("WPA2"),
+                                Dot11CipherSuitesReport.create("CCMP", List.of("CCMP"), List.of("PSK")),
+                                "Optional"
+                        )),
+                        List.of("fp-ssid-" + i + "-" + s),
+                        List.of(1.0F, 2.0F, 5.5F, 11.0F, 6.0F, 12.0F, 24.0F, 54.0F),
+                        List.of(false),
+                        signal(),
+                        Map.of(2412L, Map.of(-50L, 100L, -55L, 40L, -60L, 12L)),
+                        List.of("AccessPoint"),
+                        Map.of(2412L, Map.of(
+                                "Beacon", Dot11ChannelStatisticsReport.create(300000, 1000),
+                                "ProbeResponse", Dot11ChannelStatisticsReport.create(20000, 50)
+                        )),
+                        1000,
+                        50
+                ));
+            }
+
+            result.put(bssid, Dot11BSSIDReport.create(ssids, clients, 0, signal(), List.of("fp-bssid-" + i)));
+        }
+
+        return result;
+    }
+
+    private static Dot11SignalStrengthReport signal() {
+        return Dot11SignalStrengthReport.create(-70, -45, -55.5F);
+    }
+
+    private static String mac(int prefix, int i) {
+        return String.format("%02X:00:00:%02X:%02X:%02X", prefix, (i >> 16) & 0xFF, (i >> 8) & 0xFF, i & 0xFF);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(Dot11TableBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,82 @@
+package app.nzyme.core.tables.dot11.monitoring;
+
+import info.debatty.java.stringsimilarity.JaroWinkler;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.*;
+
+public class SimilarSSIDMatcherTest {
+
+    private static PreLoadedMonitoredSSID monitored(String ssid, int threshold, List<String> substrings) {
+        return PreLoadedMonitoredSSID.create(
+                1, UUID.randomUUID(), ssid, Map.of(), List.of(), List.of(), substrings,
+                false, false, false, false, false, true, !substrings.isEmpty(), threshold
+        );
+    }
+
+    @Test
+    public void testFindsSimilarSSIDsAndRestrictedSubstrings() {
+        PreLoadedMonitoredSSID corp = monitored("CorpWifi", 85, List.of("Corp"));
+        SimilarSSIDMatcher matcher = new SimilarSSIDMatcher(List.of(corp));
+
+        SSIDMatches matches = matcher.match("C0rpWifi");
+        assertEquals(matches.similarSSIDs().size(), 1);
+        assertEquals(matches.similarSSIDs().get(0).monitoredSSID(), corp);
+        assertTrue(matches.restrictedSubstrings().isEmpty());
+
+        matches = matcher.match("Free CORP Guest");
+        assertEquals(matches.restrictedSubstrings().size(), 1);
+        assertEquals(matches.restrictedSubstrings().get(0).substring(), "Corp");
+
+        // Monitored SSIDs are trusted.
+        matches = matcher.match("CorpWifi");
+        assertTrue(matches.similarSSIDs().isEmpty());
+        assertTrue(matches.restrictedSubstrings().isEmpty());
+
+        assertTrue(matcher.match("Unrelated").similarSSIDs().isEmpty());
+    }
+
+    @Test
+    public void testPruningMatchesExhaustiveComparison() {
+        Random random = new Random(7);
+        String alphabet = "abcdeABCDE01 _-";
+
+        List<PreLoadedMonitoredSSID> monitoredSSIDs = random.ints(50, 1, 16)
+                .mapToObj(length -> monitored(randomString(random, alphabet, length), 60 + random.nextInt(35), List.of()))
+                .collect(Collectors.toList());
+        SimilarSSIDMatcher matcher = new SimilarSSIDMatcher(monitoredSSIDs);
+        JaroWinkler jaroWinkler = new JaroWinkler();
+
+        for (int i = 0; i < 2000; i++) {
+            String ssid = randomString(random, alphabet, 1 + random.nextInt(15));
+
+            boolean isMonitored = monitoredSSIDs.stream().anyMatch(m -> m.ssid().equals(ssid));
+            List<PreLoadedMonitoredSSID> expected = monitoredSSIDs.stream()
+                    .filter(m -> !isMonitored)
+                    .filter(m -> jaroWinkler.similarity(m.ssid().toLowerCase(), ssid.toLowerCase()) * 100.0
+                            > m.detectionConfigSimilarLookingSSIDThreshold())
+                    .collect(Collectors.toList());
+
+            List<PreLoadedMonitoredSSID> actual = matcher.match(ssid).similarSSIDs().stream()
+                    .map(SimilarSSIDMatch::monitoredSSID)
+                    .collect(Collectors.toList());
+
+            assertEquals(actual, expected, ssid);
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,68 @@
+package app.nzyme.core.taps;
+
+import app.nzyme.core.taps.db.metrics.TapMetricsGauge;
+import app.nzyme.core.taps.db.metrics.TapMetricsTimer;
+import org.joda.time.DateTime;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.testng.Assert.*;
+
+public class TapMetricsCacheTest {
+
+    @Test
+    public void testUnknownTapIsMissing() {
+        TapMetricsCache cache = new TapMetricsCache();
+
+        assertTrue(cache.findGauges(UUID.randomUUID(), DateTime.now().minusMinutes(1)).isEmpty());
+        assertTrue(cache.findTimers(UUID.randomUUID(), DateTime.now().minusMinutes(1)).isEmpty());
+    }
+
+    @Test
+    public void testReturnsLatestValues() {
+        TapMetricsCache cache = new TapMetricsCache();
+        UUID tap = UUID.randomUUID();
+        DateTime now = DateTime.now();
+
+        cache.update(tap,
+                List.of(TapMetricsGauge.create("os.cpu.load.percent", 10.0, now)),
+                List.of(TapMetricsTimer.create("tables.dns", 1.0, 2.0, now)));
+        cache.update(tap,
+                List.of(TapMetricsGauge.create("os.cpu.load.percent", 20.0, now)),
+                List.of());
+
+        Optional<List<TapMetricsGauge>> gauges = cache.findGauges(tap, now.minusMinutes(1));
+        assertTrue(gauges.isPresent());
+        assertEquals(gauges.get().size(), 1);
+        assertEquals(gauges.get().get(0).metricValue(), Double.valueOf(20.0));
+
+        // The last report had no timers.
+        Optional<List<TapMetricsTimer>> timers = cache.findTimers(tap, now.minusMinutes(1));
+        assertTrue(timers.isPresent());
+        assertTrue(timers.get().isEmpty());
+    }
+
+    @Test
+    public void testSkipsOutdatedValues() {
+        TapMetricsCache cache = new TapMetricsCache();
+        UUID tap = UUID.randomUUID();
+        DateTime now = DateTime.now();
+
+        // Tap clock is behind.
+        cache.update(tap, List.of(
+                TapMetricsGauge.create("os.memory.bytes_used", 1024.0, now),
+                TapMetricsGauge.create("os.cpu.load.percent", 20.0, now.minusMinutes(5))
+        ), List.of());
+
+        List<TapMetricsGauge> gauges = cache.findGauges(tap, now.minusMinutes(1)).orElseThrow();
+        assertEquals(gauges.size(), 1);
+        assertEquals(gauges.get(0).metricName(), "os.memory.bytes_used");
+
+        // Nothing reported to this node since.
+        assertTrue(cache.findGauges(tap, DateTime.now().plusSeconds(1)).isEmpty());
+    }
+
+}
@@ -0,0 +1,30 @@
+package app.nzyme.core.util;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+public class AhoCorasickTest {
+
+    @Test
+    public void testFindsAllPatterns() {
+        AhoCorasick ac = new AhoCorasick(List.of("he", "she", "his", "hers", ""));
+
+        assertEquals(ac.findAll("ushers"), Set.of("he", "she", "hers"));
+        assertEquals(ac.findAll("this"), Set.of("his"));
+        assertTrue(ac.findAll("nothing").isEmpty());
+        assertTrue(ac.findAll("").isEmpty());
+    }
+
+    @Test
+    public void testFindsOverlappingAndNestedPatterns() {
+        AhoCorasick ac = new AhoCorasick(List.of("free", "wifi", "freewifi", "ee"));
+
+        assertEquals(ac.findAll("xfreewifix"), Set.of("free", "wifi", "freewifi", "ee"));
+        assertEquals(ac.findAll("frefree"), Set.of("free", "ee"));
+    }
+
+}
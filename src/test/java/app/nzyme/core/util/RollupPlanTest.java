@@ -0,0 +1,103 @@
+package app.nzyme.core.util;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.*;
+
+public class RollupPlanTest {
+
+    private DateTimeZone previousZone;
+
+    @BeforeClass
+    public void setZone() {
+        previousZone = DateTimeZone.getDefault();
+        DateTimeZone.setDefault(DateTimeZone.UTC);
+    }
+
+    @AfterClass
+    public void resetZone() {
+        DateTimeZone.setDefault(previousZone);
+    }
+
+    private static DateTime t(String iso) {
+        return DateTime.parse(iso).withZone(DateTimeZone.UTC);
+    }
+
+    private static List<String> plan(String from, String to, Bucketing.Type coarsest) {
+        return plan(from, to, Bucketing.Type.MINUTE, coarsest);
+    }
+
+    private static List<String> plan(String from, String to, Bucketing.Type finest, Bucketing.Type coarsest) {
+        return RollupPlan.plan(t(from), t(to), finest, coarsest).stream()
+                .map(RollupPlan.Segment::toString)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testUsesCoarsestRollupsInTheMiddle() {
+        assertEquals(plan("2024-08-01T10:30:15Z", "2024-08-04T05:20:30Z", Bucketing.Type.DAY), List.of(
+                "raw[2024-08-01T10:30:15.000Z, 2024-08-01T10:31:00.000Z)",
+                "minute[2024-08-01T10:31:00.000Z, 2024-08-01T11:00:00.000Z)",
+                "hour[2024-08-01T11:00:00.000Z, 2024-08-02T00:00:00.000Z)",
+                "day[2024-08-02T00:00:00.000Z, 2024-08-04T00:00:00.000Z)",
+                "hour[2024-08-04T00:00:00.000Z, 2024-08-04T05:00:00.000Z)",
+                "minute[2024-08-04T05:00:00.000Z, 2024-08-04T05:20:00.000Z)",
+                "raw[2024-08-04T05:20:00.000Z, 2024-08-04T05:20:30.000Z]"
+        ));
+    }
+
+    @Test
+    public void testNeverUsesRollupsCoarserThanRequested() {
+        assertEquals(plan("2024-08-01T10:30:00Z", "2024-08-03T00:00:00Z", Bucketing.Type.MINUTE), List.of(
+                "minute[2024-08-01T10:30:00.000Z, 2024-08-03T00:00:00.000Z)",
+                "raw[2024-08-03T00:00:00.000Z, 2024-08-03T00:00:00.000Z]"
+        ));
+    }
+
+    @Test
+    public void testNeverUsesRollupsFinerThanRequested() {
+        assertEquals(plan("2024-08-01T10:30:15Z", "2024-08-04T05:20:30Z", Bucketing.Type.HOUR, Bucketing.Type.DAY), List.of(
+                "raw[2024-08-01T10:30:15.000Z, 2024-08-01T11:00:00.000Z)",
+                "hour[2024-08-01T11:00:00.000Z, 2024-08-02T00:00:00.000Z)",
+                "day[2024-08-02T00:00:00.000Z, 2024-08-04T00:00:00.000Z)",
+                "hour[2024-08-04T00:00:00.000Z, 2024-08-04T05:00:00.000Z)",
+                "raw[2024-08-04T05:00:00.000Z, 2024-08-04T05:20:30.000Z]"
+        ));
+
+        assertEquals(plan("2024-08-01T10:30:15Z", "2024-08-04T05:20:30Z", Bucketing.Type.HOUR, Bucketing.Type.MINUTE), List.of(
+                "raw[2024-08-01T10:30:15.000Z, 2024-08-04T05:20:30.000Z]"
+        ));
+    }
+
+    @Test
+    public void testShortRangeIsRaw() {
+        assertEquals(plan("2024-08-01T10:30:15Z", "2024-08-01T10:30:45Z", Bucketing.Type.DAY), List.of(
+                "raw[2024-08-01T10:30:15.000Z, 2024-08-01T10:30:45.000Z]"
+        ));
+    }
+
+    @Test
+    public void testSegmentsAreContiguous() {
+        List<RollupPlan.Segment> segments = RollupPlan.plan(
+                t("2023-12-30T23:59:59.123Z"), t("2024-02-10T12:00:00.001Z"), Bucketing.Type.DAY);
+
+        assertEquals(segments.get(0).from(), t("2023-12-30T23:59:59.123Z"));
+        for (int i = 1; i < segments.size(); i++) {
+            assertEquals(segments.get(i).from(), segments.get(i - 1).to());
+            assertFalse(segments.get(i - 1).toInclusive());
+        }
+
+        RollupPlan.Segment last = segments.get(segments.size() - 1);
+        assertEquals(last.to(), t("2024-02-10T12:00:00.001Z"));
+        assertTrue(last.toInclusive());
+        assertTrue(last.isRaw());
+    }
+
+}
@@ -15,6 +15,7 @@ import TaskFailureConsequence from "./consequences/TaskFailureConsequence";
 import TaskStuckConsequence from "./consequences/TaskStuckConsequence";
 import MessageStuckConsequence from "./consequences/MessageStuckConsequence";
 import MessageFailureConsequence from "./consequences/MessageFailureConsequence";
+import TableIngestionQueueConsequence from "./consequences/TableIngestionQueueConsequence";
 
 function Consequences(props) {
 
@@ -65,6 +66,7 @@ function Consequences(props) {
         <TaskStuckConsequence show={consequences.includes("tasks_queue_task_stuck")} />
         <MessageFailureConsequence show={consequences.includes("message_bus_message_failure")} />
         <MessageStuckConsequence show={consequences.includes("message_bus_message_stuck")} />
+        <TableIngestionQueueConsequence show={consequences.includes("table_ingestion_queue")} />
       </div>
   )
 
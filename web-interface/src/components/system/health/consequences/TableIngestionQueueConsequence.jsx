@@ -0,0 +1,31 @@
+import React from "react";
+import Consequence from "../Consequence";
+import TableIngestionQueueProcedure from "./procedures/TableIngestionQueueProcedure";
+
+function TableIngestionQueueConsequence(props) {
+
+  if (!props.show) {
+    return null
+  }
+
+  return (
+      <Consequence
+          indicator="Table Ingestion Queue"
+          color="red"
+          problem="The queues holding tap reports until they are written to the database are filling up or full. Taps
+          are asked to retry full reports later and will drop data if they cannot deliver it."
+          acceptableRange={[
+            "0-75% queue usage per table",
+            "No rejected tap reports"
+          ]}
+          consequences={[
+            "Delayed or missing data from taps",
+            "Potentially reduced alerting and visibility abilities"
+          ]}
+          procedure={<TableIngestionQueueProcedure />}
+      />
+  )
+
+}
+
+export default TableIngestionQueueConsequence;
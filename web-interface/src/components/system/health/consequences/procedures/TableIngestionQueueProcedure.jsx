@@ -0,0 +1,26 @@
+import React from "react";
+import SolutionCounter from "./layout/SolutionCounter";
+
+function TableIngestionQueueProcedure(props) {
+  return (
+      <ol className="consequence-solution-procedure">
+        <li>
+          <SolutionCounter counter="1" /> Check the database health and the report processing timers of all nzyme nodes.
+          Full ingestion queues usually mean that the database cannot keep up with the amount of incoming tap data.
+        </li>
+        <li>
+          <SolutionCounter counter="2" /> Increase <code>performance.report_ingestion_workers</code> in the nzyme
+          configuration file if the database has spare capacity, or add database resources if it does not.
+        </li>
+        <li>
+          <SolutionCounter counter="3" /> Increase <code>performance.report_ingestion_queue_size</code> in the nzyme
+          configuration file to absorb short bursts of tap data.
+        </li>
+        <li>
+          <SolutionCounter counter={"4"} /> Indicator will extinguish within a few minutes after problem resolution
+        </li>
+      </ol>
+  )
+}
+
+export default TableIngestionQueueProcedure;
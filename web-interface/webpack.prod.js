@@ -2,6 +2,31 @@ const { merge } = require('webpack-merge');
 const common = require('./webpack.config.js');
 const CopyWebpackPlugin = require('copy-webpack-plugin');
 const { WebpackManifestPlugin } = require('webpack-manifest-plugin');
+const { Compilation, sources } = require('webpack');
+const zlib = require('zlib');
+
+// Emits a brotli compressed .br copy of every text asset. Served by nzyme to browsers that accept brotli.
+class BrotliAssetsPlugin {
+    apply(compiler) {
+        compiler.hooks.thisCompilation.tap('BrotliAssetsPlugin', (compilation) => {
+            compilation.hooks.processAssets.tap({
+                name: 'BrotliAssetsPlugin',
+                stage: Compilation.PROCESS_ASSETS_STAGE_OPTIMIZE_TRANSFER
+            }, (assets) => {
+                for (const name of Object.keys(assets)) {
+                    if (!/\.(js|css|html|svg|json)$/.test(name)) {
+                        continue;
+                    }
+
+                    const compressed = zlib.brotliCompressSync(assets[name].buffer(), {
+                        params: {[zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY}
+                    });
+                    compilation.emitAsset(name + '.br', new sources.RawSource(compressed));
+                }
+            });
+        });
+    }
+}
 
 module.exports = merge(common, {
     bail: true,
@@ -14,6 +39,7 @@ module.exports = merge(common, {
             patterns: [
                 {from: "public/static", to: "static"}
             ]
-        })
+        }),
+        new BrotliAssetsPlugin()
     ]
 });
\ No newline at end of file